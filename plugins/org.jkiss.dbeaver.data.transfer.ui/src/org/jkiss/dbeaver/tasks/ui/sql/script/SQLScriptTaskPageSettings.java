@@ -70,6 +70,7 @@ class SQLScriptTaskPageSettings extends ActiveWizardPage<SQLScriptTaskConfigurat
     private Button ignoreErrorsCheck;
     private Button dumpQueryCheck;
     private Button autoCommitCheck;
+    private Spinner parallelConnectionsSpinner;
     private TableViewer scriptsViewer;
     private TableViewer dataSourceViewer;
 
@@ -334,6 +335,14 @@ class SQLScriptTaskPageSettings extends ActiveWizardPage<SQLScriptTaskConfigurat
             ignoreErrorsCheck = UIUtils.createCheckbox(settingsGroup, DTMessages.sql_script_task_page_settings_option_ignore_errors, "", dtSettings.isIgnoreErrors(), 1);
             dumpQueryCheck = UIUtils.createCheckbox(settingsGroup, DTMessages.sql_script_task_page_settings_option_dump_results, "", dtSettings.isDumpQueryResultsToLog(), 1);
             autoCommitCheck = UIUtils.createCheckbox(settingsGroup, DTMessages.sql_script_task_page_settings_option_auto_commit, "", dtSettings.isAutoCommit(), 1);
+            parallelConnectionsSpinner = UIUtils.createLabelSpinner(
+                settingsGroup,
+                DTMessages.sql_script_task_page_settings_option_parallel_connections,
+                DTMessages.sql_script_task_page_settings_option_parallel_connections_tip,
+                dtSettings.getParallelConnections(),
+                1,
+                32
+            );
         }
 
         getWizard().createVariablesEditButton(composite);
@@ -501,6 +510,9 @@ class SQLScriptTaskPageSettings extends ActiveWizardPage<SQLScriptTaskConfigurat
         if (autoCommitCheck != null) {
             settings.setAutoCommit(autoCommitCheck.getSelection());
         }
+        if (parallelConnectionsSpinner != null) {
+            settings.setParallelConnections(parallelConnectionsSpinner.getSelection());
+        }
     }
 
 }
\ No newline at end of file
@@ -47,6 +47,10 @@ public class DTUIMessages extends NLS {
     public static String database_consumer_wizard_performance_group_label;
     public static String database_consumer_wizard_transactions_checkbox_label;
     public static String database_consumer_wizard_commit_spinner_label;
+    public static String database_consumer_wizard_pipeline_buffer_label;
+    public static String database_consumer_wizard_pipeline_buffer_tip;
+    public static String database_consumer_wizard_adaptive_batch_size_label;
+    public static String database_consumer_wizard_adaptive_batch_size_description;
     public static String database_consumer_wizard_general_group_label;
     public static String database_consumer_wizard_table_checkbox_label;
     public static String database_consumer_wizard_final_message_checkbox_label;
@@ -101,6 +105,14 @@ public class DTUIMessages extends NLS {
     public static String database_producer_page_extract_settings_name_and_title;
     public static String database_producer_page_extract_settings_description;
     public static String database_producer_page_extract_settings_threads_num_text_tooltip;
+    public static String database_producer_page_extract_settings_threads_per_connection_label;
+    public static String database_producer_page_extract_settings_threads_per_connection_tooltip;
+    public static String database_producer_page_extract_settings_partitions_tooltip;
+    public static String database_producer_page_extract_settings_partition_column_tooltip;
+    public static String database_producer_page_extract_settings_partition_quantiles_label;
+    public static String database_producer_page_extract_settings_partition_quantiles_tooltip;
+    public static String database_producer_page_extract_settings_resume_transfer_label;
+    public static String database_producer_page_extract_settings_resume_transfer_tooltip;
     public static String database_producer_page_extract_settings_new_connection_checkbox_tooltip;
     public static String database_producer_page_extract_settings_row_count_checkbox_tooltip;
     public static String database_producer_page_extract_settings_text_fetch_size_label;
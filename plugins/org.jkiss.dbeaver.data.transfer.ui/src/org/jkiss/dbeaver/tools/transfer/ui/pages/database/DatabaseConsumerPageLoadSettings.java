@@ -223,6 +223,14 @@ public class DatabaseConsumerPageLoadSettings extends DataTransferPageNodeSettin
             gd.widthHint = UIUtils.getFontHeight(commitAfterEdit) * 6;
             commitAfterEdit.setLayoutData(gd);
 
+            final Text pipelineBufferEdit = UIUtils.createLabelText(performanceSettings, DTUIMessages.database_consumer_wizard_pipeline_buffer_label, String.valueOf(settings.getPipelineBufferSize()), SWT.BORDER);
+            pipelineBufferEdit.setToolTipText(DTUIMessages.database_consumer_wizard_pipeline_buffer_tip);
+            pipelineBufferEdit.addVerifyListener(UIUtils.getIntegerVerifyListener(Locale.ENGLISH));
+            pipelineBufferEdit.addModifyListener(e -> settings.setPipelineBufferSize(CommonUtils.toInt(pipelineBufferEdit.getText())));
+            gd = new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 3, 1);
+            gd.widthHint = UIUtils.getFontHeight(pipelineBufferEdit) * 6;
+            pipelineBufferEdit.setLayoutData(gd);
+
             final Button useMultiRowInsert = UIUtils.createCheckbox(performanceSettings, DTUIMessages.database_consumer_wizard_checkbox_multi_insert_label, DTUIMessages.database_consumer_wizard_checkbox_multi_insert_description, settings.isUseMultiRowInsert(), 1);
             if (useBatchCheck != null && (
                 (!useBatchCheck.isDisposed() && useBatchCheck.getSelection()) ||
@@ -254,6 +262,19 @@ public class DatabaseConsumerPageLoadSettings extends DataTransferPageNodeSettin
                 multiRowInsertBatch.setEnabled(false);
             }
             multiRowInsertBatch.addModifyListener(e -> settings.setMultiRowInsertBatch(CommonUtils.toInt(multiRowInsertBatch.getText())));
+
+            final Button adaptiveBatchSizeCheck = UIUtils.createCheckbox(
+                performanceSettings,
+                DTUIMessages.database_consumer_wizard_adaptive_batch_size_label,
+                DTUIMessages.database_consumer_wizard_adaptive_batch_size_description,
+                settings.isAdaptiveBatchSize(),
+                4);
+            adaptiveBatchSizeCheck.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setAdaptiveBatchSize(adaptiveBatchSizeCheck.getSelection());
+                }
+            });
             //This settings may break import for drivers that does not support this feature, so it is disabled for non-JDBC drivers
             if (settings.getContainer() != null && settings.getContainer().getDataSource().getInfo().supportsStatementBinding()) {
                 skipBindValues = UIUtils.createCheckbox(performanceSettings, DTUIMessages.database_consumer_wizard_checkbox_multi_insert_skip_bind_values_label, DTUIMessages.database_consumer_wizard_checkbox_multi_insert_skip_bind_values_description, settings.isSkipBindValues(), 4);
@@ -45,14 +45,19 @@ public class DatabaseProducerPageExtractSettings extends DataTransferPageNodeSet
     private static final int EXTRACT_TYPE_SEGMENTS = 1;
 
     private Text threadsNumText;
+    private Text threadsPerConnectionText;
     private Combo rowsExtractType;
     private Label segmentSizeLabel;
     private Text segmentSizeText;
     private Button newConnectionCheckbox;
     private Button rowCountCheckbox;
+    private Button resumeTransferCheckbox;
     private Button selectedColumnsOnlyCheckbox;
     private Button selectedRowsOnlyCheckbox;
     private Text fetchSizeText;
+    private Text partitionCountText;
+    private Text partitionColumnText;
+    private Button partitionQuantilesCheckbox;
 
     public DatabaseProducerPageExtractSettings() {
         super(DTUIMessages.database_producer_page_extract_settings_name_and_title);
@@ -83,11 +88,27 @@ public class DatabaseProducerPageExtractSettings extends DataTransferPageNodeSet
                     // do nothing
                 }
             });
+            threadsNumText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 1, 1));
+
+            Label threadsPerConnectionLabel = UIUtils.createControlLabel(generalSettings, DTUIMessages.database_producer_page_extract_settings_threads_per_connection_label);
+            threadsPerConnectionText = new Text(generalSettings, SWT.BORDER);
+            threadsPerConnectionText.setToolTipText(DTUIMessages.database_producer_page_extract_settings_threads_per_connection_tooltip);
+            threadsPerConnectionText.addVerifyListener(UIUtils.getIntegerVerifyListener(Locale.ENGLISH));
+            threadsPerConnectionText.addModifyListener(e -> {
+                try {
+                    getWizard().getSettings().setMaxJobsPerDataSource(Integer.parseInt(threadsPerConnectionText.getText()));
+                } catch (NumberFormatException e1) {
+                    // do nothing
+                }
+            });
+            threadsPerConnectionText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 1, 1));
+
             if (getWizard().getSettings().getDataPipes().size() < 2) {
                 threadsNumLabel.setEnabled(false);
                 threadsNumText.setEnabled(false);
+                threadsPerConnectionLabel.setEnabled(false);
+                threadsPerConnectionText.setEnabled(false);
             }
-            threadsNumText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 3, 1));
 
             {
 
@@ -138,6 +159,19 @@ public class DatabaseProducerPageExtractSettings extends DataTransferPageNodeSet
                 }
             });
 
+            resumeTransferCheckbox = UIUtils.createCheckbox(
+                generalSettings,
+                DTUIMessages.database_producer_page_extract_settings_resume_transfer_label,
+                DTUIMessages.database_producer_page_extract_settings_resume_transfer_tooltip,
+                false,
+                4);
+            resumeTransferCheckbox.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    getWizard().getSettings().setResumeTransfer(resumeTransferCheckbox.getSelection());
+                }
+            });
+
             fetchSizeText = UIUtils.createLabelText(generalSettings, DTUIMessages.database_producer_page_extract_settings_text_fetch_size_label, "", SWT.BORDER);
             fetchSizeText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
             ((GridData)fetchSizeText.getLayoutData()).widthHint = UIUtils.getFontHeight(fetchSizeText) * 10;
@@ -147,6 +181,35 @@ public class DatabaseProducerPageExtractSettings extends DataTransferPageNodeSet
                 settings.setFetchSize(Integer.parseInt(fetchSizeText.getText()));
             });
 
+            partitionCountText = UIUtils.createLabelText(generalSettings, DTMessages.data_transfer_wizard_output_label_partitions, "", SWT.BORDER);
+            partitionCountText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
+            ((GridData)partitionCountText.getLayoutData()).widthHint = UIUtils.getFontHeight(partitionCountText) * 10;
+            partitionCountText.setToolTipText(DTUIMessages.database_producer_page_extract_settings_partitions_tooltip);
+            partitionCountText.addVerifyListener(UIUtils.getIntegerVerifyListener(Locale.ENGLISH));
+            partitionCountText.addModifyListener(e -> {
+                settings.setPartitionCount(CommonUtils.toInt(partitionCountText.getText()));
+                updatePageCompletion();
+            });
+
+            partitionColumnText = UIUtils.createLabelText(generalSettings, DTMessages.data_transfer_wizard_output_label_partition_column, "", SWT.BORDER);
+            partitionColumnText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
+            ((GridData)partitionColumnText.getLayoutData()).widthHint = UIUtils.getFontHeight(partitionColumnText) * 15;
+            partitionColumnText.setToolTipText(DTUIMessages.database_producer_page_extract_settings_partition_column_tooltip);
+            partitionColumnText.addModifyListener(e -> settings.setPartitionColumn(partitionColumnText.getText().trim()));
+
+            partitionQuantilesCheckbox = UIUtils.createCheckbox(
+                generalSettings,
+                DTUIMessages.database_producer_page_extract_settings_partition_quantiles_label,
+                DTUIMessages.database_producer_page_extract_settings_partition_quantiles_tooltip,
+                false,
+                4);
+            partitionQuantilesCheckbox.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setPartitionByQuantiles(partitionQuantilesCheckbox.getSelection());
+                }
+            });
+
             IStructuredSelection curSelection = getWizard().getCurrentSelection();
             boolean hasSelection = curSelection != null && !curSelection.isEmpty() && curSelection.getFirstElement() instanceof DBDCellValue;
 
@@ -227,8 +290,10 @@ public class DatabaseProducerPageExtractSettings extends DataTransferPageNodeSet
         final DatabaseProducerSettings settings = getWizard().getPageSettings(this, DatabaseProducerSettings.class);
 
         threadsNumText.setText(String.valueOf(getWizard().getSettings().getMaxJobCount()));
+        threadsPerConnectionText.setText(String.valueOf(getWizard().getSettings().getMaxJobsPerDataSource()));
         newConnectionCheckbox.setSelection(settings.isOpenNewConnections());
         rowCountCheckbox.setSelection(settings.isQueryRowCount());
+        resumeTransferCheckbox.setSelection(getWizard().getSettings().isResumeTransfer());
 
         if (segmentSizeText != null) {
             segmentSizeText.setText(String.valueOf(settings.getSegmentSize()));
@@ -238,6 +303,9 @@ public class DatabaseProducerPageExtractSettings extends DataTransferPageNodeSet
             }
         }
         fetchSizeText.setText(String.valueOf(settings.getFetchSize()));
+        partitionCountText.setText(String.valueOf(settings.getPartitionCount()));
+        partitionColumnText.setText(CommonUtils.notEmpty(settings.getPartitionColumn()));
+        partitionQuantilesCheckbox.setSelection(settings.isPartitionByQuantiles());
         if (selectedColumnsOnlyCheckbox != null) {
             selectedColumnsOnlyCheckbox.setSelection(settings.isSelectedColumnsOnly());
         }
@@ -262,6 +330,11 @@ public class DatabaseProducerPageExtractSettings extends DataTransferPageNodeSet
                 segmentSizeText.setEnabled(false);
             }
         }
+        if (partitionCountText != null) {
+            boolean partitioned = CommonUtils.toInt(partitionCountText.getText()) > 1;
+            partitionColumnText.setEnabled(partitioned);
+            partitionQuantilesCheckbox.setEnabled(partitioned);
+        }
         return true;
     }
 
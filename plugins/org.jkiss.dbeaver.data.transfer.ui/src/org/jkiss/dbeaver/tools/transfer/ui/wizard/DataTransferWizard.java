@@ -502,7 +502,9 @@ public class DataTransferWizard extends TaskConfigurationWizard<DataTransferSett
 
     private Map<String, Object> saveConfiguration(Map<String, Object> config) {
         config.put("maxJobCount", settings.getMaxJobCount());
+        config.put("maxJobsPerDataSource", settings.getMaxJobsPerDataSource());
         config.put("showFinalMessage", settings.isShowFinalMessage());
+        config.put("resumeTransfer", settings.isResumeTransfer());
 
         // Save nodes' settings
         boolean isTask = getCurrentTask() != null;
@@ -48,6 +48,7 @@ public class SQLScriptExecuteSettings implements DBTTaskSettings<IResource> {
 
     private boolean ignoreErrors;
     private boolean dumpQueryResultsToLog;
+    private int parallelConnections = 1;
 
     public List<String> getScriptFiles() {
         return scriptFiles;
@@ -81,6 +82,17 @@ public class SQLScriptExecuteSettings implements DBTTaskSettings<IResource> {
         this.dumpQueryResultsToLog = dumpQueryResultsToLog;
     }
 
+    /**
+     * Number of connections used to execute independent queries in parallel. 1 means sequential execution.
+     */
+    public int getParallelConnections() {
+        return parallelConnections;
+    }
+
+    public void setParallelConnections(int parallelConnections) {
+        this.parallelConnections = parallelConnections;
+    }
+
     public boolean isAutoCommit() {
         return autoCommit;
     }
@@ -136,6 +148,7 @@ public class SQLScriptExecuteSettings implements DBTTaskSettings<IResource> {
         dumpQueryResultsToLog = JSONUtils.getBoolean(config, "dumpQueryResultsToLog");
 
         autoCommit = JSONUtils.getBoolean(config, "autoCommit");
+        parallelConnections = JSONUtils.getInteger(config, "parallelConnections", 1);
     }
 
     public void saveConfiguration(Map<String, Object> config) {
@@ -153,5 +166,6 @@ public class SQLScriptExecuteSettings implements DBTTaskSettings<IResource> {
         config.put("dumpQueryResultsToLog", dumpQueryResultsToLog);
 
         config.put("autoCommit", autoCommit);
+        config.put("parallelConnections", parallelConnections);
     }
 }
@@ -23,6 +23,7 @@ import org.jkiss.dbeaver.model.data.DBDValueHandler;
 import org.jkiss.dbeaver.model.exec.*;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.util.List;
 
@@ -33,6 +34,7 @@ public class SQLScriptDataReceiver implements DBDDataReceiver {
 
     private Integer rowSize;
     private Writer dumpWriter;
+    private Writer bufferedDumpTarget;
     private List<? extends DBCAttributeMetaData> attributes;
 
     @Override
@@ -85,7 +87,16 @@ public class SQLScriptDataReceiver implements DBDDataReceiver {
     public void fetchEnd(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
         if (dumpWriter != null) {
             try {
-                dumpWriter.flush();
+                if (bufferedDumpTarget != null) {
+                    StringBuffer buffer = ((StringWriter) dumpWriter).getBuffer();
+                    synchronized (bufferedDumpTarget) {
+                        bufferedDumpTarget.append(buffer);
+                        bufferedDumpTarget.flush();
+                    }
+                    buffer.setLength(0);
+                } else {
+                    dumpWriter.flush();
+                }
             } catch (IOException e) {
                 throw new DBCException("IOException writing to dumpWriter", e);
             }
@@ -101,6 +112,15 @@ public class SQLScriptDataReceiver implements DBDDataReceiver {
         this.dumpWriter = writer;
     }
 
+    /**
+     * Dumps results of each query into a buffer which is written at the end of fetch.
+     * Used by parallel queries, so their results are not mixed.
+     */
+    public void setBufferedDumpWriter(Writer writer) {
+        this.dumpWriter = new StringWriter();
+        this.bufferedDumpTarget = writer;
+    }
+
     public Writer getDumpWriter() {
         return dumpWriter;
     }
@@ -29,10 +29,9 @@ import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DBRRunnableContext;
 import org.jkiss.dbeaver.model.sql.SQLScriptCommitType;
 import org.jkiss.dbeaver.model.sql.SQLScriptContext;
-import org.jkiss.dbeaver.model.sql.SQLScriptElement;
 import org.jkiss.dbeaver.model.sql.SQLScriptErrorHandling;
 import org.jkiss.dbeaver.model.sql.exec.SQLScriptProcessor;
-import org.jkiss.dbeaver.model.sql.parser.SQLScriptParser;
+import org.jkiss.dbeaver.model.sql.parser.SQLScriptStreamParser;
 import org.jkiss.dbeaver.model.struct.rdb.DBSCatalog;
 import org.jkiss.dbeaver.model.struct.rdb.DBSSchema;
 import org.jkiss.dbeaver.model.task.*;
@@ -40,6 +39,7 @@ import org.jkiss.dbeaver.tools.sql.SQLScriptExecuteSettings;
 
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.io.Reader;
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.Locale;
@@ -108,7 +108,6 @@ public class SQLScriptExecuteHandler implements DBTTaskHandler {
         for (String filePath : settings.getScriptFiles()) {
             try {
                 for (DBPDataSourceContainer dataSourceContainer : dataSources) {
-                    var sqlScriptContent = RMUtils.readScriptContents(monitor, task.getProject(), filePath);
                     if (!dataSourceContainer.isConnected()) {
                         dataSourceContainer.connect(monitor, true, true);
                     }
@@ -131,7 +130,10 @@ public class SQLScriptExecuteHandler implements DBTTaskHandler {
                         }
                     }
 
-                    processScript(monitor, task, settings, executionContext, filePath, sqlScriptContent, log, logStream);
+                    // Script is parsed and executed incrementally, so huge scripts (e.g. dumps) are never loaded into memory
+                    try (Reader scriptReader = RMUtils.openScriptReader(monitor, task.getProject(), filePath)) {
+                        processScript(monitor, task, settings, executionContext, scriptReader, log, logStream);
+                    }
                 }
             } catch (Throwable e) {
                 Throwable error = e instanceof InvocationTargetException ? ((InvocationTargetException) e).getTargetException() : e;
@@ -140,19 +142,27 @@ public class SQLScriptExecuteHandler implements DBTTaskHandler {
         }
     }
 
-    private void processScript(DBRProgressMonitor monitor, DBTTask task, SQLScriptExecuteSettings settings, DBCExecutionContext executionContext, String filePath, String sqlScriptContent, Log log, PrintStream logStream) throws DBException {
+    private void processScript(DBRProgressMonitor monitor, DBTTask task, SQLScriptExecuteSettings settings, DBCExecutionContext executionContext, Reader scriptReader, Log log, PrintStream logStream) throws DBException {
         PrintWriter logWriter = new PrintWriter(logStream, true);
-        List<SQLScriptElement> scriptElements = SQLScriptParser.parseScript(executionContext.getDataSource(), sqlScriptContent);
+        SQLScriptStreamParser scriptParser = new SQLScriptStreamParser(executionContext.getDataSource(), scriptReader);
         SQLScriptContext scriptContext = new SQLScriptContext(null, () -> executionContext, null, logWriter, null);
         scriptContext.setVariables(DBTaskUtils.getVariables(task));
         SQLScriptDataReceiver dataReceiver = new SQLScriptDataReceiver();
-        SQLScriptProcessor scriptProcessor = new SQLScriptProcessor(executionContext, scriptElements, scriptContext, dataReceiver, log);
+        SQLScriptProcessor scriptProcessor = new SQLScriptProcessor(executionContext, scriptParser, -1, scriptContext, dataReceiver, log);
 
         scriptProcessor.setCommitType(settings.isAutoCommit() ? SQLScriptCommitType.AUTOCOMMIT : SQLScriptCommitType.AT_END);
         scriptProcessor.setErrorHandling(settings.isIgnoreErrors() ? SQLScriptErrorHandling.IGNORE : SQLScriptErrorHandling.STOP_ROLLBACK);
+        scriptProcessor.setParallelism(settings.getParallelConnections());
         if (settings.isDumpQueryResultsToLog()) {
             dataReceiver.setDumpWriter(logWriter);
         }
+        scriptProcessor.setParallelReceiverFactory(() -> {
+            SQLScriptDataReceiver queryReceiver = new SQLScriptDataReceiver();
+            if (settings.isDumpQueryResultsToLog()) {
+                queryReceiver.setBufferedDumpWriter(logWriter);
+            }
+            return queryReceiver;
+        });
 
         scriptProcessor.runScript(monitor);
 
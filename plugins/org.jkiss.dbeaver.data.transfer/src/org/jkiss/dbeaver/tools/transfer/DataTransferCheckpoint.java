@@ -0,0 +1,191 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.data.json.JSONUtils;
+import org.jkiss.dbeaver.model.task.DBTTask;
+import org.jkiss.utils.CommonUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data transfer checkpoints.
+ *
+ * Keeps completed pipes and the number of rows committed by each unfinished pipe.
+ * Checkpoints are saved in the task run state after each change, so the next run of a failed
+ * or canceled task may skip completed pipes and continue ordered reads from the last commit.
+ * <p>
+ * A pipe may be continued only if its rows were committed in a stable order, i.e. the source was read
+ * sequentially with an explicit ordering and inserted without bulk load. Otherwise committed rows can't be matched to source rows
+ * and the next run refuses to continue the pipe unless the target is cleared before load.
+ */
+public class DataTransferCheckpoint {
+
+    private static final String ATTR_CHECKPOINTS = "transferCheckpoints";
+    private static final String ATTR_COMPLETED = "completed";
+    private static final String ATTR_COMMITTED_ROWS = "committedRows";
+    private static final String ATTR_RESUMABLE = "resumable";
+
+    @Nullable
+    private final DBTTask task;
+    private final Map<String, PipeState> pipes = new LinkedHashMap<>();
+
+    private static class PipeState {
+        boolean completed;
+        boolean resumable;
+        long committedRows;
+    }
+
+    public DataTransferCheckpoint(@Nullable DBTTask task) {
+        this.task = task;
+    }
+
+    /**
+     * Loads checkpoints saved by the previous run of the task
+     */
+    @NotNull
+    public static DataTransferCheckpoint load(@NotNull DBTTask task) {
+        DataTransferCheckpoint checkpoint = new DataTransferCheckpoint(task);
+        Map<String, Object> runState = task.loadRunState();
+        if (runState != null) {
+            Map<String, Object> savedPipes = JSONUtils.getObject(runState, ATTR_CHECKPOINTS);
+            for (Map.Entry<String, Object> entry : savedPipes.entrySet()) {
+                if (entry.getValue() instanceof Map<?, ?> pipeMap) {
+                    PipeState state = new PipeState();
+                    state.completed = CommonUtils.toBoolean(pipeMap.get(ATTR_COMPLETED));
+                    state.resumable = CommonUtils.toBoolean(pipeMap.get(ATTR_RESUMABLE));
+                    state.committedRows = CommonUtils.toLong(pipeMap.get(ATTR_COMMITTED_ROWS));
+                    checkpoint.pipes.put(entry.getKey(), state);
+                }
+            }
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Pipe key must be the same in all runs of the same task
+     */
+    @NotNull
+    public static String getPipeKey(@NotNull List<DataTransferPipe> pipes, @NotNull DataTransferPipe pipe) {
+        IDataTransferProducer<?> producer = pipe.getProducer();
+        return pipes.indexOf(pipe) + ":" + (producer == null ? "" : producer.getObjectName());
+    }
+
+    public synchronized boolean isEmpty() {
+        return pipes.isEmpty();
+    }
+
+    public synchronized boolean isPipeCompleted(@NotNull String pipeKey) {
+        PipeState state = pipes.get(pipeKey);
+        return state != null && state.completed;
+    }
+
+    public synchronized boolean isAllPipesCompleted(@NotNull List<DataTransferPipe> dataPipes) {
+        for (DataTransferPipe pipe : dataPipes) {
+            if (!isPipeCompleted(getPipeKey(dataPipes, pipe))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of rows committed by the previous run of the unfinished pipe
+     */
+    public synchronized long getCommittedRows(@NotNull String pipeKey) {
+        PipeState state = pipes.get(pipeKey);
+        return state == null || state.completed ? 0 : state.committedRows;
+    }
+
+    /**
+     * Returns the source row the pipe continues from.
+     *
+     * @param resumableRead   source is read sequentially in a stable order by this run
+     * @param targetCleared   target is recreated or truncated before load, so the pipe may start over
+     * @throws DBException if the previous run committed rows which can't be skipped by offset
+     */
+    public synchronized long getResumeOffset(@NotNull String pipeKey, boolean resumableRead, boolean targetCleared) throws DBException {
+        long committedRows = getCommittedRows(pipeKey);
+        if (committedRows <= 0 || targetCleared) {
+            return 0;
+        }
+        if (!pipes.get(pipeKey).resumable || !resumableRead) {
+            throw new DBException("Can't resume transfer of " + pipeKey.substring(pipeKey.indexOf(':') + 1) + ": " +
+                committedRows + " row(s) committed by the previous run weren't read in a stable order or were bulk loaded. " +
+                "Use explicit ordering without partitioned read and bulk load, or clear the target table.");
+        }
+        return committedRows;
+    }
+
+    /**
+     * Marks the pipe as started by this run.
+     *
+     * @param resumable     rows are committed in a stable order, so the next run may continue from the last commit
+     * @param committedRows rows committed before this run
+     */
+    public synchronized void startPipe(@NotNull String pipeKey, boolean resumable, long committedRows) {
+        PipeState state = pipes.computeIfAbsent(pipeKey, k -> new PipeState());
+        state.completed = false;
+        state.resumable = resumable;
+        state.committedRows = committedRows;
+        save();
+    }
+
+    public synchronized void setCommittedRows(@NotNull String pipeKey, long committedRows) {
+        pipes.computeIfAbsent(pipeKey, k -> new PipeState()).committedRows = committedRows;
+        save();
+    }
+
+    public synchronized void setPipeCompleted(@NotNull String pipeKey) {
+        PipeState state = pipes.computeIfAbsent(pipeKey, k -> new PipeState());
+        state.completed = true;
+        state.committedRows = 0;
+        save();
+    }
+
+    /**
+     * Removes all checkpoints. Called when all pipes are completed.
+     */
+    public synchronized void clear() {
+        pipes.clear();
+        if (task != null) {
+            task.saveRunState(null);
+        }
+    }
+
+    private void save() {
+        if (task == null) {
+            return;
+        }
+        Map<String, Object> savedPipes = new LinkedHashMap<>();
+        for (Map.Entry<String, PipeState> entry : pipes.entrySet()) {
+            Map<String, Object> pipeMap = new LinkedHashMap<>();
+            pipeMap.put(ATTR_COMPLETED, entry.getValue().completed);
+            pipeMap.put(ATTR_RESUMABLE, entry.getValue().resumable);
+            pipeMap.put(ATTR_COMMITTED_ROWS, entry.getValue().committedRows);
+            savedPipes.put(entry.getKey(), pipeMap);
+        }
+        Map<String, Object> runState = new LinkedHashMap<>();
+        runState.put(ATTR_CHECKPOINTS, savedPipes);
+        task.saveRunState(runState);
+    }
+}
@@ -21,11 +21,15 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.osgi.util.NLS;
 import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.exec.DBCStatistics;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.task.DBTTask;
+import org.jkiss.dbeaver.tools.transfer.database.DatabaseConsumerSettings;
+import org.jkiss.dbeaver.tools.transfer.database.DatabaseTransferConsumer;
+import org.jkiss.dbeaver.tools.transfer.database.DatabaseTransferProducer;
 import org.jkiss.dbeaver.tools.transfer.internal.DTMessages;
 import org.jkiss.utils.CommonUtils;
 
@@ -106,8 +110,12 @@ public class DataTransferJob extends AbstractJob {
                 }
                 jobMonitor.worked(1);
             } catch (Exception e) {
+                hasErrors = true;
                 // Report as an OK status to avoid showing the error in the UI (it's handled by the caller)
                 return new Status(IStatus.OK, getClass(), "Data transfer failed", e);
+            } finally {
+                // Let other jobs take pipes from the same data source
+                settings.releaseDataPipe(transferPipe);
             }
         }
         monitor.done();
@@ -119,13 +127,24 @@ public class DataTransferJob extends AbstractJob {
     {
         IDataTransferProducer producer = transferPipe.getProducer();
         IDataTransferConsumer consumer = transferPipe.getConsumer();
+        IDataTransferSettings nodeSettings = settings.getNodeSettings(settings.getProducer());
+
+        DataTransferCheckpoint checkpoint = settings.getCheckpoint();
+        String pipeKey = null;
+        if (checkpoint != null) {
+            pipeKey = DataTransferCheckpoint.getPipeKey(settings.getDataPipes(), transferPipe);
+            if (checkpoint.isPipeCompleted(pipeKey)) {
+                log.info("Skip " + producer.getObjectName() + " - transferred by the previous run");
+                return true;
+            }
+            initCheckpoint(checkpoint, pipeKey, producer, consumer);
+        }
 
         monitor.beginTask(
             NLS.bind(DTMessages.data_transfer_wizard_job_container_name,
                 CommonUtils.truncateString(producer.getObjectName(), 200),
                 CommonUtils.truncateString(consumer.getObjectName(), 200)), 1);
 
-        IDataTransferSettings nodeSettings = settings.getNodeSettings(settings.getProducer());
         try {
             //consumer.initTransfer(producer.getDatabaseObject(), consumerSettings, );
 
@@ -136,6 +155,9 @@ public class DataTransferJob extends AbstractJob {
             totalStatistics.accumulate(consumer.getStatistics());
 
             consumer.finishTransfer(monitor, false);
+            if (checkpoint != null) {
+                checkpoint.setPipeCompleted(pipeKey);
+            }
             return true;
         } catch (Exception e) {
             consumer.finishTransfer(monitor, e, task, false);
@@ -147,4 +169,38 @@ public class DataTransferJob extends AbstractJob {
 
     }
 
+    /**
+     * Continues the pipe from the last commit of the previous run.
+     * It is possible only if the source is read sequentially in a stable order. Such pipes are never read
+     * by partitions, because partitions commit rows in arbitrary order.
+     * Bulk load commits rows in loader specific chunks, so bulk loaded pipes are never resumed either.
+     * If the previous run committed rows in undefined order then the pipe can be transferred again only
+     * into a cleared target, otherwise the run fails.
+     */
+    private void initCheckpoint(
+        @NotNull DataTransferCheckpoint checkpoint,
+        @NotNull String pipeKey,
+        @NotNull IDataTransferProducer<?> producer,
+        @NotNull IDataTransferConsumer<?, ?> consumer) throws DBException
+    {
+        if (!(consumer instanceof DatabaseTransferConsumer databaseConsumer)) {
+            return;
+        }
+        DatabaseTransferProducer databaseProducer = producer instanceof DatabaseTransferProducer dp ? dp : null;
+        DatabaseConsumerSettings consumerSettings = databaseConsumer.getSettings();
+        boolean resumable = databaseProducer != null && databaseProducer.isOrderedRead() &&
+            (consumerSettings == null || !consumerSettings.isUseBulkLoad());
+        long committedRows = checkpoint.getResumeOffset(pipeKey, resumable, databaseConsumer.isTargetCleared());
+        if (resumable) {
+            // Partitioned read commits rows in arbitrary order
+            databaseProducer.setSequentialRead(true);
+            if (committedRows > 0) {
+                log.info("Resume " + producer.getObjectName() + " from row " + committedRows);
+                databaseProducer.setStartOffset(committedRows);
+            }
+        }
+        checkpoint.startPipe(pipeKey, resumable, committedRows);
+        databaseConsumer.setCheckpoint(checkpoint, pipeKey, committedRows);
+    }
+
 }
@@ -0,0 +1,220 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded ring of rows passed from the fetching thread to the inserting thread.
+ * Slots are preallocated once, so the buffer itself doesn't allocate while rows are transferred.
+ * Also collects stall statistics for both sides, which shows which end of the pipe is the bottleneck.
+ */
+public class DataTransferRowBuffer {
+
+    private final Object[][] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private int head;
+    private int tail;
+    private int depth;
+    private boolean closed;
+    private boolean aborted;
+
+    private int maxDepth;
+    private long rowCount;
+    private long producerStallNanos;
+    private long consumerStallNanos;
+
+    public DataTransferRowBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Bad row buffer capacity: " + capacity);
+        }
+        this.ring = new Object[capacity][];
+    }
+
+    /**
+     * Adds a row to the buffer. Blocks while the buffer is full.
+     *
+     * @return false if the buffer was aborted by the consumer and row wasn't added
+     */
+    public boolean put(@NotNull Object[] row) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (depth == ring.length && !aborted) {
+                long waitStart = System.nanoTime();
+                while (depth == ring.length && !aborted) {
+                    notFull.await();
+                }
+                producerStallNanos += System.nanoTime() - waitStart;
+            }
+            if (aborted) {
+                return false;
+            }
+            if (closed) {
+                throw new IllegalStateException("Row buffer is closed");
+            }
+            ring[tail] = row;
+            tail = (tail + 1) % ring.length;
+            depth++;
+            rowCount++;
+            if (depth > maxDepth) {
+                maxDepth = depth;
+            }
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes next row from the buffer. Blocks while the buffer is empty.
+     *
+     * @return next row or null if buffer was closed and all rows were consumed (or buffer was aborted)
+     */
+    @Nullable
+    public Object[] take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (depth == 0 && !closed && !aborted) {
+                long waitStart = System.nanoTime();
+                while (depth == 0 && !closed && !aborted) {
+                    notEmpty.await();
+                }
+                consumerStallNanos += System.nanoTime() - waitStart;
+            }
+            if (aborted || depth == 0) {
+                return null;
+            }
+            Object[] row = ring[head];
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+            depth--;
+            notFull.signal();
+            return row;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Signals that there will be no more rows. Consumer will drain remaining rows.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Discards all buffered rows and releases both sides.
+     */
+    public void abort() {
+        lock.lock();
+        try {
+            aborted = true;
+            for (int i = 0; i < ring.length; i++) {
+                ring[i] = null;
+            }
+            depth = 0;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isAborted() {
+        lock.lock();
+        try {
+            return aborted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    public int getDepth() {
+        lock.lock();
+        try {
+            return depth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMaxDepth() {
+        lock.lock();
+        try {
+            return maxDepth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRowCount() {
+        lock.lock();
+        try {
+            return rowCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Total time (ms) producer waited for free space. Large value means that consumer is the bottleneck.
+     */
+    public long getProducerStallTime() {
+        lock.lock();
+        try {
+            return producerStallNanos / 1000000;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Total time (ms) consumer waited for new rows. Large value means that producer is the bottleneck.
+     */
+    public long getConsumerStallTime() {
+        lock.lock();
+        try {
+            return consumerStallNanos / 1000000;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "rows=" + getRowCount() + ", depth=" + getDepth() + "/" + getCapacity() + ", max depth=" + getMaxDepth() +
+            ", producer stall=" + getProducerStallTime() + "ms, consumer stall=" + getConsumerStallTime() + "ms";
+    }
+}
@@ -20,6 +20,7 @@ import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
 import org.jkiss.dbeaver.model.DBPObject;
 import org.jkiss.dbeaver.model.app.DBPProject;
 import org.jkiss.dbeaver.model.data.json.JSONUtils;
@@ -55,6 +56,10 @@ public class DataTransferSettings implements DBTTaskSettings<DBPObject> {
     private static final Log log = Log.getLog(DataTransferSettings.class);
 
     public static final int DEFAULT_THREADS_NUM = 1;
+    // Zero means no per-connection limit
+    public static final int DEFAULT_THREADS_PER_DATA_SOURCE = 0;
+
+    private static final long PIPE_ACQUIRE_WAIT_TIMEOUT = 200;
 
     private final DataTransferState state;
     @NotNull
@@ -78,12 +83,18 @@ public class DataTransferSettings implements DBTTaskSettings<DBPObject> {
     private boolean consumerOptional;
     private boolean producerOptional;
     private int maxJobCount = DEFAULT_THREADS_NUM;
+    private int maxJobsPerDataSource = DEFAULT_THREADS_PER_DATA_SOURCE;
 
     private transient boolean nodeSettingsLoaded = false;
 
     private transient int curPipeNum = 0;
+    private final transient Set<DataTransferPipe> acquiredPipes = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final transient Map<DBPDataSourceContainer, Integer> activeDataSourceJobs = new HashMap<>();
 
     private boolean showFinalMessage = true;
+    // Save checkpoints and resume interrupted transfer from them
+    private boolean resumeTransfer;
+    private transient DataTransferCheckpoint checkpoint;
     // Hacky flag. Says that pipe selection is frozen.
     // Makes sense for special case like multi-file import
     private boolean pipeChangeRestricted;
@@ -310,7 +321,9 @@ public class DataTransferSettings implements DBTTaskSettings<DBPObject> {
 
     public void loadSettings(Map<String, Object> config) {
         this.setMaxJobCount(CommonUtils.toInt(config.get("maxJobCount"), DataTransferSettings.DEFAULT_THREADS_NUM));
+        this.setMaxJobsPerDataSource(CommonUtils.toInt(config.get("maxJobsPerDataSource"), DataTransferSettings.DEFAULT_THREADS_PER_DATA_SOURCE));
         this.setShowFinalMessage(CommonUtils.getBoolean(config.get("showFinalMessage"), this.isShowFinalMessage()));
+        this.setResumeTransfer(CommonUtils.getBoolean(config.get("resumeTransfer"), this.isResumeTransfer()));
 
         DataTransferNodeDescriptor savedConsumer = null, savedProducer = null, processorNode = null;
         {
@@ -589,15 +602,59 @@ public class DataTransferSettings implements DBTTaskSettings<DBPObject> {
         CommonUtils.shiftRight(dataPipes, pipe);
     }
 
+    /**
+     * Acquires next pipe for processing. Pipes are taken in their original order, except ones
+     * which read from a data source which already has {@link #getMaxJobsPerDataSource()} active pipes.
+     * If all remaining pipes are blocked by this limit then waits until some other job releases its pipe.
+     * Each acquired pipe must be released with {@link #releaseDataPipe(DataTransferPipe)}.
+     */
+    @Nullable
     public synchronized DataTransferPipe acquireDataPipe(@NotNull DBRProgressMonitor monitor, @Nullable DBTTask task) {
-        if (curPipeNum >= dataPipes.size()) {
-            return null;
+        while (!monitor.isCanceled()) {
+            while (curPipeNum < dataPipes.size() && acquiredPipes.contains(dataPipes.get(curPipeNum))) {
+                curPipeNum++;
+            }
+            if (curPipeNum >= dataPipes.size()) {
+                return null;
+            }
+            for (int i = curPipeNum; i < dataPipes.size(); i++) {
+                DataTransferPipe pipe = dataPipes.get(i);
+                if (acquiredPipes.contains(pipe)) {
+                    continue;
+                }
+                DBPDataSourceContainer dataSource = getPipeDataSource(pipe);
+                if (dataSource != null && maxJobsPerDataSource > 0 &&
+                    activeDataSourceJobs.getOrDefault(dataSource, 0) >= maxJobsPerDataSource) {
+                    continue;
+                }
+                acquiredPipes.add(pipe);
+                if (dataSource != null) {
+                    activeDataSourceJobs.merge(dataSource, 1, Integer::sum);
+                }
+                return pipe;
+            }
+            // All remaining pipes read from busy data sources
+            try {
+                wait(PIPE_ACQUIRE_WAIT_TIMEOUT);
+            } catch (InterruptedException e) {
+                return null;
+            }
         }
+        return null;
+    }
 
-        DataTransferPipe result = dataPipes.get(curPipeNum);
+    public synchronized void releaseDataPipe(@NotNull DataTransferPipe pipe) {
+        DBPDataSourceContainer dataSource = getPipeDataSource(pipe);
+        if (dataSource != null) {
+            activeDataSourceJobs.computeIfPresent(dataSource, (ds, count) -> count > 1 ? count - 1 : null);
+        }
+        notifyAll();
+    }
 
-        curPipeNum++;
-        return result;
+    @Nullable
+    private static DBPDataSourceContainer getPipeDataSource(@NotNull DataTransferPipe pipe) {
+        IDataTransferProducer<?> producer = pipe.getProducer();
+        return producer == null ? null : producer.getDataSourceContainer();
     }
 
     public DataTransferNodeDescriptor getProducer() {
@@ -691,6 +748,16 @@ public class DataTransferSettings implements DBTTaskSettings<DBPObject> {
         }
     }
 
+    public int getMaxJobsPerDataSource() {
+        return maxJobsPerDataSource;
+    }
+
+    public void setMaxJobsPerDataSource(int maxJobsPerDataSource) {
+        if (maxJobsPerDataSource >= 0) {
+            this.maxJobsPerDataSource = maxJobsPerDataSource;
+        }
+    }
+
     public boolean isShowFinalMessage() {
         return showFinalMessage;
     }
@@ -699,6 +766,26 @@ public class DataTransferSettings implements DBTTaskSettings<DBPObject> {
         this.showFinalMessage = showFinalMessage;
     }
 
+    public boolean isResumeTransfer() {
+        return resumeTransfer;
+    }
+
+    public void setResumeTransfer(boolean resumeTransfer) {
+        this.resumeTransfer = resumeTransfer;
+    }
+
+    /**
+     * Checkpoints of the running task. Null if transfer isn't resumable.
+     */
+    @Nullable
+    public DataTransferCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    public void setCheckpoint(@Nullable DataTransferCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
     public static void saveNodesLocation(DBRRunnableContext runnableContext, DBTTask task, Map<String, Object> state, Collection<IDataTransferNode<?>> nodes, String nodeType)  throws DBException {
         if (nodes != null) {
             List<Map<String, Object>> inputObjects = new ArrayList<>();
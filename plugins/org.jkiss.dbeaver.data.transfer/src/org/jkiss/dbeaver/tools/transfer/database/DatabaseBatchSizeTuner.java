@@ -0,0 +1,237 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.jkiss.code.NotNull;
+
+/**
+ * Tunes insert batch size (and multi-row insert size) by measured throughput.
+ *
+ * Sizes are changed by doubling or halving while throughput grows. When throughput drops, the direction is reversed.
+ * After a few reversals the best found size is fixed, then the next dimension (multi-row insert size) is tuned
+ * the same way. Batch size is also limited by the estimated batch size in bytes.
+ */
+public class DatabaseBatchSizeTuner {
+
+    private static final double THROUGHPUT_THRESHOLD = 0.05;
+    private static final int MAX_REVERSALS = 3;
+    private static final long MAX_BATCH_BYTES = 32 * 1024 * 1024;
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final int maxMultiInsertSize;
+
+    private int batchSize;
+    private int multiInsertSize;
+    // Currently tuned dimension. Null when tuning is finished
+    private Dimension dimension = Dimension.BATCH;
+    private int direction = 1;
+    private int reversals;
+    private double lastThroughput;
+    private double bestThroughput;
+    private int bestSize;
+
+    private long sampledRows;
+    private long sampledBytes;
+    private long totalRows;
+    private long totalTime;
+    private int measuredBatches;
+
+    private enum Dimension {
+        BATCH,
+        MULTI_INSERT
+    }
+
+    /**
+     * @param batchSize          initial batch size
+     * @param minBatchSize       min batch size
+     * @param maxBatchSize       max batch size (usually commit size)
+     * @param multiInsertSize    initial multi-row insert size or 0 if multi-row inserts are not used
+     * @param maxMultiInsertSize max multi-row insert size (e.g. limited by max bind parameters count)
+     */
+    public DatabaseBatchSizeTuner(int batchSize, int minBatchSize, int maxBatchSize, int multiInsertSize, int maxMultiInsertSize) {
+        this.minBatchSize = Math.max(1, minBatchSize);
+        this.maxBatchSize = Math.max(this.minBatchSize, maxBatchSize);
+        this.maxMultiInsertSize = Math.max(1, maxMultiInsertSize);
+        this.batchSize = clamp(batchSize, this.minBatchSize, this.maxBatchSize);
+        this.multiInsertSize = multiInsertSize <= 0 ? 0 : clamp(multiInsertSize, 1, this.maxMultiInsertSize);
+        this.bestSize = this.batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getMultiInsertSize() {
+        return multiInsertSize;
+    }
+
+    public boolean isTuningFinished() {
+        return dimension == null;
+    }
+
+    /**
+     * Best measured throughput (rows/second)
+     */
+    public double getBestThroughput() {
+        return bestThroughput;
+    }
+
+    /**
+     * Average throughput (rows/second) of all measured batches
+     */
+    public double getAverageThroughput() {
+        return totalTime <= 0 ? 0 : totalRows * 1e9 / totalTime;
+    }
+
+    public long getAverageRowSize() {
+        return sampledRows == 0 ? 0 : sampledBytes / sampledRows;
+    }
+
+    public int getMeasuredBatches() {
+        return measuredBatches;
+    }
+
+    /**
+     * Adds sample for row size estimation. It is enough to sample a small part of rows.
+     */
+    public void addRowSample(@NotNull Object[] row) {
+        sampledRows++;
+        sampledBytes += estimateRowSize(row);
+        if (dimension == Dimension.BATCH) {
+            // Do not allow huge batches on wide rows
+            batchSize = clamp(batchSize, minBatchSize, getMaxBatchSize());
+        }
+    }
+
+    /**
+     * Registers executed batch.
+     *
+     * @param rows        rows count in the batch
+     * @param elapsedNanos batch execution time
+     */
+    public void recordBatch(int rows, long elapsedNanos) {
+        if (rows <= 0 || elapsedNanos <= 0) {
+            return;
+        }
+        totalRows += rows;
+        totalTime += elapsedNanos;
+        if (dimension == null || rows < batchSize * 9L / 10) {
+            // Incomplete batch (e.g. cut by commit) - doesn't represent current size
+            return;
+        }
+        measuredBatches++;
+        double throughput = rows * 1e9 / elapsedNanos;
+        int currentSize = getCurrentSize();
+        if (throughput > bestThroughput) {
+            bestThroughput = throughput;
+            bestSize = currentSize;
+        }
+        if (lastThroughput > 0 && throughput < lastThroughput * (1 + THROUGHPUT_THRESHOLD)) {
+            // No significant improvement - turn back
+            direction = -direction;
+            reversals++;
+        }
+        lastThroughput = throughput;
+        if (reversals >= MAX_REVERSALS) {
+            setCurrentSize(bestSize);
+            nextDimension();
+            return;
+        }
+        int newSize = direction > 0 ? currentSize * 2 : currentSize / 2;
+        newSize = clamp(newSize, getMinSize(), getMaxSize());
+        if (newSize == currentSize) {
+            // Reached the limit
+            direction = -direction;
+            reversals++;
+            newSize = clamp(direction > 0 ? currentSize * 2 : currentSize / 2, getMinSize(), getMaxSize());
+        }
+        setCurrentSize(newSize);
+    }
+
+    private void nextDimension() {
+        if (dimension == Dimension.BATCH && multiInsertSize > 0) {
+            dimension = Dimension.MULTI_INSERT;
+            bestSize = multiInsertSize;
+        } else {
+            dimension = null;
+        }
+        direction = 1;
+        reversals = 0;
+        lastThroughput = 0;
+        bestThroughput = 0;
+    }
+
+    private int getCurrentSize() {
+        return dimension == Dimension.MULTI_INSERT ? multiInsertSize : batchSize;
+    }
+
+    private void setCurrentSize(int size) {
+        if (dimension == Dimension.MULTI_INSERT) {
+            multiInsertSize = size;
+        } else {
+            batchSize = size;
+        }
+    }
+
+    private int getMinSize() {
+        return dimension == Dimension.MULTI_INSERT ? 1 : minBatchSize;
+    }
+
+    private int getMaxSize() {
+        return dimension == Dimension.MULTI_INSERT ? Math.min(maxMultiInsertSize, batchSize) : getMaxBatchSize();
+    }
+
+    private int getMaxBatchSize() {
+        long rowSize = getAverageRowSize();
+        if (rowSize <= 0) {
+            return maxBatchSize;
+        }
+        return (int) Math.max(minBatchSize, Math.min(maxBatchSize, MAX_BATCH_BYTES / rowSize));
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Rough estimation of the row size on the wire
+     */
+    static long estimateRowSize(@NotNull Object[] row) {
+        long size = 0;
+        for (Object value : row) {
+            if (value == null) {
+                size += 1;
+            } else if (value instanceof CharSequence) {
+                size += ((CharSequence) value).length() + 4;
+            } else if (value instanceof byte[]) {
+                size += ((byte[]) value).length + 4;
+            } else if (value instanceof Number || value instanceof Boolean || value instanceof java.util.Date) {
+                size += 8;
+            } else {
+                size += 16;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "batch size=" + batchSize + ", multi-row insert size=" + multiInsertSize +
+            ", avg row size=" + getAverageRowSize() + ", avg throughput=" + Math.round(getAverageThroughput()) + " rows/s";
+    }
+}
@@ -61,10 +61,13 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
     private boolean openTableOnFinish = true;
     private boolean useMultiRowInsert;
     private int multiRowInsertBatch = 500;
+    private boolean adaptiveBatchSize;
     private boolean skipBindValues;
     private boolean disableUsingBatches = false;
     private boolean ignoreDuplicateRows;
     private boolean useBulkLoad = false;
+    // Zero means that rows are inserted on the fetching thread
+    private int pipelineBufferSize = 0;
     private String onDuplicateKeyInsertMethodId;
     private boolean disableReferentialIntegrity;
     private final Map<String, Map<String, Object>> eventProcessors = new HashMap<>();
@@ -162,6 +165,18 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
         this.multiRowInsertBatch = multiRowInsertBatch;
     }
 
+    /**
+     * If enabled then insert batch size and multi-row insert size are tuned at runtime by measured throughput.
+     * Commit interval is not affected.
+     */
+    public boolean isAdaptiveBatchSize() {
+        return adaptiveBatchSize;
+    }
+
+    public void setAdaptiveBatchSize(boolean adaptiveBatchSize) {
+        this.adaptiveBatchSize = adaptiveBatchSize;
+    }
+
     public boolean isSkipBindValues() {
         return skipBindValues;
     }
@@ -210,6 +225,18 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
         this.useBulkLoad = useBulkLoad;
     }
 
+    /**
+     * Size of the row buffer between fetching and inserting threads.
+     * If positive then target inserts are performed in a separate thread, simultaneously with source reads.
+     */
+    public int getPipelineBufferSize() {
+        return pipelineBufferSize;
+    }
+
+    public void setPipelineBufferSize(int pipelineBufferSize) {
+        this.pipelineBufferSize = Math.max(pipelineBufferSize, 0);
+    }
+
     @Nullable
     public DBPDataSource getTargetDataSource(DatabaseMappingObject attrMapping) {
         DBSObjectContainer container = getContainer();
@@ -234,12 +261,14 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
         commitAfterRows = CommonUtils.toInt(settings.get("commitAfterRows"), commitAfterRows);
         useMultiRowInsert = CommonUtils.getBoolean(settings.get("useMultiRowInsert"), useMultiRowInsert);
         multiRowInsertBatch = CommonUtils.toInt(settings.get("multiRowInsertBatch"), multiRowInsertBatch);
+        adaptiveBatchSize = CommonUtils.getBoolean(settings.get("adaptiveBatchSize"), adaptiveBatchSize);
         skipBindValues = CommonUtils.getBoolean(settings.get("skipBindValues"), skipBindValues);
         disableUsingBatches = CommonUtils.getBoolean(settings.get("disableUsingBatches"), disableUsingBatches);
         ignoreDuplicateRows = CommonUtils.getBoolean(settings.get("ignoreDuplicateRows"), ignoreDuplicateRows);
         transferAutoGeneratedColumns = CommonUtils.getBoolean(settings.get("transferAutoGeneratedColumns"), transferAutoGeneratedColumns);
         disableReferentialIntegrity = CommonUtils.getBoolean(settings.get("disableReferentialIntegrity"), disableReferentialIntegrity);
         useBulkLoad = CommonUtils.getBoolean(settings.get("useBulkLoad"), useBulkLoad);
+        pipelineBufferSize = CommonUtils.toInt(settings.get("pipelineBufferSize"), pipelineBufferSize);
         truncateBeforeLoad = CommonUtils.getBoolean(settings.get("truncateBeforeLoad"), truncateBeforeLoad);
         openTableOnFinish = CommonUtils.getBoolean(settings.get("openTableOnFinish"), openTableOnFinish);
 
@@ -307,6 +336,7 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
         settings.put("commitAfterRows", commitAfterRows);
         settings.put("useMultiRowInsert", useMultiRowInsert);
         settings.put("multiRowInsertBatch", multiRowInsertBatch);
+        settings.put("adaptiveBatchSize", adaptiveBatchSize);
         settings.put("skipBindValues", skipBindValues);
         settings.put("disableUsingBatches", disableUsingBatches);
         settings.put("ignoreDuplicateRows", ignoreDuplicateRows);
@@ -314,6 +344,7 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
         settings.put("transferAutoGeneratedColumns", transferAutoGeneratedColumns);
         settings.put("disableReferentialIntegrity", disableReferentialIntegrity);
         settings.put("useBulkLoad", useBulkLoad);
+        settings.put("pipelineBufferSize", pipelineBufferSize);
         settings.put("truncateBeforeLoad", truncateBeforeLoad);
         settings.put("openTableOnFinish", openTableOnFinish);
 
@@ -346,6 +377,7 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
         }
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_use_multi_insert, useMultiRowInsert);
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_multi_insert_batch, multiRowInsertBatch);
+        DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_adaptive_batch_size, adaptiveBatchSize);
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_skip_bind_values, skipBindValues);
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_disable_batches, disableUsingBatches);
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_ignore_duplicate_rows, ignoreDuplicateRows);
@@ -353,6 +385,7 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_transfer_auto_generated_columns, transferAutoGeneratedColumns);
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_disable_referential_integrity, disableReferentialIntegrity);
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_use_bulk_load, useBulkLoad);
+        DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_pipeline_buffer_size, pipelineBufferSize);
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_truncate_before_load, truncateBeforeLoad);
 
         return summary.toString();
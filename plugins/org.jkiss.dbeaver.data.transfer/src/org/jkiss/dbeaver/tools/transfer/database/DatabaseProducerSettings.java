@@ -46,6 +46,11 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
     private boolean selectedColumnsOnly = false;
     private ExtractType extractType = ExtractType.SINGLE_QUERY;
     private int fetchSize = DEFAULT_FETCH_SIZE;
+    private int partitionCount = 0;
+    private String partitionColumn;
+    private boolean partitionByQuantiles = false;
+    // Set at runtime when several pipes are processed simultaneously
+    private transient boolean parallelTransfer = false;
 
     public DatabaseProducerSettings() {
     }
@@ -76,6 +81,40 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         this.fetchSize = fetchSize;
     }
 
+    /**
+     * Number of key ranges read concurrently. Values less than 2 disable partitioned read.
+     */
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public void setPartitionCount(int partitionCount) {
+        this.partitionCount = Math.max(partitionCount, 0);
+    }
+
+    /**
+     * Column used to split data into ranges. If empty then single-column primary key is used.
+     */
+    public String getPartitionColumn() {
+        return partitionColumn;
+    }
+
+    public void setPartitionColumn(String partitionColumn) {
+        this.partitionColumn = partitionColumn;
+    }
+
+    /**
+     * Calculate range bounds from column value quantiles instead of min/max values.
+     * Gives even ranges for skewed keys but requires an extra scan of the table.
+     */
+    public boolean isPartitionByQuantiles() {
+        return partitionByQuantiles;
+    }
+
+    public void setPartitionByQuantiles(boolean partitionByQuantiles) {
+        this.partitionByQuantiles = partitionByQuantiles;
+    }
+
     public boolean isSelectedRowsOnly() {
         return selectedRowsOnly;
     }
@@ -100,6 +139,17 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         this.openNewConnections = openNewConnections;
     }
 
+    /**
+     * Parallel transfer jobs can't share the same execution context, so each producer opens its own one.
+     */
+    public boolean isParallelTransfer() {
+        return parallelTransfer;
+    }
+
+    public void setParallelTransfer(boolean parallelTransfer) {
+        this.parallelTransfer = parallelTransfer;
+    }
+
     public ExtractType getExtractType() {
         return extractType;
     }
@@ -117,6 +167,9 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         queryRowCount = CommonUtils.toBoolean(settings.get("queryRowCount"));
         selectedColumnsOnly = CommonUtils.toBoolean(settings.get("selectedColumnsOnly"));
         selectedRowsOnly = CommonUtils.toBoolean(settings.get("selectedRowsOnly"));
+        partitionCount = CommonUtils.toInt(settings.get("partitionCount"), partitionCount);
+        partitionColumn = CommonUtils.toString(settings.get("partitionColumn"), partitionColumn);
+        partitionByQuantiles = CommonUtils.getBoolean(settings.get("partitionByQuantiles"), partitionByQuantiles);
     }
 
     @Override
@@ -128,6 +181,9 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         settings.put("queryRowCount", queryRowCount);
         settings.put("selectedColumnsOnly", selectedColumnsOnly);
         settings.put("selectedRowsOnly", selectedRowsOnly);
+        settings.put("partitionCount", partitionCount);
+        settings.put("partitionColumn", partitionColumn);
+        settings.put("partitionByQuantiles", partitionByQuantiles);
     }
 
     @Override
@@ -139,6 +195,12 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_select_row_count, queryRowCount);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_selected_rows_only, selectedRowsOnly);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_selected_columns_only, selectedColumnsOnly);
+        if (partitionCount > 1) {
+            DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_label_partitions, partitionCount);
+            if (!CommonUtils.isEmpty(partitionColumn)) {
+                DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_label_partition_column, partitionColumn);
+            }
+        }
 
         return summary.toString();
     }
@@ -16,6 +16,8 @@
  */
 package org.jkiss.dbeaver.tools.transfer.database;
 
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
@@ -35,6 +37,7 @@ import org.jkiss.dbeaver.model.navigator.DBNDatabaseNode;
 import org.jkiss.dbeaver.model.navigator.DBNEvent;
 import org.jkiss.dbeaver.model.navigator.DBNModel;
 import org.jkiss.dbeaver.model.navigator.DBNUtils;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.model.sql.SQLDialectInsertReplaceMethod;
@@ -55,6 +58,7 @@ import org.jkiss.utils.CommonUtils;
 import java.lang.reflect.InvocationTargetException;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -96,6 +100,19 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
     private DBDAttributeBinding[] rsAttributes;
     private DBSObjectContainer container;
 
+    private DataTransferRowBuffer rowBuffer;
+    private AbstractJob insertJob;
+    private volatile Throwable insertError;
+
+    private DatabaseBatchSizeTuner batchSizeTuner;
+    private long batchStartRow;
+
+    // Receives committed rows count. Null if checkpoints are disabled
+    private DataTransferCheckpoint checkpoint;
+    private String checkpointKey;
+    // Rows committed by previous runs (skipped by the producer)
+    private long checkpointOffset;
+
     public void setContainer(DBSObjectContainer container) {
         this.container = container;
     }
@@ -307,11 +324,39 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                     null,
                     executionSource,
                     options);
+                if (settings.isAdaptiveBatchSize() && !settings.isDisableUsingBatches() && !settings.isIgnoreDuplicateRows()) {
+                    batchSizeTuner = createBatchSizeTuner(attributes);
+                }
             }
         } else {
             previewRows = new ArrayList<>();
             executeBatch = new PreviewBatch();
         }
+
+        if (!isPreview && useIsolatedConnection && settings.getPipelineBufferSize() > 0) {
+            // Inserts run on another thread, so they must not share the (possibly shared) default context
+            startInsertJob(session, settings.getPipelineBufferSize());
+        }
+    }
+
+    private DatabaseBatchSizeTuner createBatchSizeTuner(DBSAttributeBase[] attributes) {
+        int commitAfterRows = Math.max(1, settings.getCommitAfterRows());
+        int multiInsertSize = 0;
+        int maxMultiInsertSize = 1;
+        if (settings.isUseMultiRowInsert()) {
+            multiInsertSize = Math.max(1, settings.getMultiRowInsertBatch());
+            maxMultiInsertSize = commitAfterRows;
+            int maxBindParameters = targetContext.getDataSource().getSQLDialect().getMaxBindParameters();
+            if (maxBindParameters > 0 && attributes.length > 0 && !settings.isSkipBindValues()) {
+                maxMultiInsertSize = Math.max(1, maxBindParameters / attributes.length);
+            }
+        }
+        return new DatabaseBatchSizeTuner(
+            Math.min(commitAfterRows, 1000),
+            Math.min(commitAfterRows, 50),
+            commitAfterRows,
+            multiInsertSize,
+            maxMultiInsertSize);
     }
 
     private boolean isSkipColumn(DBDAttributeBinding attr) {
@@ -331,7 +376,8 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
             document = null;
         }
 
-        Object[] rowValues = new Object[targetAttributes.size()];
+        // Pipelined rows keep the source document in the extra last element
+        Object[] rowValues = new Object[targetAttributes.size() + (rowBuffer != null ? 1 : 0)];
         for (int i = 0; i < columnMappings.length; i++) {
             ColumnMapping column = columnMappings[i];
             if (column == null || column.targetIndex < 0) {
@@ -352,15 +398,43 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                 // No value handler - get raw value
                 attrValue = resultSet.getAttributeValue(i);
             }
+            rowValues[column.targetIndex] = attrValue;
+        }
 
-            if (containerMapping != null && containerMapping.getTarget() instanceof DBSDocumentContainer) {
-                rowValues[column.targetIndex] = attrValue;
-            } else {
+        if (rowBuffer != null) {
+            // Values are converted by the insert job, since the target session is used by its thread
+            rowValues[rowValues.length - 1] = document;
+            if (insertError != null) {
+                throw makeInsertError();
+            }
+            try {
+                if (!rowBuffer.put(rowValues)) {
+                    throw makeInsertError();
+                }
+            } catch (InterruptedException e) {
+                throw new DBCException("Data transfer interrupted", e);
+            }
+        } else {
+            convertRow(session, rowValues, document);
+            addRow(rowValues);
+        }
+    }
+
+    /**
+     * Converts fetched values to the target attribute types and applies value transformers.
+     * Must be called on the thread which uses the target session.
+     */
+    private void convertRow(@NotNull DBCSession session, @NotNull Object[] rowValues, @Nullable Object document) throws DBCException {
+        if (!(containerMapping != null && containerMapping.getTarget() instanceof DBSDocumentContainer)) {
+            for (ColumnMapping column : columnMappings) {
+                if (column == null || column.targetIndex < 0) {
+                    continue;
+                }
                 DatabaseMappingAttribute targetAttr = column.targetAttr;
                 rowValues[column.targetIndex] = column.targetValueHandler.getValueFromObject(
                     targetSession,
                     targetAttr.getTarget() == null ? targetAttr.getSource() : targetAttr.getTarget(),
-                    attrValue,
+                    rowValues[column.targetIndex],
                     false, false);
             }
         }
@@ -387,11 +461,16 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                 }
             }
         }
+    }
 
+    private void addRow(@NotNull Object[] rowValues) throws DBCException {
         if (bulkLoadManager != null) {
             bulkLoadManager.addRow(targetSession, rowValues);
         } else {
             executeBatch.add(rowValues);
+            if (batchSizeTuner != null && (rowsExported & 0x3F) == 0) {
+                batchSizeTuner.addRowSample(rowValues);
+            }
         }
 
         rowsExported++;
@@ -401,12 +480,90 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
         insertBatch(false);
     }
 
+    /**
+     * Starts the job which inserts rows taken from the row buffer.
+     * Source fetch and target insert then overlap instead of waiting for each other.
+     */
+    private void startInsertJob(@NotNull DBCSession session, int bufferSize) {
+        rowBuffer = new DataTransferRowBuffer(bufferSize);
+        insertError = null;
+        insertJob = new AbstractJob("Insert data into " + getObjectName()) {
+            @Override
+            protected IStatus run(DBRProgressMonitor monitor) {
+                try {
+                    for (;;) {
+                        Object[] row = rowBuffer.take();
+                        if (row == null) {
+                            break;
+                        }
+                        Object[] rowValues = Arrays.copyOf(row, row.length - 1);
+                        convertRow(session, rowValues, row[row.length - 1]);
+                        addRow(rowValues);
+                        if (targetSession.getProgressMonitor().isCanceled()) {
+                            rowBuffer.abort();
+                            break;
+                        }
+                    }
+                } catch (Throwable e) {
+                    insertError = e;
+                    rowBuffer.abort();
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        insertJob.setSystem(true);
+        insertJob.setUser(false);
+        insertJob.schedule();
+    }
+
+    /**
+     * Waits for all buffered rows to be inserted.
+     */
+    private void finishInsertJob(boolean abort) throws DBCException {
+        if (rowBuffer == null) {
+            return;
+        }
+        try {
+            if (abort) {
+                rowBuffer.abort();
+            } else {
+                rowBuffer.close();
+            }
+            try {
+                insertJob.join();
+            } catch (InterruptedException e) {
+                rowBuffer.abort();
+                throw new DBCException("Data transfer interrupted", e);
+            }
+            log.debug("Pipelined insert into " + getObjectName() + " finished: " + rowBuffer);
+            statistics.addInfo("Pipeline max depth", rowBuffer.getMaxDepth() + "/" + rowBuffer.getCapacity());
+            statistics.addInfo("Pipeline fetch stall (ms)", rowBuffer.getProducerStallTime());
+            statistics.addInfo("Pipeline insert stall (ms)", rowBuffer.getConsumerStallTime());
+        } finally {
+            rowBuffer = null;
+            insertJob = null;
+        }
+        if (!abort && insertError != null) {
+            throw makeInsertError();
+        }
+    }
+
+    @NotNull
+    private DBCException makeInsertError() {
+        Throwable error = insertError;
+        if (error == null) {
+            return new DBCException("Data insert into " + getObjectName() + " was aborted");
+        }
+        return new DBCException("Error inserting data: " + error.getMessage(), error);
+    }
+
     private void insertBatch(boolean force) throws DBCException {
         if (isPreview) {
             return;
         }
         boolean ignoreDuplicateRowsErrors = settings.isIgnoreDuplicateRows();
-        boolean needCommit = force || ignoreDuplicateRowsErrors || ((rowsExported % settings.getCommitAfterRows()) == 0);
+        boolean commitPoint = force || ((rowsExported % settings.getCommitAfterRows()) == 0);
+        boolean needCommit = commitPoint || ignoreDuplicateRowsErrors;
         // Do commit action in these cases:
         // 1. This is the end of the insert operation (fetchEnd)
         // 2. ignoreDuplicateRowsErrors option is enabled - that means, what we do not have batches, only single rows, and we can loose inserted rows without commit in some databases like PG
@@ -415,18 +572,25 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
         if (bulkLoadManager != null) {
             if (needCommit) {
                 bulkLoadManager.flushRows(targetSession);
+                if (checkpoint != null && commitPoint && !targetSession.getProgressMonitor().isCanceled()) {
+                    // Bulk loaders may commit flushed rows or keep them until the end of load.
+                    // Such pipes are never resumed, so the next run fails unless the target is cleared.
+                    checkpoint.setCommittedRows(checkpointKey, checkpointOffset + rowsExported);
+                }
             }
             return;
         } else {
             boolean disableUsingBatches = settings.isDisableUsingBatches();
-            if ((needCommit || disableUsingBatches) && executeBatch != null) {
+            boolean needExecute = batchSizeTuner != null && rowsExported - batchStartRow >= batchSizeTuner.getBatchSize();
+            if ((needCommit || needExecute || disableUsingBatches) && executeBatch != null) {
                 if (DBFetchProgress.monitorFetchProgress(rowsExported)) {
                     targetSession.getProgressMonitor().subTask("Insert rows (" + rowsExported + ")");
                 }
 
                 Map<String, Object> options = new HashMap<>();
                 options.put(DBSDataManipulator.OPTION_DISABLE_BATCHES, disableUsingBatches);
-                options.put(DBSDataManipulator.OPTION_MULTI_INSERT_BATCH_SIZE, settings.getMultiRowInsertBatch());
+                options.put(DBSDataManipulator.OPTION_MULTI_INSERT_BATCH_SIZE,
+                    batchSizeTuner != null ? batchSizeTuner.getMultiInsertSize() : settings.getMultiRowInsertBatch());
                 options.put(DBSDataManipulator.OPTION_SKIP_BIND_VALUES, settings.isSkipBindValues());
 
                 boolean onDuplicateKeyCaseOn = settings.getOnDuplicateKeyInsertMethodId() != null &&
@@ -451,6 +615,7 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                 do {
                     retryInsert = false;
                     try {
+                        long batchStartTime = System.nanoTime();
                         DBExecUtils.tryExecuteRecover(targetSession, targetSession.getDataSource(), param -> {
                             try {
                                 statistics.accumulate(executeBatch.execute(targetSession, options));
@@ -458,6 +623,9 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                                 throw new InvocationTargetException(e);
                             }
                         });
+                        if (batchSizeTuner != null) {
+                            batchSizeTuner.recordBatch((int) (rowsExported - batchStartRow), System.nanoTime() - batchStartTime);
+                        }
                     } catch (Throwable e) {
                         if (ignoreDuplicateRowsErrors && (e.getCause() instanceof SQLException)) {
                             DBPErrorAssistant.ErrorType errorType = DBExecUtils.discoverErrorType(targetSession.getDataSource(), e.getCause());
@@ -498,6 +666,7 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                         }
                     }
                 } while (retryInsert);
+                batchStartRow = rowsExported;
             }
         }
         if (settings.isUseTransactions() && needCommit && !targetSession.getProgressMonitor().isCanceled()) {
@@ -507,11 +676,15 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                 txnManager.commit(targetSession);
             }
         }
+        if (checkpoint != null && commitPoint && !targetSession.getProgressMonitor().isCanceled()) {
+            checkpoint.setCommittedRows(checkpointKey, checkpointOffset + rowsExported);
+        }
     }
 
     @Override
     public void fetchEnd(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
         try {
+            finishInsertJob(false);
             if (rowsExported > 0) {
                 insertBatch(true);
             }
@@ -521,6 +694,16 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                 executeBatch.close();
                 executeBatch = null;
             }
+            if (batchSizeTuner != null) {
+                log.debug("Adaptive batch size for " + getObjectName() + ": " + batchSizeTuner);
+                statistics.addInfo("Adaptive batch size", batchSizeTuner.getBatchSize());
+                if (batchSizeTuner.getMultiInsertSize() > 0) {
+                    statistics.addInfo("Adaptive multi-row insert size", batchSizeTuner.getMultiInsertSize());
+                }
+                statistics.addInfo("Average row size (bytes)", batchSizeTuner.getAverageRowSize());
+                statistics.addInfo("Average insert throughput (rows/s)", Math.round(batchSizeTuner.getAverageThroughput()));
+                batchSizeTuner = null;
+            }
         } finally {
             DBSDataManipulator targetObject = getTargetObject();
             if (!isPreview && targetObject instanceof DBSDataManipulatorExt) {
@@ -535,6 +718,12 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
 
     @Override
     public void close() {
+        try {
+            // Fetch failed before the end of data
+            finishInsertJob(true);
+        } catch (DBCException e) {
+            log.debug(e);
+        }
         closeExporter();
     }
 
@@ -940,6 +1129,26 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
         return null;
     }
 
+    /**
+     * Enables checkpoints. Each commit saves the number of committed rows (including rows committed by previous runs).
+     */
+    public void setCheckpoint(@Nullable DataTransferCheckpoint checkpoint, @Nullable String pipeKey, long rowsOffset) {
+        this.checkpoint = checkpoint;
+        this.checkpointKey = pipeKey;
+        this.checkpointOffset = rowsOffset;
+    }
+
+    /**
+     * Target table is dropped and created again or truncated before load, so rows committed by previous runs are lost
+     */
+    public boolean isTargetCleared() {
+        if (containerMapping == null) {
+            return false;
+        }
+        return containerMapping.getMappingType() == DatabaseMappingType.recreate ||
+            (containerMapping.getMappingType() == DatabaseMappingType.existing && settings.isTruncateBeforeLoad());
+    }
+
     public DatabaseConsumerSettings getSettings() {
         return settings;
     }
@@ -0,0 +1,541 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDDataFilter;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.sql.SQLUtils;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.utils.CommonUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reads entity data by key ranges in parallel.
+ *
+ * Range bounds are calculated from min/max (or quantiles) of the partition column. Each range is read
+ * in its own execution context, all ranges feed the same consumer. The first range also includes NULL keys
+ * and the last range has no upper bound, so rows changed after bounds calculation are not lost.
+ * <p>
+ * The consumer is initialized with the result set of the first started range only, so all ranges must
+ * produce identical result set metadata. Each range is checked against the first one and the read fails
+ * if columns differ.
+ */
+class DatabaseTransferPartitioner {
+
+    private static final Log log = Log.getLog(DatabaseTransferPartitioner.class);
+
+    private static final String PARTITION_ALIAS = "dbeaver_part";
+
+    private final DBSDataContainer dataContainer;
+    private final DBSEntity entity;
+    private final DBSEntityAttribute attribute;
+    private final DBPDataSource dataSource;
+
+    private DatabaseTransferPartitioner(@NotNull DBSDataContainer dataContainer, @NotNull DBSEntity entity, @NotNull DBSEntityAttribute attribute) {
+        this.dataContainer = dataContainer;
+        this.entity = entity;
+        this.attribute = attribute;
+        this.dataSource = entity.getDataSource();
+    }
+
+    /**
+     * Creates partitioner for the specified container or returns null if container can't be partitioned.
+     */
+    @Nullable
+    static DatabaseTransferPartitioner create(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBSDataContainer dataContainer,
+        @NotNull DatabaseProducerSettings settings) throws DBException
+    {
+        if (settings.getPartitionCount() < 2 || !(dataContainer instanceof DBSEntity entity) ||
+            dataContainer.getDataSource() == null || dataContainer.getDataSource().getContainer().getDriver().isEmbedded())
+        {
+            return null;
+        }
+        DBSEntityAttribute attribute = null;
+        if (!CommonUtils.isEmpty(settings.getPartitionColumn())) {
+            attribute = entity.getAttribute(monitor, settings.getPartitionColumn());
+            if (attribute == null) {
+                log.warn("Partition column '" + settings.getPartitionColumn() + "' not found in " + entity.getName());
+                return null;
+            }
+        } else {
+            List<? extends DBSEntityAttribute> identifier = DBUtils.getBestTableIdentifier(monitor, entity);
+            if (identifier.size() == 1) {
+                attribute = identifier.get(0);
+            }
+        }
+        if (attribute == null || !isPartitionKind(attribute.getDataKind())) {
+            log.debug("No numeric or date partition column in " + entity.getName() + ". Read data in a single query.");
+            return null;
+        }
+        return new DatabaseTransferPartitioner(dataContainer, entity, attribute);
+    }
+
+    private static boolean isPartitionKind(@NotNull DBPDataKind dataKind) {
+        return dataKind == DBPDataKind.NUMERIC || dataKind == DBPDataKind.DATETIME;
+    }
+
+    /**
+     * Calculates conditions for each range. Returns empty list if data can't be split
+     * (e.g. table is empty or all keys are equal).
+     */
+    @NotNull
+    List<String> makeRangeConditions(
+        @NotNull DBCSession session,
+        @Nullable DBDDataFilter dataFilter,
+        int partitionCount,
+        boolean useQuantiles) throws DBCException
+    {
+        List<Object> bounds = null;
+        if (useQuantiles) {
+            try {
+                bounds = readQuantileBounds(session, dataFilter, partitionCount);
+            } catch (DBCException e) {
+                log.warn("Can't read quantiles of " + attribute.getName() + ", use min/max instead", e);
+            }
+        }
+        if (bounds == null) {
+            List<Object> minMax = selectValues(session, makeMinMaxQuery(dataFilter), 2);
+            if (minMax.size() < 2) {
+                return new ArrayList<>();
+            }
+            bounds = splitRange(minMax.get(0), minMax.get(1), partitionCount);
+        }
+        if (CommonUtils.isEmpty(bounds)) {
+            return new ArrayList<>();
+        }
+        String columnName = DBUtils.getQuotedIdentifier(attribute);
+        List<String> conditions = new ArrayList<>();
+        for (int i = 0; i <= bounds.size(); i++) {
+            StringBuilder condition = new StringBuilder();
+            if (i == 0) {
+                condition.append("(").append(columnName).append(" IS NULL OR ")
+                    .append(columnName).append(" < ").append(toSQL(bounds.get(0))).append(")");
+            } else if (i == bounds.size()) {
+                condition.append(columnName).append(" >= ").append(toSQL(bounds.get(i - 1)));
+            } else {
+                condition.append(columnName).append(" >= ").append(toSQL(bounds.get(i - 1)))
+                    .append(" AND ").append(columnName).append(" < ").append(toSQL(bounds.get(i)));
+            }
+            conditions.add(condition.toString());
+        }
+        return conditions;
+    }
+
+    @NotNull
+    private String toSQL(@NotNull Object value) {
+        return SQLUtils.convertValueToSQL(dataSource, attribute, value);
+    }
+
+    @NotNull
+    private String makeMinMaxQuery(@Nullable DBDDataFilter dataFilter) {
+        String columnName = DBUtils.getQuotedIdentifier(attribute);
+        StringBuilder query = new StringBuilder();
+        query.append("SELECT MIN(").append(columnName).append("), MAX(").append(columnName).append(") FROM ")
+            .append(DBUtils.getObjectFullName(entity, DBPEvaluationContext.DML));
+        appendFilterCondition(query, dataFilter, null);
+        return query.toString();
+    }
+
+    /**
+     * Reads first value of each quantile. First quantile starts from the min value, so it is skipped.
+     */
+    @Nullable
+    private List<Object> readQuantileBounds(
+        @NotNull DBCSession session,
+        @Nullable DBDDataFilter dataFilter,
+        int partitionCount) throws DBCException
+    {
+        String columnName = DBUtils.getQuotedIdentifier(attribute);
+        StringBuilder query = new StringBuilder();
+        query.append("SELECT MIN(").append(columnName).append(") FROM (SELECT ").append(columnName)
+            .append(", NTILE(").append(partitionCount).append(") OVER (ORDER BY ").append(columnName).append(") ")
+            .append(PARTITION_ALIAS).append(" FROM ").append(DBUtils.getObjectFullName(entity, DBPEvaluationContext.DML));
+        appendFilterCondition(query, dataFilter, columnName + " IS NOT NULL");
+        query.append(") ").append(PARTITION_ALIAS).append("s GROUP BY ").append(PARTITION_ALIAS).append(" ORDER BY 1");
+
+        List<Object> values = selectValues(session, query.toString(), 1);
+        List<Object> bounds = new ArrayList<>();
+        for (int i = 1; i < values.size(); i++) {
+            Object value = values.get(i);
+            // Duplicate keys may produce equal quantiles
+            if (value != null && !value.equals(values.get(i - 1))) {
+                bounds.add(value);
+            }
+        }
+        return bounds;
+    }
+
+    private void appendFilterCondition(@NotNull StringBuilder query, @Nullable DBDDataFilter dataFilter, @Nullable String extraCondition) {
+        boolean hasFilter = dataFilter != null && dataFilter.hasConditions();
+        if (!hasFilter && extraCondition == null) {
+            return;
+        }
+        query.append(" WHERE ");
+        if (extraCondition != null) {
+            query.append(extraCondition);
+            if (hasFilter) {
+                query.append(" AND ");
+            }
+        }
+        if (hasFilter) {
+            query.append("(");
+            SQLUtils.appendConditionString(dataFilter, dataSource, null, query, true);
+            query.append(")");
+        }
+    }
+
+    @NotNull
+    private static List<Object> selectValues(@NotNull DBCSession session, @NotNull String query, int columnCount) throws DBCException {
+        List<Object> values = new ArrayList<>();
+        try (DBCStatement dbStat = session.prepareStatement(DBCStatementType.QUERY, query, false, false, false)) {
+            if (dbStat.executeStatement()) {
+                try (DBCResultSet dbResult = dbStat.openResultSet()) {
+                    while (dbResult.nextRow()) {
+                        for (int i = 0; i < columnCount; i++) {
+                            values.add(dbResult.getAttributeValue(i));
+                        }
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Splits [min, max] interval into even parts.
+     *
+     * @return inner bounds of ranges (at most count - 1 values in ascending order),
+     *  empty list if interval can't be split or null if values are not supported
+     */
+    @Nullable
+    static List<Object> splitRange(@Nullable Object min, @Nullable Object max, int count) {
+        if (min == null || max == null || count < 2) {
+            return new ArrayList<>();
+        }
+        List<Object> bounds = new ArrayList<>();
+        if (isInteger(min) && isInteger(max)) {
+            BigInteger low = toBigInteger(min);
+            BigInteger range = toBigInteger(max).subtract(low);
+            for (int i = 1; i < count; i++) {
+                BigInteger bound = low.add(range.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(count)));
+                addBound(bounds, bound.bitLength() < Long.SIZE ? (Object) bound.longValue() : new BigDecimal(bound));
+            }
+        } else if (min instanceof Number && max instanceof Number) {
+            BigDecimal low = new BigDecimal(min.toString());
+            BigDecimal range = new BigDecimal(max.toString()).subtract(low);
+            for (int i = 1; i < count; i++) {
+                addBound(bounds, low.add(range.multiply(BigDecimal.valueOf(i)).divide(BigDecimal.valueOf(count), MathContext.DECIMAL64))
+                    .setScale(Math.max(low.scale(), 0) + 2, RoundingMode.FLOOR));
+            }
+        } else if (min instanceof Date && max instanceof Date) {
+            long low = ((Date) min).getTime();
+            long range = ((Date) max).getTime() - low;
+            for (int i = 1; i < count; i++) {
+                long time = low + (long) (range * ((double) i / count));
+                addBound(bounds, min instanceof java.sql.Date ? new java.sql.Date(time) : new Timestamp(time));
+            }
+        } else {
+            return null;
+        }
+        // Bound equal to min makes the first range empty
+        if (!bounds.isEmpty() && compareBounds(bounds.get(0), min) <= 0) {
+            bounds.remove(0);
+        }
+        return bounds;
+    }
+
+    private static void addBound(@NotNull List<Object> bounds, @NotNull Object bound) {
+        if (bounds.isEmpty() || compareBounds(bounds.get(bounds.size() - 1), bound) < 0) {
+            bounds.add(bound);
+        }
+    }
+
+    private static int compareBounds(@NotNull Object bound1, @NotNull Object bound2) {
+        if (bound1 instanceof Date && bound2 instanceof Date) {
+            return Long.compare(((Date) bound1).getTime(), ((Date) bound2).getTime());
+        }
+        return new BigDecimal(bound1.toString()).compareTo(new BigDecimal(bound2.toString()));
+    }
+
+    private static boolean isInteger(@NotNull Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte ||
+            value instanceof BigInteger || (value instanceof BigDecimal && ((BigDecimal) value).scale() <= 0);
+    }
+
+    @NotNull
+    private static BigInteger toBigInteger(@NotNull Object value) {
+        if (value instanceof BigInteger) {
+            return (BigInteger) value;
+        } else if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toBigIntegerExact();
+        }
+        return BigInteger.valueOf(((Number) value).longValue());
+    }
+
+    /**
+     * Compares result set attributes of a partition with attributes of the first partition.
+     *
+     * @return mismatch description or null if attributes match
+     */
+    @Nullable
+    static String compareMetadata(@NotNull List<? extends DBSAttributeBase> first, @NotNull List<? extends DBSAttributeBase> other) {
+        if (first.size() != other.size()) {
+            return "column count " + other.size() + " differs from " + first.size();
+        }
+        for (int i = 0; i < first.size(); i++) {
+            DBSAttributeBase attr1 = first.get(i);
+            DBSAttributeBase attr2 = other.get(i);
+            if (!CommonUtils.equalObjects(attr1.getName(), attr2.getName()) ||
+                !CommonUtils.equalObjects(attr1.getTypeName(), attr2.getTypeName()) ||
+                attr1.getDataKind() != attr2.getDataKind())
+            {
+                return "column " + (i + 1) + " " + attr2.getName() + " " + attr2.getTypeName() +
+                    " differs from " + attr1.getName() + " " + attr1.getTypeName();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads all ranges simultaneously. Each range is read in a separate isolated context.
+     * Rows are passed to the consumer one at a time, fetchEnd is called once after the last range is read.
+     */
+    @NotNull
+    DBCStatistics readPartitions(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBCExecutionContext baseContext,
+        @NotNull DBDDataReceiver consumer,
+        @Nullable DBDDataFilter dataFilter,
+        @NotNull List<String> conditions,
+        long readFlags,
+        int fetchSize,
+        @Nullable String defaultCatalog,
+        @Nullable String defaultSchema) throws DBException
+    {
+        PartitionReceiver receiver = new PartitionReceiver(monitor, consumer, conditions.size());
+        List<PartitionReadJob> jobs = new ArrayList<>();
+        for (int i = 0; i < conditions.size(); i++) {
+            DBDDataFilter partitionFilter = dataFilter == null ? new DBDDataFilter() : new DBDDataFilter(dataFilter);
+            String where = partitionFilter.getWhere();
+            partitionFilter.setWhere(CommonUtils.isEmpty(where) ? conditions.get(i) : "(" + where + ") AND " + conditions.get(i));
+            jobs.add(new PartitionReadJob(i + 1, conditions.size(), baseContext, receiver, partitionFilter, readFlags, fetchSize, defaultCatalog, defaultSchema));
+        }
+        receiver.jobs = jobs;
+        for (PartitionReadJob job : jobs) {
+            job.schedule();
+        }
+
+        DBCStatistics statistics = new DBCStatistics();
+        for (PartitionReadJob job : jobs) {
+            try {
+                job.join();
+            } catch (InterruptedException e) {
+                receiver.cancel(e);
+                throw new DBException("Partitioned read interrupted", e);
+            }
+            if (job.statistics != null) {
+                statistics.accumulate(job.statistics);
+            }
+        }
+        Throwable error = receiver.error;
+        if (error instanceof DBException) {
+            throw (DBException) error;
+        } else if (error != null) {
+            throw new DBException("Error reading data partition", error);
+        }
+        if (monitor.isCanceled()) {
+            return statistics;
+        }
+        statistics.addInfo("Partition column", attribute.getName());
+        statistics.addInfo("Partitions", conditions.size());
+        return statistics;
+    }
+
+    private class PartitionReadJob extends AbstractJob {
+        private final int partitionNumber;
+        private final DBCExecutionContext baseContext;
+        private final PartitionReceiver receiver;
+        private final DBDDataFilter dataFilter;
+        private final long readFlags;
+        private final int fetchSize;
+        private final String defaultCatalog;
+        private final String defaultSchema;
+
+        private volatile DBCStatistics statistics;
+
+        PartitionReadJob(
+            int partitionNumber,
+            int partitionCount,
+            @NotNull DBCExecutionContext baseContext,
+            @NotNull PartitionReceiver receiver,
+            @NotNull DBDDataFilter dataFilter,
+            long readFlags,
+            int fetchSize,
+            @Nullable String defaultCatalog,
+            @Nullable String defaultSchema)
+        {
+            super("Read " + entity.getName() + " (partition " + partitionNumber + " of " + partitionCount + ")");
+            this.partitionNumber = partitionNumber;
+            this.baseContext = baseContext;
+            this.receiver = receiver;
+            this.dataFilter = dataFilter;
+            this.readFlags = readFlags;
+            this.fetchSize = fetchSize;
+            this.defaultCatalog = defaultCatalog;
+            this.defaultSchema = defaultSchema;
+            setSystem(true);
+            setUser(false);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            try {
+                DBCExecutionContext context = DBUtils.getObjectOwnerInstance(entity).openIsolatedContext(
+                    monitor, "Data transfer partition " + partitionNumber, baseContext);
+                try {
+                    DBExecUtils.setExecutionContextDefaults(monitor, dataSource, context, defaultCatalog, null, defaultSchema);
+                    try (DBCSession session = context.openSession(monitor, DBCExecutionPurpose.UTIL, getName())) {
+                        session.enableLogging(false);
+                        DBCTransactionManager txnManager = DBUtils.getTransactionManager(context);
+                        if (txnManager != null && txnManager.isSupportsTransactions()) {
+                            // Same as in the main producer: some drivers read LOBs only in transactional mode
+                            try {
+                                txnManager.setAutoCommit(monitor, false);
+                            } catch (DBCException e) {
+                                log.warn("Can't change auto-commit", e);
+                            }
+                        }
+                        try {
+                            statistics = dataContainer.readData(
+                                new AbstractExecutionSource(dataContainer, context, receiver.consumer),
+                                session, receiver, dataFilter, -1, -1, readFlags, fetchSize);
+                        } finally {
+                            if (txnManager != null && txnManager.isSupportsTransactions() && !txnManager.isAutoCommit()) {
+                                txnManager.rollback(session, null);
+                            }
+                        }
+                    }
+                } finally {
+                    context.close();
+                }
+            } catch (Throwable e) {
+                receiver.cancel(e);
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+    /**
+     * Passes rows of all partitions to the consumer. Consumers are not thread-safe so all calls are serialized.
+     */
+    private static class PartitionReceiver implements DBDDataReceiver {
+        private final DBRProgressMonitor monitor;
+        private final DBDDataReceiver consumer;
+        private final int partitionCount;
+        private List<PartitionReadJob> jobs;
+        private boolean started;
+        private List<? extends DBCAttributeMetaData> startMetadata;
+        private int finishedPartitions;
+        private volatile boolean canceled;
+        // The first error which stopped the read. Other partitions fail after cancel, their errors are ignored
+        private volatile Throwable error;
+
+        PartitionReceiver(@NotNull DBRProgressMonitor monitor, @NotNull DBDDataReceiver consumer, int partitionCount) {
+            this.monitor = monitor;
+            this.consumer = consumer;
+            this.partitionCount = partitionCount;
+        }
+
+        synchronized void cancel(@Nullable Throwable cause) {
+            if (!canceled) {
+                canceled = true;
+                error = cause;
+                for (PartitionReadJob job : jobs) {
+                    job.cancel();
+                }
+            }
+        }
+
+        @Override
+        public synchronized void fetchStart(@NotNull DBCSession session, @NotNull DBCResultSet resultSet, long offset, long maxRows) throws DBCException {
+            List<? extends DBCAttributeMetaData> metadata = resultSet.getMeta().getAttributes();
+            if (!started) {
+                started = true;
+                startMetadata = metadata;
+                consumer.fetchStart(session, resultSet, offset, maxRows);
+            } else {
+                // Consumer binds columns once, rows of other partitions are read using the first partition's bindings
+                String mismatch = compareMetadata(startMetadata, metadata);
+                if (mismatch != null) {
+                    DBCException error = new DBCException("Partition result set metadata mismatch: " + mismatch);
+                    cancel(error);
+                    throw error;
+                }
+            }
+        }
+
+        @Override
+        public synchronized void fetchRow(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
+            if (canceled || monitor.isCanceled()) {
+                cancel(null);
+                throw new DBCException("Partitioned read canceled");
+            }
+            consumer.fetchRow(session, resultSet);
+            monitor.worked(1);
+        }
+
+        @Override
+        public synchronized void fetchEnd(@NotNull DBCSession session, @NotNull DBCResultSet resultSet) throws DBCException {
+            finishedPartitions++;
+            if (started && finishedPartitions == partitionCount) {
+                consumer.fetchEnd(session, resultSet);
+            }
+        }
+
+        @Override
+        public void close() {
+            // Consumer is closed by the producer after all partitions are read
+        }
+    }
+}
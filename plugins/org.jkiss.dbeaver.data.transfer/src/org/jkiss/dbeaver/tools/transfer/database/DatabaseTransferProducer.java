@@ -76,6 +76,9 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
     private String defaultCatalog;
     @Nullable
     private String defaultSchema;
+    // Rows already transferred by the previous run of the task
+    private transient long startOffset;
+    private transient boolean sequentialRead;
 
     public DatabaseTransferProducer() {
     }
@@ -167,6 +170,28 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
         this.defaultSchema = defaultSchema;
     }
 
+    /**
+     * Continue reading from the specified row. Makes sense only for ordered reads.
+     */
+    public void setStartOffset(long startOffset) {
+        this.startOffset = startOffset;
+    }
+
+    /**
+     * Disables partitioned read, rows are read by a single query or by segments.
+     */
+    public void setSequentialRead(boolean sequentialRead) {
+        this.sequentialRead = sequentialRead;
+    }
+
+    /**
+     * Rows are read in the same order in all runs, so a sequential read can be continued from some offset.
+     * Only explicit ordering guarantees it, segments without ORDER BY may be returned in any order.
+     */
+    public boolean isOrderedRead() {
+        return dataFilter != null && dataFilter.hasOrdering();
+    }
+
     @Override
     public void transferData(
         @NotNull DBRProgressMonitor monitor1,
@@ -193,7 +218,8 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
                 readFlags |= DBSDataContainer.FLAG_USE_SELECTED_ROWS;
             }
 
-            boolean newConnection = settings.isOpenNewConnections() && !getDatabaseObject().getDataSource().getContainer().getDriver().isEmbedded();
+            boolean newConnection = (settings.isOpenNewConnections() || settings.isParallelTransfer()) &&
+                !getDatabaseObject().getDataSource().getContainer().getDriver().isEmbedded();
             boolean forceDataReadTransactions = Boolean.TRUE.equals(dataSource.getDataSourceFeature(DBPDataSource.FEATURE_LOB_REQUIRE_TRANSACTIONS));
             boolean selectiveExportFromUI = settings.isSelectedColumnsOnly() || settings.isSelectedRowsOnly();
 
@@ -264,13 +290,40 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
                         try {
                             monitor.subTask("Read data");
 
+                            List<String> partitions = null;
+                            DatabaseTransferPartitioner partitioner = selectiveExportFromUI || sequentialRead || startOffset > 0 ?
+                                null : DatabaseTransferPartitioner.create(monitor, dataContainer, settings);
+                            if (partitioner != null) {
+                                try {
+                                    partitions = partitioner.makeRangeConditions(
+                                        session, dataFilter, settings.getPartitionCount(), settings.isPartitionByQuantiles());
+                                } catch (DBCException e) {
+                                    log.warn("Can't calculate key ranges of '" + dataContainer.getName() + "'. Read data in a single query.", e);
+                                    DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
+                                    if (txnManager != null && !txnManager.isAutoCommit()) {
+                                        txnManager.rollback(session, savepoint);
+                                    }
+                                }
+                            }
+
                             // Perform export
-                            if (settings.getExtractType() == DatabaseProducerSettings.ExtractType.SINGLE_QUERY) {
+                            if (partitioner != null && !CommonUtils.isEmpty(partitions)) {
+                                // Read key ranges in parallel
+                                try {
+                                    producerStatistics.accumulate(partitioner.readPartitions(
+                                        monitor, context, consumer, dataFilter, partitions, readFlags, settings.getFetchSize(), defaultCatalog, defaultSchema));
+                                } finally {
+                                    consumer.close();
+                                }
+                            } else if (settings.getExtractType() == DatabaseProducerSettings.ExtractType.SINGLE_QUERY && startOffset <= 0) {
                                 // Just do it in single query
                                 producerStatistics.accumulate(dataContainer.readData(transferSource, session, consumer, dataFilter, -1, -1, readFlags, settings.getFetchSize()));
                             } else {
-                                // Read all data by segments
-                                long offset = 0;
+                                // Read all data by segments. Resumed transfer continues from the last committed row
+                                long offset = startOffset;
+                                if (offset > 0) {
+                                    log.debug("Resume reading '" + dataContainer.getName() + "' from row " + offset);
+                                }
                                 int segmentSize = settings.getSegmentSize();
                                 for (; ; ) {
                                     DBCStatistics statistics = dataContainer.readData(
@@ -122,6 +122,7 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
     };
 
     public static final int OUT_FILE_BUFFER_SIZE = 100000;
+    private static final int LOB_BUFFER_SIZE = 64 * 1024;
 
     private IStreamDataExporter processor;
     private StreamConsumerSettings settings;
@@ -378,7 +379,7 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
         try {
             if (outputClipboard) {
                 this.outputBuffer = new StringWriter(2048);
-                this.writer = new PrintWriter(this.outputBuffer, true);
+                this.writer = new PrintWriter(this.outputBuffer, false);
             } else {
                 openOutputStreams(session.getProgressMonitor());
             }
@@ -535,7 +536,7 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
         }
 
         if (!parameters.isBinary) {
-            this.writer = new PrintWriter(new OutputStreamWriter(this.outputStream, settings.getOutputEncoding()), true);
+            this.writer = new PrintWriter(new OutputStreamWriter(this.outputStream, settings.getOutputEncoding()), false);
         }
     }
 
@@ -1041,8 +1042,8 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
                     IOUtils.copyStream(stream, exportSite.getOutputStream());
                 }
             } else {
+                // Content is written to the writer, there is no need to flush it before each value
                 try (final InputStream stream = cs.getContentStream()) {
-                    exportSite.flush();
                     final DBPDataSource dataSource = dataContainer.getDataSource();
                     switch (settings.getLobEncoding()) {
                         case BASE64: {
@@ -1051,7 +1052,7 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
                         }
                         case HEX: {
                             writer.write("0x"); //$NON-NLS-1$
-                            byte[] buffer = new byte[5000];
+                            byte[] buffer = new byte[LOB_BUFFER_SIZE];
                             for (; ; ) {
                                 int count = stream.read(buffer);
                                 if (count <= 0) {
@@ -1074,15 +1075,15 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
                         }
                         case BINARY:
                         default: {
-                            byte[] readBuffer = new byte[1000];
+                            // Decode with reader so multibyte characters are never split between chunks
+                            Reader reader = new InputStreamReader(stream, cs.getCharset());
+                            char[] readBuffer = new char[LOB_BUFFER_SIZE];
                             for (; ; ) {
-                                int count = stream.read(readBuffer);
+                                int count = reader.read(readBuffer);
                                 if (count <= 0) {
                                     break;
                                 }
-                                String content = new String(readBuffer, 0, count, cs.getCharset());
-                                String contentAfterEscaping = JSONUtils.escapeJsonString(content);
-                                writer.write(contentAfterEscaping);
+                                writer.write(JSONUtils.escapeJsonString(new String(readBuffer, 0, count)));
                             }
                         }
                         break;
@@ -0,0 +1,163 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.data.DBDValue;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.DTUtils;
+import org.jkiss.dbeaver.tools.transfer.stream.exporter.columnar.ColumnarColumn;
+import org.jkiss.dbeaver.tools.transfer.stream.exporter.columnar.ColumnarType;
+import org.jkiss.dbeaver.utils.ContentUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Base exporter for binary columnar formats.
+ *
+ * Row values are converted to typed column buffers (by attribute data kinds) and written
+ * in batches (row groups) when the batch row count or size limit is reached.
+ */
+public abstract class ColumnarExporterAbstract extends StreamExporterAbstract {
+
+    private static final int SIZE_CHECK_INTERVAL = 1024;
+
+    private DBDAttributeBinding[] attributes;
+    private ColumnarColumn[] columns;
+    private int bufferedRows;
+
+    @Override
+    public void exportHeader(DBCSession session) throws DBException, IOException {
+        attributes = getSite().getAttributes();
+        columns = new ColumnarColumn[attributes.length];
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < attributes.length; i++) {
+            ColumnarColumn column = ColumnarColumn.forAttribute(attributes[i]);
+            String name = column.getName();
+            for (int index = 2; !names.add(name); index++) {
+                // Columnar formats do not allow duplicate column names
+                name = column.getName() + "_" + index;
+            }
+            if (!name.equals(column.getName())) {
+                column = new ColumnarColumn(name, column.getType(), column.getPrecision(), column.getScale());
+            }
+            columns[i] = column;
+        }
+        bufferedRows = 0;
+        startWriting(getOutputStream(), columns);
+    }
+
+    @Override
+    public void exportRow(DBCSession session, DBCResultSet resultSet, Object[] row) throws DBException, IOException {
+        for (int i = 0; i < columns.length; i++) {
+            addValue(session.getProgressMonitor(), resultSet, i, row[i]);
+        }
+        bufferedRows++;
+        if (bufferedRows >= getMaxBatchRows() ||
+            (bufferedRows % SIZE_CHECK_INTERVAL == 0 && getBufferedSize() >= getMaxBatchSize()))
+        {
+            writeBatch();
+            bufferedRows = 0;
+        }
+    }
+
+    @Override
+    public void exportFooter(DBRProgressMonitor monitor) throws DBException, IOException {
+        if (bufferedRows > 0) {
+            writeBatch();
+            bufferedRows = 0;
+        }
+        finishWriting();
+    }
+
+    private void addValue(@NotNull DBRProgressMonitor monitor, @NotNull DBCResultSet resultSet, int index, Object value) throws DBException {
+        ColumnarColumn column = columns[index];
+        if (DBUtils.isNullValue(value)) {
+            column.addNull();
+            return;
+        }
+        if (value instanceof DBDContent content) {
+            try {
+                if (column.getType() == ColumnarType.BINARY) {
+                    column.addValue(ContentUtils.getContentBinaryValue(monitor, content));
+                } else {
+                    column.addValue(ContentUtils.getContentStringValue(monitor, content));
+                }
+            } finally {
+                DTUtils.closeContents(resultSet, content);
+            }
+            return;
+        }
+        switch (column.getType()) {
+            case STRING -> column.addString(getValueDisplayString(attributes[index], value));
+            case BINARY -> {
+                if (value instanceof byte[] binary) {
+                    column.addBytes(binary, 0, binary.length);
+                } else {
+                    column.addString(getValueDisplayString(attributes[index], value));
+                }
+            }
+            default -> {
+                if (value instanceof DBDValue dbValue) {
+                    value = dbValue.getRawValue();
+                }
+                try {
+                    column.addValue(value);
+                } catch (RuntimeException e) {
+                    throw new DBException("Can't convert value of column '" + column.getName() + "' to " + column.getType(), e);
+                }
+            }
+        }
+    }
+
+    private long getBufferedSize() {
+        long size = 0;
+        for (ColumnarColumn column : columns) {
+            size += column.getBufferedSize();
+        }
+        return size;
+    }
+
+    /**
+     * Max number of rows in one batch (row group)
+     */
+    protected abstract int getMaxBatchRows();
+
+    /**
+     * Max size of buffered values (in bytes) of one batch (row group)
+     */
+    protected abstract long getMaxBatchSize();
+
+    protected abstract void startWriting(@NotNull OutputStream out, @NotNull ColumnarColumn[] columns) throws IOException;
+
+    /**
+     * Writes buffered values. Column buffers must be reset after that.
+     */
+    protected abstract void writeBatch() throws IOException;
+
+    protected abstract void finishWriting() throws IOException;
+
+}
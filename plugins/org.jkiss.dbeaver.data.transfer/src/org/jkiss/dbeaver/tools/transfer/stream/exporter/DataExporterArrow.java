@@ -0,0 +1,85 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.exporter.columnar.ArrowIpcWriter;
+import org.jkiss.dbeaver.tools.transfer.stream.exporter.columnar.ColumnarColumn;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Apache Arrow IPC exporter (file or streaming format)
+ */
+public class DataExporterArrow extends ColumnarExporterAbstract {
+
+    public static final String PROP_FORMAT = "format";
+    public static final String PROP_BATCH_SIZE = "batchSize";
+
+    private static final String FORMAT_STREAM = "stream";
+    private static final long MAX_BATCH_SIZE = 64 * 1024 * 1024;
+
+    private boolean fileFormat;
+    private int batchSize;
+    private ArrowIpcWriter writer;
+
+    @Override
+    public void init(IStreamDataExporterSite site) throws DBException {
+        super.init(site);
+        Map<String, Object> properties = site.getProperties();
+        fileFormat = !FORMAT_STREAM.equalsIgnoreCase(CommonUtils.toString(properties.get(PROP_FORMAT)));
+        batchSize = Math.max(1, CommonUtils.toInt(properties.get(PROP_BATCH_SIZE), 65536));
+    }
+
+    @Override
+    public void dispose() {
+        writer = null;
+        super.dispose();
+    }
+
+    @Override
+    protected int getMaxBatchRows() {
+        return batchSize;
+    }
+
+    @Override
+    protected long getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
+    @Override
+    protected void startWriting(@NotNull OutputStream out, @NotNull ColumnarColumn[] columns) throws IOException {
+        writer = new ArrowIpcWriter(out, columns, fileFormat);
+        writer.start();
+    }
+
+    @Override
+    protected void writeBatch() throws IOException {
+        writer.writeBatch();
+    }
+
+    @Override
+    protected void finishWriting() throws IOException {
+        writer.finish();
+    }
+
+}
@@ -23,6 +23,7 @@ import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
 import org.jkiss.dbeaver.model.data.DBDContent;
 import org.jkiss.dbeaver.model.data.DBDContentStorage;
 import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
 import org.jkiss.dbeaver.model.exec.DBCResultSet;
 import org.jkiss.dbeaver.model.exec.DBCSession;
 import org.jkiss.dbeaver.model.exec.DBExecUtils;
@@ -37,8 +38,10 @@ import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.utils.CommonUtils;
 
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Date;
@@ -77,6 +80,10 @@ public class DataExporterCSV extends StreamExporterAbstract implements IAppendab
     }
 
     private static final String ROW_DELIMITER_DEFAULT = "default";
+    private static final int CONTENT_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_ROW_BUFFER_SIZE = 1024 * 1024;
+    // Probe value which shows sign, grouping and fraction formatting of integer numbers
+    private static final long INTEGER_FORMAT_PROBE = -1234567L;
 
     private String delimiter;
     private char quoteChar = '"';
@@ -88,8 +95,14 @@ public class DataExporterCSV extends StreamExporterAbstract implements IAppendab
     private HeaderFormat headerFormat;
     private DBPIdentifierCase headerCase;
     private DBDAttributeBinding[] columns;
+    private DBDValueHandler[] valueHandlers;
+    private DBDDisplayFormat[] valueFormats;
+    // Integer numbers can be written without quotes check
+    private boolean plainIntegers;
+    private boolean[] integerColumns;
 
-    private final StringBuilder buffer = new StringBuilder();
+    private TextOutputBuffer out;
+    private char[] contentBuffer;
 
     @Override
     public void init(IStreamDataExporterSite site) throws DBException
@@ -126,6 +139,18 @@ public class DataExporterCSV extends StreamExporterAbstract implements IAppendab
             case "lower" -> DBPIdentifierCase.LOWER;
             default -> DBPIdentifierCase.UPPER;
         };
+        plainIntegers = !hasNumberChars(delimiter) && !hasNumberChars(rowDelimiter) &&
+            !(useQuotes && hasNumberChars(String.valueOf(quoteChar)));
+    }
+
+    private static boolean hasNumberChars(String str) {
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c == '-' || Character.isDigit(c)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
@@ -146,6 +171,19 @@ public class DataExporterCSV extends StreamExporterAbstract implements IAppendab
     public void exportHeader(DBCSession session) throws DBException, IOException
     {
         columns = getSite().getAttributes();
+        valueHandlers = new DBDValueHandler[columns.length];
+        valueFormats = new DBDDisplayFormat[columns.length];
+        integerColumns = new boolean[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            valueHandlers[i] = columns[i].getValueHandler();
+            valueFormats[i] = getValueExportFormat(columns[i]);
+            integerColumns[i] = plainIntegers &&
+                columns[i].getDataKind() == DBPDataKind.NUMERIC &&
+                !columns[i].isTransformed() &&
+                isPlainIntegerFormat(columns[i], valueHandlers[i], valueFormats[i]);
+        }
+        // Output stream changes when output is split into several files
+        out = createOutputBuffer();
         if (headerPosition == HeaderPosition.top || headerPosition == HeaderPosition.both) {
             if (headerFormat != HeaderFormat.label) {
                 DBSEntity srcEntity = DBUtils.getAdapter(DBSEntity.class, getSite().getSource());
@@ -155,7 +193,47 @@ public class DataExporterCSV extends StreamExporterAbstract implements IAppendab
         }
     }
 
-    private void printHeader()
+    /**
+     * Checks whether integer values of the column are formatted as plain decimal numbers, so they can be written
+     * without value handler. It is always true for native format, display formats may add grouping or fraction digits
+     * depending on the data formatter profile.
+     */
+    protected boolean isPlainIntegerFormat(
+        @NotNull DBDAttributeBinding column,
+        @NotNull DBDValueHandler valueHandler,
+        @NotNull DBDDisplayFormat format
+    ) {
+        try {
+            return Long.toString(INTEGER_FORMAT_PROBE).equals(
+                valueHandler.getValueDisplayString(column, INTEGER_FORMAT_PROBE, format));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Text is encoded right into the output stream if the output encoding is UTF-8.
+     * Otherwise the whole row is collected and then written to the writer.
+     */
+    @NotNull
+    protected TextOutputBuffer createOutputBuffer() throws IOException {
+        OutputStream stream = getOutputStream();
+        if (stream != null && isUTF8(getSite().getOutputEncoding())) {
+            getWriter().flush();
+            return TextOutputBuffer.forStream(stream);
+        }
+        return TextOutputBuffer.forWriter(getWriter());
+    }
+
+    private static boolean isUTF8(String encoding) {
+        try {
+            return StandardCharsets.UTF_8.equals(Charset.forName(encoding));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void printHeader() throws IOException
     {
         for (int i = 0, columnsSize = columns.length; i < columnsSize; i++) {
             DBDAttributeBinding column = columns[i];
@@ -186,6 +264,7 @@ public class DataExporterCSV extends StreamExporterAbstract implements IAppendab
             }
         }
         writeRowLimit();
+        out.flush();
     }
 
     @Override
@@ -193,7 +272,14 @@ public class DataExporterCSV extends StreamExporterAbstract implements IAppendab
     {
         for (int i = 0; i < row.length && i < columns.length; i++) {
             DBDAttributeBinding column = columns[i];
-            if (row[i] instanceof DBDContent) {
+            Object value = row[i];
+            if (integerColumns[i] && isIntegerValue(value)) {
+                // Integer number never needs quotes
+                boolean quote = useQuotes && (quoteStrategy == QuoteStrategy.ALL || quoteStrategy == QuoteStrategy.ALL_BUT_NULLS);
+                if (quote) out.append(quoteChar);
+                out.appendLong(((Number) value).longValue());
+                if (quote) out.append(quoteChar);
+            } else if (row[i] instanceof DBDContent) {
                 // Content
                 // Inline textual content and handle binaries in some special way
                 DBDContent content = (DBDContent)row[i];
@@ -204,16 +290,19 @@ public class DataExporterCSV extends StreamExporterAbstract implements IAppendab
                     } else if (ContentUtils.isTextContent(content)) {
                         writeCellValue(cs.getContentReader());
                     } else {
-//                        out.write(quoteChar);
+                        // Binary data is written by the site to the writer
+                        out.flush();
                         getSite().writeBinaryData(cs);
-//                        out.write(quoteChar);
+                        if (out.isDirect()) {
+                            getWriter().flush();
+                        }
                     }
                 }
                 finally {
                     DTUtils.closeContents(resultSet, content);
                 }
             } else {
-                String stringValue = super.getValueDisplayString(column, row[i]);
+                String stringValue = valueHandlers[i].getValueDisplayString(column, row[i], valueFormats[i]);
                 boolean quote = false;
 
                 if (quoteStrategy == QuoteStrategy.DISABLED) {
@@ -247,13 +336,21 @@ public class DataExporterCSV extends StreamExporterAbstract implements IAppendab
             }
         }
         writeRowLimit();
+        out.flush();
+    }
+
+    private static boolean isIntegerValue(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
     }
 
     @Override
-    public void exportFooter(DBRProgressMonitor monitor) {
+    public void exportFooter(DBRProgressMonitor monitor) throws IOException {
         if (headerPosition == HeaderPosition.bottom || headerPosition == HeaderPosition.both) {
             printHeader();
         }
+        if (out != null) {
+            out.flush();
+        }
     }
 
     @Override
@@ -292,44 +389,51 @@ public class DataExporterCSV extends StreamExporterAbstract implements IAppendab
             }
         }
 
+        if (quote && useQuotes) out.append(quoteChar);
         if (quote && hasQuotes) {
             // escape quotes with double quotes
-            buffer.setLength(0);
             for (int i = 0; i < value.length(); i++) {
                 char c = value.charAt(i);
                 if (c == quoteChar) {
-                    buffer.append(quoteChar);
+                    out.append(quoteChar);
                 }
-                buffer.append(c);
+                out.append(c);
             }
-            value = buffer.toString();
+        } else {
+            out.append(value);
         }
-        PrintWriter out = getWriter();
-        if (quote && useQuotes) out.write(quoteChar);
-        out.write(value);
-        if (quote && useQuotes) out.write(quoteChar);
+        if (quote && useQuotes) out.append(quoteChar);
     }
 
     private void writeCellValue(Reader reader) throws IOException
     {
         try {
-            PrintWriter out = getWriter();
-            if (useQuotes) out.write(quoteChar);
+            if (useQuotes) out.append(quoteChar);
             // Copy reader
-            char[] buffer = new char[2000];
+            if (contentBuffer == null) {
+                contentBuffer = new char[CONTENT_BUFFER_SIZE];
+            }
             for (;;) {
-                int count = reader.read(buffer);
+                int count = reader.read(contentBuffer);
                 if (count <= 0) {
                     break;
                 }
-                for (int i = 0; i < count; i++) {
-                    if (useQuotes && buffer[i] == quoteChar) {
-                        out.write(quoteChar);
+                if (!useQuotes) {
+                    out.append(contentBuffer, 0, count);
+                } else {
+                    for (int i = 0; i < count; i++) {
+                        if (contentBuffer[i] == quoteChar) {
+                            out.append(quoteChar);
+                        }
+                        out.append(contentBuffer[i]);
                     }
-                    out.write(buffer[i]);
+                }
+                if (out.size() > MAX_ROW_BUFFER_SIZE) {
+                    // Do not keep huge contents in memory
+                    out.flush();
                 }
             }
-            if (useQuotes) out.write(quoteChar);
+            if (useQuotes) out.append(quoteChar);
         } finally {
             ContentUtils.close(reader);
         }
@@ -337,12 +441,12 @@ public class DataExporterCSV extends StreamExporterAbstract implements IAppendab
 
     private void writeDelimiter()
     {
-        getWriter().write(delimiter);
+        out.append(delimiter);
     }
 
     private void writeRowLimit()
     {
-        getWriter().write(rowDelimiter);
+        out.append(rowDelimiter);
     }
 
 }
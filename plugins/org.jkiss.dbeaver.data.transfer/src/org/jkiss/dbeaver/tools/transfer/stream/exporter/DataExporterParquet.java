@@ -0,0 +1,89 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.exporter.columnar.ColumnarColumn;
+import org.jkiss.dbeaver.tools.transfer.stream.exporter.columnar.ParquetFileWriter;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Apache Parquet exporter
+ */
+public class DataExporterParquet extends ColumnarExporterAbstract {
+
+    public static final String PROP_ROW_GROUP_SIZE = "rowGroupSize";
+    public static final String PROP_PAGE_SIZE = "pageSize";
+    public static final String PROP_COMPRESSION = "compression";
+    public static final String PROP_DICTIONARY_ENCODING = "dictionaryEncoding";
+
+    private long rowGroupSize;
+    private int pageSize;
+    private ParquetFileWriter.Codec codec;
+    private boolean dictionaryEncoding;
+    private ParquetFileWriter writer;
+
+    @Override
+    public void init(IStreamDataExporterSite site) throws DBException {
+        super.init(site);
+        Map<String, Object> properties = site.getProperties();
+        rowGroupSize = Math.max(1, CommonUtils.toInt(properties.get(PROP_ROW_GROUP_SIZE), 64)) * 1024L * 1024L;
+        pageSize = Math.max(1, CommonUtils.toInt(properties.get(PROP_PAGE_SIZE), 1024)) * 1024;
+        codec = "gzip".equalsIgnoreCase(CommonUtils.toString(properties.get(PROP_COMPRESSION))) ?
+            ParquetFileWriter.Codec.GZIP : ParquetFileWriter.Codec.UNCOMPRESSED;
+        dictionaryEncoding = CommonUtils.getBoolean(properties.get(PROP_DICTIONARY_ENCODING), true);
+    }
+
+    @Override
+    public void dispose() {
+        writer = null;
+        super.dispose();
+    }
+
+    @Override
+    protected int getMaxBatchRows() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    protected long getMaxBatchSize() {
+        return rowGroupSize;
+    }
+
+    @Override
+    protected void startWriting(@NotNull OutputStream out, @NotNull ColumnarColumn[] columns) throws IOException {
+        writer = new ParquetFileWriter(out, columns, codec, dictionaryEncoding, pageSize);
+        writer.start();
+    }
+
+    @Override
+    protected void writeBatch() throws IOException {
+        writer.writeRowGroup();
+    }
+
+    @Override
+    protected void finishWriting() throws IOException {
+        writer.finish();
+    }
+
+}
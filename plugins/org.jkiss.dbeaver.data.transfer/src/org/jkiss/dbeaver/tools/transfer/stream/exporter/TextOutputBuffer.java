@@ -0,0 +1,240 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Reusable text buffer for exporters.
+ *
+ * In direct mode text is encoded to UTF-8 right into the byte buffer and then written to the output stream,
+ * otherwise characters are collected and written to the writer (which does the encoding).
+ * Buffer is written on {@link #flush()} only, so exporter may collect a whole row and write it at once.
+ */
+public class TextOutputBuffer {
+
+    private static final int INITIAL_CAPACITY = 8192;
+
+    @Nullable
+    private final OutputStream stream;
+    @Nullable
+    private final Writer writer;
+    private byte[] bytes;
+    private char[] chars;
+    private int size;
+    // High surrogate waiting for the low one (direct mode)
+    private char highSurrogate;
+
+    private TextOutputBuffer(@Nullable OutputStream stream, @Nullable Writer writer) {
+        this.stream = stream;
+        this.writer = writer;
+        if (stream != null) {
+            bytes = new byte[INITIAL_CAPACITY];
+        } else {
+            chars = new char[INITIAL_CAPACITY];
+        }
+    }
+
+    /**
+     * Buffer which encodes text to UTF-8 and writes it to the stream
+     */
+    @NotNull
+    public static TextOutputBuffer forStream(@NotNull OutputStream stream) {
+        return new TextOutputBuffer(stream, null);
+    }
+
+    @NotNull
+    public static TextOutputBuffer forWriter(@NotNull Writer writer) {
+        return new TextOutputBuffer(null, writer);
+    }
+
+    /**
+     * Returns true if text is encoded by this buffer and written to the stream bypassing the writer
+     */
+    public boolean isDirect() {
+        return stream != null;
+    }
+
+    /**
+     * Buffered size (bytes in direct mode, chars otherwise)
+     */
+    public int size() {
+        return size;
+    }
+
+    public void append(char c) {
+        if (bytes == null) {
+            if (size == chars.length) {
+                chars = Arrays.copyOf(chars, size * 2);
+            }
+            chars[size++] = c;
+        } else if (c < 0x80 && highSurrogate == 0) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = (byte) c;
+        } else {
+            encodeChar(c);
+        }
+    }
+
+    public void append(@NotNull String str) {
+        int length = str.length();
+        if (bytes == null) {
+            ensureCharCapacity(length);
+            str.getChars(0, length, chars, size);
+            size += length;
+            return;
+        }
+        ensureByteCapacity(length);
+        byte[] buffer = bytes;
+        int pos = size;
+        for (int i = 0; i < length; i++) {
+            char c = str.charAt(i);
+            if (c < 0x80 && highSurrogate == 0) {
+                if (pos == buffer.length) {
+                    size = pos;
+                    ensureByteCapacity(length - i);
+                    buffer = bytes;
+                }
+                buffer[pos++] = (byte) c;
+            } else {
+                size = pos;
+                encodeChar(c);
+                buffer = bytes;
+                pos = size;
+            }
+        }
+        size = pos;
+    }
+
+    public void append(@NotNull char[] str, int offset, int length) {
+        if (bytes == null) {
+            ensureCharCapacity(length);
+            System.arraycopy(str, offset, chars, size, length);
+            size += length;
+        } else {
+            for (int i = 0; i < length; i++) {
+                append(str[offset + i]);
+            }
+        }
+    }
+
+    /**
+     * Appends decimal representation of the number (same as {@link Long#toString(long)})
+     */
+    public void appendLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            append("-9223372036854775808");
+            return;
+        }
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long limit = 10; digits < 19 && value >= limit; limit *= 10) {
+            digits++;
+        }
+        if (bytes == null) {
+            ensureCharCapacity(digits);
+            for (int pos = size + digits - 1; pos >= size; pos--) {
+                chars[pos] = (char) ('0' + (int) (value % 10));
+                value /= 10;
+            }
+        } else {
+            ensureByteCapacity(digits);
+            for (int pos = size + digits - 1; pos >= size; pos--) {
+                bytes[pos] = (byte) ('0' + (int) (value % 10));
+                value /= 10;
+            }
+        }
+        size += digits;
+    }
+
+    /**
+     * Writes buffered text to the target stream or writer and resets the buffer
+     */
+    public void flush() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            ensureByteCapacity(1);
+            bytes[size++] = '?';
+        }
+        if (size == 0) {
+            return;
+        }
+        if (stream != null) {
+            stream.write(bytes, 0, size);
+        } else if (writer != null) {
+            writer.write(chars, 0, size);
+        }
+        size = 0;
+    }
+
+    private void encodeChar(char c) {
+        ensureByteCapacity(4);
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            // Unpaired surrogate - replaced the same way as String.getBytes does
+            bytes[size++] = '?';
+            ensureByteCapacity(4);
+        }
+        if (c < 0x80) {
+            bytes[size++] = (byte) c;
+        } else if (c < 0x800) {
+            bytes[size++] = (byte) (0xC0 | (c >> 6));
+            bytes[size++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            bytes[size++] = '?';
+        } else {
+            bytes[size++] = (byte) (0xE0 | (c >> 12));
+            bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            bytes[size++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private void ensureByteCapacity(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+
+    private void ensureCharCapacity(int extra) {
+        if (size + extra > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, size + extra));
+        }
+    }
+
+}
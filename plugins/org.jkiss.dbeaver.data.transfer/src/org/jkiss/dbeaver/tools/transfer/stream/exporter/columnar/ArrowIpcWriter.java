@@ -0,0 +1,285 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter.columnar;
+
+import org.jkiss.code.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Apache Arrow IPC writer (streaming or file format).
+ *
+ * Each {@link #writeBatch()} call writes buffered values of all columns as a record batch.
+ * File format additionally has magic strings and a footer with record batch blocks (random access).
+ */
+public class ArrowIpcWriter {
+
+    private static final byte[] FILE_MAGIC = "ARROW1".getBytes(StandardCharsets.US_ASCII);
+    private static final int CONTINUATION_MARKER = 0xFFFFFFFF;
+    private static final int METADATA_VERSION_V5 = 4;
+
+    // Message headers
+    private static final int HEADER_SCHEMA = 1;
+    private static final int HEADER_RECORD_BATCH = 3;
+
+    // Types
+    private static final int TYPE_INT = 2;
+    private static final int TYPE_FLOATING_POINT = 3;
+    private static final int TYPE_BINARY = 4;
+    private static final int TYPE_UTF8 = 5;
+    private static final int TYPE_BOOL = 6;
+    private static final int TYPE_DECIMAL = 7;
+    private static final int TYPE_DATE = 8;
+    private static final int TYPE_TIMESTAMP = 10;
+
+    private static final int PRECISION_DOUBLE = 2;
+    private static final int DATE_UNIT_DAY = 0;
+    private static final int TIME_UNIT_MICROSECOND = 2;
+
+    @NotNull
+    private final OutputStream out;
+    @NotNull
+    private final ColumnarColumn[] columns;
+    private final boolean fileFormat;
+
+    private long position;
+    private long totalRows;
+    private final ColumnarBytes metadata = new ColumnarBytes(4096);
+    private final ColumnarBytes body = new ColumnarBytes(1024 * 1024);
+    // Blocks of record batches (for file footer)
+    private final ColumnarBytes blocks = new ColumnarBytes(1024);
+    private int blockCount;
+
+    public ArrowIpcWriter(@NotNull OutputStream out, @NotNull ColumnarColumn[] columns, boolean fileFormat) {
+        this.out = out;
+        this.columns = columns;
+        this.fileFormat = fileFormat;
+    }
+
+    public void start() throws IOException {
+        if (fileFormat) {
+            write(FILE_MAGIC, 0, FILE_MAGIC.length);
+            write(new byte[2], 0, 2);
+        }
+        body.reset();
+        writeMessage(HEADER_SCHEMA, makeSchema());
+    }
+
+    /**
+     * Writes buffered values of all columns as a record batch and resets column buffers
+     */
+    public void writeBatch() throws IOException {
+        int rowCount = columns.length == 0 ? 0 : columns[0].getRowCount();
+        if (rowCount == 0) {
+            return;
+        }
+        ColumnarBytes nodes = new ColumnarBytes(columns.length * 16);
+        ColumnarBytes buffers = new ColumnarBytes(columns.length * 48);
+        int bufferCount = 0;
+        body.reset();
+        for (ColumnarColumn column : columns) {
+            nodes.writeLongLE(rowCount);
+            nodes.writeLongLE(column.getNullCount());
+
+            // Validity bitmap may be omitted if there are no nulls
+            int start = body.size();
+            if (column.getNullCount() > 0) {
+                writeBitmap(column, rowCount, true);
+            }
+            bufferCount += addBuffer(buffers, start);
+
+            start = body.size();
+            switch (column.getType()) {
+                case BOOLEAN -> writeBitmap(column, rowCount, false);
+                case INT32, DATE -> {
+                    for (int i = 0; i < rowCount; i++) {
+                        body.writeIntLE((int) column.getLong(i));
+                    }
+                }
+                case DOUBLE -> {
+                    for (int i = 0; i < rowCount; i++) {
+                        body.writeDoubleLE(column.getDouble(i));
+                    }
+                }
+                case DECIMAL -> {
+                    for (int i = 0; i < rowCount; i++) {
+                        body.writeLongLE(column.getLong(i));
+                        body.writeLongLE(column.getHigh(i));
+                    }
+                }
+                case STRING, BINARY -> {
+                    for (int i = 0; i <= rowCount; i++) {
+                        body.writeIntLE(column.getOffset(i));
+                    }
+                    bufferCount += addBuffer(buffers, start);
+                    start = body.size();
+                    body.writeBytes(column.getBytes(), 0, column.getOffset(rowCount));
+                }
+                default -> {
+                    for (int i = 0; i < rowCount; i++) {
+                        body.writeLongLE(column.getLong(i));
+                    }
+                }
+            }
+            bufferCount += addBuffer(buffers, start);
+            column.reset();
+        }
+
+        FlatBufferWriter.Table recordBatch = new FlatBufferWriter.Table()
+            .addLong(0, rowCount)
+            .addStructVector(1, nodes, columns.length)
+            .addStructVector(2, buffers, bufferCount);
+        long blockOffset = position;
+        int metadataLength = writeMessage(HEADER_RECORD_BATCH, recordBatch);
+
+        blocks.writeLongLE(blockOffset);
+        blocks.writeIntLE(metadataLength);
+        blocks.writeIntLE(0);
+        blocks.writeLongLE(body.size());
+        blockCount++;
+        totalRows += rowCount;
+    }
+
+    /**
+     * Writes end-of-stream marker and file footer. Remaining buffered values must be written before.
+     */
+    public void finish() throws IOException {
+        metadata.reset();
+        metadata.writeIntLE(CONTINUATION_MARKER);
+        metadata.writeIntLE(0);
+        write(metadata.data(), 0, metadata.size());
+        if (fileFormat) {
+            FlatBufferWriter.Table footer = new FlatBufferWriter.Table()
+                .addShort(0, METADATA_VERSION_V5)
+                .addTable(1, makeSchema())
+                .addStructVector(2, new ColumnarBytes(0), 0)
+                .addStructVector(3, blocks, blockCount);
+            metadata.reset();
+            int footerLength = new FlatBufferWriter(metadata).finish(footer);
+            metadata.writeIntLE(footerLength);
+            metadata.writeBytes(FILE_MAGIC);
+            write(metadata.data(), 0, metadata.size());
+        }
+        out.flush();
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    /**
+     * Writes encapsulated message: continuation marker, metadata length, metadata flatbuffer and body.
+     *
+     * @return metadata length including prefix and padding
+     */
+    private int writeMessage(int headerType, @NotNull FlatBufferWriter.Table header) throws IOException {
+        FlatBufferWriter.Table message = new FlatBufferWriter.Table()
+            .addShort(0, METADATA_VERSION_V5)
+            .addByte(1, headerType)
+            .addTable(2, header)
+            .addLong(3, body.size());
+        metadata.reset();
+        metadata.writeIntLE(CONTINUATION_MARKER);
+        metadata.writeIntLE(0);
+        int flatBufferLength = new FlatBufferWriter(metadata).finish(message);
+        metadata.setIntLE(4, flatBufferLength);
+        write(metadata.data(), 0, metadata.size());
+        write(body.data(), 0, body.size());
+        return metadata.size();
+    }
+
+    private void write(@NotNull byte[] data, int offset, int length) throws IOException {
+        out.write(data, offset, length);
+        position += length;
+    }
+
+    private int addBuffer(@NotNull ColumnarBytes buffers, int start) {
+        buffers.writeLongLE(start);
+        buffers.writeLongLE(body.size() - start);
+        body.align(8);
+        return 1;
+    }
+
+    private void writeBitmap(@NotNull ColumnarColumn column, int rowCount, boolean validity) {
+        for (int i = 0; i < rowCount; i += 8) {
+            int bits = 0;
+            for (int j = 0; j < 8 && i + j < rowCount; j++) {
+                boolean set = validity ? !column.isNull(i + j) : column.getLong(i + j) != 0;
+                if (set) {
+                    bits |= 1 << j;
+                }
+            }
+            body.writeByte(bits);
+        }
+    }
+
+    @NotNull
+    private FlatBufferWriter.Table makeSchema() {
+        List<FlatBufferWriter.Table> fields = new ArrayList<>(columns.length);
+        for (ColumnarColumn column : columns) {
+            FlatBufferWriter.Table type = new FlatBufferWriter.Table();
+            int typeId;
+            switch (column.getType()) {
+                case BOOLEAN -> typeId = TYPE_BOOL;
+                case INT32 -> {
+                    typeId = TYPE_INT;
+                    type.addInt(0, 32).addBool(1, true);
+                }
+                case INT64 -> {
+                    typeId = TYPE_INT;
+                    type.addInt(0, 64).addBool(1, true);
+                }
+                case DOUBLE -> {
+                    typeId = TYPE_FLOATING_POINT;
+                    type.addShort(0, PRECISION_DOUBLE);
+                }
+                case DECIMAL -> {
+                    typeId = TYPE_DECIMAL;
+                    type.addInt(0, column.getPrecision()).addInt(1, column.getScale()).addInt(2, 128);
+                }
+                case DATE -> {
+                    typeId = TYPE_DATE;
+                    type.addShort(0, DATE_UNIT_DAY);
+                }
+                case TIMESTAMP -> {
+                    typeId = TYPE_TIMESTAMP;
+                    type.addShort(0, TIME_UNIT_MICROSECOND);
+                }
+                case TIMESTAMP_TZ -> {
+                    typeId = TYPE_TIMESTAMP;
+                    type.addShort(0, TIME_UNIT_MICROSECOND).addString(1, "UTC");
+                }
+                case BINARY -> typeId = TYPE_BINARY;
+                default -> typeId = TYPE_UTF8;
+            }
+            fields.add(new FlatBufferWriter.Table()
+                .addString(0, column.getName())
+                .addBool(1, true)
+                .addByte(2, typeId)
+                .addTable(3, type)
+                .addTableVector(5, new ArrayList<>()));
+        }
+        return new FlatBufferWriter.Table()
+            .addShort(0, 0)
+            .addTableVector(1, fields);
+    }
+
+}
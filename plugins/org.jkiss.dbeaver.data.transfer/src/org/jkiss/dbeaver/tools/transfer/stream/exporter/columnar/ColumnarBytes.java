@@ -0,0 +1,141 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter.columnar;
+
+import org.jkiss.code.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer with little-endian and varint writers.
+ * Used to build pages, message bodies and metadata of columnar formats.
+ */
+public class ColumnarBytes {
+
+    private byte[] data;
+    private int size;
+
+    public ColumnarBytes(int initialCapacity) {
+        this.data = new byte[Math.max(16, initialCapacity)];
+    }
+
+    @NotNull
+    public byte[] data() {
+        return data;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void reset() {
+        size = 0;
+    }
+
+    public void ensureCapacity(int extra) {
+        if (size + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+        }
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        data[size++] = (byte) value;
+    }
+
+    public void writeBytes(@NotNull byte[] bytes) {
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    public void writeBytes(@NotNull byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, data, size, length);
+        size += length;
+    }
+
+    public void writeShortLE(int value) {
+        ensureCapacity(2);
+        data[size++] = (byte) value;
+        data[size++] = (byte) (value >>> 8);
+    }
+
+    public void writeIntLE(int value) {
+        ensureCapacity(4);
+        data[size++] = (byte) value;
+        data[size++] = (byte) (value >>> 8);
+        data[size++] = (byte) (value >>> 16);
+        data[size++] = (byte) (value >>> 24);
+    }
+
+    public void writeLongLE(long value) {
+        ensureCapacity(8);
+        for (int i = 0; i < 8; i++) {
+            data[size++] = (byte) (value >>> (i * 8));
+        }
+    }
+
+    public void writeDoubleLE(double value) {
+        writeLongLE(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Unsigned LEB128 varint
+     */
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            data[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[size++] = (byte) value;
+    }
+
+    public void writeZeros(int count) {
+        ensureCapacity(count);
+        Arrays.fill(data, size, size + count, (byte) 0);
+        size += count;
+    }
+
+    /**
+     * Pads buffer with zeros up to the specified alignment
+     */
+    public void align(int alignment) {
+        int rem = size % alignment;
+        if (rem != 0) {
+            writeZeros(alignment - rem);
+        }
+    }
+
+    public void setIntLE(int position, int value) {
+        data[position] = (byte) value;
+        data[position + 1] = (byte) (value >>> 8);
+        data[position + 2] = (byte) (value >>> 16);
+        data[position + 3] = (byte) (value >>> 24);
+    }
+
+    public void writeTo(@NotNull OutputStream out) throws IOException {
+        out.write(data, 0, size);
+    }
+
+    @NotNull
+    public byte[] toByteArray() {
+        return Arrays.copyOf(data, size);
+    }
+
+}
@@ -0,0 +1,418 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter.columnar;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.utils.CommonUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.time.*;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Typed column buffer.
+ *
+ * Keeps values of one column for the current row group (record batch) in primitive arrays.
+ * Variable length values are kept in a single byte buffer with offsets.
+ */
+public class ColumnarColumn {
+
+    public static final int MAX_DECIMAL_PRECISION = 38;
+
+    @NotNull
+    private final String name;
+    @NotNull
+    private final ColumnarType type;
+    private final int precision;
+    private final int scale;
+
+    private int rowCount;
+    private int nullCount;
+    private boolean[] nulls;
+    // BOOLEAN, INT32, INT64, DATE, TIMESTAMP and low 64 bits of DECIMAL
+    private long[] longs;
+    // High 64 bits of DECIMAL
+    private long[] highs;
+    private double[] doubles;
+    // STRING and BINARY
+    private int[] offsets;
+    private ColumnarBytes bytes;
+
+    public ColumnarColumn(@NotNull String name, @NotNull ColumnarType type, int precision, int scale) {
+        this.name = name;
+        this.type = type;
+        this.precision = precision;
+        this.scale = scale;
+        int capacity = 1024;
+        this.nulls = new boolean[capacity];
+        switch (type) {
+            case DOUBLE -> this.doubles = new double[capacity];
+            case STRING, BINARY -> {
+                this.offsets = new int[capacity + 1];
+                this.bytes = new ColumnarBytes(capacity * 16);
+            }
+            case DECIMAL -> {
+                this.longs = new long[capacity];
+                this.highs = new long[capacity];
+            }
+            default -> this.longs = new long[capacity];
+        }
+    }
+
+    /**
+     * Makes column for the attribute. Type is chosen by attribute data kind and type ID.
+     * Values which have no exact columnar representation are exported as strings.
+     */
+    @NotNull
+    public static ColumnarColumn forAttribute(@NotNull DBDAttributeBinding attribute) {
+        String name = attribute.getLabel();
+        if (CommonUtils.isEmpty(name)) {
+            name = attribute.getName();
+        }
+        int precision = CommonUtils.toInt(attribute.getPrecision());
+        int scale = CommonUtils.toInt(attribute.getScale());
+        ColumnarType type = getColumnType(attribute, precision, scale);
+        if (type == ColumnarType.DECIMAL && attribute.getTypeID() == Types.BIGINT) {
+            // Unsigned bigint
+            precision = 20;
+            scale = 0;
+        }
+        return new ColumnarColumn(name, type, precision, scale);
+    }
+
+    @NotNull
+    private static ColumnarType getColumnType(@NotNull DBDAttributeBinding attribute, int precision, int scale) {
+        boolean unsigned = CommonUtils.notEmpty(attribute.getTypeName()).toLowerCase(Locale.ENGLISH).contains("unsigned");
+        switch (attribute.getDataKind()) {
+            case BOOLEAN:
+                return ColumnarType.BOOLEAN;
+            case NUMERIC:
+                switch (attribute.getTypeID()) {
+                    case Types.TINYINT:
+                    case Types.SMALLINT:
+                        return ColumnarType.INT32;
+                    case Types.INTEGER:
+                        return unsigned ? ColumnarType.INT64 : ColumnarType.INT32;
+                    case Types.BIGINT:
+                        return unsigned ? ColumnarType.DECIMAL : ColumnarType.INT64;
+                    case Types.NUMERIC:
+                    case Types.DECIMAL:
+                        if (precision > 0 && precision <= MAX_DECIMAL_PRECISION && scale >= 0 && scale <= precision) {
+                            return ColumnarType.DECIMAL;
+                        }
+                        // Unbounded numbers
+                        return ColumnarType.STRING;
+                    default:
+                        return ColumnarType.DOUBLE;
+                }
+            case DATETIME:
+                switch (attribute.getTypeID()) {
+                    case Types.DATE:
+                        return ColumnarType.DATE;
+                    case Types.TIMESTAMP:
+                        return ColumnarType.TIMESTAMP;
+                    case Types.TIMESTAMP_WITH_TIMEZONE:
+                        return ColumnarType.TIMESTAMP_TZ;
+                    default:
+                        return ColumnarType.STRING;
+                }
+            case BINARY:
+                return ColumnarType.BINARY;
+            case CONTENT:
+                switch (attribute.getTypeID()) {
+                    case Types.BLOB:
+                    case Types.BINARY:
+                    case Types.VARBINARY:
+                    case Types.LONGVARBINARY:
+                        return ColumnarType.BINARY;
+                    default:
+                        return ColumnarType.STRING;
+                }
+            default:
+                return ColumnarType.STRING;
+        }
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    @NotNull
+    public ColumnarType getType() {
+        return type;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getNullCount() {
+        return nullCount;
+    }
+
+    public boolean isNull(int row) {
+        return nulls[row];
+    }
+
+    public long getLong(int row) {
+        return longs[row];
+    }
+
+    public long getHigh(int row) {
+        return highs[row];
+    }
+
+    public double getDouble(int row) {
+        return doubles[row];
+    }
+
+    public int getOffset(int row) {
+        return offsets[row];
+    }
+
+    public int getLength(int row) {
+        return offsets[row + 1] - offsets[row];
+    }
+
+    @NotNull
+    public byte[] getBytes() {
+        return bytes.data();
+    }
+
+    /**
+     * Approximate size of buffered values in bytes
+     */
+    public long getBufferedSize() {
+        return switch (type) {
+            case STRING, BINARY -> bytes.size() + 4L * rowCount;
+            case DECIMAL -> 16L * rowCount;
+            case BOOLEAN -> rowCount / 8 + 1;
+            case INT32, DATE -> 4L * rowCount;
+            default -> 8L * rowCount;
+        };
+    }
+
+    public void reset() {
+        rowCount = 0;
+        nullCount = 0;
+        if (bytes != null) {
+            bytes.reset();
+        }
+    }
+
+    public void addNull() {
+        int row = nextRow();
+        nulls[row] = true;
+        nullCount++;
+        if (longs != null) {
+            longs[row] = 0;
+        }
+        if (highs != null) {
+            highs[row] = 0;
+        }
+        if (doubles != null) {
+            doubles[row] = 0;
+        }
+        if (offsets != null) {
+            offsets[row + 1] = offsets[row];
+        }
+    }
+
+    /**
+     * Adds value of any supported Java type. Strings and binaries must be converted by the caller.
+     *
+     * @throws IllegalArgumentException if value can't be converted to the column type
+     */
+    public void addValue(@Nullable Object value) {
+        if (value == null) {
+            addNull();
+            return;
+        }
+        switch (type) {
+            case BOOLEAN -> addLong(value instanceof Boolean bool ? (bool ? 1 : 0) : (CommonUtils.toBoolean(value) ? 1 : 0));
+            case INT32 -> {
+                long longValue = toLong(value);
+                if (longValue < Integer.MIN_VALUE || longValue > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Value " + value + " is out of 32-bit integer range");
+                }
+                addLong(longValue);
+            }
+            case INT64 -> addLong(toLong(value));
+            case DOUBLE -> addDouble(value instanceof Number number ? number.doubleValue() : Double.parseDouble(value.toString()));
+            case DECIMAL -> addDecimal(toDecimal(value));
+            case DATE -> addLong(toLocalDate(value).toEpochDay());
+            case TIMESTAMP -> addLong(toMicros(toLocalDateTime(value).toInstant(ZoneOffset.UTC)));
+            case TIMESTAMP_TZ -> addLong(toMicros(toInstant(value)));
+            case STRING -> addString(value.toString());
+            case BINARY -> {
+                if (value instanceof byte[] binary) {
+                    addBytes(binary, 0, binary.length);
+                } else {
+                    addString(value.toString());
+                }
+            }
+        }
+    }
+
+    public void addLong(long value) {
+        int row = nextRow();
+        nulls[row] = false;
+        longs[row] = value;
+    }
+
+    public void addDouble(double value) {
+        int row = nextRow();
+        nulls[row] = false;
+        doubles[row] = value;
+    }
+
+    public void addDecimal(@NotNull BigDecimal value) {
+        BigDecimal scaled = value.setScale(scale, RoundingMode.HALF_UP);
+        if (scaled.precision() > precision) {
+            throw new IllegalArgumentException("Value " + value + " doesn't fit into DECIMAL(" + precision + "," + scale + ")");
+        }
+        BigInteger unscaled = scaled.unscaledValue();
+        int row = nextRow();
+        nulls[row] = false;
+        longs[row] = unscaled.longValue();
+        highs[row] = unscaled.shiftRight(64).longValue();
+    }
+
+    public void addString(@NotNull String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        addBytes(utf8, 0, utf8.length);
+    }
+
+    public void addBytes(@NotNull byte[] value, int offset, int length) {
+        int row = nextRow();
+        nulls[row] = false;
+        bytes.writeBytes(value, offset, length);
+        offsets[row + 1] = bytes.size();
+    }
+
+    private int nextRow() {
+        if (rowCount == nulls.length) {
+            int capacity = rowCount * 2;
+            nulls = Arrays.copyOf(nulls, capacity);
+            if (longs != null) {
+                longs = Arrays.copyOf(longs, capacity);
+            }
+            if (highs != null) {
+                highs = Arrays.copyOf(highs, capacity);
+            }
+            if (doubles != null) {
+                doubles = Arrays.copyOf(doubles, capacity);
+            }
+            if (offsets != null) {
+                offsets = Arrays.copyOf(offsets, capacity + 1);
+            }
+        }
+        return rowCount++;
+    }
+
+    private static long toLong(@NotNull Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal.setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } else if (value instanceof BigInteger bigInteger) {
+            return bigInteger.longValueExact();
+        } else if (value instanceof Number number) {
+            return number.longValue();
+        } else if (value instanceof Boolean bool) {
+            return bool ? 1 : 0;
+        }
+        return Long.parseLong(value.toString().trim());
+    }
+
+    @NotNull
+    private static BigDecimal toDecimal(@NotNull Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        } else if (value instanceof BigInteger bigInteger) {
+            return new BigDecimal(bigInteger);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        return new BigDecimal(value.toString().trim());
+    }
+
+    @NotNull
+    private static LocalDate toLocalDate(@NotNull Object value) {
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        } else if (value instanceof LocalDate localDate) {
+            return localDate;
+        }
+        return toLocalDateTime(value).toLocalDate();
+    }
+
+    @NotNull
+    private static LocalDateTime toLocalDateTime(@NotNull Object value) {
+        if (value instanceof java.sql.Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        } else if (value instanceof java.sql.Date date) {
+            return date.toLocalDate().atStartOfDay();
+        } else if (value instanceof java.util.Date date) {
+            return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+        } else if (value instanceof LocalDateTime localDateTime) {
+            return localDateTime;
+        } else if (value instanceof LocalDate localDate) {
+            return localDate.atStartOfDay();
+        } else if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toLocalDateTime();
+        } else if (value instanceof ZonedDateTime zonedDateTime) {
+            return zonedDateTime.toLocalDateTime();
+        } else if (value instanceof Instant instant) {
+            return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+        }
+        throw new IllegalArgumentException("Unsupported date/time value type: " + value.getClass().getName());
+    }
+
+    @NotNull
+    private static Instant toInstant(@NotNull Object value) {
+        if (value instanceof java.util.Date date && !(value instanceof java.sql.Date)) {
+            return date.toInstant();
+        } else if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toInstant();
+        } else if (value instanceof ZonedDateTime zonedDateTime) {
+            return zonedDateTime.toInstant();
+        } else if (value instanceof Instant instant) {
+            return instant;
+        }
+        return toLocalDateTime(value).atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static long toMicros(@NotNull Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1000);
+    }
+
+}
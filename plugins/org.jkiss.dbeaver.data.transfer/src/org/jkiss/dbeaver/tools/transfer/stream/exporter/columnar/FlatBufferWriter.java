@@ -0,0 +1,236 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter.columnar;
+
+import org.jkiss.code.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal FlatBuffers serializer (used by Arrow IPC metadata).
+ *
+ * Tables are described as trees and serialized front-to-back: each object is written before
+ * its children, so all offsets point forward. The vtable of each table is written right before the table.
+ */
+public class FlatBufferWriter {
+
+    private static final int KIND_SCALAR = 0;
+    private static final int KIND_TABLE = 1;
+    private static final int KIND_STRING = 2;
+    private static final int KIND_TABLE_VECTOR = 3;
+    private static final int KIND_STRUCT_VECTOR = 4;
+
+    private static class Field {
+        final int id;
+        final int kind;
+        final int size;
+        final long value;
+        final Object reference;
+        int offset;
+
+        Field(int id, int kind, int size, long value, Object reference) {
+            this.id = id;
+            this.kind = kind;
+            this.size = size;
+            this.value = value;
+            this.reference = reference;
+        }
+    }
+
+    /**
+     * Table description. Fields are written with their values even if they are equal to defaults.
+     */
+    public static class Table {
+        private final List<Field> fields = new ArrayList<>();
+
+        @NotNull
+        public Table addBool(int id, boolean value) {
+            return addScalar(id, 1, value ? 1 : 0);
+        }
+
+        @NotNull
+        public Table addByte(int id, int value) {
+            return addScalar(id, 1, value);
+        }
+
+        @NotNull
+        public Table addShort(int id, int value) {
+            return addScalar(id, 2, value);
+        }
+
+        @NotNull
+        public Table addInt(int id, int value) {
+            return addScalar(id, 4, value);
+        }
+
+        @NotNull
+        public Table addLong(int id, long value) {
+            return addScalar(id, 8, value);
+        }
+
+        @NotNull
+        public Table addTable(int id, @NotNull Table table) {
+            fields.add(new Field(id, KIND_TABLE, 4, 0, table));
+            return this;
+        }
+
+        @NotNull
+        public Table addString(int id, @NotNull String value) {
+            fields.add(new Field(id, KIND_STRING, 4, 0, value.getBytes(StandardCharsets.UTF_8)));
+            return this;
+        }
+
+        @NotNull
+        public Table addTableVector(int id, @NotNull List<Table> tables) {
+            fields.add(new Field(id, KIND_TABLE_VECTOR, 4, 0, tables));
+            return this;
+        }
+
+        /**
+         * Adds vector of structs. Structs must be already serialized (little-endian, 8-byte aligned).
+         */
+        @NotNull
+        public Table addStructVector(int id, @NotNull ColumnarBytes structs, int count) {
+            fields.add(new Field(id, KIND_STRUCT_VECTOR, 4, count, structs));
+            return this;
+        }
+
+        @NotNull
+        private Table addScalar(int id, int size, long value) {
+            fields.add(new Field(id, KIND_SCALAR, size, value, null));
+            return this;
+        }
+    }
+
+    private final ColumnarBytes buffer;
+
+    public FlatBufferWriter(@NotNull ColumnarBytes buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Serializes root table. Returned size is padded to 8 bytes.
+     */
+    public int finish(@NotNull Table root) {
+        int start = buffer.size();
+        buffer.writeIntLE(0);
+        int rootPos = writeTable(root);
+        buffer.setIntLE(start, rootPos - start);
+        buffer.align(8);
+        return buffer.size() - start;
+    }
+
+    private int writeTable(@NotNull Table table) {
+        // Layout: soffset to vtable, then fields ordered by size (largest first) with natural alignment
+        List<Field> fields = new ArrayList<>(table.fields);
+        fields.sort((f1, f2) -> Integer.compare(f2.size, f1.size));
+        int maxId = -1;
+        int cursor = 4;
+        for (Field field : fields) {
+            cursor = (cursor + field.size - 1) / field.size * field.size;
+            field.offset = cursor;
+            cursor += field.size;
+            maxId = Math.max(maxId, field.id);
+        }
+        int tableSize = cursor;
+
+        // VTable
+        buffer.align(2);
+        int vtablePos = buffer.size();
+        buffer.writeShortLE(4 + 2 * (maxId + 1));
+        buffer.writeShortLE(tableSize);
+        int[] fieldOffsets = new int[maxId + 1];
+        for (Field field : fields) {
+            fieldOffsets[field.id] = field.offset;
+        }
+        for (int offset : fieldOffsets) {
+            buffer.writeShortLE(offset);
+        }
+
+        // Table (8-byte aligned so all scalars are aligned)
+        buffer.align(8);
+        int tablePos = buffer.size();
+        buffer.writeZeros(tableSize);
+        buffer.setIntLE(tablePos, tablePos - vtablePos);
+        byte[] data = buffer.data();
+        for (Field field : fields) {
+            if (field.kind == KIND_SCALAR) {
+                for (int i = 0; i < field.size; i++) {
+                    data[tablePos + field.offset + i] = (byte) (field.value >>> (i * 8));
+                }
+            }
+        }
+
+        // Referenced objects
+        for (Field field : fields) {
+            int target;
+            switch (field.kind) {
+                case KIND_TABLE -> target = writeTable((Table) field.reference);
+                case KIND_STRING -> target = writeString((byte[]) field.reference);
+                case KIND_TABLE_VECTOR -> target = writeTableVector(castTables(field.reference));
+                case KIND_STRUCT_VECTOR -> target = writeStructVector((ColumnarBytes) field.reference, (int) field.value);
+                default -> {
+                    continue;
+                }
+            }
+            int fieldPos = tablePos + field.offset;
+            buffer.setIntLE(fieldPos, target - fieldPos);
+        }
+        return tablePos;
+    }
+
+    private int writeString(@NotNull byte[] value) {
+        buffer.align(4);
+        int pos = buffer.size();
+        buffer.writeIntLE(value.length);
+        buffer.writeBytes(value);
+        buffer.writeByte(0);
+        return pos;
+    }
+
+    private int writeTableVector(@NotNull List<Table> tables) {
+        buffer.align(4);
+        int pos = buffer.size();
+        buffer.writeIntLE(tables.size());
+        int slotsPos = buffer.size();
+        buffer.writeZeros(tables.size() * 4);
+        for (int i = 0; i < tables.size(); i++) {
+            int target = writeTable(tables.get(i));
+            int slotPos = slotsPos + i * 4;
+            buffer.setIntLE(slotPos, target - slotPos);
+        }
+        return pos;
+    }
+
+    private int writeStructVector(@NotNull ColumnarBytes structs, int count) {
+        // Length is followed by 8-byte aligned elements
+        buffer.align(8);
+        buffer.writeZeros(4);
+        int pos = buffer.size();
+        buffer.writeIntLE(count);
+        buffer.writeBytes(structs.data(), 0, structs.size());
+        return pos;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Table> castTables(Object reference) {
+        return (List<Table>) reference;
+    }
+
+}
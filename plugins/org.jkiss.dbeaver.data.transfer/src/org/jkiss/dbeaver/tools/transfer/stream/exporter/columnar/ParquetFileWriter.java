@@ -0,0 +1,668 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter.columnar;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Apache Parquet file writer.
+ *
+ * Each {@link #writeRowGroup()} call writes buffered values of all columns as a new row group.
+ * All columns are optional (definition levels are RLE encoded). Values are written with dictionary
+ * encoding (RLE/bit-packed indices) when the dictionary is smaller than plain values, otherwise
+ * with plain encoding. Pages are optionally compressed with GZIP. Column chunk statistics contain null counts only.
+ */
+public class ParquetFileWriter {
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+
+    public static final int DEFAULT_PAGE_SIZE = 1024 * 1024;
+    private static final int MAX_DICTIONARY_SIZE = 1024 * 1024;
+    private static final int MAX_DICTIONARY_ENTRIES = 65536;
+    private static final int MAX_BIT_PACKED_GROUPS = 63;
+
+    // Physical types
+    private static final int TYPE_BOOLEAN = 0;
+    private static final int TYPE_INT32 = 1;
+    private static final int TYPE_INT64 = 2;
+    private static final int TYPE_DOUBLE = 5;
+    private static final int TYPE_BYTE_ARRAY = 6;
+    private static final int TYPE_FIXED_LEN_BYTE_ARRAY = 7;
+
+    // Converted types
+    private static final int CONVERTED_UTF8 = 0;
+    private static final int CONVERTED_DECIMAL = 5;
+    private static final int CONVERTED_DATE = 6;
+    private static final int CONVERTED_TIMESTAMP_MICROS = 10;
+
+    // Logical types
+    private static final int LOGICAL_STRING = 1;
+    private static final int LOGICAL_DECIMAL = 5;
+    private static final int LOGICAL_DATE = 6;
+    private static final int LOGICAL_TIMESTAMP = 8;
+    private static final int TIME_UNIT_MICROS = 2;
+
+    private static final int REPETITION_OPTIONAL = 1;
+
+    // Encodings
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_PLAIN_DICTIONARY = 2;
+    private static final int ENCODING_RLE = 3;
+
+    // Page types
+    private static final int PAGE_DATA = 0;
+    private static final int PAGE_DICTIONARY = 2;
+
+    private static final int DECIMAL_FIXED_LENGTH = 16;
+
+    public enum Codec {
+        UNCOMPRESSED(0),
+        GZIP(2);
+
+        private final int id;
+
+        Codec(int id) {
+            this.id = id;
+        }
+    }
+
+    private static class ColumnChunkInfo {
+        long startOffset;
+        long dataPageOffset;
+        long dictionaryPageOffset = -1;
+        long numValues;
+        long nullCount;
+        long uncompressedSize;
+        long compressedSize;
+    }
+
+    private static class RowGroupInfo {
+        long rowCount;
+        ColumnChunkInfo[] chunks;
+    }
+
+    private static class Dictionary {
+        int size;
+        int[] entryRows;
+        int[] indices;
+        long byteSize;
+    }
+
+    @NotNull
+    private final OutputStream out;
+    @NotNull
+    private final ColumnarColumn[] columns;
+    @NotNull
+    private final Codec codec;
+    private final boolean useDictionary;
+    private final int pageSize;
+
+    private long position;
+    private long totalRows;
+    private final List<RowGroupInfo> rowGroups = new ArrayList<>();
+
+    private final ColumnarBytes pageBody = new ColumnarBytes(DEFAULT_PAGE_SIZE);
+    private final ColumnarBytes compressedBody = new ColumnarBytes(DEFAULT_PAGE_SIZE);
+    private final ColumnarBytes pageHeader = new ColumnarBytes(256);
+    private int[] levels = new int[0];
+    private int[] indices = new int[0];
+
+    public ParquetFileWriter(
+        @NotNull OutputStream out,
+        @NotNull ColumnarColumn[] columns,
+        @NotNull Codec codec,
+        boolean useDictionary,
+        int pageSize
+    ) {
+        this.out = out;
+        this.columns = columns;
+        this.codec = codec;
+        this.useDictionary = useDictionary;
+        this.pageSize = pageSize > 0 ? pageSize : DEFAULT_PAGE_SIZE;
+    }
+
+    public void start() throws IOException {
+        write(MAGIC, 0, MAGIC.length);
+    }
+
+    /**
+     * Writes buffered values of all columns as a new row group and resets column buffers
+     */
+    public void writeRowGroup() throws IOException {
+        int rowCount = columns.length == 0 ? 0 : columns[0].getRowCount();
+        if (rowCount == 0) {
+            return;
+        }
+        RowGroupInfo rowGroup = new RowGroupInfo();
+        rowGroup.rowCount = rowCount;
+        rowGroup.chunks = new ColumnChunkInfo[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            rowGroup.chunks[i] = writeColumnChunk(columns[i]);
+            columns[i].reset();
+        }
+        rowGroups.add(rowGroup);
+        totalRows += rowCount;
+    }
+
+    /**
+     * Writes file metadata footer. Remaining buffered values must be written before.
+     */
+    public void finish() throws IOException {
+        ColumnarBytes metadata = new ColumnarBytes(4096 + rowGroups.size() * columns.length * 64);
+        writeFileMetaData(new ThriftCompactWriter(metadata));
+        metadata.writeIntLE(metadata.size());
+        metadata.writeBytes(MAGIC);
+        write(metadata.data(), 0, metadata.size());
+        out.flush();
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    private void write(@NotNull byte[] data, int offset, int length) throws IOException {
+        out.write(data, offset, length);
+        position += length;
+    }
+
+    ///////////////////////////////////////////////////////////////
+    // Column chunks
+
+    @NotNull
+    private ColumnChunkInfo writeColumnChunk(@NotNull ColumnarColumn column) throws IOException {
+        int rowCount = column.getRowCount();
+        ColumnChunkInfo chunk = new ColumnChunkInfo();
+        chunk.startOffset = position;
+        chunk.numValues = rowCount;
+        chunk.nullCount = column.getNullCount();
+
+        long plainSize = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (!column.isNull(row)) {
+                plainSize += getPlainValueSize(column, row);
+            }
+        }
+        Dictionary dictionary = useDictionary ? buildDictionary(column, plainSize) : null;
+        if (dictionary != null) {
+            chunk.dictionaryPageOffset = position;
+            pageBody.reset();
+            for (int i = 0; i < dictionary.size; i++) {
+                writePlainValue(pageBody, column, dictionary.entryRows[i]);
+            }
+            writePage(chunk, PAGE_DICTIONARY, dictionary.size, ENCODING_PLAIN_DICTIONARY);
+        }
+
+        chunk.dataPageOffset = position;
+        int pageRows = (int) Math.max(1, Math.min(rowCount, (long) pageSize * rowCount / Math.max(1, plainSize)));
+        for (int from = 0; from < rowCount; from += pageRows) {
+            writeDataPage(chunk, column, dictionary, from, Math.min(pageRows, rowCount - from));
+        }
+        return chunk;
+    }
+
+    private void writeDataPage(
+        @NotNull ColumnChunkInfo chunk,
+        @NotNull ColumnarColumn column,
+        @Nullable Dictionary dictionary,
+        int from,
+        int count
+    ) throws IOException {
+        if (levels.length < count) {
+            levels = new int[count];
+            indices = new int[count];
+        }
+        int valueCount = 0;
+        for (int i = 0; i < count; i++) {
+            boolean isNull = column.isNull(from + i);
+            levels[i] = isNull ? 0 : 1;
+            if (!isNull && dictionary != null) {
+                indices[valueCount] = dictionary.indices[from + i];
+            }
+            if (!isNull) {
+                valueCount++;
+            }
+        }
+
+        pageBody.reset();
+        // Definition levels with length prefix
+        int levelsPos = pageBody.size();
+        pageBody.writeIntLE(0);
+        encodeRleHybrid(pageBody, levels, count, 1);
+        pageBody.setIntLE(levelsPos, pageBody.size() - levelsPos - 4);
+
+        if (dictionary != null) {
+            int bitWidth = getBitWidth(dictionary.size);
+            pageBody.writeByte(bitWidth);
+            encodeRleHybrid(pageBody, indices, valueCount, bitWidth);
+        } else if (column.getType() == ColumnarType.BOOLEAN) {
+            int bits = 0;
+            int acc = 0;
+            for (int i = 0; i < count; i++) {
+                if (!column.isNull(from + i)) {
+                    acc |= (column.getLong(from + i) != 0 ? 1 : 0) << bits;
+                    if (++bits == 8) {
+                        pageBody.writeByte(acc);
+                        acc = 0;
+                        bits = 0;
+                    }
+                }
+            }
+            if (bits > 0) {
+                pageBody.writeByte(acc);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                if (!column.isNull(from + i)) {
+                    writePlainValue(pageBody, column, from + i);
+                }
+            }
+        }
+        writePage(chunk, PAGE_DATA, count, dictionary == null ? ENCODING_PLAIN : ENCODING_PLAIN_DICTIONARY);
+    }
+
+    /**
+     * Writes page header and body (compressed if needed)
+     */
+    private void writePage(@NotNull ColumnChunkInfo chunk, int pageType, int valueCount, int encoding) throws IOException {
+        ColumnarBytes body = pageBody;
+        if (codec == Codec.GZIP) {
+            compressedBody.reset();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(new BytesOutputStream(compressedBody), 64 * 1024)) {
+                gzip.write(pageBody.data(), 0, pageBody.size());
+            }
+            body = compressedBody;
+        }
+
+        pageHeader.reset();
+        ThriftCompactWriter thrift = new ThriftCompactWriter(pageHeader);
+        thrift.structBegin();
+        thrift.fieldI32(1, pageType);
+        thrift.fieldI32(2, pageBody.size());
+        thrift.fieldI32(3, body.size());
+        if (pageType == PAGE_DATA) {
+            thrift.fieldStructBegin(5);
+            thrift.fieldI32(1, valueCount);
+            thrift.fieldI32(2, encoding);
+            thrift.fieldI32(3, ENCODING_RLE);
+            thrift.fieldI32(4, ENCODING_RLE);
+            thrift.structEnd();
+        } else {
+            thrift.fieldStructBegin(7);
+            thrift.fieldI32(1, valueCount);
+            thrift.fieldI32(2, encoding);
+            thrift.structEnd();
+        }
+        thrift.structEnd();
+
+        write(pageHeader.data(), 0, pageHeader.size());
+        write(body.data(), 0, body.size());
+        chunk.uncompressedSize += pageHeader.size() + pageBody.size();
+        chunk.compressedSize += pageHeader.size() + body.size();
+    }
+
+    ///////////////////////////////////////////////////////////////
+    // Dictionary
+
+    @Nullable
+    private static Dictionary buildDictionary(@NotNull ColumnarColumn column, long plainSize) {
+        int rowCount = column.getRowCount();
+        int valueCount = rowCount - column.getNullCount();
+        if (column.getType() == ColumnarType.BOOLEAN || valueCount == 0) {
+            return null;
+        }
+        int tableSize = Integer.highestOneBit(Math.max(8, Math.min(valueCount, MAX_DICTIONARY_ENTRIES)) * 2 - 1) << 1;
+        int[] table = new int[tableSize];
+        Dictionary dictionary = new Dictionary();
+        dictionary.entryRows = new int[Math.min(valueCount, 1024)];
+        dictionary.indices = new int[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            if (column.isNull(row)) {
+                dictionary.indices[row] = -1;
+                continue;
+            }
+            int slot = hashValue(column, row) & (tableSize - 1);
+            int entry;
+            for (; ; ) {
+                entry = table[slot] - 1;
+                if (entry < 0) {
+                    // New entry
+                    if (dictionary.size == MAX_DICTIONARY_ENTRIES) {
+                        return null;
+                    }
+                    entry = dictionary.size++;
+                    if (entry == dictionary.entryRows.length) {
+                        dictionary.entryRows = Arrays.copyOf(dictionary.entryRows, entry * 2);
+                    }
+                    dictionary.entryRows[entry] = row;
+                    dictionary.byteSize += getPlainValueSize(column, row);
+                    if (dictionary.byteSize > MAX_DICTIONARY_SIZE) {
+                        return null;
+                    }
+                    table[slot] = entry + 1;
+                    break;
+                }
+                if (equalValues(column, dictionary.entryRows[entry], row)) {
+                    break;
+                }
+                slot = (slot + 1) & (tableSize - 1);
+            }
+            dictionary.indices[row] = entry;
+        }
+        long indicesSize = (long) valueCount * getBitWidth(dictionary.size) / 8;
+        if (dictionary.byteSize + indicesSize >= plainSize) {
+            // No profit
+            return null;
+        }
+        return dictionary;
+    }
+
+    private static int hashValue(@NotNull ColumnarColumn column, int row) {
+        int hash;
+        switch (column.getType()) {
+            case STRING, BINARY -> {
+                byte[] bytes = column.getBytes();
+                hash = 1;
+                for (int i = column.getOffset(row), end = column.getOffset(row + 1); i < end; i++) {
+                    hash = 31 * hash + bytes[i];
+                }
+            }
+            case DOUBLE -> hash = Long.hashCode(Double.doubleToRawLongBits(column.getDouble(row)));
+            case DECIMAL -> hash = Long.hashCode(column.getLong(row) * 31 + column.getHigh(row));
+            default -> hash = Long.hashCode(column.getLong(row));
+        }
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equalValues(@NotNull ColumnarColumn column, int row1, int row2) {
+        return switch (column.getType()) {
+            case STRING, BINARY -> {
+                byte[] bytes = column.getBytes();
+                yield Arrays.equals(
+                    bytes, column.getOffset(row1), column.getOffset(row1 + 1),
+                    bytes, column.getOffset(row2), column.getOffset(row2 + 1));
+            }
+            case DOUBLE -> Double.doubleToRawLongBits(column.getDouble(row1)) == Double.doubleToRawLongBits(column.getDouble(row2));
+            case DECIMAL -> column.getLong(row1) == column.getLong(row2) && column.getHigh(row1) == column.getHigh(row2);
+            default -> column.getLong(row1) == column.getLong(row2);
+        };
+    }
+
+    static int getBitWidth(int dictionarySize) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(dictionarySize - 1));
+    }
+
+    ///////////////////////////////////////////////////////////////
+    // Encodings
+
+    /**
+     * Encodes values with RLE/bit-packing hybrid encoding.
+     * Runs of 8+ equal values are RLE encoded, other values are bit-packed by groups of 8.
+     */
+    static void encodeRleHybrid(@NotNull ColumnarBytes out, @NotNull int[] values, int count, int bitWidth) {
+        int byteWidth = (bitWidth + 7) / 8;
+        long mask = (1L << bitWidth) - 1;
+        int groupsHeaderPos = -1;
+        int groups = 0;
+        int i = 0;
+        while (i < count) {
+            int run = 1;
+            while (i + run < count && values[i + run] == values[i]) {
+                run++;
+            }
+            if (run >= 8 || i + run == count) {
+                if (groupsHeaderPos >= 0) {
+                    out.data()[groupsHeaderPos] = (byte) ((groups << 1) | 1);
+                    groupsHeaderPos = -1;
+                }
+                out.writeVarLong((long) run << 1);
+                for (int b = 0; b < byteWidth; b++) {
+                    out.writeByte(values[i] >>> (b * 8));
+                }
+                i += run;
+            } else {
+                if (groupsHeaderPos < 0) {
+                    groupsHeaderPos = out.size();
+                    out.writeByte(0);
+                    groups = 0;
+                }
+                long acc = 0;
+                int bits = 0;
+                for (int j = 0; j < 8; j++) {
+                    long value = i + j < count ? values[i + j] & mask : 0;
+                    acc |= value << bits;
+                    bits += bitWidth;
+                    while (bits >= 8) {
+                        out.writeByte((int) acc);
+                        acc >>>= 8;
+                        bits -= 8;
+                    }
+                }
+                i += 8;
+                if (++groups == MAX_BIT_PACKED_GROUPS) {
+                    out.data()[groupsHeaderPos] = (byte) ((groups << 1) | 1);
+                    groupsHeaderPos = -1;
+                }
+            }
+        }
+        if (groupsHeaderPos >= 0) {
+            out.data()[groupsHeaderPos] = (byte) ((groups << 1) | 1);
+        }
+    }
+
+    private static int getPlainValueSize(@NotNull ColumnarColumn column, int row) {
+        return switch (column.getType()) {
+            case BOOLEAN -> 1;
+            case INT32, DATE -> 4;
+            case DECIMAL -> column.getPrecision() <= 9 ? 4 : column.getPrecision() <= 18 ? 8 : DECIMAL_FIXED_LENGTH;
+            case STRING, BINARY -> 4 + column.getLength(row);
+            default -> 8;
+        };
+    }
+
+    private static void writePlainValue(@NotNull ColumnarBytes out, @NotNull ColumnarColumn column, int row) {
+        switch (column.getType()) {
+            case INT32, DATE -> out.writeIntLE((int) column.getLong(row));
+            case DOUBLE -> out.writeDoubleLE(column.getDouble(row));
+            case DECIMAL -> {
+                if (column.getPrecision() <= 9) {
+                    out.writeIntLE((int) column.getLong(row));
+                } else if (column.getPrecision() <= 18) {
+                    out.writeLongLE(column.getLong(row));
+                } else {
+                    // Big-endian two's complement
+                    long high = column.getHigh(row);
+                    long low = column.getLong(row);
+                    for (int i = 7; i >= 0; i--) {
+                        out.writeByte((int) (high >>> (i * 8)));
+                    }
+                    for (int i = 7; i >= 0; i--) {
+                        out.writeByte((int) (low >>> (i * 8)));
+                    }
+                }
+            }
+            case STRING, BINARY -> {
+                out.writeIntLE(column.getLength(row));
+                out.writeBytes(column.getBytes(), column.getOffset(row), column.getLength(row));
+            }
+            default -> out.writeLongLE(column.getLong(row));
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////
+    // Metadata
+
+    private void writeFileMetaData(@NotNull ThriftCompactWriter thrift) {
+        thrift.structBegin();
+        thrift.fieldI32(1, 1);
+        thrift.fieldListBegin(2, ThriftCompactWriter.TYPE_STRUCT, columns.length + 1);
+        thrift.structBegin();
+        thrift.fieldString(4, "schema");
+        thrift.fieldI32(5, columns.length);
+        thrift.structEnd();
+        for (ColumnarColumn column : columns) {
+            writeSchemaElement(thrift, column);
+        }
+        thrift.fieldI64(3, totalRows);
+        thrift.fieldListBegin(4, ThriftCompactWriter.TYPE_STRUCT, rowGroups.size());
+        for (int i = 0; i < rowGroups.size(); i++) {
+            writeRowGroup(thrift, rowGroups.get(i), i);
+        }
+        thrift.fieldString(6, "DBeaver");
+        thrift.structEnd();
+    }
+
+    private static void writeSchemaElement(@NotNull ThriftCompactWriter thrift, @NotNull ColumnarColumn column) {
+        thrift.structBegin();
+        thrift.fieldI32(1, getPhysicalType(column));
+        if (getPhysicalType(column) == TYPE_FIXED_LEN_BYTE_ARRAY) {
+            thrift.fieldI32(2, DECIMAL_FIXED_LENGTH);
+        }
+        thrift.fieldI32(3, REPETITION_OPTIONAL);
+        thrift.fieldString(4, column.getName());
+        switch (column.getType()) {
+            case STRING -> {
+                thrift.fieldI32(6, CONVERTED_UTF8);
+                thrift.fieldStructBegin(10);
+                thrift.fieldStructBegin(LOGICAL_STRING);
+                thrift.structEnd();
+                thrift.structEnd();
+            }
+            case DECIMAL -> {
+                thrift.fieldI32(6, CONVERTED_DECIMAL);
+                thrift.fieldI32(7, column.getScale());
+                thrift.fieldI32(8, column.getPrecision());
+                thrift.fieldStructBegin(10);
+                thrift.fieldStructBegin(LOGICAL_DECIMAL);
+                thrift.fieldI32(1, column.getScale());
+                thrift.fieldI32(2, column.getPrecision());
+                thrift.structEnd();
+                thrift.structEnd();
+            }
+            case DATE -> {
+                thrift.fieldI32(6, CONVERTED_DATE);
+                thrift.fieldStructBegin(10);
+                thrift.fieldStructBegin(LOGICAL_DATE);
+                thrift.structEnd();
+                thrift.structEnd();
+            }
+            case TIMESTAMP, TIMESTAMP_TZ -> {
+                boolean adjustedToUTC = column.getType() == ColumnarType.TIMESTAMP_TZ;
+                if (adjustedToUTC) {
+                    // Legacy converted type means UTC-adjusted timestamp
+                    thrift.fieldI32(6, CONVERTED_TIMESTAMP_MICROS);
+                }
+                thrift.fieldStructBegin(10);
+                thrift.fieldStructBegin(LOGICAL_TIMESTAMP);
+                thrift.fieldBool(1, adjustedToUTC);
+                thrift.fieldStructBegin(2);
+                thrift.fieldStructBegin(TIME_UNIT_MICROS);
+                thrift.structEnd();
+                thrift.structEnd();
+                thrift.structEnd();
+                thrift.structEnd();
+            }
+            default -> {
+                // No annotations
+            }
+        }
+        thrift.structEnd();
+    }
+
+    private void writeRowGroup(@NotNull ThriftCompactWriter thrift, @NotNull RowGroupInfo rowGroup, int ordinal) {
+        long uncompressedSize = 0;
+        long compressedSize = 0;
+        thrift.structBegin();
+        thrift.fieldListBegin(1, ThriftCompactWriter.TYPE_STRUCT, columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            ColumnarColumn column = columns[i];
+            ColumnChunkInfo chunk = rowGroup.chunks[i];
+            uncompressedSize += chunk.uncompressedSize;
+            compressedSize += chunk.compressedSize;
+            boolean dictionary = chunk.dictionaryPageOffset >= 0;
+
+            thrift.structBegin();
+            thrift.fieldI64(2, chunk.startOffset);
+            thrift.fieldStructBegin(3);
+            thrift.fieldI32(1, getPhysicalType(column));
+            thrift.fieldListBegin(2, ThriftCompactWriter.TYPE_I32, 2);
+            thrift.writeI32(dictionary ? ENCODING_PLAIN_DICTIONARY : ENCODING_PLAIN);
+            thrift.writeI32(ENCODING_RLE);
+            thrift.fieldListBegin(3, ThriftCompactWriter.TYPE_BINARY, 1);
+            thrift.writeString(column.getName());
+            thrift.fieldI32(4, codec.id);
+            thrift.fieldI64(5, chunk.numValues);
+            thrift.fieldI64(6, chunk.uncompressedSize);
+            thrift.fieldI64(7, chunk.compressedSize);
+            thrift.fieldI64(9, chunk.dataPageOffset);
+            if (dictionary) {
+                thrift.fieldI64(11, chunk.dictionaryPageOffset);
+            }
+            thrift.fieldStructBegin(12);
+            thrift.fieldI64(3, chunk.nullCount);
+            thrift.structEnd();
+            thrift.structEnd();
+            thrift.structEnd();
+        }
+        thrift.fieldI64(2, uncompressedSize);
+        thrift.fieldI64(3, rowGroup.rowCount);
+        thrift.fieldI64(5, rowGroup.chunks.length == 0 ? 0 : rowGroup.chunks[0].startOffset);
+        thrift.fieldI64(6, compressedSize);
+        thrift.fieldI16(7, ordinal);
+        thrift.structEnd();
+    }
+
+    private static int getPhysicalType(@NotNull ColumnarColumn column) {
+        return switch (column.getType()) {
+            case BOOLEAN -> TYPE_BOOLEAN;
+            case INT32, DATE -> TYPE_INT32;
+            case DOUBLE -> TYPE_DOUBLE;
+            case DECIMAL -> column.getPrecision() <= 9 ? TYPE_INT32 :
+                column.getPrecision() <= 18 ? TYPE_INT64 : TYPE_FIXED_LEN_BYTE_ARRAY;
+            case STRING, BINARY -> TYPE_BYTE_ARRAY;
+            default -> TYPE_INT64;
+        };
+    }
+
+    private static class BytesOutputStream extends OutputStream {
+        private final ColumnarBytes bytes;
+
+        BytesOutputStream(ColumnarBytes bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void write(int b) {
+            bytes.writeByte(b);
+        }
+
+        @Override
+        public void write(@NotNull byte[] b, int off, int len) {
+            bytes.writeBytes(b, off, len);
+        }
+    }
+
+}
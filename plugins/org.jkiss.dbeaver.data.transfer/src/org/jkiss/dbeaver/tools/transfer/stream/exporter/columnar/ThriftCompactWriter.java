@@ -0,0 +1,132 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter.columnar;
+
+import org.jkiss.code.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Minimal writer of Thrift compact protocol (used by Parquet metadata).
+ * Fields must be written in ascending order of field IDs.
+ */
+public class ThriftCompactWriter {
+
+    public static final int TYPE_BOOLEAN_TRUE = 1;
+    public static final int TYPE_BOOLEAN_FALSE = 2;
+    public static final int TYPE_I16 = 4;
+    public static final int TYPE_I32 = 5;
+    public static final int TYPE_I64 = 6;
+    public static final int TYPE_BINARY = 8;
+    public static final int TYPE_LIST = 9;
+    public static final int TYPE_STRUCT = 12;
+
+    @NotNull
+    private final ColumnarBytes out;
+    private int[] fieldIdStack = new int[16];
+    private int stackSize;
+    private int lastFieldId;
+
+    public ThriftCompactWriter(@NotNull ColumnarBytes out) {
+        this.out = out;
+    }
+
+    public void structBegin() {
+        if (stackSize == fieldIdStack.length) {
+            fieldIdStack = Arrays.copyOf(fieldIdStack, stackSize * 2);
+        }
+        fieldIdStack[stackSize++] = lastFieldId;
+        lastFieldId = 0;
+    }
+
+    public void structEnd() {
+        out.writeByte(0);
+        lastFieldId = fieldIdStack[--stackSize];
+    }
+
+    public void fieldBool(int id, boolean value) {
+        fieldHeader(id, value ? TYPE_BOOLEAN_TRUE : TYPE_BOOLEAN_FALSE);
+    }
+
+    public void fieldI16(int id, int value) {
+        fieldHeader(id, TYPE_I16);
+        writeI32(value);
+    }
+
+    public void fieldI32(int id, int value) {
+        fieldHeader(id, TYPE_I32);
+        writeI32(value);
+    }
+
+    public void fieldI64(int id, long value) {
+        fieldHeader(id, TYPE_I64);
+        writeI64(value);
+    }
+
+    public void fieldString(int id, @NotNull String value) {
+        fieldHeader(id, TYPE_BINARY);
+        writeString(value);
+    }
+
+    /**
+     * Starts nested struct field. Must be closed with {@link #structEnd()}
+     */
+    public void fieldStructBegin(int id) {
+        fieldHeader(id, TYPE_STRUCT);
+        structBegin();
+    }
+
+    /**
+     * Starts list field. Elements must be written right after this call.
+     */
+    public void fieldListBegin(int id, int elementType, int size) {
+        fieldHeader(id, TYPE_LIST);
+        if (size < 15) {
+            out.writeByte((size << 4) | elementType);
+        } else {
+            out.writeByte(0xF0 | elementType);
+            out.writeVarLong(size);
+        }
+    }
+
+    public void writeI32(int value) {
+        out.writeVarLong(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    public void writeI64(long value) {
+        out.writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeString(@NotNull String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeVarLong(bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private void fieldHeader(int id, int type) {
+        int delta = id - lastFieldId;
+        if (delta > 0 && delta <= 15) {
+            out.writeByte((delta << 4) | type);
+        } else {
+            out.writeByte(type);
+            writeI32(id);
+        }
+        lastFieldId = id;
+    }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.importer;
+
+import org.jkiss.code.NotNull;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits CSV file into chunks at record boundaries.
+ *
+ * File is scanned byte by byte (through memory-mapped windows) with the same quote and escape rules as CSV parser uses,
+ * so new lines inside quoted values never end a chunk. Scan doesn't decode or copy data, it is much faster than parsing.
+ * Only single-byte encodings and UTF-8 are supported: in these encodings bytes of ASCII characters never appear
+ * inside other characters.
+ */
+public class CSVChunkSplitter {
+
+    private static final int SCAN_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final byte delimiter;
+    private final byte quoteChar;
+    private final byte escapeChar;
+    private final long chunkSize;
+
+    public CSVChunkSplitter(@NotNull FileChannel channel, char delimiter, char quoteChar, char escapeChar, long chunkSize) throws IOException {
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.delimiter = (byte) delimiter;
+        this.quoteChar = (byte) quoteChar;
+        this.escapeChar = (byte) escapeChar;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Checks that file with specified encoding and control characters can be split by this splitter
+     */
+    public static boolean isSupported(@NotNull Charset charset, char delimiter, char quoteChar, char escapeChar) {
+        if (delimiter >= 0x80 || quoteChar >= 0x80 || escapeChar >= 0x80 || quoteChar == escapeChar ||
+            delimiter == '\n' || delimiter == '\r')
+        {
+            return false;
+        }
+        if (charset.equals(StandardCharsets.UTF_8)) {
+            return true;
+        }
+        try {
+            if (charset.newEncoder().maxBytesPerChar() > 1) {
+                return false;
+            }
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+        // Single-byte encoding must be ASCII compatible
+        String controlChars = "\n\r" + delimiter + quoteChar + escapeChar;
+        byte[] bytes = controlChars.getBytes(charset);
+        if (bytes.length != controlChars.length()) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != (byte) controlChars.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Returns offset of the first data byte (skips UTF-8 byte order mark)
+     */
+    public long getDataStart() throws IOException {
+        if (fileSize < UTF8_BOM.length) {
+            return 0;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, UTF8_BOM.length);
+        for (int i = 0; i < UTF8_BOM.length; i++) {
+            if (buffer.get(i) != UTF8_BOM[i]) {
+                return 0;
+            }
+        }
+        return UTF8_BOM.length;
+    }
+
+    /**
+     * Finds end of the chunk which starts at the specified record start.
+     * Chunk ends after the first record end found after the chunk size. The last chunk ends at the end of file.
+     */
+    public long findChunkEnd(long start) throws IOException {
+        if (start + chunkSize >= fileSize) {
+            return fileSize;
+        }
+        long minEnd = start + chunkSize;
+        boolean inQuotes = false;
+        boolean inField = false;
+        boolean pendingEscape = false;
+        boolean pendingQuote = false;
+        for (long windowStart = start; windowStart < fileSize; windowStart += SCAN_WINDOW_SIZE) {
+            int windowSize = (int) Math.min(SCAN_WINDOW_SIZE, fileSize - windowStart);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+            for (int i = 0; i < windowSize; i++) {
+                byte b = buffer.get(i);
+                if (pendingEscape) {
+                    pendingEscape = false;
+                    if (b == quoteChar || b == escapeChar) {
+                        // Escaped character
+                        continue;
+                    }
+                }
+                if (pendingQuote) {
+                    pendingQuote = false;
+                    if (b == quoteChar) {
+                        // Doubled quote
+                        inField = !inField;
+                        continue;
+                    }
+                    inQuotes = !inQuotes;
+                    inField = !inField;
+                }
+                if (b == escapeChar) {
+                    pendingEscape = inQuotes || inField;
+                } else if (b == quoteChar) {
+                    if (inQuotes || inField) {
+                        // May be a doubled quote, check the next character
+                        pendingQuote = true;
+                    } else {
+                        inQuotes = true;
+                        inField = true;
+                    }
+                } else if (b == '\n' || b == '\r') {
+                    // Parser reads file line by line, field state is reset on each line
+                    inField = false;
+                    if (b == '\n' && !inQuotes && windowStart + i + 1 >= minEnd) {
+                        return windowStart + i + 1;
+                    }
+                } else if (b == delimiter) {
+                    // Quoted delimiter is a part of the value
+                    inField = inQuotes;
+                } else {
+                    inField = true;
+                }
+            }
+        }
+        return fileSize;
+    }
+
+}
@@ -0,0 +1,264 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.importer;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Parses CSV file in parallel.
+ *
+ * File is split into chunks by {@link CSVChunkSplitter}. Each chunk is memory-mapped, decoded and parsed
+ * by one of the worker jobs. Parsed chunks are returned one by one - in file order or in order of completion.
+ * Total size of chunks which are being parsed or wait for the reader is limited, workers don't cut new chunks
+ * until the reader takes enough of them.
+ */
+class CSVParallelReader implements AutoCloseable {
+
+    private static final Log log = Log.getLog(CSVParallelReader.class);
+
+    // Reader checks cancellation while it waits for parsed chunks
+    private static final long WAIT_TIMEOUT = 100;
+
+    interface ChunkParser {
+        /**
+         * Parses all records of the chunk. The first chunk starts at the beginning of file (it contains header).
+         */
+        @NotNull
+        List<String[]> parseChunk(@NotNull Reader reader, boolean firstChunk) throws IOException;
+    }
+
+    private final FileChannel channel;
+    private final CSVChunkSplitter splitter;
+    private final Charset charset;
+    private final ChunkParser parser;
+    private final boolean ordered;
+    private final long maxBytesInMemory;
+    private final List<ChunkParseJob> jobs = new ArrayList<>();
+    private final Object splitLock = new Object();
+
+    // Guarded by splitLock
+    private long nextChunkStart;
+    private int nextChunkIndex;
+    // Guarded by this
+    private final Map<Integer, ParsedChunk> parsedChunks = new HashMap<>();
+    private int returnedChunks;
+    // Size of chunks which are cut but not returned yet
+    private long bytesInMemory;
+    private int activeJobs;
+    private boolean closed;
+    private Throwable error;
+
+    CSVParallelReader(
+        @NotNull Path file,
+        @NotNull Charset charset,
+        char delimiter,
+        char quoteChar,
+        char escapeChar,
+        long chunkSize,
+        int threadCount,
+        long maxBytesInMemory,
+        boolean ordered,
+        @NotNull ChunkParser parser) throws IOException
+    {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.splitter = new CSVChunkSplitter(channel, delimiter, quoteChar, escapeChar, chunkSize);
+        this.charset = charset;
+        this.parser = parser;
+        this.ordered = ordered;
+        this.maxBytesInMemory = maxBytesInMemory;
+        try {
+            this.nextChunkStart = splitter.getDataStart();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        for (int i = 0; i < threadCount; i++) {
+            jobs.add(new ChunkParseJob(file.getFileName() + " (parser " + (i + 1) + ")"));
+        }
+        activeJobs = jobs.size();
+        for (ChunkParseJob job : jobs) {
+            job.schedule();
+        }
+    }
+
+    /**
+     * Returns rows of the next parsed chunk or null if all chunks were read or the monitor is canceled.
+     */
+    @Nullable
+    synchronized List<String[]> nextChunk(@NotNull DBRProgressMonitor monitor) throws IOException, InterruptedException {
+        for (;;) {
+            if (error != null) {
+                if (error instanceof IOException ioe) {
+                    throw ioe;
+                }
+                throw new IOException("Error parsing CSV chunk", error);
+            }
+            ParsedChunk chunk;
+            if (ordered) {
+                chunk = parsedChunks.remove(returnedChunks);
+            } else {
+                Iterator<ParsedChunk> iterator = parsedChunks.values().iterator();
+                chunk = null;
+                if (iterator.hasNext()) {
+                    chunk = iterator.next();
+                    iterator.remove();
+                }
+            }
+            if (chunk != null) {
+                returnedChunks++;
+                bytesInMemory -= chunk.length;
+                notifyAll();
+                return chunk.rows;
+            }
+            if (activeJobs == 0 || monitor.isCanceled()) {
+                return null;
+            }
+            wait(WAIT_TIMEOUT);
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            parsedChunks.clear();
+            notifyAll();
+        }
+        for (ChunkParseJob job : jobs) {
+            try {
+                job.join();
+            } catch (InterruptedException e) {
+                log.debug("Interrupted while waiting for CSV parser", e);
+                break;
+            }
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Error closing CSV file", e);
+        }
+    }
+
+    @Nullable
+    private Chunk cutNextChunk() throws IOException, InterruptedException {
+        synchronized (splitLock) {
+            synchronized (this) {
+                // The first chunk is always allowed, otherwise a chunk bigger than the limit would block all workers
+                while (!closed && error == null && bytesInMemory > 0 && bytesInMemory >= maxBytesInMemory) {
+                    wait();
+                }
+                if (closed || error != null) {
+                    return null;
+                }
+            }
+            if (nextChunkStart >= splitter.getFileSize()) {
+                return null;
+            }
+            long start = nextChunkStart;
+            long end = splitter.findChunkEnd(start);
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("CSV record at offset " + start + " is too big for parallel parsing");
+            }
+            nextChunkStart = end;
+            synchronized (this) {
+                bytesInMemory += end - start;
+            }
+            return new Chunk(nextChunkIndex++, start, (int) (end - start));
+        }
+    }
+
+    @NotNull
+    private List<String[]> parseChunk(@NotNull Chunk chunk) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start, chunk.length);
+        // Malformed input is replaced the same way as InputStreamReader does
+        CharBuffer chars = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE)
+            .decode(buffer);
+        // Decoder always allocates heap buffer
+        Reader reader = new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+        return parser.parseChunk(reader, chunk.index == 0);
+    }
+
+    private synchronized void setError(@NotNull Throwable e) {
+        if (error == null) {
+            error = e;
+        }
+        notifyAll();
+    }
+
+    private record Chunk(int index, long start, int length) {
+    }
+
+    private record ParsedChunk(int length, List<String[]> rows) {
+    }
+
+    private class ChunkParseJob extends AbstractJob {
+
+        ChunkParseJob(@NotNull String name) {
+            super("Parse " + name);
+            setSystem(true);
+            setUser(false);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            try {
+                for (;;) {
+                    Chunk chunk = cutNextChunk();
+                    if (chunk == null) {
+                        break;
+                    }
+                    List<String[]> rows = parseChunk(chunk);
+                    synchronized (CSVParallelReader.this) {
+                        if (closed) {
+                            break;
+                        }
+                        parsedChunks.put(chunk.index, new ParsedChunk(chunk.length, rows));
+                        CSVParallelReader.this.notifyAll();
+                    }
+                }
+            } catch (Throwable e) {
+                setError(e);
+            } finally {
+                synchronized (CSVParallelReader.this) {
+                    activeJobs--;
+                    CSVParallelReader.this.notifyAll();
+                }
+            }
+            return Status.OK_STATUS;
+        }
+    }
+}
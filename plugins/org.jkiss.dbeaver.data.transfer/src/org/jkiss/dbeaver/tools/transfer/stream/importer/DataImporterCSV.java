@@ -39,6 +39,8 @@ import org.jkiss.utils.io.BOMInputStream;
 
 import java.io.*;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -57,13 +59,24 @@ public class DataImporterCSV extends StreamImporterAbstract {
     private static final String PROP_EMPTY_STRING_NULL = "emptyStringNull";
     private static final String PROP_ESCAPE_CHAR = "escapeChar";
     private static final String PROP_TRIM_WHITESPACES = "trimWhitespaces";
+    private static final String PROP_PARALLEL_PARSING = "parallelParsing";
+    private static final String PROP_KEEP_ROW_ORDER = "keepRowOrder";
     public static final int READ_BUFFER_SIZE = 255 * 1024;
+    private static final int PARALLEL_CHUNK_SIZE = 4 * 1024 * 1024;
+    // Limits file data which is being parsed or waits for the consumer. Parsed rows take a few times more memory
+    private static final long PARALLEL_MAX_BUFFERED_SIZE = 64 * 1024 * 1024;
+    private static final int MAX_PARALLEL_THREADS = 16;
 
     public enum HeaderPosition {
         none,
         top,
     }
 
+    private int targetAttrSize;
+    private boolean emptyStringNull;
+    private boolean trimWhitespaces;
+    private String nullValueMark;
+
     public DataImporterCSV() {
     }
 
@@ -158,16 +171,21 @@ public class DataImporterCSV extends StreamImporterAbstract {
     }
 
     private CSVReader openCSVReader(Reader reader, Map<String, Object> processorProperties) {
-        String delimiter = StreamTransferUtils.getDelimiterString(processorProperties, PROP_DELIMITER);
+        return new CSVReader(reader, getDelimiterChar(processorProperties), getQuoteChar(processorProperties), getEscapeChar(processorProperties));
+    }
+
+    private static char getDelimiterChar(Map<String, Object> processorProperties) {
+        return StreamTransferUtils.getDelimiterString(processorProperties, PROP_DELIMITER).charAt(0);
+    }
+
+    private static char getQuoteChar(Map<String, Object> processorProperties) {
         String quoteChar = CommonUtils.toString(processorProperties.get(PROP_QUOTE_CHAR));
-        if (CommonUtils.isEmpty(quoteChar)) {
-            quoteChar = "'";
-        }
+        return CommonUtils.isEmpty(quoteChar) ? '\'' : quoteChar.charAt(0);
+    }
+
+    private static char getEscapeChar(Map<String, Object> processorProperties) {
         String escapeChar = CommonUtils.toString(processorProperties.get(PROP_ESCAPE_CHAR));
-        if (CommonUtils.isEmpty(escapeChar)) {
-            escapeChar = "\\";
-        }
-        return new CSVReader(reader, delimiter.charAt(0), quoteChar.charAt(0), escapeChar.charAt(0));
+        return CommonUtils.isEmpty(escapeChar) ? '\\' : escapeChar.charAt(0);
     }
 
     private Reader openStreamReader(InputStream inputStream, Map<String, Object> processorProperties, boolean useBufferedStream) throws UnsupportedEncodingException {
@@ -202,10 +220,10 @@ public class DataImporterCSV extends StreamImporterAbstract {
         IStreamDataImporterSite site = getSite();
         StreamEntityMapping entityMapping = site.getSourceObject();
         Map<String, Object> properties = site.getProcessorProperties();
-        HeaderPosition headerPosition = getHeaderPosition(properties);
-        boolean emptyStringNull = CommonUtils.getBoolean(properties.get(PROP_EMPTY_STRING_NULL), false);
-        boolean trimWhitespaces = CommonUtils.getBoolean(properties.get(PROP_TRIM_WHITESPACES), false);
-        String nullValueMark = CommonUtils.toString(properties.get(PROP_NULL_STRING));
+        emptyStringNull = CommonUtils.getBoolean(properties.get(PROP_EMPTY_STRING_NULL), false);
+        trimWhitespaces = CommonUtils.getBoolean(properties.get(PROP_TRIM_WHITESPACES), false);
+        nullValueMark = CommonUtils.toString(properties.get(PROP_NULL_STRING));
+        targetAttrSize = entityMapping.getStreamColumns().size();
 
         DBCExecutionContext context = streamDataSource.getDefaultInstance().getDefaultContext(monitor, false);
         try (DBCSession producerSession = context.openSession(monitor, DBCExecutionPurpose.UTIL, "Transfer stream data")) {
@@ -216,72 +234,12 @@ public class DataImporterCSV extends StreamImporterAbstract {
 
             applyTransformHints(resultSet, consumer, properties, PROP_TIMESTAMP_FORMAT, PROP_TIMESTAMP_ZONE);
 
-            try (Reader reader = openStreamReader(inputStream, properties, true)) {
-                try (CSVReader csvReader = openCSVReader(reader, properties)) {
-
-                    int maxRows = site.getSettings().getMaxRows();
-                    int targetAttrSize = entityMapping.getStreamColumns().size();
-                    boolean headerRead = false;
-                    for (long lineNum = 0; ; ) {
-                        if (monitor.isCanceled()) {
-                            break;
-                        }
-                        String[] line = csvReader.readNext();
-                        if (line == null) {
-                            if (csvReader.getParser().isPending()) {
-                                throw new IOException("Un-terminated quote sequence was detected");
-                            }
-                            break;
-                        }
-                        if (line.length == 0) {
-                            continue;
-                        }
-                        if (headerPosition != HeaderPosition.none && !headerRead) {
-                            // First line is a header
-                            headerRead = true;
-                            continue;
-                        }
-                        if (maxRows > 0 && lineNum >= maxRows) {
-                            break;
-                        }
-
-                        if (line.length < targetAttrSize) {
-                            // Stream row may be shorter than header
-                            String[] newLine = new String[targetAttrSize];
-                            System.arraycopy(line, 0, newLine, 0, line.length);
-                            for (int i = line.length; i < targetAttrSize; i++) {
-                                newLine[i] = null;
-                            }
-                            line = newLine;
-                        }
-                        if (trimWhitespaces) {
-                            for (int i = 0; i < line.length; i++) {
-                                line[i] = line[i].trim();
-                            }
-                        }
-                        if (emptyStringNull) {
-                            for (int i = 0; i < line.length; i++) {
-                                if ("".equals(line[i])) {
-                                    line[i] = null;
-                                }
-                            }
-                        }
-                        if (!CommonUtils.isEmpty(nullValueMark)) {
-                            for (int i = 0; i < line.length; i++) {
-                                if (nullValueMark.equals(line[i])) {
-                                    line[i] = null;
-                                }
-                            }
-                        }
-
-                        resultSet.setStreamRow(line);
-                        consumer.fetchRow(producerSession, resultSet);
-                        lineNum++;
-
-                        if (DBFetchProgress.monitorFetchProgress(lineNum)) {
-                            monitor.subTask(Long.toUnsignedString(lineNum) + " rows processed");
-                        }
-                    }
+            try {
+                RowFetcher fetcher = new RowFetcher(monitor, producerSession, resultSet, consumer, site.getSettings().getMaxRows());
+                if (isParallelParsingEnabled(entityMapping, properties)) {
+                    readParallel(monitor, entityMapping.getInputFile(), properties, fetcher);
+                } else {
+                    readSequential(inputStream, properties, fetcher);
                 }
             } catch (IOException e) {
                 throw new DBException("IO error reading CSV", e);
@@ -296,4 +254,194 @@ public class DataImporterCSV extends StreamImporterAbstract {
 
     }
 
+    private void readSequential(@NotNull InputStream inputStream, @NotNull Map<String, Object> properties, @NotNull RowFetcher fetcher) throws IOException, DBException {
+        HeaderPosition headerPosition = getHeaderPosition(properties);
+        try (Reader reader = openStreamReader(inputStream, properties, true)) {
+            try (CSVReader csvReader = openCSVReader(reader, properties)) {
+                boolean headerRead = false;
+                for (;;) {
+                    String[] line = csvReader.readNext();
+                    if (line == null) {
+                        if (csvReader.getParser().isPending()) {
+                            throw new IOException("Un-terminated quote sequence was detected");
+                        }
+                        break;
+                    }
+                    if (line.length == 0) {
+                        continue;
+                    }
+                    if (headerPosition != HeaderPosition.none && !headerRead) {
+                        // First line is a header
+                        headerRead = true;
+                        continue;
+                    }
+                    if (!fetcher.fetchRow(prepareLine(line))) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Parallel parsing is used for local files with ASCII-compatible encodings which are bigger than one chunk
+     */
+    private boolean isParallelParsingEnabled(@NotNull StreamEntityMapping entityMapping, @NotNull Map<String, Object> properties) {
+        if (!CommonUtils.getBoolean(properties.get(PROP_PARALLEL_PARSING), false) || Runtime.getRuntime().availableProcessors() < 2) {
+            return false;
+        }
+        Path inputFile = entityMapping.getInputFile();
+        try {
+            if (inputFile == null || !Files.isRegularFile(inputFile) || Files.size(inputFile) <= PARALLEL_CHUNK_SIZE) {
+                return false;
+            }
+            Charset charset = Charset.forName(CommonUtils.toString(properties.get(PROP_ENCODING), GeneralUtils.UTF8_ENCODING));
+            if (!CSVChunkSplitter.isSupported(charset, getDelimiterChar(properties), getQuoteChar(properties), getEscapeChar(properties))) {
+                log.debug("CSV file can't be split with current encoding and delimiters. Parse it in a single thread.");
+                return false;
+            }
+        } catch (Exception e) {
+            log.debug("Can't use parallel CSV parsing", e);
+            return false;
+        }
+        return true;
+    }
+
+    private void readParallel(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull Path inputFile,
+        @NotNull Map<String, Object> properties,
+        @NotNull RowFetcher fetcher
+    ) throws IOException, DBException {
+        HeaderPosition headerPosition = getHeaderPosition(properties);
+        Charset charset = Charset.forName(CommonUtils.toString(properties.get(PROP_ENCODING), GeneralUtils.UTF8_ENCODING));
+        int threadCount = Math.min(Runtime.getRuntime().availableProcessors(), MAX_PARALLEL_THREADS);
+        boolean keepRowOrder = CommonUtils.getBoolean(properties.get(PROP_KEEP_ROW_ORDER), true);
+
+        try (CSVParallelReader parallelReader = new CSVParallelReader(
+            inputFile,
+            charset,
+            getDelimiterChar(properties),
+            getQuoteChar(properties),
+            getEscapeChar(properties),
+            PARALLEL_CHUNK_SIZE,
+            threadCount,
+            PARALLEL_MAX_BUFFERED_SIZE,
+            keepRowOrder,
+            (reader, firstChunk) -> parseChunk(reader, properties, firstChunk && headerPosition != HeaderPosition.none)))
+        {
+            for (;;) {
+                List<String[]> rows = parallelReader.nextChunk(monitor);
+                if (rows == null) {
+                    break;
+                }
+                for (String[] line : rows) {
+                    if (!fetcher.fetchRow(line)) {
+                        return;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            throw new IOException("CSV parsing interrupted", e);
+        }
+    }
+
+    /**
+     * Parses chunk of the file. Called by parallel parser jobs.
+     */
+    @NotNull
+    private List<String[]> parseChunk(@NotNull Reader reader, @NotNull Map<String, Object> properties, boolean skipHeader) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (CSVReader csvReader = openCSVReader(reader, properties)) {
+            for (;;) {
+                String[] line = csvReader.readNext();
+                if (line == null) {
+                    if (csvReader.getParser().isPending()) {
+                        throw new IOException("Un-terminated quote sequence was detected");
+                    }
+                    break;
+                }
+                if (line.length == 0) {
+                    continue;
+                }
+                if (skipHeader) {
+                    skipHeader = false;
+                    continue;
+                }
+                rows.add(prepareLine(line));
+            }
+        }
+        return rows;
+    }
+
+    @NotNull
+    private String[] prepareLine(@NotNull String[] line) {
+        if (line.length < targetAttrSize) {
+            // Stream row may be shorter than header
+            String[] newLine = new String[targetAttrSize];
+            System.arraycopy(line, 0, newLine, 0, line.length);
+            for (int i = line.length; i < targetAttrSize; i++) {
+                newLine[i] = null;
+            }
+            line = newLine;
+        }
+        if (trimWhitespaces) {
+            for (int i = 0; i < line.length; i++) {
+                line[i] = line[i].trim();
+            }
+        }
+        if (emptyStringNull) {
+            for (int i = 0; i < line.length; i++) {
+                if ("".equals(line[i])) {
+                    line[i] = null;
+                }
+            }
+        }
+        if (!CommonUtils.isEmpty(nullValueMark)) {
+            for (int i = 0; i < line.length; i++) {
+                if (nullValueMark.equals(line[i])) {
+                    line[i] = null;
+                }
+            }
+        }
+        return line;
+    }
+
+    /**
+     * Passes parsed rows to the consumer
+     */
+    private static class RowFetcher {
+        private final DBRProgressMonitor monitor;
+        private final DBCSession session;
+        private final StreamTransferResultSet resultSet;
+        private final IDataTransferConsumer consumer;
+        private final int maxRows;
+        private long lineNum;
+
+        RowFetcher(DBRProgressMonitor monitor, DBCSession session, StreamTransferResultSet resultSet, IDataTransferConsumer consumer, int maxRows) {
+            this.monitor = monitor;
+            this.session = session;
+            this.resultSet = resultSet;
+            this.consumer = consumer;
+            this.maxRows = maxRows;
+        }
+
+        /**
+         * Returns false if import must be stopped
+         */
+        boolean fetchRow(@NotNull String[] line) throws DBException {
+            if (monitor.isCanceled() || (maxRows > 0 && lineNum >= maxRows)) {
+                return false;
+            }
+            resultSet.setStreamRow(line);
+            consumer.fetchRow(session, resultSet);
+            lineNum++;
+
+            if (DBFetchProgress.monitorFetchProgress(lineNum)) {
+                monitor.subTask(Long.toUnsignedString(lineNum) + " rows processed");
+            }
+            return true;
+        }
+    }
+
 }
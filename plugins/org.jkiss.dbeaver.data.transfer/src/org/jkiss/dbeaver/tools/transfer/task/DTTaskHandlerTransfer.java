@@ -31,6 +31,7 @@ import org.jkiss.dbeaver.model.task.*;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.tools.transfer.*;
 import org.jkiss.dbeaver.tools.transfer.database.DatabaseConsumerSettings;
+import org.jkiss.dbeaver.tools.transfer.database.DatabaseProducerSettings;
 import org.jkiss.dbeaver.tools.transfer.database.DatabaseTransferConsumer;
 import org.jkiss.dbeaver.tools.transfer.internal.DTMessages;
 
@@ -91,9 +92,20 @@ public class DTTaskHandlerTransfer implements DBTTaskHandler, DBTTaskInfoCollect
     ) throws DBException {
         listener.taskStarted(task);
         int indexOfLastPipeWithDisabledReferentialIntegrity = -1;
+        DataTransferCheckpoint checkpoint = null;
+        if (settings.isResumeTransfer() && task != null && !task.isTemporary()) {
+            checkpoint = DataTransferCheckpoint.load(task);
+            if (!checkpoint.isEmpty()) {
+                log.info("Resume data transfer from the last checkpoint");
+            }
+        }
+        settings.setCheckpoint(checkpoint);
         try {
             indexOfLastPipeWithDisabledReferentialIntegrity = initializePipes(runnableContext, settings, task);
             Throwable error = runDataTransferJobs(runnableContext, task, locale, log, logStream, listener, settings);
+            if (checkpoint != null && error == null && checkpoint.isAllPipesCompleted(settings.getDataPipes())) {
+                checkpoint.clear();
+            }
             listener.taskFinished(task, null, error, settings);
         } catch (InvocationTargetException e) {
             DBWorkbench.getPlatformUI().showError(
@@ -120,6 +132,7 @@ public class DTTaskHandlerTransfer implements DBTTaskHandler, DBTTaskInfoCollect
         int[] indexOfLastPipeWithDisabledReferentialIntegrity = new int[]{-1};
         DBException[] dbException = {null};
         List<DataTransferPipe> dataPipes = settings.getDataPipes();
+        DataTransferCheckpoint checkpoint = settings.getCheckpoint();
 
         runnableContext.run(true, false, monitor -> {
             monitor.beginTask("Initialize pipes", dataPipes.size());
@@ -130,6 +143,11 @@ public class DTTaskHandlerTransfer implements DBTTaskHandler, DBTTaskInfoCollect
                     pipe.initPipe(settings, i, dataPipes.size());
                     IDataTransferConsumer<?, ?> consumer = pipe.getConsumer();
                     consumer.setRuntimeParameters(consumerRuntimeParameters);
+                    if (checkpoint != null && checkpoint.isPipeCompleted(DataTransferCheckpoint.getPipeKey(dataPipes, pipe))) {
+                        // Transferred by the previous run. Do not touch the target
+                        monitor.worked(1);
+                        continue;
+                    }
                     try {
                         consumer.startTransfer(monitor);
                     } catch (DBException e) {
@@ -169,6 +187,9 @@ public class DTTaskHandlerTransfer implements DBTTaskHandler, DBTTaskInfoCollect
         if (totalJobs == 0) {
             return null;
         }
+        if (settings.getNodeSettings(settings.getProducer()) instanceof DatabaseProducerSettings producerSettings) {
+            producerSettings.setParallelTransfer(totalJobs > 1);
+        }
         final Throwable[] error = new Throwable[1];
         try {
             runnableContext.run(true, true, monitor -> {
@@ -0,0 +1,430 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.clickhouse.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ext.generic.model.GenericTableBase;
+import org.jkiss.dbeaver.ext.generic.model.GenericTableColumn;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
+import org.jkiss.dbeaver.model.data.DBDValue;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.utils.ArrayUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk loader based on INSERT ... FORMAT statements.
+ *
+ * Rows are encoded in RowBinary format and sent as a single input stream on each flush,
+ * so the server doesn't need to parse values. If some of the target columns have types
+ * not supported by {@link ClickhouseRowBinaryEncoder} then TabSeparated format is used instead.
+ * <p>
+ * Streams are sent with the driver's write API ({@code ClickHouseStatement.write()} or
+ * {@code ClickHouseRequest.write()}), which plain JDBC doesn't expose. If the driver doesn't
+ * provide it then rows are inserted with batched {@code INSERT ... VALUES} statements.
+ */
+public class ClickhouseBulkLoader implements DBSDataBulkLoader, DBSDataBulkLoader.BulkLoadManager {
+
+    private static final Log log = Log.getLog(ClickhouseBulkLoader.class);
+
+    private static final int MAX_BUFFER_SIZE = 16 * 1024 * 1024;
+
+    private final ClickhouseDataSource dataSource;
+    private GenericTableBase table;
+    // Driver statement which supports stream writes
+    private Statement streamStatement;
+    private String streamQuery;
+    // Fallback for drivers without stream writes
+    private JDBCPreparedStatement batchStatement;
+    private int batchSize;
+    private boolean binaryFormat;
+
+    private AttrMapping[] mappings;
+    private ClickhouseRowBinaryEncoder.Buffer buffer;
+    private final StringBuilder textBuilder = new StringBuilder();
+    private int bufferedRows;
+    private long totalRows;
+
+    private static class AttrMapping {
+        final GenericTableColumn tableAttr;
+        final DBDValueHandler valueHandler;
+        final int srcPos;
+        final ClickhouseRowBinaryEncoder encoder;
+
+        AttrMapping(GenericTableColumn tableAttr, DBDValueHandler valueHandler, int srcPos) {
+            this.tableAttr = tableAttr;
+            this.valueHandler = valueHandler;
+            this.srcPos = srcPos;
+            this.encoder = ClickhouseRowBinaryEncoder.create(tableAttr.getFullTypeName());
+        }
+    }
+
+    public ClickhouseBulkLoader(ClickhouseDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @NotNull
+    @Override
+    public BulkLoadManager createBulkLoad(
+        @NotNull DBCSession session,
+        @NotNull DBSDataContainer dataContainer,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource source,
+        int batchSize,
+        Map<String, Object> options) throws DBCException
+    {
+        if (!(dataContainer instanceof GenericTableBase)) {
+            throw new DBCException("Bulk insert is not supported for " + DBUtils.getObjectFullName(dataContainer, DBPEvaluationContext.UI));
+        }
+        this.table = (GenericTableBase) dataContainer;
+        try {
+            List<AttrMapping> attrMappings = new ArrayList<>();
+            binaryFormat = true;
+            for (GenericTableColumn attr : CommonUtils.safeCollection(table.getAttributes(session.getProgressMonitor()))) {
+                int srcPos = ArrayUtils.indexOf(attributes, attr);
+                if (srcPos >= 0) {
+                    AttrMapping mapping = new AttrMapping(attr, DBUtils.findValueHandler(session, attr), srcPos);
+                    if (mapping.encoder == null) {
+                        binaryFormat = false;
+                    }
+                    attrMappings.add(mapping);
+                }
+            }
+            if (attrMappings.isEmpty()) {
+                throw new DBCException("No columns mapped for bulk insert");
+            }
+            mappings = attrMappings.toArray(new AttrMapping[0]);
+            this.batchSize = Math.max(1, batchSize);
+
+            JDBCSession jdbcSession = (JDBCSession) session;
+            Statement statement = jdbcSession.getOriginal().createStatement();
+            Object streamWriter;
+            try {
+                streamWriter = openStreamWriter(statement);
+            } catch (Exception e) {
+                log.debug("Error opening ClickHouse stream writer", e);
+                streamWriter = null;
+            }
+            if (streamWriter != null) {
+                streamStatement = statement;
+                streamQuery = makeInsertQuery();
+                buffer = new ClickhouseRowBinaryEncoder.Buffer(1024 * 1024);
+            } else {
+                statement.close();
+                log.debug("ClickHouse driver doesn't support stream writes, use batched inserts");
+                batchStatement = jdbcSession.prepareStatement(makeBatchInsertQuery());
+            }
+        } catch (DBCException e) {
+            close();
+            throw e;
+        } catch (Exception e) {
+            close();
+            throw new DBCException("Can't prepare bulk insert", e);
+        }
+        return this;
+    }
+
+    @NotNull
+    private String makeInsertQuery() {
+        StringBuilder query = new StringBuilder();
+        query.append("INSERT INTO ").append(table.getFullyQualifiedName(DBPEvaluationContext.DML)).append(" (");
+        for (int i = 0; i < mappings.length; i++) {
+            if (i > 0) {
+                query.append(",");
+            }
+            query.append(DBUtils.getQuotedIdentifier(mappings[i].tableAttr));
+        }
+        query.append(") FORMAT ").append(binaryFormat ? "RowBinary" : "TabSeparated");
+        return query.toString();
+    }
+
+    @NotNull
+    private String makeBatchInsertQuery() {
+        StringBuilder query = new StringBuilder();
+        query.append("INSERT INTO ").append(table.getFullyQualifiedName(DBPEvaluationContext.DML)).append(" (");
+        for (int i = 0; i < mappings.length; i++) {
+            if (i > 0) {
+                query.append(",");
+            }
+            query.append(DBUtils.getQuotedIdentifier(mappings[i].tableAttr));
+        }
+        query.append(") VALUES (");
+        for (int i = 0; i < mappings.length; i++) {
+            if (i > 0) {
+                query.append(",");
+            }
+            query.append("?");
+        }
+        query.append(")");
+        return query.toString();
+    }
+
+    @Override
+    public void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException {
+        if (batchStatement != null) {
+            addBatchRow(session, attributeValues);
+            return;
+        }
+        for (int i = 0; i < mappings.length; i++) {
+            AttrMapping mapping = mappings[i];
+            Object value = attributeValues[mapping.srcPos];
+            if (binaryFormat && value instanceof DBDValue dbdValue && !dbdValue.isNull()) {
+                value = dbdValue.getRawValue();
+            }
+            if (binaryFormat) {
+                try {
+                    if (DBUtils.isNullValue(value)) {
+                        mapping.encoder.writeNull(buffer);
+                    } else {
+                        mapping.encoder.writeValue(buffer, value);
+                    }
+                } catch (RuntimeException e) {
+                    throw new DBCException("Can't encode value of column '" + mapping.tableAttr.getName() + "'", e);
+                }
+            } else {
+                if (i > 0) {
+                    textBuilder.append('\t');
+                }
+                if (DBUtils.isNullValue(value)) {
+                    textBuilder.append("\\N");
+                } else if (value instanceof Number) {
+                    textBuilder.append(value);
+                } else {
+                    appendEscaped(mapping.valueHandler.getValueDisplayString(mapping.tableAttr, value, DBDDisplayFormat.NATIVE));
+                }
+            }
+        }
+        if (!binaryFormat) {
+            textBuilder.append('\n');
+            if (textBuilder.length() >= MAX_BUFFER_SIZE / 4) {
+                moveTextToBuffer();
+            }
+        }
+        bufferedRows++;
+        if (buffer.size() >= MAX_BUFFER_SIZE) {
+            sendRows(session);
+        }
+    }
+
+    private void addBatchRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException {
+        try {
+            for (int i = 0; i < mappings.length; i++) {
+                AttrMapping mapping = mappings[i];
+                mapping.valueHandler.bindValueObject(session, batchStatement, mapping.tableAttr, i, attributeValues[mapping.srcPos]);
+            }
+            batchStatement.addBatch();
+        } catch (SQLException e) {
+            throw new DBCException(e, session.getExecutionContext());
+        }
+        bufferedRows++;
+        if (bufferedRows >= batchSize) {
+            sendRows(session);
+        }
+    }
+
+    private void appendEscaped(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': textBuilder.append("\\\\"); break;
+                case '\t': textBuilder.append("\\t"); break;
+                case '\n': textBuilder.append("\\n"); break;
+                case '\r': textBuilder.append("\\r"); break;
+                default: textBuilder.append(c); break;
+            }
+        }
+    }
+
+    private void moveTextToBuffer() {
+        byte[] bytes = textBuilder.toString().getBytes(StandardCharsets.UTF_8);
+        buffer.writeBytes(bytes, bytes.length);
+        textBuilder.setLength(0);
+    }
+
+    private void sendRows(@NotNull DBCSession session) throws DBCException {
+        if (batchStatement != null) {
+            sendBatch(session);
+            return;
+        }
+        if (textBuilder.length() > 0) {
+            moveTextToBuffer();
+        }
+        if (bufferedRows == 0) {
+            return;
+        }
+        try {
+            writeStream(new ByteArrayInputStream(buffer.data(), 0, buffer.size()));
+            totalRows += bufferedRows;
+            session.getProgressMonitor().subTask("Inserted " + totalRows + " rows into " + table.getName());
+        } catch (DBCException e) {
+            throw e;
+        } catch (SQLException e) {
+            throw new DBCException(e, session.getExecutionContext());
+        } catch (Exception e) {
+            throw new DBCException("Error writing data into " + table.getName(), e);
+        } finally {
+            buffer.reset();
+            bufferedRows = 0;
+        }
+    }
+
+    private void sendBatch(@NotNull DBCSession session) throws DBCException {
+        if (bufferedRows == 0) {
+            return;
+        }
+        try {
+            batchStatement.executeBatch();
+            totalRows += bufferedRows;
+            session.getProgressMonitor().subTask("Inserted " + totalRows + " rows into " + table.getName());
+        } catch (SQLException e) {
+            throw new DBCException(e, session.getExecutionContext());
+        } finally {
+            bufferedRows = 0;
+        }
+    }
+
+    /**
+     * Returns the stream writer of the driver statement, or null if the driver doesn't provide one.
+     * The new driver (com.clickhouse.jdbc) exposes it through the statement request,
+     * the legacy one (ru.yandex.clickhouse) through the statement itself.
+     */
+    @Nullable
+    private static Object openStreamWriter(@NotNull Statement statement) throws Exception {
+        Object target = statement;
+        Method writeMethod = findMethod(target.getClass(), "write");
+        if (writeMethod == null) {
+            Method getRequest = findMethod(target.getClass(), "getRequest");
+            if (getRequest == null) {
+                return null;
+            }
+            target = invokeMethod(getRequest, target);
+            if (target == null || (writeMethod = findMethod(target.getClass(), "write")) == null) {
+                return null;
+            }
+        }
+        Object writer = invokeMethod(writeMethod, target);
+        if (writer == null ||
+            (findMethod(writer.getClass(), "query", String.class) == null && findMethod(writer.getClass(), "sql", String.class) == null) ||
+            findMethod(writer.getClass(), "data", InputStream.class) == null ||
+            (findMethod(writer.getClass(), "executeAndWait") == null && findMethod(writer.getClass(), "send") == null)) {
+            return null;
+        }
+        return writer;
+    }
+
+    private void writeStream(@NotNull InputStream data) throws Exception {
+        Object writer = openStreamWriter(streamStatement);
+        if (writer == null) {
+            throw new DBCException("ClickHouse driver doesn't support stream writes");
+        }
+        Method queryMethod = findMethod(writer.getClass(), "query", String.class);
+        if (queryMethod == null) {
+            queryMethod = findMethod(writer.getClass(), "sql", String.class);
+        }
+        // Writers are mutable builders, but use returned instances in case some driver version makes copies
+        writer = CommonUtils.notNull(invokeMethod(queryMethod, writer, streamQuery), writer);
+        Method dataMethod = findMethod(writer.getClass(), "data", InputStream.class);
+        writer = CommonUtils.notNull(invokeMethod(dataMethod, writer, data), writer);
+        Method executeMethod = findMethod(writer.getClass(), "executeAndWait");
+        if (executeMethod == null) {
+            executeMethod = findMethod(writer.getClass(), "send");
+        }
+        Object response = invokeMethod(executeMethod, writer);
+        if (response instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Nullable
+    private static Method findMethod(@NotNull Class<?> type, @NotNull String name, @NotNull Class<?>... paramTypes) {
+        try {
+            Method method = type.getMethod(name, paramTypes);
+            method.setAccessible(true);
+            return method;
+        } catch (NoSuchMethodException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Object invokeMethod(@NotNull Method method, @NotNull Object target, Object... args) throws Exception {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getTargetException() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void flushRows(@NotNull DBCSession session) throws DBCException {
+        sendRows(session);
+    }
+
+    @Override
+    public void finishBulkLoad(@NotNull DBCSession session) throws DBCException {
+        // ClickHouse has no transactions, each flushed block is already visible
+        sendRows(session);
+        log.debug("Bulk insert finished (" + totalRows + ", " +
+            (batchStatement != null ? "batch" : binaryFormat ? "RowBinary" : "TabSeparated") + ")");
+    }
+
+    @Override
+    public void close() {
+        textBuilder.setLength(0);
+        bufferedRows = 0;
+        if (buffer != null) {
+            buffer.reset();
+        }
+        if (streamStatement != null) {
+            try {
+                streamStatement.close();
+            } catch (SQLException e) {
+                log.debug("Error closing bulk insert statement", e);
+            }
+            streamStatement = null;
+        }
+        if (batchStatement != null) {
+            batchStatement.close();
+            batchStatement = null;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.clickhouse.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.ext.clickhouse.ClickhouseTypeParser;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.time.temporal.Temporal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Encodes column values in ClickHouse RowBinary format.
+ * Instances are created per column type, unsupported types (arrays, maps, tuples, etc) return null from {@link #create}.
+ */
+class ClickhouseRowBinaryEncoder {
+
+    private enum Kind {
+        INT, UINT, FLOAT32, FLOAT64, BOOL, STRING, FIXED_STRING, DATE, DATE32, DATETIME, DATETIME64, UUID, DECIMAL, ENUM
+    }
+
+    private final Kind kind;
+    private final boolean nullable;
+    // Value size in bytes (integers, decimals, enums, fixed strings)
+    private final int size;
+    // Decimal scale or DateTime64 precision
+    private final int scale;
+    private final Map<String, Integer> enumEntries;
+
+    private ClickhouseRowBinaryEncoder(Kind kind, boolean nullable, int size, int scale, Map<String, Integer> enumEntries) {
+        this.kind = kind;
+        this.nullable = nullable;
+        this.size = size;
+        this.scale = scale;
+        this.enumEntries = enumEntries;
+    }
+
+    @Nullable
+    static ClickhouseRowBinaryEncoder create(@NotNull String fullTypeName) {
+        String type = fullTypeName.trim();
+        boolean nullable = false;
+        while (true) {
+            if (isWrappedBy(type, "Nullable")) {
+                nullable = true;
+                type = unwrap(type);
+            } else if (isWrappedBy(type, "LowCardinality")) {
+                // LowCardinality doesn't change RowBinary representation
+                type = unwrap(type);
+            } else {
+                break;
+            }
+        }
+        String baseName = type;
+        String[] args = new String[0];
+        int divPos = type.indexOf('(');
+        if (divPos > 0 && type.endsWith(")")) {
+            baseName = type.substring(0, divPos).trim();
+            args = type.substring(divPos + 1, type.length() - 1).split(",");
+            for (int i = 0; i < args.length; i++) {
+                args[i] = args[i].trim();
+            }
+        }
+        try {
+            switch (baseName) {
+                case "Int8": return new ClickhouseRowBinaryEncoder(Kind.INT, nullable, 1, 0, null);
+                case "Int16": return new ClickhouseRowBinaryEncoder(Kind.INT, nullable, 2, 0, null);
+                case "Int32": return new ClickhouseRowBinaryEncoder(Kind.INT, nullable, 4, 0, null);
+                case "Int64": return new ClickhouseRowBinaryEncoder(Kind.INT, nullable, 8, 0, null);
+                case "Int128": return new ClickhouseRowBinaryEncoder(Kind.INT, nullable, 16, 0, null);
+                case "Int256": return new ClickhouseRowBinaryEncoder(Kind.INT, nullable, 32, 0, null);
+                case "UInt8": return new ClickhouseRowBinaryEncoder(Kind.UINT, nullable, 1, 0, null);
+                case "UInt16": return new ClickhouseRowBinaryEncoder(Kind.UINT, nullable, 2, 0, null);
+                case "UInt32": return new ClickhouseRowBinaryEncoder(Kind.UINT, nullable, 4, 0, null);
+                case "UInt64": return new ClickhouseRowBinaryEncoder(Kind.UINT, nullable, 8, 0, null);
+                case "UInt128": return new ClickhouseRowBinaryEncoder(Kind.UINT, nullable, 16, 0, null);
+                case "UInt256": return new ClickhouseRowBinaryEncoder(Kind.UINT, nullable, 32, 0, null);
+                case "Float32": return new ClickhouseRowBinaryEncoder(Kind.FLOAT32, nullable, 4, 0, null);
+                case "Float64": return new ClickhouseRowBinaryEncoder(Kind.FLOAT64, nullable, 8, 0, null);
+                case "Bool": return new ClickhouseRowBinaryEncoder(Kind.BOOL, nullable, 1, 0, null);
+                case "String": return new ClickhouseRowBinaryEncoder(Kind.STRING, nullable, 0, 0, null);
+                case "FixedString": return new ClickhouseRowBinaryEncoder(Kind.FIXED_STRING, nullable, Integer.parseInt(args[0]), 0, null);
+                case "Date": return new ClickhouseRowBinaryEncoder(Kind.DATE, nullable, 2, 0, null);
+                case "Date32": return new ClickhouseRowBinaryEncoder(Kind.DATE32, nullable, 4, 0, null);
+                case "DateTime": return new ClickhouseRowBinaryEncoder(Kind.DATETIME, nullable, 4, 0, null);
+                case "DateTime64": return new ClickhouseRowBinaryEncoder(Kind.DATETIME64, nullable, 8, Integer.parseInt(args[0]), null);
+                case "UUID": return new ClickhouseRowBinaryEncoder(Kind.UUID, nullable, 16, 0, null);
+                case "Decimal": {
+                    int precision = Integer.parseInt(args[0]);
+                    int decimalScale = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+                    return new ClickhouseRowBinaryEncoder(Kind.DECIMAL, nullable, getDecimalSize(precision), decimalScale, null);
+                }
+                case "Decimal32": return new ClickhouseRowBinaryEncoder(Kind.DECIMAL, nullable, 4, Integer.parseInt(args[0]), null);
+                case "Decimal64": return new ClickhouseRowBinaryEncoder(Kind.DECIMAL, nullable, 8, Integer.parseInt(args[0]), null);
+                case "Decimal128": return new ClickhouseRowBinaryEncoder(Kind.DECIMAL, nullable, 16, Integer.parseInt(args[0]), null);
+                case "Decimal256": return new ClickhouseRowBinaryEncoder(Kind.DECIMAL, nullable, 32, Integer.parseInt(args[0]), null);
+                case "Enum8": return new ClickhouseRowBinaryEncoder(Kind.ENUM, nullable, 1, 0, ClickhouseTypeParser.tryParseEnumEntries(type));
+                case "Enum16": return new ClickhouseRowBinaryEncoder(Kind.ENUM, nullable, 2, 0, ClickhouseTypeParser.tryParseEnumEntries(type));
+                default: return null;
+            }
+        } catch (RuntimeException e) {
+            // Malformed type modifiers
+            return null;
+        }
+    }
+
+    private static boolean isWrappedBy(String type, String wrapper) {
+        return type.startsWith(wrapper + "(") && type.endsWith(")");
+    }
+
+    private static String unwrap(String type) {
+        return type.substring(type.indexOf('(') + 1, type.length() - 1).trim();
+    }
+
+    private static int getDecimalSize(int precision) {
+        if (precision <= 9) {
+            return 4;
+        } else if (precision <= 18) {
+            return 8;
+        } else if (precision <= 38) {
+            return 16;
+        }
+        return 32;
+    }
+
+    void writeNull(@NotNull Buffer buffer) {
+        if (!nullable) {
+            throw new IllegalArgumentException("NULL value for non-nullable column");
+        }
+        buffer.writeByte(1);
+    }
+
+    void writeValue(@NotNull Buffer buffer, @NotNull Object value) {
+        if (nullable) {
+            buffer.writeByte(0);
+        }
+        switch (kind) {
+            case INT:
+            case UINT:
+                writeInteger(buffer, toBigInteger(value), size);
+                break;
+            case FLOAT32:
+                buffer.writeLE(Float.floatToIntBits(toNumber(value).floatValue()), 4);
+                break;
+            case FLOAT64:
+                buffer.writeLE(Double.doubleToLongBits(toNumber(value).doubleValue()), 8);
+                break;
+            case BOOL:
+                buffer.writeByte(toBoolean(value) ? 1 : 0);
+                break;
+            case STRING: {
+                byte[] bytes = toBytes(value);
+                buffer.writeVarInt(bytes.length);
+                buffer.writeBytes(bytes, bytes.length);
+                break;
+            }
+            case FIXED_STRING: {
+                byte[] bytes = toBytes(value);
+                if (bytes.length > size) {
+                    throw new IllegalArgumentException("Value is too long for FixedString(" + size + ")");
+                }
+                buffer.writeBytes(bytes, bytes.length);
+                buffer.writeZeros(size - bytes.length);
+                break;
+            }
+            case DATE:
+            case DATE32:
+                buffer.writeLE(toEpochDay(value), size);
+                break;
+            case DATETIME:
+                buffer.writeLE(toInstant(value).getEpochSecond(), 4);
+                break;
+            case DATETIME64: {
+                Instant instant = toInstant(value);
+                BigDecimal ticks = BigDecimal.valueOf(instant.getEpochSecond())
+                    .add(BigDecimal.valueOf(instant.getNano(), 9))
+                    .setScale(scale, RoundingMode.HALF_UP);
+                buffer.writeLE(ticks.unscaledValue().longValue(), 8);
+                break;
+            }
+            case UUID: {
+                UUID uuid = value instanceof UUID ? (UUID) value : UUID.fromString(value.toString().trim());
+                buffer.writeLE(uuid.getMostSignificantBits(), 8);
+                buffer.writeLE(uuid.getLeastSignificantBits(), 8);
+                break;
+            }
+            case DECIMAL: {
+                BigDecimal decimal = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(toNumber(value).toString());
+                writeInteger(buffer, decimal.setScale(scale, RoundingMode.HALF_UP).unscaledValue(), size);
+                break;
+            }
+            case ENUM: {
+                Integer enumValue = value instanceof Number ? Integer.valueOf(((Number) value).intValue()) : enumEntries.get(value.toString());
+                if (enumValue == null) {
+                    throw new IllegalArgumentException("Unknown enum value '" + value + "'");
+                }
+                buffer.writeLE(enumValue, size);
+                break;
+            }
+        }
+    }
+
+    private static void writeInteger(Buffer buffer, BigInteger value, int size) {
+        if (size <= 8) {
+            buffer.writeLE(value.longValue(), size);
+            return;
+        }
+        // Two's complement, little-endian
+        byte[] bytes = value.toByteArray();
+        byte pad = (byte) (value.signum() < 0 ? 0xFF : 0);
+        for (int i = 0; i < size; i++) {
+            int pos = bytes.length - 1 - i;
+            buffer.writeByte(pos >= 0 ? bytes[pos] : pad);
+        }
+    }
+
+    private static Number toNumber(Object value) {
+        if (value instanceof Number) {
+            return (Number) value;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        return new BigDecimal(value.toString().trim());
+    }
+
+    private static BigInteger toBigInteger(Object value) {
+        if (value instanceof BigInteger) {
+            return (BigInteger) value;
+        }
+        Number number = toNumber(value);
+        if (number instanceof BigDecimal) {
+            return ((BigDecimal) number).toBigInteger();
+        } else if (number instanceof Double || number instanceof Float) {
+            return BigDecimal.valueOf(number.doubleValue()).toBigInteger();
+        }
+        return BigInteger.valueOf(number.longValue());
+    }
+
+    private static boolean toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value instanceof Number) {
+            return ((Number) value).intValue() != 0;
+        }
+        String str = value.toString().trim().toLowerCase(Locale.ENGLISH);
+        return str.equals("true") || str.equals("1");
+    }
+
+    private static byte[] toBytes(Object value) {
+        if (value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        return value.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long toEpochDay(Object value) {
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate().toEpochDay();
+        } else if (value instanceof LocalDate) {
+            return ((LocalDate) value).toEpochDay();
+        } else if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).toLocalDate().toEpochDay();
+        } else if (value instanceof Date || value instanceof Temporal) {
+            return LocalDate.ofInstant(toInstant(value), ZoneId.systemDefault()).toEpochDay();
+        }
+        return LocalDate.parse(value.toString().trim()).toEpochDay();
+    }
+
+    private static Instant toInstant(Object value) {
+        if (value instanceof java.sql.Timestamp) {
+            return ((java.sql.Timestamp) value).toInstant();
+        } else if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate().atStartOfDay(ZoneId.systemDefault()).toInstant();
+        } else if (value instanceof Date) {
+            return ((Date) value).toInstant();
+        } else if (value instanceof Instant) {
+            return (Instant) value;
+        } else if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant();
+        } else if (value instanceof LocalDate) {
+            return ((LocalDate) value).atStartOfDay(ZoneId.systemDefault()).toInstant();
+        } else if (value instanceof OffsetDateTime) {
+            return ((OffsetDateTime) value).toInstant();
+        } else if (value instanceof ZonedDateTime) {
+            return ((ZonedDateTime) value).toInstant();
+        } else if (value instanceof Number) {
+            return Instant.ofEpochMilli(((Number) value).longValue());
+        }
+        return java.sql.Timestamp.valueOf(value.toString().trim()).toInstant();
+    }
+
+    /**
+     * Growable little-endian byte buffer
+     */
+    static class Buffer {
+        private byte[] data;
+        private int size;
+
+        Buffer(int initialCapacity) {
+            this.data = new byte[initialCapacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] data() {
+            return data;
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        private void ensureCapacity(int extra) {
+            int required = size + extra;
+            if (required > data.length) {
+                data = Arrays.copyOf(data, Math.max(required, data.length * 2));
+            }
+        }
+
+        void writeByte(int b) {
+            ensureCapacity(1);
+            data[size++] = (byte) b;
+        }
+
+        void writeBytes(@NotNull byte[] bytes, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, 0, data, size, length);
+            size += length;
+        }
+
+        void writeZeros(int count) {
+            ensureCapacity(count);
+            Arrays.fill(data, size, size + count, (byte) 0);
+            size += count;
+        }
+
+        void writeLE(long value, int length) {
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                data[size++] = (byte) (value >>> (i * 8));
+            }
+        }
+
+        void writeVarInt(long value) {
+            do {
+                int b = (int) (value & 0x7F);
+                value >>>= 7;
+                writeByte(value != 0 ? b | 0x80 : b);
+            } while (value != 0);
+        }
+    }
+}
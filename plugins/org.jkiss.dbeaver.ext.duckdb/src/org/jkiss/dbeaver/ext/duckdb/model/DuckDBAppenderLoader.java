@@ -0,0 +1,287 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.duckdb.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ext.generic.model.GenericTableBase;
+import org.jkiss.dbeaver.ext.generic.model.GenericTableColumn;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCTransactionManager;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.struct.BatchInsertBulkLoadManager;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.utils.ArrayUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk loader based on DuckDB appender.
+ *
+ * Appender writes rows directly into the table storage, bypassing SQL parsing and planning.
+ * It always appends complete rows, so all table columns must be mapped.
+ * Appender API differs between driver versions, so its methods are resolved with reflection.
+ * If the driver doesn't provide the appender then rows are inserted with batched INSERT statements.
+ */
+public class DuckDBAppenderLoader implements DBSDataBulkLoader, DBSDataBulkLoader.BulkLoadManager {
+
+    private static final Log log = Log.getLog(DuckDBAppenderLoader.class);
+
+    private final DuckDBDataSource dataSource;
+    private GenericTableBase table;
+    private Object appender;
+    private long totalRows;
+
+    private Method beginRowMethod;
+    private Method endRowMethod;
+    private Method flushMethod;
+    private Method closeMethod;
+    private Method appendNullMethod;
+    private Method appendStringMethod;
+    private Method appendBooleanMethod;
+    private Method appendByteMethod;
+    private Method appendShortMethod;
+    private Method appendIntMethod;
+    private Method appendLongMethod;
+    private Method appendFloatMethod;
+    private Method appendDoubleMethod;
+    private Method appendDecimalMethod;
+    private Method appendBytesMethod;
+    private Method appendDateMethod;
+    private Method appendDateTimeMethod;
+
+    private AttrMapping[] mappings;
+
+    private static class AttrMapping {
+        final GenericTableColumn tableAttr;
+        final DBDValueHandler valueHandler;
+        final int srcPos;
+
+        AttrMapping(GenericTableColumn tableAttr, DBDValueHandler valueHandler, int srcPos) {
+            this.tableAttr = tableAttr;
+            this.valueHandler = valueHandler;
+            this.srcPos = srcPos;
+        }
+    }
+
+    public DuckDBAppenderLoader(DuckDBDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @NotNull
+    @Override
+    public BulkLoadManager createBulkLoad(
+        @NotNull DBCSession session,
+        @NotNull DBSDataContainer dataContainer,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource source,
+        int batchSize,
+        Map<String, Object> options) throws DBCException
+    {
+        if (!(dataContainer instanceof GenericTableBase)) {
+            throw new DBCException("Appender is not supported for " + DBUtils.getObjectFullName(dataContainer, DBPEvaluationContext.UI));
+        }
+        this.table = (GenericTableBase) dataContainer;
+        try {
+            List<? extends GenericTableColumn> tableAttrs = CommonUtils.safeList(table.getAttributes(session.getProgressMonitor()));
+            mappings = new AttrMapping[tableAttrs.size()];
+            for (int i = 0; i < tableAttrs.size(); i++) {
+                GenericTableColumn attr = tableAttrs.get(i);
+                int srcPos = ArrayUtils.indexOf(attributes, attr);
+                if (srcPos < 0) {
+                    throw new DBCException("Appender requires values for all table columns. Column '" + attr.getName() +
+                        "' is not mapped - disable bulk load to insert partial rows");
+                }
+                mappings[i] = new AttrMapping(attr, DBUtils.findValueHandler(session, attr), srcPos);
+            }
+
+            Connection connection = ((JDBCSession) session).getOriginal();
+            String schemaName = table.getSchema() != null ? table.getSchema().getName() : "main";
+            appender = connection.getClass().getMethod("createAppender", String.class, String.class)
+                .invoke(connection, schemaName, table.getName());
+
+            Class<?> appenderClass = appender.getClass();
+            beginRowMethod = appenderClass.getMethod("beginRow");
+            endRowMethod = appenderClass.getMethod("endRow");
+            flushMethod = appenderClass.getMethod("flush");
+            closeMethod = appenderClass.getMethod("close");
+            appendStringMethod = appenderClass.getMethod("append", String.class);
+            // Older drivers append NULL with append((String) null)
+            appendNullMethod = findMethod(appenderClass, null, "appendNull");
+            appendBooleanMethod = findMethod(appenderClass, Boolean.TYPE, "append");
+            appendByteMethod = findMethod(appenderClass, Byte.TYPE, "append");
+            appendShortMethod = findMethod(appenderClass, Short.TYPE, "append");
+            appendIntMethod = findMethod(appenderClass, Integer.TYPE, "append");
+            appendLongMethod = findMethod(appenderClass, Long.TYPE, "append");
+            appendFloatMethod = findMethod(appenderClass, Float.TYPE, "append");
+            appendDoubleMethod = findMethod(appenderClass, Double.TYPE, "append");
+            appendDecimalMethod = findMethod(appenderClass, BigDecimal.class, "append", "appendBigDecimal");
+            appendBytesMethod = findMethod(appenderClass, byte[].class, "append");
+            appendDateMethod = findMethod(appenderClass, LocalDate.class, "append");
+            appendDateTimeMethod = findMethod(appenderClass, LocalDateTime.class, "append", "appendLocalDateTime");
+        } catch (DBCException e) {
+            close();
+            throw e;
+        } catch (NoSuchMethodException e) {
+            close();
+            log.debug("DuckDB appender is not supported by driver (" + e.getMessage() + "), use batched inserts");
+            return BatchInsertBulkLoadManager.create(session, dataContainer, attributes, source, batchSize, options);
+        } catch (Throwable e) {
+            close();
+            throw new DBCException("Can't create DuckDB appender", unwrapError(e));
+        }
+        return this;
+    }
+
+    @Nullable
+    private static Method findMethod(@NotNull Class<?> appenderClass, @Nullable Class<?> paramType, @NotNull String... names) {
+        for (String name : names) {
+            try {
+                return paramType == null ? appenderClass.getMethod(name) : appenderClass.getMethod(name, paramType);
+            } catch (NoSuchMethodException e) {
+                // Try next one
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException {
+        try {
+            beginRowMethod.invoke(appender);
+            for (AttrMapping mapping : mappings) {
+                appendValue(mapping, attributeValues[mapping.srcPos]);
+            }
+            endRowMethod.invoke(appender);
+            totalRows++;
+        } catch (Throwable e) {
+            throw new DBCException("Error appending row", unwrapError(e));
+        }
+    }
+
+    private void appendValue(@NotNull AttrMapping mapping, @Nullable Object value) throws Exception {
+        if (DBUtils.isNullValue(value)) {
+            if (appendNullMethod != null) {
+                appendNullMethod.invoke(appender);
+            } else {
+                appendStringMethod.invoke(appender, (String) null);
+            }
+            return;
+        }
+        Method method = null;
+        if (value instanceof Timestamp timestamp) {
+            value = timestamp.toLocalDateTime();
+        } else if (value instanceof java.sql.Date date) {
+            value = date.toLocalDate();
+        }
+        if (value instanceof String) {
+            method = appendStringMethod;
+        } else if (value instanceof Boolean) {
+            method = appendBooleanMethod;
+        } else if (value instanceof Byte) {
+            method = appendByteMethod;
+        } else if (value instanceof Short) {
+            method = appendShortMethod;
+        } else if (value instanceof Integer) {
+            method = appendIntMethod;
+        } else if (value instanceof Long) {
+            method = appendLongMethod;
+        } else if (value instanceof Float) {
+            method = appendFloatMethod;
+        } else if (value instanceof Double) {
+            method = appendDoubleMethod;
+        } else if (value instanceof BigDecimal) {
+            method = appendDecimalMethod;
+        } else if (value instanceof byte[]) {
+            method = appendBytesMethod;
+        } else if (value instanceof LocalDate) {
+            method = appendDateMethod;
+        } else if (value instanceof LocalDateTime) {
+            method = appendDateTimeMethod;
+        }
+        if (method == null) {
+            // Unsupported by this driver version - append as string and let the appender cast it
+            method = appendStringMethod;
+            value = mapping.valueHandler.getValueDisplayString(mapping.tableAttr, value, DBDDisplayFormat.NATIVE);
+        }
+        method.invoke(appender, value);
+    }
+
+    @Override
+    public void flushRows(@NotNull DBCSession session) throws DBCException {
+        try {
+            flushMethod.invoke(appender);
+            session.getProgressMonitor().subTask("Appended " + totalRows + " rows into " + table.getName());
+        } catch (Throwable e) {
+            throw new DBCException("Error flushing appender", unwrapError(e));
+        }
+    }
+
+    @Override
+    public void finishBulkLoad(@NotNull DBCSession session) throws DBCException {
+        try {
+            closeMethod.invoke(appender);
+            appender = null;
+        } catch (Throwable e) {
+            throw new DBCException("Error finishing append to " + table.getName(), unwrapError(e));
+        }
+
+        DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
+        if (txnManager != null && !txnManager.isAutoCommit()) {
+            session.getProgressMonitor().subTask("Commit appended rows");
+            txnManager.commit(session);
+        }
+        log.debug("Appender finished (" + totalRows + ")");
+    }
+
+    private static Throwable unwrapError(Throwable e) {
+        if (e instanceof InvocationTargetException) {
+            return ((InvocationTargetException) e).getTargetException();
+        }
+        return e;
+    }
+
+    @Override
+    public void close() {
+        if (appender != null) {
+            try {
+                appender.getClass().getMethod("close").invoke(appender);
+            } catch (Throwable e) {
+                log.debug("Error closing appender", unwrapError(e));
+            }
+            appender = null;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.jkiss.dbeaver.model.DBPDataKind;
 import org.jkiss.dbeaver.model.DBPDataSourceContainer;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.sql.SQLDialect;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
 import org.jkiss.utils.ArrayUtils;
 
 import java.util.Locale;
@@ -52,4 +53,12 @@ public class DuckDBDataSource extends GenericDataSource {
         }
         return super.resolveDataKind(typeName, valueType);
     }
+
+    @Override
+    public <T> T getAdapter(Class<T> adapter) {
+        if (adapter == DBSDataBulkLoader.class) {
+            return adapter.cast(new DuckDBAppenderLoader(this));
+        }
+        return super.getAdapter(adapter);
+    }
 }
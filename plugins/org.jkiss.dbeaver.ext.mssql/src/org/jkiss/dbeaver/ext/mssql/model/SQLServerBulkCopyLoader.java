@@ -0,0 +1,356 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.mssql.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
+import org.jkiss.dbeaver.model.data.DBDValue;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCTransactionManager;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.struct.BatchInsertBulkLoadManager;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.utils.ArrayUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Types;
+import java.util.*;
+
+/**
+ * Bulk loader based on SQLServerBulkCopy (Microsoft JDBC driver only).
+ *
+ * Rows are collected until flush and then sent with a single bulk copy operation.
+ * Source rows are exposed to the driver through a dynamic proxy of ISQLServerBulkRecord
+ * (driver classes are accessed with reflection as they belong to the driver class loader).
+ * If the driver doesn't provide bulk copy then rows are inserted with batched INSERT statements.
+ */
+public class SQLServerBulkCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.BulkLoadManager {
+
+    private static final Log log = Log.getLog(SQLServerBulkCopyLoader.class);
+
+    private final SQLServerDataSource dataSource;
+    private SQLServerTableBase table;
+    private Object bulkCopy;
+    private Method writeToServerMethod;
+    private Class<?> bulkRecordClass;
+
+    private AttrMapping[] mappings;
+    private final List<Object[]> rows = new ArrayList<>();
+    private long totalRows;
+
+    private static class AttrMapping {
+        final SQLServerTableColumn tableAttr;
+        final DBDValueHandler valueHandler;
+        final int srcPos;
+        final int sourceType;
+        final int precision;
+        final int scale;
+
+        AttrMapping(SQLServerTableColumn tableAttr, DBDValueHandler valueHandler, int srcPos) {
+            this.tableAttr = tableAttr;
+            this.valueHandler = valueHandler;
+            this.srcPos = srcPos;
+            int typeID = tableAttr.getTypeID();
+            if (isNativeType(typeID)) {
+                this.sourceType = typeID;
+            } else {
+                // Everything else is passed as a string, server converts it to the column type
+                this.sourceType = Types.NVARCHAR;
+            }
+            DBPDataKind dataKind = tableAttr.getDataKind();
+            if (dataKind == DBPDataKind.STRING || dataKind == DBPDataKind.BINARY || dataKind == DBPDataKind.CONTENT || sourceType != typeID) {
+                long maxLength = tableAttr.getMaxLength();
+                this.precision = maxLength > 0 && sourceType == typeID ? (int) maxLength : Integer.MAX_VALUE;
+            } else {
+                this.precision = CommonUtils.toInt(tableAttr.getPrecision());
+            }
+            this.scale = CommonUtils.toInt(tableAttr.getScale());
+        }
+
+        boolean isNative() {
+            return sourceType == tableAttr.getTypeID();
+        }
+    }
+
+    private static boolean isNativeType(int typeID) {
+        switch (typeID) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.DATE:
+            case Types.TIME:
+            case Types.TIMESTAMP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public SQLServerBulkCopyLoader(SQLServerDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @NotNull
+    @Override
+    public BulkLoadManager createBulkLoad(
+        @NotNull DBCSession session,
+        @NotNull DBSDataContainer dataContainer,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource source,
+        int batchSize,
+        Map<String, Object> options) throws DBCException
+    {
+        if (!(dataContainer instanceof SQLServerTableBase)) {
+            throw new DBCException("Bulk copy is not supported for " + DBUtils.getObjectFullName(dataContainer, DBPEvaluationContext.UI));
+        }
+        this.table = (SQLServerTableBase) dataContainer;
+        try {
+            List<AttrMapping> attrMappings = new ArrayList<>();
+            boolean keepIdentity = false;
+            for (SQLServerTableColumn attr : CommonUtils.safeCollection(table.getAttributes(session.getProgressMonitor()))) {
+                int srcPos = ArrayUtils.indexOf(attributes, attr);
+                if (srcPos >= 0) {
+                    attrMappings.add(new AttrMapping(attr, DBUtils.findValueHandler(session, attr), srcPos));
+                    if (attr.isIdentity()) {
+                        keepIdentity = true;
+                    }
+                }
+            }
+            if (attrMappings.isEmpty()) {
+                throw new DBCException("No columns mapped for bulk copy");
+            }
+            mappings = attrMappings.toArray(new AttrMapping[0]);
+
+            Connection connection = ((JDBCSession) session).getOriginal();
+            ClassLoader driverClassLoader = connection.getClass().getClassLoader();
+            Class<?> bulkCopyClass = Class.forName("com.microsoft.sqlserver.jdbc.SQLServerBulkCopy", true, driverClassLoader);
+            Class<?> bulkCopyOptionsClass = Class.forName("com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions", true, driverClassLoader);
+            bulkRecordClass = Class.forName("com.microsoft.sqlserver.jdbc.ISQLServerBulkRecord", true, driverClassLoader);
+
+            // Newer drivers declare writeToServer(ISQLServerBulkData) which is a super interface of ISQLServerBulkRecord
+            for (Method method : bulkCopyClass.getMethods()) {
+                if (method.getName().equals("writeToServer") && method.getParameterCount() == 1 &&
+                    method.getParameterTypes()[0].isAssignableFrom(bulkRecordClass))
+                {
+                    writeToServerMethod = method;
+                    break;
+                }
+            }
+            if (writeToServerMethod == null) {
+                throw new NoSuchMethodException("SQLServerBulkCopy.writeToServer(ISQLServerBulkRecord)");
+            }
+
+            bulkCopy = bulkCopyClass.getConstructor(Connection.class).newInstance(connection);
+            Object bulkCopyOptions = bulkCopyOptionsClass.getConstructor().newInstance();
+            bulkCopyOptionsClass.getMethod("setKeepIdentity", Boolean.TYPE).invoke(bulkCopyOptions, keepIdentity);
+            bulkCopyOptionsClass.getMethod("setKeepNulls", Boolean.TYPE).invoke(bulkCopyOptions, true);
+            if (batchSize > 0) {
+                bulkCopyOptionsClass.getMethod("setBatchSize", Integer.TYPE).invoke(bulkCopyOptions, batchSize);
+            }
+            bulkCopyClass.getMethod("setBulkCopyOptions", bulkCopyOptionsClass).invoke(bulkCopy, bulkCopyOptions);
+            bulkCopyClass.getMethod("setDestinationTableName", String.class).invoke(bulkCopy, table.getFullyQualifiedName(DBPEvaluationContext.DML));
+            Method addColumnMappingMethod = bulkCopyClass.getMethod("addColumnMapping", Integer.TYPE, String.class);
+            for (int i = 0; i < mappings.length; i++) {
+                addColumnMappingMethod.invoke(bulkCopy, i + 1, mappings[i].tableAttr.getName());
+            }
+        } catch (DBCException e) {
+            close();
+            throw e;
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            close();
+            log.debug("Bulk copy is not supported by driver (" + e.getMessage() + "), use batched inserts");
+            return BatchInsertBulkLoadManager.create(session, dataContainer, attributes, source, batchSize, options);
+        } catch (Throwable e) {
+            close();
+            throw new DBCException("Can't instantiate SQLServerBulkCopy", unwrapError(e));
+        }
+        return this;
+    }
+
+    @Override
+    public void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException {
+        Object[] row = new Object[mappings.length];
+        for (int i = 0; i < mappings.length; i++) {
+            AttrMapping mapping = mappings[i];
+            Object value = attributeValues[mapping.srcPos];
+            if (value instanceof DBDValue dbdValue) {
+                value = dbdValue.isNull() ? null : dbdValue.getRawValue();
+            }
+            if (DBUtils.isNullValue(value)) {
+                value = null;
+            } else if (!mapping.isNative() || !isPlainValue(value)) {
+                value = mapping.valueHandler.getValueDisplayString(mapping.tableAttr, value, DBDDisplayFormat.NATIVE);
+            }
+            row[i] = value;
+        }
+        rows.add(row);
+    }
+
+    private static boolean isPlainValue(Object value) {
+        return value instanceof Number || value instanceof String || value instanceof Boolean || value instanceof byte[] ||
+            value instanceof java.util.Date || value instanceof java.time.temporal.Temporal;
+    }
+
+    private void sendRows(@NotNull DBCSession session) throws DBCException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Object bulkRecord = Proxy.newProxyInstance(
+            bulkRecordClass.getClassLoader(),
+            new Class[]{bulkRecordClass},
+            new BulkRecordHandler(rows.iterator()));
+        try {
+            writeToServerMethod.invoke(bulkCopy, bulkRecord);
+            totalRows += rows.size();
+            session.getProgressMonitor().subTask("Copied " + totalRows + " rows into " + table.getName());
+        } catch (Throwable e) {
+            throw new DBCException("Error copying data to the server", unwrapError(e), session.getExecutionContext());
+        } finally {
+            rows.clear();
+        }
+    }
+
+    @Override
+    public void flushRows(@NotNull DBCSession session) throws DBCException {
+        sendRows(session);
+    }
+
+    @Override
+    public void finishBulkLoad(@NotNull DBCSession session) throws DBCException {
+        sendRows(session);
+
+        DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
+        if (txnManager != null && !txnManager.isAutoCommit()) {
+            session.getProgressMonitor().subTask("Commit bulk copy");
+            txnManager.commit(session);
+        }
+        log.debug("Bulk copy finished (" + totalRows + ")");
+    }
+
+    private static Throwable unwrapError(Throwable e) {
+        if (e instanceof InvocationTargetException) {
+            return ((InvocationTargetException) e).getTargetException();
+        }
+        return e;
+    }
+
+    @Override
+    public void close() {
+        rows.clear();
+        if (bulkCopy != null) {
+            try {
+                bulkCopy.getClass().getMethod("close").invoke(bulkCopy);
+            } catch (Throwable e) {
+                log.debug("Error closing bulk copy", unwrapError(e));
+            }
+            bulkCopy = null;
+        }
+    }
+
+    /**
+     * Implements ISQLServerBulkRecord (and ISQLServerBulkData) over buffered rows.
+     * Optional methods (auto-increment flags, date/time formats) return defaults.
+     */
+    private class BulkRecordHandler implements InvocationHandler {
+        private final Iterator<Object[]> iterator;
+        private Object[] currentRow;
+
+        BulkRecordHandler(Iterator<Object[]> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "getColumnOrdinals": {
+                    Set<Integer> ordinals = new LinkedHashSet<>();
+                    for (int i = 1; i <= mappings.length; i++) {
+                        ordinals.add(i);
+                    }
+                    return ordinals;
+                }
+                case "getColumnName":
+                    return getMapping(args).tableAttr.getName();
+                case "getColumnType":
+                    return getMapping(args).sourceType;
+                case "getPrecision":
+                    return getMapping(args).precision;
+                case "getScale":
+                    return getMapping(args).scale;
+                case "isAutoIncrement":
+                    return getMapping(args).tableAttr.isIdentity();
+                case "next":
+                    currentRow = iterator.hasNext() ? iterator.next() : null;
+                    return currentRow != null;
+                case "getRowData":
+                    return currentRow;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "Bulk record of " + table.getName();
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        }
+
+        private AttrMapping getMapping(Object[] args) {
+            return mappings[(Integer) args[0] - 1];
+        }
+
+        private Object defaultValue(Class<?> type) {
+            if (type == Boolean.TYPE) {
+                return false;
+            } else if (type == Integer.TYPE) {
+                return 0;
+            }
+            return null;
+        }
+    }
+}
@@ -371,6 +371,11 @@ public class SQLServerDialect extends JDBCSQLDialect implements TPRuleProvider,
         return isSqlServer; // Sybase throws a syntax error on "DEFAULT" keyword
     }
 
+    @Override
+    public int getMaxBindParameters() {
+        return isSqlServer ? 2100 : 2048;
+    }
+
     @Override
     public boolean supportsAliasInConditions() {
         return false;
@@ -334,6 +334,11 @@ public class MySQLDialect extends JDBCSQLDialect implements SQLDialectSchemaCont
         return false;
     }
 
+    @Override
+    public int getMaxBindParameters() {
+        return 65535;
+    }
+
     @NotNull
     @Override
     public String escapeScriptValue(DBSTypedObject attribute, @NotNull Object value, @NotNull String strValue) {
@@ -0,0 +1,282 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.mysql.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCTransactionManager;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.struct.BatchInsertBulkLoadManager;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.utils.ArrayUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk loader based on LOAD DATA LOCAL INFILE.
+ *
+ * Rows are encoded in the default LOAD DATA text format (tab separated, backslash escaped) and
+ * passed to the driver as an in-memory stream (setLocalInfileInputStream), so no temporary files are created.
+ * Each flush sends one LOAD DATA statement, so memory is bounded by the commit size.
+ *
+ * Requires local infile support on both sides: driver property allowLoadLocalInfile (MySQL) or
+ * allowLocalInfile (MariaDB) and server variable local_infile.
+ * If the driver can't take the data from a stream then rows are inserted with batched INSERT statements.
+ */
+public class MySQLLoadDataLoader implements DBSDataBulkLoader, DBSDataBulkLoader.BulkLoadManager {
+
+    private static final Log log = Log.getLog(MySQLLoadDataLoader.class);
+
+    private static final int MAX_BUFFER_SIZE = 16 * 1024 * 1024;
+
+    private final MySQLDataSource dataSource;
+    private MySQLTableBase table;
+    private Statement statement;
+    private Method setInputStreamMethod;
+    private String loadQuery;
+
+    private AttrMapping[] mappings;
+    private final StringBuilder buffer = new StringBuilder();
+    private int bufferedRows;
+    private long totalRows;
+
+    private static class AttrMapping {
+        final MySQLTableColumn tableAttr;
+        final DBDValueHandler valueHandler;
+        final int srcPos;
+        final boolean binary;
+
+        AttrMapping(MySQLTableColumn tableAttr, DBDValueHandler valueHandler, int srcPos) {
+            this.tableAttr = tableAttr;
+            this.valueHandler = valueHandler;
+            this.srcPos = srcPos;
+            this.binary = tableAttr.getDataKind() == DBPDataKind.BINARY;
+        }
+    }
+
+    public MySQLLoadDataLoader(MySQLDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @NotNull
+    @Override
+    public BulkLoadManager createBulkLoad(
+        @NotNull DBCSession session,
+        @NotNull DBSDataContainer dataContainer,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource source,
+        int batchSize,
+        Map<String, Object> options) throws DBCException
+    {
+        if (!(dataContainer instanceof MySQLTableBase)) {
+            throw new DBCException("LOAD DATA is not supported for " + DBUtils.getObjectFullName(dataContainer, DBPEvaluationContext.UI));
+        }
+        this.table = (MySQLTableBase) dataContainer;
+        try {
+            List<MySQLTableColumn> mappedAttrs = new ArrayList<>();
+            List<AttrMapping> attrMappings = new ArrayList<>();
+            for (MySQLTableColumn attr : CommonUtils.safeCollection(table.getAttributes(session.getProgressMonitor()))) {
+                int srcPos = ArrayUtils.indexOf(attributes, attr);
+                if (srcPos >= 0) {
+                    attrMappings.add(new AttrMapping(attr, DBUtils.findValueHandler(session, attr), srcPos));
+                    mappedAttrs.add(attr);
+                }
+            }
+            if (attrMappings.isEmpty()) {
+                throw new DBCException("No columns mapped for LOAD DATA");
+            }
+            mappings = attrMappings.toArray(new AttrMapping[0]);
+
+            statement = ((JDBCSession) session).getOriginal().createStatement();
+            setInputStreamMethod = findInputStreamMethod(statement);
+            if (setInputStreamMethod == null) {
+                log.debug("LOAD DATA from stream is not supported, use batched inserts");
+                close();
+                return BatchInsertBulkLoadManager.create(session, dataContainer, attributes, source, batchSize, options);
+            }
+            loadQuery = makeLoadQuery();
+        } catch (DBCException e) {
+            close();
+            throw e;
+        } catch (Exception e) {
+            close();
+            throw new DBCException("Can't prepare LOAD DATA", e);
+        }
+        return this;
+    }
+
+    private static Method findInputStreamMethod(Statement statement) {
+        // MySQL Connector/J (JdbcStatement) and MariaDB Connector/J both have it in the statement implementation
+        try {
+            Method method = statement.getClass().getMethod("setLocalInfileInputStream", InputStream.class);
+            method.setAccessible(true);
+            return method;
+        } catch (Exception e) {
+            log.debug("Local infile stream is not supported by driver: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @NotNull
+    private String makeLoadQuery() {
+        // Default LOAD DATA format: FIELDS TERMINATED BY '\t' ESCAPED BY '\\' LINES TERMINATED BY '\n'
+        StringBuilder query = new StringBuilder();
+        query.append("LOAD DATA LOCAL INFILE 'dbeaver-bulk-load' INTO TABLE ")
+            .append(table.getFullyQualifiedName(DBPEvaluationContext.DML))
+            .append(" CHARACTER SET utf8mb4 (");
+        StringBuilder setClause = new StringBuilder();
+        for (int i = 0; i < mappings.length; i++) {
+            AttrMapping mapping = mappings[i];
+            if (i > 0) {
+                query.append(",");
+            }
+            String columnName = DBUtils.getQuotedIdentifier(mapping.tableAttr);
+            if (mapping.binary) {
+                // Binary values are sent in hex, otherwise they would be recoded with the file charset
+                String varName = "@dbeaver_bin" + i;
+                query.append(varName);
+                setClause.append(setClause.length() == 0 ? " SET " : ",")
+                    .append(columnName).append("=UNHEX(").append(varName).append(")");
+            } else {
+                query.append(columnName);
+            }
+        }
+        query.append(")").append(setClause);
+        return query.toString();
+    }
+
+    @Override
+    public void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException {
+        StringBuilder line = buffer;
+        for (int i = 0; i < mappings.length; i++) {
+            AttrMapping mapping = mappings[i];
+            if (i > 0) {
+                line.append('\t');
+            }
+            Object value = attributeValues[mapping.srcPos];
+            if (DBUtils.isNullValue(value)) {
+                line.append("\\N");
+            } else if (value instanceof Boolean) {
+                line.append((Boolean) value ? '1' : '0');
+            } else if (value instanceof Number) {
+                line.append(value);
+            } else if (mapping.binary && value instanceof byte[]) {
+                appendHex(line, (byte[]) value);
+            } else {
+                appendEscaped(line, mapping.valueHandler.getValueDisplayString(mapping.tableAttr, value, DBDDisplayFormat.NATIVE));
+            }
+        }
+        line.append('\n');
+        bufferedRows++;
+        if (line.length() >= MAX_BUFFER_SIZE) {
+            sendRows(session);
+        }
+    }
+
+    private static void appendEscaped(StringBuilder line, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': line.append("\\\\"); break;
+                case '\t': line.append("\\t"); break;
+                case '\n': line.append("\\n"); break;
+                case '\r': line.append("\\r"); break;
+                case 0: line.append("\\0"); break;
+                default: line.append(c); break;
+            }
+        }
+    }
+
+    private static void appendHex(StringBuilder line, byte[] value) {
+        for (byte b : value) {
+            line.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+    }
+
+    private void sendRows(@NotNull DBCSession session) throws DBCException {
+        if (bufferedRows == 0) {
+            return;
+        }
+        byte[] data = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        buffer.setLength(0);
+        int rowCount = bufferedRows;
+        bufferedRows = 0;
+        try {
+            setInputStreamMethod.invoke(statement, new ByteArrayInputStream(data));
+            statement.execute(loadQuery);
+            totalRows += rowCount;
+            session.getProgressMonitor().subTask("Loaded " + totalRows + " rows into " + table.getName());
+        } catch (InvocationTargetException e) {
+            throw new DBCException("Error setting LOAD DATA stream", e.getTargetException());
+        } catch (IllegalAccessException e) {
+            throw new DBCException("Error setting LOAD DATA stream", e);
+        } catch (SQLException e) {
+            throw new DBCException(e, session.getExecutionContext());
+        }
+    }
+
+    @Override
+    public void flushRows(@NotNull DBCSession session) throws DBCException {
+        sendRows(session);
+    }
+
+    @Override
+    public void finishBulkLoad(@NotNull DBCSession session) throws DBCException {
+        sendRows(session);
+
+        DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
+        if (txnManager != null && !txnManager.isAutoCommit()) {
+            session.getProgressMonitor().subTask("Commit LOAD DATA");
+            txnManager.commit(session);
+        }
+        log.debug("LOAD DATA finished (" + totalRows + ")");
+    }
+
+    @Override
+    public void close() {
+        buffer.setLength(0);
+        bufferedRows = 0;
+        if (statement != null) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                log.debug("Error closing LOAD DATA statement", e);
+            }
+            statement = null;
+        }
+    }
+}
@@ -809,4 +809,9 @@ public class OracleSQLDialect extends JDBCSQLDialect
             ProjectionAliasVisibilityScope.ORDER_BY
         );
     }
+
+    @Override
+    public int getMaxBindParameters() {
+        return 65535;
+    }
 }
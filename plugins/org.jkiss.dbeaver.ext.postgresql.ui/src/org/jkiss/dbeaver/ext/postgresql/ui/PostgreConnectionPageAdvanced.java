@@ -51,6 +51,8 @@ public class PostgreConnectionPageAdvanced extends ConnectionPageAbstract
     private Button readAllDataTypes;
     private Button readKeysWithColumns;
     private Button usePreparedStatements;
+    private Button copyStreaming;
+    private Button copyBinary;
     private Combo ddPlainBehaviorCombo;
     private Combo ddTagBehaviorCombo;
 
@@ -111,13 +113,22 @@ public class PostgreConnectionPageAdvanced extends ConnectionPageAbstract
         final DBPDriver driver = site.getDriver();
         PostgreServerType serverType = PostgreUtils.getServerType(driver);
 
-        if (serverType.turnOffPreparedStatements())
         {
             Group performanceGroup = new Group(cfgGroup, SWT.NONE);
             performanceGroup.setText(PostgreMessages.dialog_setting_group_performance);
             performanceGroup.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
             performanceGroup.setLayout(new GridLayout(2, false));
-            usePreparedStatements = UIUtils.createCheckbox(performanceGroup, PostgreMessages.dialog_setting_connection_use_prepared_statements, PostgreMessages.dialog_setting_connection_use_prepared_statements_tip, false, 2);
+            if (serverType.turnOffPreparedStatements()) {
+                usePreparedStatements = UIUtils.createCheckbox(performanceGroup, PostgreMessages.dialog_setting_connection_use_prepared_statements, PostgreMessages.dialog_setting_connection_use_prepared_statements_tip, false, 2);
+            }
+            copyStreaming = UIUtils.createCheckbox(performanceGroup, PostgreMessages.dialog_setting_connection_copy_streaming, PostgreMessages.dialog_setting_connection_copy_streaming_tip, false, 2);
+            copyBinary = UIUtils.createCheckbox(performanceGroup, PostgreMessages.dialog_setting_connection_copy_binary, PostgreMessages.dialog_setting_connection_copy_binary_tip, false, 2);
+            copyStreaming.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    copyBinary.setEnabled(copyStreaming.getSelection());
+                }
+            });
         }
 
         setControl(cfgGroup);
@@ -166,6 +177,11 @@ public class PostgreConnectionPageAdvanced extends ConnectionPageAbstract
             usePreparedStatements.setSelection(
                     CommonUtils.getBoolean(connectionInfo.getProviderProperty(PostgreConstants.PROP_USE_PREPARED_STATEMENTS), false));
         }
+        copyStreaming.setSelection(
+            CommonUtils.getBoolean(connectionInfo.getProviderProperty(PostgreConstants.PROP_COPY_STREAMING), false));
+        copyBinary.setSelection(
+            CommonUtils.getBoolean(connectionInfo.getProviderProperty(PostgreConstants.PROP_COPY_BINARY), false));
+        copyBinary.setEnabled(copyStreaming.getSelection());
 
         ddPlainBehaviorCombo.select(CommonUtils.getBoolean(
             connectionInfo.getProviderProperty(PostgreConstants.PROP_DD_PLAIN_STRING),
@@ -188,6 +204,8 @@ public class PostgreConnectionPageAdvanced extends ConnectionPageAbstract
         if (usePreparedStatements != null) {
             connectionCfg.setProviderProperty(PostgreConstants.PROP_USE_PREPARED_STATEMENTS, String.valueOf(usePreparedStatements.getSelection()));
         }
+        connectionCfg.setProviderProperty(PostgreConstants.PROP_COPY_STREAMING, String.valueOf(copyStreaming.getSelection()));
+        connectionCfg.setProviderProperty(PostgreConstants.PROP_COPY_BINARY, String.valueOf(copyBinary.getSelection()));
 
         connectionCfg.setProviderProperty(PostgreConstants.PROP_DD_PLAIN_STRING, String.valueOf(ddPlainBehaviorCombo.getSelectionIndex() == 0));
         connectionCfg.setProviderProperty(PostgreConstants.PROP_DD_TAG_STRING, String.valueOf(ddTagBehaviorCombo.getSelectionIndex() == 0));
@@ -0,0 +1,330 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.postgresql.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.ext.postgresql.PostgreConstants;
+import org.jkiss.dbeaver.model.exec.DBCException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.Temporal;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Encoder of PostgreSQL binary COPY format.
+ * Supports numeric, temporal, boolean, text, bytea and uuid types. Tables with other column types use text format.
+ */
+class PostgreCopyBinaryEncoder {
+
+    private static final byte[] HEADER = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+
+    private static final LocalDate PG_EPOCH_DATE = LocalDate.of(2000, 1, 1);
+    private static final Instant PG_EPOCH = Instant.parse("2000-01-01T00:00:00Z");
+
+    private static final int NUMERIC_POS = 0x0000;
+    private static final int NUMERIC_NEG = 0x4000;
+    private static final int NUMERIC_NAN = 0xC000;
+
+    static boolean isTypeSupported(long typeId) {
+        switch ((int) typeId) {
+            case PostgreOid.INT2:
+            case PostgreOid.INT4:
+            case PostgreOid.INT8:
+            case PostgreOid.FLOAT4:
+            case PostgreOid.FLOAT8:
+            case PostgreOid.NUMERIC:
+            case PostgreOid.BOOL:
+            case PostgreOid.DATE:
+            case PostgreOid.TIMESTAMP:
+            case PostgreOid.TIMESTAMPTZ:
+            case PostgreOid.TEXT:
+            case PostgreOid.VARCHAR:
+            case PostgreOid.BPCHAR:
+            case PostgreOid.NAME:
+            case PostgreOid.BYTEA:
+            case PostgreOid.UUID:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static void writeHeader(@NotNull PostgreCopyBuffer buffer) {
+        buffer.writeBytes(HEADER);
+        // Flags
+        buffer.writeInt(0);
+        // Header extension length
+        buffer.writeInt(0);
+    }
+
+    static void writeTrailer(@NotNull PostgreCopyBuffer buffer) {
+        buffer.writeShort(-1);
+    }
+
+    static void writeTupleStart(@NotNull PostgreCopyBuffer buffer, int fieldCount) {
+        buffer.writeShort(fieldCount);
+    }
+
+    static void writeNull(@NotNull PostgreCopyBuffer buffer) {
+        buffer.writeInt(-1);
+    }
+
+    static void writeValue(@NotNull PostgreCopyBuffer buffer, long typeId, @NotNull Object value) throws DBCException {
+        switch ((int) typeId) {
+            case PostgreOid.INT2 -> {
+                buffer.writeInt(2);
+                buffer.writeShort(toNumber(value, typeId).shortValue());
+            }
+            case PostgreOid.INT4 -> {
+                buffer.writeInt(4);
+                buffer.writeInt(toNumber(value, typeId).intValue());
+            }
+            case PostgreOid.INT8 -> {
+                buffer.writeInt(8);
+                buffer.writeLong(toNumber(value, typeId).longValue());
+            }
+            case PostgreOid.FLOAT4 -> {
+                buffer.writeInt(4);
+                buffer.writeInt(Float.floatToIntBits(toNumber(value, typeId).floatValue()));
+            }
+            case PostgreOid.FLOAT8 -> {
+                buffer.writeInt(8);
+                buffer.writeLong(Double.doubleToLongBits(toNumber(value, typeId).doubleValue()));
+            }
+            case PostgreOid.NUMERIC -> writeNumeric(buffer, value);
+            case PostgreOid.BOOL -> {
+                buffer.writeInt(1);
+                buffer.writeByte(toBoolean(value, typeId) ? 1 : 0);
+            }
+            case PostgreOid.DATE -> {
+                buffer.writeInt(4);
+                buffer.writeInt((int) ChronoUnit.DAYS.between(PG_EPOCH_DATE, toLocalDate(value, typeId)));
+            }
+            case PostgreOid.TIMESTAMP -> {
+                buffer.writeInt(8);
+                buffer.writeLong(toMicros(toLocalDateTime(value, typeId).toInstant(ZoneOffset.UTC)));
+            }
+            case PostgreOid.TIMESTAMPTZ -> {
+                buffer.writeInt(8);
+                buffer.writeLong(toMicros(toInstant(value, typeId)));
+            }
+            case PostgreOid.BYTEA -> {
+                if (!(value instanceof byte[] bytes)) {
+                    throw unsupportedValue(value, typeId);
+                }
+                buffer.writeInt(bytes.length);
+                buffer.writeBytes(bytes);
+            }
+            case PostgreOid.UUID -> {
+                UUID uuid;
+                if (value instanceof UUID) {
+                    uuid = (UUID) value;
+                } else {
+                    try {
+                        uuid = UUID.fromString(value.toString());
+                    } catch (IllegalArgumentException e) {
+                        throw unsupportedValue(value, typeId);
+                    }
+                }
+                buffer.writeInt(16);
+                buffer.writeLong(uuid.getMostSignificantBits());
+                buffer.writeLong(uuid.getLeastSignificantBits());
+            }
+            default -> {
+                // Text types
+                int lengthPos = buffer.size();
+                buffer.writeInt(0);
+                buffer.writeUtf8(value instanceof CharSequence ? (CharSequence) value : value.toString());
+                buffer.putInt(lengthPos, buffer.size() - lengthPos - 4);
+            }
+        }
+    }
+
+    private static void writeNumeric(@NotNull PostgreCopyBuffer buffer, @NotNull Object value) throws DBCException {
+        int lengthPos = buffer.size();
+        buffer.writeInt(0);
+        if (value instanceof Double && ((Double) value).isNaN() || value instanceof Float && ((Float) value).isNaN()) {
+            buffer.writeShort(0);
+            buffer.writeShort(0);
+            buffer.writeShort(NUMERIC_NAN);
+            buffer.writeShort(0);
+        } else {
+            BigDecimal number = toBigDecimal(value);
+            if (number.scale() < 0) {
+                number = number.setScale(0);
+            }
+            // Split digits into base 10000 groups aligned at the decimal point
+            String plain = number.abs().toPlainString();
+            int pointPos = plain.indexOf('.');
+            String intPart = pointPos < 0 ? plain : plain.substring(0, pointPos);
+            String fracPart = pointPos < 0 ? "" : plain.substring(pointPos + 1);
+            int intGroups = (intPart.length() + 3) / 4;
+            int fracGroups = (fracPart.length() + 3) / 4;
+            short[] digits = new short[intGroups + fracGroups];
+            int intPad = intGroups * 4 - intPart.length();
+            for (int i = 0; i < intGroups; i++) {
+                digits[i] = (short) parseGroup(intPart, i * 4 - intPad);
+            }
+            for (int i = 0; i < fracGroups; i++) {
+                digits[intGroups + i] = (short) parseGroup(fracPart, i * 4);
+            }
+            int first = 0;
+            while (first < digits.length && digits[first] == 0) {
+                first++;
+            }
+            int last = digits.length;
+            while (last > first && digits[last - 1] == 0) {
+                last--;
+            }
+            int weight = first == last ? 0 : intGroups - 1 - first;
+            buffer.writeShort(last - first);
+            buffer.writeShort(weight);
+            buffer.writeShort(number.signum() < 0 ? NUMERIC_NEG : NUMERIC_POS);
+            buffer.writeShort(number.scale());
+            for (int i = first; i < last; i++) {
+                buffer.writeShort(digits[i]);
+            }
+        }
+        buffer.putInt(lengthPos, buffer.size() - lengthPos - 4);
+    }
+
+    /**
+     * Parses 4 decimal digits starting at the specified position.
+     * Positions outside of the string are treated as zeros (left padding for integer part, right padding for fraction).
+     */
+    private static int parseGroup(String digits, int start) {
+        int result = 0;
+        for (int i = start; i < start + 4; i++) {
+            result *= 10;
+            if (i >= 0 && i < digits.length()) {
+                result += digits.charAt(i) - '0';
+            }
+        }
+        return result;
+    }
+
+    private static long toMicros(@NotNull Instant instant) {
+        long seconds = instant.getEpochSecond() - PG_EPOCH.getEpochSecond();
+        return Math.addExact(Math.multiplyExact(seconds, 1000000L), instant.getNano() / 1000);
+    }
+
+    @NotNull
+    private static Number toNumber(@NotNull Object value, long typeId) throws DBCException {
+        if (value instanceof Number) {
+            return (Number) value;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        throw unsupportedValue(value, typeId);
+    }
+
+    @NotNull
+    private static BigDecimal toBigDecimal(@NotNull Object value) throws DBCException {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        } else if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        try {
+            return new BigDecimal(value.toString());
+        } catch (NumberFormatException e) {
+            throw unsupportedValue(value, PostgreOid.NUMERIC);
+        }
+    }
+
+    private static boolean toBoolean(@NotNull Object value, long typeId) throws DBCException {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value instanceof Number) {
+            return ((Number) value).intValue() != 0;
+        }
+        throw unsupportedValue(value, typeId);
+    }
+
+    @NotNull
+    private static LocalDate toLocalDate(@NotNull Object value, long typeId) throws DBCException {
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        } else if (value instanceof java.sql.Timestamp) {
+            return ((java.sql.Timestamp) value).toLocalDateTime().toLocalDate();
+        } else if (value instanceof Date) {
+            return LocalDate.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault());
+        } else if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        } else if (value instanceof Temporal) {
+            return toLocalDateTime(value, typeId).toLocalDate();
+        }
+        throw unsupportedValue(value, typeId);
+    }
+
+    @NotNull
+    private static LocalDateTime toLocalDateTime(@NotNull Object value, long typeId) throws DBCException {
+        if (value instanceof java.sql.Timestamp) {
+            return ((java.sql.Timestamp) value).toLocalDateTime();
+        } else if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate().atStartOfDay();
+        } else if (value instanceof Date) {
+            return LocalDateTime.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault());
+        } else if (value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        } else if (value instanceof LocalDate) {
+            return ((LocalDate) value).atStartOfDay();
+        } else if (value instanceof OffsetDateTime) {
+            return ((OffsetDateTime) value).toLocalDateTime();
+        } else if (value instanceof ZonedDateTime) {
+            return ((ZonedDateTime) value).toLocalDateTime();
+        } else if (value instanceof Instant) {
+            return LocalDateTime.ofInstant((Instant) value, ZoneId.systemDefault());
+        }
+        throw unsupportedValue(value, typeId);
+    }
+
+    @NotNull
+    private static Instant toInstant(@NotNull Object value, long typeId) throws DBCException {
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate().atStartOfDay(ZoneId.systemDefault()).toInstant();
+        } else if (value instanceof Date) {
+            // Also covers java.sql.Timestamp, including nanos
+            return ((Date) value).toInstant();
+        } else if (value instanceof Instant) {
+            return (Instant) value;
+        } else if (value instanceof OffsetDateTime) {
+            return ((OffsetDateTime) value).toInstant();
+        } else if (value instanceof ZonedDateTime) {
+            return ((ZonedDateTime) value).toInstant();
+        } else if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant();
+        } else if (value instanceof LocalDate) {
+            return ((LocalDate) value).atStartOfDay(ZoneId.systemDefault()).toInstant();
+        }
+        throw unsupportedValue(value, typeId);
+    }
+
+    @NotNull
+    private static DBCException unsupportedValue(@Nullable Object value, long typeId) {
+        return new DBCException(
+            "Value of type " + (value == null ? "null" : value.getClass().getName()) + " can't be encoded as binary COPY value of type " +
+            typeId + ". Disable binary COPY format in connection settings (" + PostgreConstants.PROP_COPY_BINARY + ")");
+    }
+}
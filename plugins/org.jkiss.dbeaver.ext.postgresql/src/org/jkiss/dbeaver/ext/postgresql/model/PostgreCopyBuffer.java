@@ -0,0 +1,161 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.postgresql.model;
+
+import org.jkiss.code.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Reusable byte buffer for COPY data.
+ * Values are encoded directly into the buffer (text as UTF-8, numbers in network byte order),
+ * so rows don't produce intermediate strings or byte arrays.
+ */
+class PostgreCopyBuffer {
+
+    private byte[] data;
+    private int size;
+
+    PostgreCopyBuffer(int initialCapacity) {
+        this.data = new byte[initialCapacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    byte[] data() {
+        return data;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    private void ensureCapacity(int extra) {
+        int required = size + extra;
+        if (required > data.length) {
+            data = Arrays.copyOf(data, Math.max(required, data.length * 2));
+        }
+    }
+
+    void writeByte(int b) {
+        ensureCapacity(1);
+        data[size++] = (byte) b;
+    }
+
+    void writeBytes(@NotNull byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, data, size, bytes.length);
+        size += bytes.length;
+    }
+
+    void writeShort(int value) {
+        ensureCapacity(2);
+        data[size++] = (byte) (value >>> 8);
+        data[size++] = (byte) value;
+    }
+
+    void writeInt(int value) {
+        ensureCapacity(4);
+        putInt(size, value);
+        size += 4;
+    }
+
+    void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    /**
+     * Writes integer at the specified position. Used to patch length prefixes of variable length values.
+     */
+    void putInt(int position, int value) {
+        data[position] = (byte) (value >>> 24);
+        data[position + 1] = (byte) (value >>> 16);
+        data[position + 2] = (byte) (value >>> 8);
+        data[position + 3] = (byte) value;
+    }
+
+    /**
+     * Writes ASCII text (e.g. formatted number)
+     */
+    void writeAscii(@NotNull CharSequence text) {
+        int length = text.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            data[size++] = (byte) text.charAt(i);
+        }
+    }
+
+    void writeUtf8(@NotNull CharSequence text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            writeUtf8Char(text, i, text.charAt(i));
+            if (Character.isHighSurrogate(text.charAt(i)) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Writes text as a quoted CSV cell. Quote and escape characters are escaped with a backslash
+     * (matches COPY option ESCAPE '\').
+     */
+    void writeCsvQuoted(@NotNull CharSequence text) {
+        writeByte('"');
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                writeByte('\\');
+            }
+            writeUtf8Char(text, i, c);
+            if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                i++;
+            }
+        }
+        writeByte('"');
+    }
+
+    private void writeUtf8Char(CharSequence text, int index, char c) {
+        if (c < 0x80) {
+            ensureCapacity(1);
+            data[size++] = (byte) c;
+        } else if (c < 0x800) {
+            ensureCapacity(2);
+            data[size++] = (byte) (0xC0 | (c >> 6));
+            data[size++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && index + 1 < text.length() && Character.isLowSurrogate(text.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, text.charAt(index + 1));
+            ensureCapacity(4);
+            data[size++] = (byte) (0xF0 | (codePoint >> 18));
+            data[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            data[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            data[size++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            // Unpaired surrogate
+            writeByte('?');
+        } else {
+            ensureCapacity(3);
+            data[size++] = (byte) (0xE0 | (c >> 12));
+            data[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            data[size++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+}
@@ -18,8 +18,10 @@ package org.jkiss.dbeaver.ext.postgresql.model;
 
 import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ext.postgresql.PostgreConstants;
 import org.jkiss.dbeaver.model.DBPEvaluationContext;
 import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.connection.DBPConnectionConfiguration;
 import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
 import org.jkiss.dbeaver.model.data.DBDValueHandler;
 import org.jkiss.dbeaver.model.exec.DBCException;
@@ -48,7 +50,13 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * Bulk loader based on CopyManager
+ * Bulk loader based on CopyManager.
+ *
+ * By default, rows are written into a temporary CSV file which is sent to the server when bulk load finishes.
+ * In streaming mode ({@link PostgreConstants#PROP_COPY_STREAMING}) rows are encoded into a bounded in-memory buffer
+ * which is sent straight into an active COPY operation, so no scratch space is needed.
+ * Streaming mode may also use binary COPY format ({@link PostgreConstants#PROP_COPY_BINARY})
+ * if all target columns have types supported by {@link PostgreCopyBinaryEncoder}.
  *
  * //        new CopyManager((BaseConnection) conn)
  * //            .copyIn(
@@ -67,7 +75,19 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
     private Writer csvWriter;
     private Path csvFile;
 
+    // Streaming mode
+    private boolean binaryFormat;
+    private Object copyIn;
+    private Method writeToCopyMethod;
+    private Method flushCopyMethod;
+    private Method endCopyMethod;
+    private Method cancelCopyMethod;
+    private Method isActiveMethod;
+    private PostgreCopyBuffer copyBuffer;
+
     private AttrMapping[] mappings;
+    private int mappedColumnCount;
+    private final StringBuilder lineBuilder = new StringBuilder();
 
     private int copyBufferSize = 100 * 1024;
 
@@ -98,6 +118,8 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
         Map<String, Object> options) throws DBCException
     {
         this.table = (PostgreTableReal) dataContainer;
+        DBPConnectionConfiguration connectionInfo = dataSource.getContainer().getActualConnectionConfiguration();
+        boolean streaming = CommonUtils.getBoolean(connectionInfo.getProviderProperty(PostgreConstants.PROP_COPY_STREAMING), false);
         try {
             // Use reflection to create copy manager
             Connection pgConnection = ((JDBCSession) session).getOriginal();
@@ -111,22 +133,11 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
 
             copyManager = copyManagerClass.getConstructor(baseConnectionClass).newInstance(pgConnection);
 
-            Path tempFolder = DBWorkbench.getPlatform().getTempFolder(session.getProgressMonitor(), "postgesql-copy-datasets");
-            csvFile = tempFolder.resolve(CommonUtils.escapeFileName(table.getFullyQualifiedName(DBPEvaluationContext.DML)) + "-" + System.currentTimeMillis() + ".csv");  //$NON-NLS-1$ //$NON-NLS-2$
-            try {
-                Files.createFile(csvFile);
-            } catch (IOException ex) {
-                throw new IOException("Can't create CSV file " + csvFile);
-            }
-
-            csvWriter = new BufferedWriter(
-                Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8),
-                copyBufferSize
-                );
-
             List<? extends PostgreTableColumn> tableAttrs = CommonUtils.safeList(table.getAttributes(session.getProgressMonitor()));
             tableAttrs.removeIf(a -> a.getOrdinalPosition() < 0);
             mappings = new AttrMapping[tableAttrs.size()];
+            mappedColumnCount = 0;
+            boolean binarySupported = true;
 
             for (int i = 0; i < tableAttrs.size(); i++) {
                 PostgreTableColumn attr = tableAttrs.get(i);
@@ -137,6 +148,31 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
                     ArrayUtils.indexOf(attributes, attr)
                 );
                 mappings[i] = mapping;
+                if (mapping.srcPos >= 0) {
+                    mappedColumnCount++;
+                    if (!PostgreCopyBinaryEncoder.isTypeSupported(attr.getTypeId())) {
+                        binarySupported = false;
+                    }
+                }
+            }
+
+            if (streaming) {
+                binaryFormat = binarySupported &&
+                    CommonUtils.getBoolean(connectionInfo.getProviderProperty(PostgreConstants.PROP_COPY_BINARY), false);
+                startCopy(driverClassLoader, copyManagerClass);
+            } else {
+                Path tempFolder = DBWorkbench.getPlatform().getTempFolder(session.getProgressMonitor(), "postgesql-copy-datasets");
+                csvFile = tempFolder.resolve(CommonUtils.escapeFileName(table.getFullyQualifiedName(DBPEvaluationContext.DML)) + "-" + System.currentTimeMillis() + ".csv");  //$NON-NLS-1$ //$NON-NLS-2$
+                try {
+                    Files.createFile(csvFile);
+                } catch (IOException ex) {
+                    throw new IOException("Can't create CSV file " + csvFile);
+                }
+
+                csvWriter = new BufferedWriter(
+                    Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8),
+                    copyBufferSize
+                    );
             }
         } catch (Exception e) {
             throw new DBCException("Can't instantiate CopyManager", e);
@@ -144,9 +180,64 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
         return this;
     }
 
+    private void startCopy(ClassLoader driverClassLoader, Class<?> copyManagerClass) throws Exception {
+        Class<?> copyInClass = Class.forName("org.postgresql.copy.CopyIn", true, driverClassLoader);
+        Class<?> copyOperationClass = Class.forName("org.postgresql.copy.CopyOperation", true, driverClassLoader);
+        writeToCopyMethod = copyInClass.getMethod("writeToCopy", byte[].class, Integer.TYPE, Integer.TYPE);
+        flushCopyMethod = copyInClass.getMethod("flushCopy");
+        endCopyMethod = copyInClass.getMethod("endCopy");
+        cancelCopyMethod = copyOperationClass.getMethod("cancelCopy");
+        isActiveMethod = copyOperationClass.getMethod("isActive");
+
+        copyBuffer = new PostgreCopyBuffer(copyBufferSize + copyBufferSize / 2);
+        copyIn = copyManagerClass.getMethod("copyIn", String.class).invoke(copyManager, makeCopyQuery());
+        if (binaryFormat) {
+            PostgreCopyBinaryEncoder.writeHeader(copyBuffer);
+        }
+    }
+
+    @NotNull
+    private String makeCopyQuery() {
+        StringBuilder query = new StringBuilder();
+        query.append("COPY ").append(table.getFullyQualifiedName(DBPEvaluationContext.DML));
+        if (copyBuffer != null) {
+            // Streaming mode - list columns explicitly, unmapped columns get their default values
+            query.append(" (");
+            boolean hasColumn = false;
+            for (AttrMapping mapping : mappings) {
+                if (mapping.srcPos >= 0) {
+                    if (hasColumn) {
+                        query.append(",");
+                    }
+                    query.append(DBUtils.getQuotedIdentifier(mapping.tableAttr));
+                    hasColumn = true;
+                }
+            }
+            query.append(")");
+        }
+        if (binaryFormat) {
+            query.append(" FROM STDIN (FORMAT BINARY)");
+        } else {
+            query.append(" FROM STDIN (FORMAT CSV, ESCAPE '\\')");
+        }
+        return query.toString();
+    }
+
     @Override
     public void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException {
-        StringBuilder line = new StringBuilder();
+        if (copyIn != null) {
+            if (binaryFormat) {
+                addBinaryRow(attributeValues);
+            } else {
+                addTextRow(attributeValues);
+            }
+            if (copyBuffer.size() >= copyBufferSize) {
+                sendCopyBuffer();
+            }
+            return;
+        }
+        StringBuilder line = lineBuilder;
+        line.setLength(0);
         boolean hasCell = false;
         for (AttrMapping mapping : mappings) {
             if (mapping.srcPos >= 0) {
@@ -169,12 +260,65 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
         }
         line.append("\n");
         try {
-            csvWriter.write(line.toString());
+            csvWriter.append(line);
         } catch (IOException e) {
             throw new DBCException("Error writing CSV line", e);
         }
     }
 
+    private void addTextRow(@NotNull Object[] attributeValues) {
+        boolean hasCell = false;
+        for (AttrMapping mapping : mappings) {
+            if (mapping.srcPos >= 0) {
+                if (hasCell) {
+                    copyBuffer.writeByte(',');
+                }
+                Object srcValue = attributeValues[mapping.srcPos];
+                if (!DBUtils.isNullValue(srcValue)) {
+                    if (srcValue instanceof Integer || srcValue instanceof Long || srcValue instanceof Short || srcValue instanceof Byte) {
+                        lineBuilder.setLength(0);
+                        lineBuilder.append(((Number) srcValue).longValue());
+                        copyBuffer.writeAscii(lineBuilder);
+                    } else if (srcValue instanceof Number) {
+                        copyBuffer.writeAscii(srcValue.toString());
+                    } else {
+                        copyBuffer.writeCsvQuoted(mapping.valueHandler.getValueDisplayString(
+                            mapping.tableAttr, srcValue, DBDDisplayFormat.NATIVE));
+                    }
+                }
+                hasCell = true;
+            }
+        }
+        copyBuffer.writeByte('\n');
+    }
+
+    private void addBinaryRow(@NotNull Object[] attributeValues) throws DBCException {
+        PostgreCopyBinaryEncoder.writeTupleStart(copyBuffer, mappedColumnCount);
+        for (AttrMapping mapping : mappings) {
+            if (mapping.srcPos >= 0) {
+                Object srcValue = attributeValues[mapping.srcPos];
+                if (DBUtils.isNullValue(srcValue)) {
+                    PostgreCopyBinaryEncoder.writeNull(copyBuffer);
+                } else {
+                    PostgreCopyBinaryEncoder.writeValue(copyBuffer, mapping.tableAttr.getTypeId(), srcValue);
+                }
+            }
+        }
+    }
+
+    private void sendCopyBuffer() throws DBCException {
+        if (copyBuffer.size() == 0) {
+            return;
+        }
+        try {
+            writeToCopyMethod.invoke(copyIn, copyBuffer.data(), 0, copyBuffer.size());
+        } catch (Throwable e) {
+            throw new DBCException("Error sending COPY data to the server", unwrapError(e));
+        } finally {
+            copyBuffer.reset();
+        }
+    }
+
     private String convertStringValueToCell(String strValue) {
         return '"' +
             strValue.replace("\"", "\\\"") +
@@ -183,6 +327,15 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
 
     @Override
     public void flushRows(@NotNull DBCSession session) throws DBCException {
+        if (copyIn != null) {
+            sendCopyBuffer();
+            try {
+                flushCopyMethod.invoke(copyIn);
+            } catch (Throwable e) {
+                throw new DBCException("Error flushing COPY data", unwrapError(e));
+            }
+            return;
+        }
         try {
             csvWriter.flush();
         } catch (IOException e) {
@@ -192,24 +345,31 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
 
     @Override
     public void finishBulkLoad(@NotNull DBCSession session) throws DBCException {
-        try {
-            csvWriter.flush();
-            csvWriter.close();
-        } catch (IOException e) {
-            log.debug(e);
-        }
-        csvWriter = null;
-
         String tableFQN = table.getFullyQualifiedName(DBPEvaluationContext.DML);
 
         session.getProgressMonitor().subTask("Copy into " + tableFQN);
 
-        String queryText = "COPY " + tableFQN + " FROM STDIN (FORMAT CSV, ESCAPE '\\')";
-
         try {
             Object rowCount;
-            try (Reader csvReader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
-                rowCount = copyInMethod.invoke(copyManager, queryText, csvReader, copyBufferSize);
+            if (copyIn != null) {
+                if (binaryFormat) {
+                    PostgreCopyBinaryEncoder.writeTrailer(copyBuffer);
+                }
+                sendCopyBuffer();
+                rowCount = endCopyMethod.invoke(copyIn);
+                copyIn = null;
+            } else {
+                try {
+                    csvWriter.flush();
+                    csvWriter.close();
+                } catch (IOException e) {
+                    log.debug(e);
+                }
+                csvWriter = null;
+
+                try (Reader csvReader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+                    rowCount = copyInMethod.invoke(copyManager, makeCopyQuery(), csvReader, copyBufferSize);
+                }
             }
 
             // Commit changes
@@ -221,16 +381,31 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
 
             log.debug("CSV has been imported (" + rowCount + ")");
         } catch (Throwable e) {
-            if (e instanceof InvocationTargetException) {
-                e = ((InvocationTargetException) e).getTargetException();
-            }
-            throw new DBCException("Error copying dataset on remote server", e);
+            throw new DBCException("Error copying dataset on remote server", unwrapError(e));
+        }
+    }
+
+    private static Throwable unwrapError(Throwable e) {
+        if (e instanceof InvocationTargetException) {
+            return ((InvocationTargetException) e).getTargetException();
         }
+        return e;
     }
 
     @Override
 
     public void close() {
+        if (copyIn != null) {
+            // Bulk load wasn't finished - abort COPY so the connection can be used again
+            try {
+                if (Boolean.TRUE.equals(isActiveMethod.invoke(copyIn))) {
+                    cancelCopyMethod.invoke(copyIn);
+                }
+            } catch (Throwable e) {
+                log.debug("Error cancelling COPY", unwrapError(e));
+            }
+            copyIn = null;
+        }
         if (csvFile != null && Files.exists(csvFile)) {
             try {
                 Files.delete(csvFile);
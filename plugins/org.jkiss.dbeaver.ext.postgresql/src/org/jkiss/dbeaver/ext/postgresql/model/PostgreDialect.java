@@ -969,6 +969,12 @@ public class PostgreDialect extends JDBCSQLDialect implements TPRuleProvider, SQ
         return true;
     }
 
+    @Override
+    public int getMaxBindParameters() {
+        // Parameters count is a signed 16-bit integer in older protocol implementations
+        return Short.MAX_VALUE;
+    }
+
     @Override
     public String convertExternalDataType(@NotNull SQLDialect sourceDialect, @NotNull DBSTypedObject sourceTypedObject, @Nullable DBPDataTypeProvider targetTypeProvider) {
         String externalTypeName = sourceTypedObject.getTypeName().toLowerCase(Locale.ENGLISH);
@@ -124,4 +124,10 @@ public class SQLiteSQLDialect extends GenericSQLDialect {
         return true;
     }
 
+    @Override
+    public int getMaxBindParameters() {
+        // Default SQLITE_MAX_VARIABLE_NUMBER of versions before 3.32
+        return 999;
+    }
+
 }
@@ -26,6 +26,7 @@ public final class SQLModelPreferences {
     public static final String SQL_PROPOSAL_INSERT_TABLE_ALIAS  = "sql.proposals.insert.table.alias";
     public static final String SQL_EDITOR_PROPOSAL_SHORT_NAME = "SQLEditor.ContentAssistant.proposals.short.name";
     public static final String SQL_EDITOR_PROPOSAL_ALWAYS_FQ = "SQLEditor.ContentAssistant.proposals.long.name";
+    public static final String SQL_EDITOR_PROPOSAL_LOCAL_INDEX = "SQLEditor.ContentAssistant.proposals.local.index";
 
 
     public static final String EXPERIMENTAL_AUTOCOMPLETION_ENABLE = "SQLEditor.ContentAssistant.experimental.enable";
@@ -27,6 +27,7 @@ import org.jkiss.dbeaver.model.impl.DBObjectNameCaseTransformer;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.LocalCacheProgressMonitor;
 import org.jkiss.dbeaver.model.sql.completion.SQLCompletionRequest;
+import org.jkiss.dbeaver.model.sql.completion.SQLObjectNameIndexManager;
 import org.jkiss.dbeaver.model.sql.parser.SQLIdentifierDetector;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 import org.jkiss.dbeaver.model.struct.DBSObjectContainer;
@@ -174,7 +175,7 @@ public class SQLSearchUtils
                         params.setCaseSensitive(identifierDetector.isQuoted(objectNameMask));
                         params.setMaxResults(2);
                         params.setGlobalSearch(isGlobalSearch);
-                        Collection<DBSObjectReference> tables = structureAssistant.findObjectsByMask(monitor, executionContext, params);
+                        Collection<DBSObjectReference> tables = SQLObjectNameIndexManager.findObjectsByMask(monitor, structureAssistant, executionContext, params);
                         if (!tables.isEmpty()) {
                             return tables.iterator().next().resolveObject(monitor);
                         }
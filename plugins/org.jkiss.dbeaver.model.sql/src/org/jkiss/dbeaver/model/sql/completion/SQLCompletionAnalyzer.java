@@ -887,7 +887,7 @@ public class SQLCompletionAnalyzer implements DBRRunnableParametrized<DBRProgres
                             );
                             params.setCaseSensitive(request.getWordDetector().isQuoted(token));
                             params.setMaxResults(2);
-                            Collection<DBSObjectReference> references = structureAssistant.findObjectsByMask(monitor, executionContext, params);
+                            Collection<DBSObjectReference> references = SQLObjectNameIndexManager.findObjectsByMask(monitor, structureAssistant, executionContext, params);
                             if (!references.isEmpty()) {
                                 childObject = references.iterator().next().resolveObject(monitor);
                             }
@@ -1161,7 +1161,8 @@ public class SQLCompletionAnalyzer implements DBRRunnableParametrized<DBRProgres
         assistantParams.setCaseSensitive(request.getWordDetector().isQuoted(objectName));
         assistantParams.setGlobalSearch(request.getContext().isSearchGlobally());
         assistantParams.setMaxResults(MAX_STRUCT_PROPOSALS);
-        Collection<DBSObjectReference> references = assistant.findObjectsByMask(monitor, request.getContext().getExecutionContext(), assistantParams);
+        Collection<DBSObjectReference> references = SQLObjectNameIndexManager.findObjectsByMask(
+            monitor, assistant, request.getContext().getExecutionContext(), assistantParams);
         for (DBSObjectReference reference : references) {
             proposals.add(
                 makeProposalsFromObject(
@@ -0,0 +1,298 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.completion;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.sql.SQLUtils;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local index of database object names.
+ *
+ * Keeps object names with their owner path (e.g. database and schema names) and object type name.
+ * Entries are sorted by lower-case name, so masks with a literal prefix are resolved with a binary search,
+ * other masks are matched against all entries.
+ * Index may be saved to and loaded from a file.
+ */
+public class SQLObjectNameIndex {
+
+    private static final int FILE_MAGIC = 0x44424e49;
+    private static final int FILE_VERSION = 1;
+
+    public record Entry(@NotNull String name, @NotNull List<String> ownerPath, @NotNull String typeName) {
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final List<String> keys = new ArrayList<>();
+    private final Map<List<String>, List<String>> ownerPaths = new HashMap<>();
+    private long buildTime;
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Time of the last full index build
+     */
+    public synchronized long getBuildTime() {
+        return buildTime;
+    }
+
+    public synchronized void setBuildTime(long buildTime) {
+        this.buildTime = buildTime;
+    }
+
+    public synchronized void addEntry(@NotNull String name, @NotNull List<String> ownerPath, @NotNull String typeName) {
+        String key = makeKey(name);
+        int index = lowerBound(key);
+        for (int i = index; i < keys.size() && keys.get(i).equals(key); i++) {
+            Entry entry = entries.get(i);
+            if (entry.name().equals(name) && entry.ownerPath().equals(ownerPath) && entry.typeName().equals(typeName)) {
+                return;
+            }
+        }
+        entries.add(index, new Entry(name, internOwnerPath(ownerPath), typeName));
+        keys.add(index, key);
+    }
+
+    public synchronized void removeEntry(@NotNull String name, @NotNull List<String> ownerPath, @NotNull String typeName) {
+        String key = makeKey(name);
+        for (int i = lowerBound(key); i < keys.size() && keys.get(i).equals(key); i++) {
+            Entry entry = entries.get(i);
+            if (entry.name().equals(name) && entry.ownerPath().equals(ownerPath) && entry.typeName().equals(typeName)) {
+                entries.remove(i);
+                keys.remove(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Replaces entries of the specified types owned by the owner or its children
+     */
+    public synchronized void replaceEntries(
+        @NotNull List<String> ownerPath,
+        @NotNull Set<String> typeNames,
+        @NotNull Collection<Entry> newEntries
+    ) {
+        List<Entry> keptEntries = new ArrayList<>(entries.size() + newEntries.size());
+        for (Entry entry : entries) {
+            if (!typeNames.contains(entry.typeName()) || !isOwnedBy(entry, ownerPath)) {
+                keptEntries.add(entry);
+            }
+        }
+        keptEntries.addAll(newEntries);
+        setEntries(keptEntries);
+    }
+
+    /**
+     * Replaces all entries
+     */
+    public synchronized void setEntries(@NotNull Collection<Entry> newEntries) {
+        List<Entry> sortedEntries = new ArrayList<>(new LinkedHashSet<>(newEntries));
+        sortedEntries.sort(Comparator.comparing(entry -> makeKey(entry.name())));
+        entries.clear();
+        keys.clear();
+        ownerPaths.clear();
+        for (Entry entry : sortedEntries) {
+            entries.add(new Entry(entry.name(), internOwnerPath(entry.ownerPath()), entry.typeName()));
+            keys.add(makeKey(entry.name()));
+        }
+    }
+
+    /**
+     * Finds entries by LIKE mask (% and _ wildcards, also * and ?).
+     *
+     * @param ownerPath if not null then only entries of this owner or its children are returned
+     * @param typeNames if not null then only entries of these types are returned
+     */
+    @NotNull
+    public synchronized List<Entry> findEntries(
+        @NotNull String mask,
+        boolean caseSensitive,
+        @Nullable List<String> ownerPath,
+        @Nullable Set<String> typeNames,
+        int maxResults
+    ) {
+        int prefixLength = 0;
+        while (prefixLength < mask.length() && !isWildcard(mask.charAt(prefixLength))) {
+            prefixLength++;
+        }
+        String prefix = mask.substring(0, prefixLength);
+        String keyPrefix = makeKey(prefix);
+        boolean prefixOnly = mask.chars().skip(prefixLength).allMatch(c -> c == '%' || c == '*');
+        boolean exactName = !mask.isEmpty() && prefixLength == mask.length();
+        Pattern pattern = prefixOnly ? null : Pattern.compile(
+            SQLUtils.makeLikePattern(mask),
+            caseSensitive ? 0 : Pattern.CASE_INSENSITIVE);
+
+        List<Entry> result = new ArrayList<>();
+        for (int i = lowerBound(keyPrefix); i < keys.size() && result.size() < maxResults; i++) {
+            String key = keys.get(i);
+            if (!key.startsWith(keyPrefix) || (exactName && !key.equals(keyPrefix))) {
+                break;
+            }
+            Entry entry = entries.get(i);
+            if (caseSensitive && !entry.name().startsWith(prefix)) {
+                continue;
+            }
+            if (exactName && caseSensitive && !entry.name().equals(prefix)) {
+                continue;
+            }
+            if (pattern != null && !pattern.matcher(entry.name()).matches()) {
+                continue;
+            }
+            if (typeNames != null && !typeNames.contains(entry.typeName())) {
+                continue;
+            }
+            if (ownerPath != null && !isOwnedBy(entry, ownerPath)) {
+                continue;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        keys.clear();
+        ownerPaths.clear();
+        buildTime = 0;
+    }
+
+    /**
+     * Saves index to the file. Owner paths and type names are saved once.
+     */
+    public synchronized void save(@NotNull Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Map<List<String>, Integer> pathIndexes = new LinkedHashMap<>();
+        Map<String, Integer> typeIndexes = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            pathIndexes.putIfAbsent(entry.ownerPath(), pathIndexes.size());
+            typeIndexes.putIfAbsent(entry.typeName(), typeIndexes.size());
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tempFile))))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeLong(buildTime);
+            out.writeInt(typeIndexes.size());
+            for (String typeName : typeIndexes.keySet()) {
+                out.writeUTF(typeName);
+            }
+            out.writeInt(pathIndexes.size());
+            for (List<String> path : pathIndexes.keySet()) {
+                out.writeInt(path.size());
+                for (String name : path) {
+                    out.writeUTF(name);
+                }
+            }
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                out.writeUTF(entry.name());
+                out.writeInt(pathIndexes.get(entry.ownerPath()));
+                out.writeInt(typeIndexes.get(entry.typeName()));
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Loads index from the file
+     *
+     * @return false if file doesn't exist or has unsupported format
+     */
+    public synchronized boolean load(@NotNull Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                return false;
+            }
+            long fileBuildTime = in.readLong();
+            String[] typeNames = new String[in.readInt()];
+            for (int i = 0; i < typeNames.length; i++) {
+                typeNames[i] = in.readUTF();
+            }
+            List<List<String>> paths = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                String[] path = new String[in.readInt()];
+                for (int k = 0; k < path.length; k++) {
+                    path[k] = in.readUTF();
+                }
+                paths.add(List.of(path));
+            }
+            int entryCount = in.readInt();
+            List<Entry> loadedEntries = new ArrayList<>(entryCount);
+            for (int i = 0; i < entryCount; i++) {
+                String name = in.readUTF();
+                loadedEntries.add(new Entry(name, paths.get(in.readInt()), typeNames[in.readInt()]));
+            }
+            // Saved entries are already sorted
+            clear();
+            for (Entry entry : loadedEntries) {
+                entries.add(new Entry(entry.name(), internOwnerPath(entry.ownerPath()), entry.typeName()));
+                keys.add(makeKey(entry.name()));
+            }
+            buildTime = fileBuildTime;
+            return true;
+        }
+    }
+
+    private static boolean isOwnedBy(@NotNull Entry entry, @NotNull List<String> ownerPath) {
+        List<String> entryPath = entry.ownerPath();
+        return entryPath.size() >= ownerPath.size() && entryPath.subList(0, ownerPath.size()).equals(ownerPath);
+    }
+
+    private static boolean isWildcard(char c) {
+        return c == '%' || c == '_' || c == '*' || c == '?' || c == '\\';
+    }
+
+    @NotNull
+    private static String makeKey(@NotNull String name) {
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+
+    private int lowerBound(@NotNull String key) {
+        int low = 0;
+        int high = keys.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys.get(middle).compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    @NotNull
+    private List<String> internOwnerPath(@NotNull List<String> ownerPath) {
+        return ownerPaths.computeIfAbsent(List.copyOf(ownerPath), path -> path);
+    }
+}
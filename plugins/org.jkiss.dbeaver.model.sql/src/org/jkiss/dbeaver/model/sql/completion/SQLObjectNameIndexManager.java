@@ -0,0 +1,607 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.completion;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.*;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.impl.struct.AbstractObjectReference;
+import org.jkiss.dbeaver.model.navigator.*;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.LocalCacheProgressMonitor;
+import org.jkiss.dbeaver.model.sql.SQLModelPreferences;
+import org.jkiss.dbeaver.model.struct.*;
+import org.jkiss.dbeaver.utils.GeneralUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains local object name indexes of data sources.
+ *
+ * Index is built in background with the structure assistant and saved in the workspace metadata folder.
+ * Objects created, renamed or deleted in DBeaver are added to the index from data source events.
+ * Entries of objects refreshed in the navigator are reloaded in background, so objects changed outside DBeaver
+ * appear in the index after their navigator node refresh.
+ * The whole index is rebuilt in background by the first search after it becomes older than {@link #MAX_INDEX_AGE}.
+ * Searches which can't be answered by the index (index is not ready, unknown object types,
+ * search in comments or definitions, search in the active schema, no matches) are passed to the structure assistant.
+ * Owners of found entries are resolved from the metadata cache only. Owners which are not cached are loaded
+ * in background and their entries are returned by the next searches.
+ * Manager is released when its data source is disconnected (index is saved and loaded again on the next search)
+ * or removed (index file is deleted).
+ */
+public class SQLObjectNameIndexManager implements DBPEventListener, INavigatorListener {
+
+    private static final Log log = Log.getLog(SQLObjectNameIndexManager.class);
+
+    private static final String INDEX_FOLDER = "object-name-index";
+    private static final String INDEX_FILE_EXT = ".idx";
+    private static final long MAX_INDEX_AGE = 24L * 60 * 60 * 1000;
+    private static final int MAX_INDEX_ENTRIES = 2_000_000;
+    private static final String MATCH_ANY_MASK = "%";
+    private static final long UPDATE_DELAY = 500;
+
+    private static final Map<DBPDataSourceContainer, SQLObjectNameIndexManager> managers = new ConcurrentHashMap<>();
+
+    @NotNull
+    private final DBPDataSourceContainer container;
+    @NotNull
+    private final SQLObjectNameIndex index = new SQLObjectNameIndex();
+    // Types of the last build. Index answers searches of these types only.
+    @NotNull
+    private volatile Map<String, DBSObjectType> indexedTypes = Map.of();
+    private volatile boolean ready;
+    private volatile boolean dirty;
+    private volatile boolean disposed;
+    @Nullable
+    private volatile DBSStructureAssistant<?> assistant;
+    @Nullable
+    private IndexBuildJob buildJob;
+    @Nullable
+    private IndexUpdateJob updateJob;
+    // Objects refreshed in the navigator, their entries are reloaded
+    private final Set<DBSObject> refreshedOwners = new LinkedHashSet<>();
+    // Owners which were not found in the metadata cache, they are loaded or removed from the index
+    private final Set<List<String>> uncachedOwners = new LinkedHashSet<>();
+
+    private SQLObjectNameIndexManager(@NotNull DBPDataSourceContainer container) {
+        this.container = container;
+        container.getRegistry().addDataSourceListener(this);
+        DBNModel navigatorModel = container.getProject().getNavigatorModel();
+        if (navigatorModel != null) {
+            navigatorModel.addListener(this);
+        }
+    }
+
+    /**
+     * Finds objects in the local index of the data source.
+     * Falls back to the structure assistant if the index can't answer the search.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @NotNull
+    public static List<DBSObjectReference> findObjectsByMask(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBSStructureAssistant assistant,
+        @Nullable DBCExecutionContext executionContext,
+        @NotNull DBSStructureAssistant.ObjectsSearchParams params
+    ) throws DBException {
+        DBPDataSource dataSource = executionContext != null ? executionContext.getDataSource() :
+            params.getParentObject() != null ? params.getParentObject().getDataSource() : null;
+        if (dataSource != null && dataSource.getContainer().getPreferenceStore().getBoolean(SQLModelPreferences.SQL_EDITOR_PROPOSAL_LOCAL_INDEX)) {
+            releaseStaleManagers();
+            SQLObjectNameIndexManager manager = managers.computeIfAbsent(dataSource.getContainer(), SQLObjectNameIndexManager::new);
+            List<DBSObjectReference> references = manager.findObjects(monitor, assistant, params);
+            if (references != null) {
+                return references;
+            }
+        }
+        return assistant.findObjectsByMask(monitor, executionContext, params);
+    }
+
+    /**
+     * @return found objects or null if index can't answer the search
+     */
+    @Nullable
+    private List<DBSObjectReference> findObjects(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBSStructureAssistant<?> assistant,
+        @NotNull DBSStructureAssistant.ObjectsSearchParams params
+    ) throws DBException {
+        this.assistant = assistant;
+        if (!ready || index.getBuildTime() < System.currentTimeMillis() - MAX_INDEX_AGE) {
+            scheduleBuild(assistant);
+        }
+        if (!ready || params.isSearchInComments() || params.isSearchInDefinitions()) {
+            return null;
+        }
+        Map<String, DBSObjectType> types = indexedTypes;
+        Set<String> typeNames = new HashSet<>();
+        for (DBSObjectType type : params.getObjectTypes()) {
+            if (!types.containsKey(type.getTypeName())) {
+                return null;
+            }
+            typeNames.add(type.getTypeName());
+        }
+        List<String> ownerPath;
+        DBSObject parentObject = params.getParentObject();
+        if (parentObject == null || parentObject instanceof DBPDataSource) {
+            if (!params.isGlobalSearch()) {
+                // Active schema search depends on the execution context
+                return null;
+            }
+            ownerPath = null;
+        } else {
+            ownerPath = getObjectPath(parentObject);
+        }
+
+        List<SQLObjectNameIndex.Entry> entries = index.findEntries(
+            params.getMask(),
+            params.isCaseSensitive(),
+            ownerPath,
+            typeNames,
+            params.getMaxResults());
+        // Owners are resolved without metadata reads
+        DBRProgressMonitor cacheMonitor = new LocalCacheProgressMonitor(monitor);
+        Map<List<String>, DBSObject> owners = new HashMap<>();
+        List<List<String>> unresolvedOwners = new ArrayList<>();
+        List<DBSObjectReference> references = new ArrayList<>(entries.size());
+        for (SQLObjectNameIndex.Entry entry : entries) {
+            List<String> ownerPath = entry.ownerPath();
+            DBSObject owner;
+            if (owners.containsKey(ownerPath)) {
+                owner = owners.get(ownerPath);
+            } else {
+                owner = findOwner(cacheMonitor, ownerPath);
+                owners.put(ownerPath, owner);
+                if (owner == null) {
+                    unresolvedOwners.add(ownerPath);
+                }
+            }
+            if (owner != null) {
+                references.add(new IndexedObjectReference(entry.name(), owner, types.get(entry.typeName()), assistant));
+            }
+        }
+        if (!unresolvedOwners.isEmpty()) {
+            synchronized (this) {
+                uncachedOwners.addAll(unresolvedOwners);
+            }
+            scheduleUpdate();
+        }
+        if (references.isEmpty()) {
+            // Object may be created outside DBeaver or its owner is not cached yet
+            return null;
+        }
+        return references;
+    }
+
+    /**
+     * Releases managers of data sources which are not in their registries anymore (e.g. project was closed)
+     */
+    private static void releaseStaleManagers() {
+        for (SQLObjectNameIndexManager manager : managers.values()) {
+            DBPDataSourceContainer container = manager.container;
+            if (container.getRegistry().getDataSource(container.getId()) != container) {
+                manager.dispose(false);
+            }
+        }
+    }
+
+    /**
+     * Removes manager and its listener.
+     *
+     * @param deleteIndex delete the index file (data source was removed)
+     */
+    private void dispose(boolean deleteIndex) {
+        managers.remove(container, this);
+        container.getRegistry().removeDataSourceListener(this);
+        DBNModel navigatorModel = container.getProject().getNavigatorModel();
+        if (navigatorModel != null) {
+            navigatorModel.removeListener(this);
+        }
+        IndexBuildJob job;
+        IndexUpdateJob pendingUpdateJob;
+        synchronized (this) {
+            if (!deleteIndex) {
+                saveIndex();
+            }
+            disposed = true;
+            job = buildJob;
+            pendingUpdateJob = updateJob;
+            refreshedOwners.clear();
+            uncachedOwners.clear();
+        }
+        if (job != null) {
+            job.cancel();
+        }
+        if (pendingUpdateJob != null) {
+            pendingUpdateJob.cancel();
+        }
+        index.setEntries(List.of());
+        if (deleteIndex) {
+            try {
+                Files.deleteIfExists(getIndexFile());
+            } catch (IOException e) {
+                log.debug("Error deleting object name index of '" + container.getName() + "': " + e.getMessage());
+            }
+        }
+    }
+
+    private synchronized void scheduleBuild(@NotNull DBSStructureAssistant<?> assistant) {
+        if (buildJob == null && !disposed && container.isConnected()) {
+            buildJob = new IndexBuildJob(assistant);
+            buildJob.schedule();
+        }
+    }
+
+    private synchronized void scheduleUpdate() {
+        if (updateJob == null && !disposed && container.isConnected()) {
+            updateJob = new IndexUpdateJob();
+            updateJob.schedule(UPDATE_DELAY);
+        }
+    }
+
+    /**
+     * Navigator node refresh reloads object caches, so entries of the refreshed object are reloaded too
+     */
+    @Override
+    public void nodeChanged(DBNEvent event) {
+        if (!ready || event.getAction() != DBNEvent.Action.UPDATE ||
+            (event.getNodeChange() != DBNEvent.NodeChange.REFRESH && event.getNodeChange() != DBNEvent.NodeChange.STRUCT_REFRESH) ||
+            !(event.getNode() instanceof DBNDatabaseNode node) || node.getDataSourceContainer() != container
+        ) {
+            return;
+        }
+        DBSObject object = node.getObject();
+        DBSStructureAssistant<?> currentAssistant = assistant;
+        if (object == container || object instanceof DBPDataSource) {
+            if (currentAssistant != null) {
+                scheduleBuild(currentAssistant);
+            }
+        } else if (object instanceof DBSObjectContainer || object instanceof DBSEntity) {
+            synchronized (this) {
+                refreshedOwners.add(object);
+            }
+            scheduleUpdate();
+        }
+    }
+
+    @Override
+    public void handleDataSourceEvent(@NotNull DBPEvent event) {
+        DBSObject object = event.getObject();
+        if (object == container) {
+            if (event.getAction() == DBPEvent.Action.OBJECT_REMOVE) {
+                dispose(true);
+            } else if (event.getAction() == DBPEvent.Action.OBJECT_UPDATE && Boolean.FALSE.equals(event.getEnabled())) {
+                // Disconnected. Index is loaded from the file by the next search.
+                dispose(false);
+            }
+            return;
+        }
+        if (!ready || object == null || object.getDataSource() == null || object.getDataSource().getContainer() != container) {
+            return;
+        }
+        DBSObjectType type = findObjectType(object);
+        if (type == null) {
+            return;
+        }
+        switch (event.getAction()) {
+            case OBJECT_ADD, OBJECT_UPDATE -> {
+                // Old name of the renamed object remains in the index until the next build,
+                // such entries are skipped as unresolved
+                index.addEntry(object.getName(), getObjectPath(object.getParentObject()), type.getTypeName());
+                dirty = true;
+            }
+            case OBJECT_REMOVE -> {
+                index.removeEntry(object.getName(), getObjectPath(object.getParentObject()), type.getTypeName());
+                dirty = true;
+            }
+            default -> {
+                // Nothing to update
+            }
+        }
+    }
+
+    @Nullable
+    private DBSObjectType findObjectType(@NotNull DBSObject object) {
+        DBSObjectType result = null;
+        for (DBSObjectType type : indexedTypes.values()) {
+            if (type.getTypeClass().isInstance(object) &&
+                (result == null || result.getTypeClass().isAssignableFrom(type.getTypeClass()))
+            ) {
+                // Most specific type
+                result = type;
+            }
+        }
+        return result;
+    }
+
+    private synchronized void saveIndex() {
+        if (!dirty || disposed) {
+            return;
+        }
+        try {
+            index.save(getIndexFile());
+            dirty = false;
+        } catch (IOException e) {
+            log.debug("Error saving object name index of '" + container.getName() + "': " + e.getMessage());
+        }
+    }
+
+    @NotNull
+    private Path getIndexFile() {
+        return GeneralUtils.getMetadataFolder()
+            .resolve(INDEX_FOLDER)
+            .resolve(CommonUtils.escapeFileName(container.getProject().getName() + "-" + container.getId()) + INDEX_FILE_EXT);
+    }
+
+    @Nullable
+    private DBSObject findOwner(@NotNull DBRProgressMonitor monitor, @NotNull List<String> path) {
+        DBSObject object = container.getDataSource();
+        try {
+            for (String name : path) {
+                if (!(object instanceof DBSObjectContainer objectContainer)) {
+                    return null;
+                }
+                object = objectContainer.getChild(monitor, name);
+            }
+        } catch (DBException e) {
+            log.debug("Error resolving object owner " + path + ": " + e.getMessage());
+            return null;
+        }
+        return object;
+    }
+
+    /**
+     * Names of the object and its parents up to the data source
+     */
+    @NotNull
+    private static List<String> getObjectPath(@Nullable DBSObject object) {
+        LinkedList<String> path = new LinkedList<>();
+        for (DBSObject parent = object;
+             parent != null && !(parent instanceof DBPDataSource) && !(parent instanceof DBPDataSourceContainer);
+             parent = parent.getParentObject()
+        ) {
+            path.addFirst(parent.getName());
+        }
+        return path;
+    }
+
+    /**
+     * Types indexed by the full build: auto-complete types and searchable attribute types
+     */
+    @NotNull
+    private static Map<String, DBSObjectType> getIndexTypes(@NotNull DBSStructureAssistant<?> assistant) {
+        Map<String, DBSObjectType> types = new LinkedHashMap<>();
+        for (DBSObjectType type : assistant.getAutoCompleteObjectTypes()) {
+            types.put(type.getTypeName(), type);
+        }
+        for (DBSObjectType type : assistant.getSearchObjectTypes()) {
+            if (DBSEntityAttribute.class.isAssignableFrom(type.getTypeClass())) {
+                types.put(type.getTypeName(), type);
+            }
+        }
+        return types;
+    }
+
+    private class IndexBuildJob extends AbstractJob {
+        @NotNull
+        private final DBSStructureAssistant<?> assistant;
+
+        IndexBuildJob(@NotNull DBSStructureAssistant<?> assistant) {
+            super("Build object name index of '" + container.getName() + "'");
+            this.assistant = assistant;
+            setSystem(true);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            try {
+                Map<String, DBSObjectType> types = getIndexTypes(assistant);
+                Path indexFile = getIndexFile();
+                if (!ready && index.load(indexFile)) {
+                    indexedTypes = types;
+                    ready = true;
+                    if (index.getBuildTime() >= System.currentTimeMillis() - MAX_INDEX_AGE) {
+                        return Status.OK_STATUS;
+                    }
+                }
+                DBPDataSource dataSource = container.getDataSource();
+                if (dataSource == null) {
+                    return Status.OK_STATUS;
+                }
+                DBCExecutionContext executionContext = DBUtils.getDefaultContext(dataSource, true);
+                long buildTime = System.currentTimeMillis();
+                List<SQLObjectNameIndex.Entry> entries = new ArrayList<>();
+                for (DBSObjectType type : types.values()) {
+                    if (monitor.isCanceled() || entries.size() >= MAX_INDEX_ENTRIES) {
+                        break;
+                    }
+                    monitor.subTask("Index " + type.getTypeName());
+                    DBSStructureAssistant.ObjectsSearchParams params = new DBSStructureAssistant.ObjectsSearchParams(
+                        new DBSObjectType[] { type },
+                        MATCH_ANY_MASK
+                    );
+                    params.setGlobalSearch(true);
+                    params.setMaxResults(MAX_INDEX_ENTRIES - entries.size());
+                    List<DBSObjectReference> references = ((DBSStructureAssistant) assistant).findObjectsByMask(monitor, executionContext, params);
+                    for (DBSObjectReference reference : references) {
+                        entries.add(new SQLObjectNameIndex.Entry(
+                            reference.getName(),
+                            getObjectPath(reference.getContainer()),
+                            reference.getObjectType().getTypeName()));
+                    }
+                }
+                if (monitor.isCanceled()) {
+                    return Status.CANCEL_STATUS;
+                }
+                index.setEntries(entries);
+                index.setBuildTime(buildTime);
+                indexedTypes = types;
+                ready = true;
+                dirty = true;
+                saveIndex();
+            } catch (Exception e) {
+                log.debug("Error building object name index of '" + container.getName() + "': " + e.getMessage());
+            } finally {
+                synchronized (SQLObjectNameIndexManager.this) {
+                    buildJob = null;
+                }
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+    /**
+     * Reloads entries of refreshed objects and loads owners which were not cached
+     */
+    private class IndexUpdateJob extends AbstractJob {
+
+        IndexUpdateJob() {
+            super("Update object name index of '" + container.getName() + "'");
+            setSystem(true);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            while (!monitor.isCanceled()) {
+                DBSObject refreshedOwner = null;
+                List<String> uncachedOwner = null;
+                DBSStructureAssistant<?> currentAssistant = assistant;
+                synchronized (SQLObjectNameIndexManager.this) {
+                    if (!refreshedOwners.isEmpty()) {
+                        refreshedOwner = refreshedOwners.iterator().next();
+                        refreshedOwners.remove(refreshedOwner);
+                    } else if (!uncachedOwners.isEmpty()) {
+                        uncachedOwner = uncachedOwners.iterator().next();
+                        uncachedOwners.remove(uncachedOwner);
+                    } else {
+                        updateJob = null;
+                        return Status.OK_STATUS;
+                    }
+                }
+                try {
+                    if (refreshedOwner != null && currentAssistant != null) {
+                        reloadEntries(monitor, (DBSStructureAssistant) currentAssistant, refreshedOwner);
+                    } else if (uncachedOwner != null && findOwner(monitor, uncachedOwner) == null) {
+                        // Owner doesn't exist anymore
+                        index.replaceEntries(uncachedOwner, indexedTypes.keySet(), List.of());
+                        dirty = true;
+                    }
+                } catch (Exception e) {
+                    log.debug("Error updating object name index of '" + container.getName() + "': " + e.getMessage());
+                }
+            }
+            synchronized (SQLObjectNameIndexManager.this) {
+                updateJob = null;
+            }
+            return Status.CANCEL_STATUS;
+        }
+
+        private void reloadEntries(
+            @NotNull DBRProgressMonitor monitor,
+            @NotNull DBSStructureAssistant<DBCExecutionContext> assistant,
+            @NotNull DBSObject owner
+        ) throws DBException {
+            Map<String, DBSObjectType> types = new LinkedHashMap<>();
+            for (DBSObjectType type : indexedTypes.values()) {
+                // Entities own attributes only
+                if (!(owner instanceof DBSEntity) || DBSEntityAttribute.class.isAssignableFrom(type.getTypeClass())) {
+                    types.put(type.getTypeName(), type);
+                }
+            }
+            DBCExecutionContext executionContext = DBUtils.getDefaultContext(owner, true);
+            List<SQLObjectNameIndex.Entry> entries = new ArrayList<>();
+            for (DBSObjectType type : types.values()) {
+                DBSStructureAssistant.ObjectsSearchParams params = new DBSStructureAssistant.ObjectsSearchParams(
+                    new DBSObjectType[] { type },
+                    MATCH_ANY_MASK
+                );
+                params.setParentObject(owner);
+                params.setGlobalSearch(true);
+                params.setMaxResults(MAX_INDEX_ENTRIES);
+                for (DBSObjectReference reference : assistant.findObjectsByMask(monitor, executionContext, params)) {
+                    entries.add(new SQLObjectNameIndex.Entry(
+                        reference.getName(),
+                        getObjectPath(reference.getContainer()),
+                        reference.getObjectType().getTypeName()));
+                }
+                if (monitor.isCanceled()) {
+                    return;
+                }
+            }
+            index.replaceEntries(getObjectPath(owner), types.keySet(), entries);
+            dirty = true;
+        }
+    }
+
+    private static class IndexedObjectReference extends AbstractObjectReference<DBSObject> {
+        @NotNull
+        private final DBSStructureAssistant<?> assistant;
+
+        IndexedObjectReference(
+            @NotNull String name,
+            @NotNull DBSObject container,
+            @NotNull DBSObjectType type,
+            @NotNull DBSStructureAssistant<?> assistant
+        ) {
+            super(name, container, null, type.getTypeClass(), type);
+            this.assistant = assistant;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        @Override
+        public DBSObject resolveObject(DBRProgressMonitor monitor) throws DBException {
+            DBSObject container = getContainer();
+            DBSObject object = null;
+            if (container instanceof DBSEntity entity && DBSEntityAttribute.class.isAssignableFrom(getObjectClass())) {
+                object = entity.getAttribute(monitor, getName());
+            } else if (container instanceof DBSObjectContainer objectContainer) {
+                object = objectContainer.getChild(monitor, getName());
+            }
+            if (object != null && getObjectClass().isInstance(object)) {
+                return object;
+            }
+            // Objects which can't be found by name (e.g. overloaded procedures)
+            DBSStructureAssistant.ObjectsSearchParams params = new DBSStructureAssistant.ObjectsSearchParams(
+                new DBSObjectType[] { getObjectType() },
+                getName()
+            );
+            params.setParentObject(container);
+            params.setCaseSensitive(true);
+            params.setMaxResults(1);
+            DBCExecutionContext executionContext = DBUtils.getDefaultContext(container, true);
+            List<DBSObjectReference> references = ((DBSStructureAssistant) assistant).findObjectsByMask(monitor, executionContext, params);
+            if (references.isEmpty()) {
+                throw new DBException("Object '" + getName() + "' not found in '" + container.getName() + "'");
+            }
+            return references.get(0).resolveObject(monitor);
+        }
+    }
+}
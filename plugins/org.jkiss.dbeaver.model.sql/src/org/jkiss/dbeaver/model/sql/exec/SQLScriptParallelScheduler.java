@@ -0,0 +1,157 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.exec;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Executes independent script queries over a pool of sessions.
+ *
+ * Each query of a stage starts as soon as a session is free and all previous queries
+ * it depends on are finished. Query depends on the last previous query which writes any object it reads
+ * or writes and on all previous queries which read objects it writes.
+ */
+class SQLScriptParallelScheduler<S, Q> implements AutoCloseable {
+
+    private static final Log log = Log.getLog(SQLScriptParallelScheduler.class);
+
+    interface QueryExecutor<S, Q> {
+        /**
+         * @return false if script execution must be stopped
+         */
+        boolean executeQuery(@NotNull S session, @NotNull Q query);
+    }
+
+    @NotNull
+    private final List<S> sessions;
+    @NotNull
+    private final ExecutorService executorService;
+
+    SQLScriptParallelScheduler(@NotNull List<S> sessions) {
+        this.sessions = List.copyOf(sessions);
+        this.executorService = Executors.newFixedThreadPool(this.sessions.size(), runnable -> {
+            Thread thread = new Thread(runnable, "SQL script parallel execution");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Executes queries and waits until all of them are finished.
+     *
+     * @return false if execution was stopped by the executor or canceled
+     */
+    boolean executeStage(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull List<Q> queries,
+        @NotNull List<SQLScriptQueryAccess> accesses,
+        @NotNull QueryExecutor<S, Q> executor
+    ) {
+        AtomicBoolean stopped = new AtomicBoolean();
+        BlockingQueue<S> freeSessions = new ArrayBlockingQueue<>(sessions.size(), false, sessions);
+        List<Set<Integer>> dependencies = getDependencies(accesses);
+        CompletableFuture<?>[] futures = new CompletableFuture[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            Q query = queries.get(i);
+            CompletableFuture<?>[] queryDependencies = dependencies.get(i).stream()
+                .map(index -> futures[index])
+                .toArray(CompletableFuture[]::new);
+            futures[i] = CompletableFuture.allOf(queryDependencies).thenRunAsync(() -> {
+                if (stopped.get() || monitor.isCanceled()) {
+                    return;
+                }
+                S session;
+                try {
+                    session = freeSessions.take();
+                } catch (InterruptedException e) {
+                    stopped.set(true);
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    if (!executor.executeQuery(session, query)) {
+                        stopped.set(true);
+                    }
+                } catch (Throwable e) {
+                    log.error("Error executing script query", e);
+                    stopped.set(true);
+                } finally {
+                    freeSessions.add(session);
+                }
+            }, executorService);
+        }
+        try {
+            CompletableFuture.allOf(futures).get();
+        } catch (ExecutionException e) {
+            log.error("Error executing script queries", e.getCause());
+            stopped.set(true);
+        } catch (InterruptedException e) {
+            stopped.set(true);
+            Thread.currentThread().interrupt();
+        }
+        return !stopped.get() && !monitor.isCanceled();
+    }
+
+    /**
+     * Indexes of previous queries each query depends on
+     */
+    @NotNull
+    static List<Set<Integer>> getDependencies(@NotNull List<SQLScriptQueryAccess> accesses) {
+        Map<String, Integer> lastWriters = new HashMap<>();
+        Map<String, List<Integer>> readersAfterWrite = new HashMap<>();
+        List<Set<Integer>> dependencies = new ArrayList<>(accesses.size());
+        for (int i = 0; i < accesses.size(); i++) {
+            SQLScriptQueryAccess access = accesses.get(i);
+            Set<Integer> queryDependencies = new TreeSet<>();
+            for (String object : access.getReads()) {
+                Integer writer = lastWriters.get(object);
+                if (writer != null) {
+                    queryDependencies.add(writer);
+                }
+            }
+            for (String object : access.getWrites()) {
+                Integer writer = lastWriters.get(object);
+                if (writer != null) {
+                    queryDependencies.add(writer);
+                }
+                queryDependencies.addAll(readersAfterWrite.getOrDefault(object, List.of()));
+            }
+            queryDependencies.remove(i);
+            dependencies.add(queryDependencies);
+
+            for (String object : access.getReads()) {
+                readersAfterWrite.computeIfAbsent(object, k -> new ArrayList<>()).add(i);
+            }
+            for (String object : access.getWrites()) {
+                lastWriters.put(object, i);
+                readersAfterWrite.remove(object);
+            }
+        }
+        return dependencies;
+    }
+
+    @Override
+    public void close() {
+        executorService.shutdownNow();
+    }
+}
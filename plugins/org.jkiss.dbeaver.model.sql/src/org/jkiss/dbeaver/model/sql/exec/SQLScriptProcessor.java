@@ -17,6 +17,7 @@
 package org.jkiss.dbeaver.model.sql.exec;
 
 import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBFetchProgress;
@@ -31,16 +32,22 @@ import org.jkiss.dbeaver.model.sql.data.SQLQueryDataContainer;
 import org.jkiss.dbeaver.utils.RuntimeUtils;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * SQLScriptProcessor
  */
 public class SQLScriptProcessor {
     private static final String STAT_LOG_PREFIX = "-----------------> ";
+    private static final int STREAM_PROGRESS_QUERIES = 1000;
+    private static final int MAX_PARALLEL_STAGE_QUERIES = 1000;
 
     private final DBCExecutionContext executionContext;
-    private final List<SQLScriptElement> queries;
+    private final Iterator<? extends SQLScriptElement> queries;
+    private final int queryCount;
     private final SQLScriptContext scriptContext;
     private final DBDDataReceiver dataReceiver;
     private final Log log;
@@ -54,6 +61,9 @@ public class SQLScriptProcessor {
     private long fetchFlags;
     private SQLScriptCommitType commitType = SQLScriptCommitType.AUTOCOMMIT;
     private SQLScriptErrorHandling errorHandling = SQLScriptErrorHandling.STOP_ROLLBACK;
+    private int parallelism = 1;
+    @Nullable
+    private Supplier<DBDDataReceiver> parallelReceiverFactory;
 
     public SQLScriptProcessor(
         @NotNull DBCExecutionContext executionContext,
@@ -61,8 +71,24 @@ public class SQLScriptProcessor {
         @NotNull SQLScriptContext scriptContext,
         @NotNull DBDDataReceiver dataReceiver,
         @NotNull Log log) {
+        this(executionContext, queries.iterator(), queries.size(), scriptContext, dataReceiver, log);
+    }
+
+    /**
+     * Creates processor of a script stream. Each query is executed as soon as the iterator returns it.
+     *
+     * @param queryCount number of queries or -1 if it is unknown
+     */
+    public SQLScriptProcessor(
+        @NotNull DBCExecutionContext executionContext,
+        @NotNull Iterator<? extends SQLScriptElement> queries,
+        int queryCount,
+        @NotNull SQLScriptContext scriptContext,
+        @NotNull DBDDataReceiver dataReceiver,
+        @NotNull Log log) {
         this.executionContext = executionContext;
         this.queries = queries;
+        this.queryCount = queryCount;
         this.scriptContext = scriptContext;
         this.dataReceiver = dataReceiver;
         this.log = log;
@@ -92,6 +118,26 @@ public class SQLScriptProcessor {
         this.errorHandling = errorHandling;
     }
 
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of connections used to execute independent queries in parallel.
+     * Parallel execution works in auto-commit mode only, otherwise queries are executed sequentially.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Sets the factory of data receivers of queries executed in parallel.
+     * Without it the script data receiver is shared and parallel queries fetch results one by one.
+     */
+    public void setParallelReceiverFactory(@Nullable Supplier<DBDDataReceiver> parallelReceiverFactory) {
+        this.parallelReceiverFactory = parallelReceiverFactory;
+    }
+
     public void runScript(DBRProgressMonitor monitor) throws DBCException {
         RuntimeUtils.setThreadName("SQL script execution");
         statistics = new DBCStatistics();
@@ -109,28 +155,32 @@ public class SQLScriptProcessor {
                     txnManager.setAutoCommit(monitor, newAutoCommit);
                 }
 
-                monitor.beginTask("Execute queries (" + queries.size() + ")", queries.size());
+                if (queryCount >= 0) {
+                    monitor.beginTask("Execute queries (" + queryCount + ")", queryCount);
+                } else {
+                    monitor.beginTask("Execute queries", 1);
+                }
 
-                for (SQLScriptElement query : queries) {
-                    if (monitor.isCanceled()) {
-                        break;
-                    }
-                    // Execute query
-                    boolean runNext = executeSingleQuery(session, query);
-                    if (!runNext) {
-                        if (lastError == null) {
-                            // Execution cancel
+                if (parallelism > 1 && commitType == SQLScriptCommitType.AUTOCOMMIT) {
+                    executeParallel(monitor, session);
+                } else {
+                    for (int queryIndex = 0; queries.hasNext(); queryIndex++) {
+                        if (monitor.isCanceled()) {
                             break;
                         }
-                        if (errorHandling != SQLScriptErrorHandling.IGNORE) {
-                            log.error(lastError);
+                        SQLScriptElement query = queries.next();
+                        if (queryCount < 0 && queryIndex % STREAM_PROGRESS_QUERIES == 0) {
+                            monitor.subTask("Execute query " + (queryIndex + 1));
+                        }
+                        // Execute query
+                        if (!checkQueryResult(executeSingleQuery(session, query))) {
                             break;
-                        } else {
-                            log.warn("Query failed: " + lastError.getMessage());
                         }
-                    }
 
-                    monitor.worked(1);
+                        if (queryCount >= 0) {
+                            monitor.worked(1);
+                        }
+                    }
                 }
                 monitor.done();
 
@@ -169,6 +219,143 @@ public class SQLScriptProcessor {
         }
     }
 
+    /**
+     * @return false if script execution must be stopped
+     */
+    private boolean checkQueryResult(boolean runNext) {
+        if (!runNext) {
+            if (lastError == null) {
+                // Execution cancel
+                return false;
+            }
+            if (errorHandling != SQLScriptErrorHandling.IGNORE) {
+                log.error(lastError);
+                return false;
+            } else {
+                log.warn("Query failed: " + lastError.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Executes independent queries in parallel in isolated contexts.
+     * Data changes, DDL, procedure calls and control commands are executed in the main session
+     * after all previous queries are finished. Session state queries (SET, USE) are executed in all sessions.
+     * Queries which depend on the state of the main session (temporary tables, objects created by the script)
+     * are executed in the main session too.
+     */
+    private void executeParallel(@NotNull DBRProgressMonitor monitor, @NotNull DBCSession mainSession) {
+        List<DBCExecutionContext> isolatedContexts = new ArrayList<>();
+        List<DBCSession> sessions = new ArrayList<>();
+        sessions.add(mainSession);
+        try {
+            for (int i = 1; i < parallelism; i++) {
+                DBCExecutionContext context = executionContext.getOwnerInstance().openIsolatedContext(
+                    monitor, "Parallel script execution", executionContext);
+                isolatedContexts.add(context);
+                DBCTransactionManager txnManager = DBUtils.getTransactionManager(context);
+                if (txnManager != null && txnManager.isSupportsTransactions() && !txnManager.isAutoCommit()) {
+                    txnManager.setAutoCommit(monitor, true);
+                }
+                sessions.add(context.openSession(monitor, DBCExecutionPurpose.USER_SCRIPT, "SQL Query"));
+            }
+        } catch (Throwable e) {
+            log.warn("Can't open connections for parallel script execution. Use " + sessions.size() + " connection(s)", e);
+        }
+
+        SQLScriptQueryAnalyzer analyzer = new SQLScriptQueryAnalyzer();
+        List<SQLQuery> stage = new ArrayList<>();
+        List<SQLScriptQueryAccess> stageAccesses = new ArrayList<>();
+        try (SQLScriptParallelScheduler<DBCSession, SQLQuery> scheduler = new SQLScriptParallelScheduler<>(sessions)) {
+            for (int queryIndex = 0; queries.hasNext(); queryIndex++) {
+                if (monitor.isCanceled()) {
+                    break;
+                }
+                SQLScriptElement element = queries.next();
+                if (queryCount < 0 && queryIndex % STREAM_PROGRESS_QUERIES == 0) {
+                    monitor.subTask("Execute query " + (queryIndex + 1));
+                }
+                SQLScriptQueryAccess access = SQLScriptQueryAccess.BARRIER;
+                if (element instanceof SQLQuery query && scriptContext.getPragmas().isEmpty()) {
+                    access = analyzer.analyzeQuery(query);
+                }
+                if (access.getKind() == SQLScriptQueryAccess.Kind.INDEPENDENT) {
+                    stage.add((SQLQuery) element);
+                    stageAccesses.add(access);
+                    if (stage.size() < MAX_PARALLEL_STAGE_QUERIES) {
+                        continue;
+                    }
+                }
+                if (!executeStage(monitor, scheduler, stage, stageAccesses)) {
+                    return;
+                }
+                if (access.getKind() == SQLScriptQueryAccess.Kind.INDEPENDENT) {
+                    continue;
+                }
+                List<DBCSession> targetSessions = access.getKind() == SQLScriptQueryAccess.Kind.SESSION ?
+                    sessions : List.of(mainSession);
+                for (DBCSession session : targetSessions) {
+                    if (!checkQueryResult(executeSingleQuery(session, element))) {
+                        return;
+                    }
+                }
+                if (queryCount >= 0) {
+                    monitor.worked(1);
+                }
+            }
+            if (!monitor.isCanceled()) {
+                executeStage(monitor, scheduler, stage, stageAccesses);
+            }
+        } finally {
+            for (int i = 1; i < sessions.size(); i++) {
+                sessions.get(i).close();
+            }
+            for (DBCExecutionContext context : isolatedContexts) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * @return false if script execution must be stopped
+     */
+    private boolean executeStage(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull SQLScriptParallelScheduler<DBCSession, SQLQuery> scheduler,
+        @NotNull List<SQLQuery> stage,
+        @NotNull List<SQLScriptQueryAccess> stageAccesses
+    ) {
+        if (stage.isEmpty()) {
+            return true;
+        }
+        boolean runNext = scheduler.executeStage(monitor, stage, stageAccesses, (session, query) -> {
+            DBCStatistics queryStatistics = new DBCStatistics();
+            DBDDataReceiver queryReceiver = parallelReceiverFactory == null ? dataReceiver : parallelReceiverFactory.get();
+            Throwable error = executeQuery(session, query, queryStatistics, queryReceiver);
+            if (error == null) {
+                return true;
+            }
+            synchronized (this) {
+                if (lastError == null) {
+                    lastError = error;
+                }
+            }
+            if (errorHandling != SQLScriptErrorHandling.IGNORE) {
+                log.error(error);
+                return false;
+            }
+            log.warn("Query failed: " + error.getMessage());
+            return true;
+        });
+        if (queryCount >= 0) {
+            monitor.worked(stage.size());
+        }
+        stage.clear();
+        stageAccesses.clear();
+        return runNext;
+    }
+
     private boolean executeSingleQuery(@NotNull DBCSession session, @NotNull SQLScriptElement element) {
         if (element instanceof SQLControlCommand) {
             log.debug(STAT_LOG_PREFIX + "Execute command\n" + element.getText());
@@ -188,29 +375,51 @@ public class SQLScriptProcessor {
 
         try {
             statistics.reset();
+            lastError = executeQuery(session, sqlQuery, statistics, dataReceiver);
+        } finally {
+            scriptContext.clearStatementContext();
+        }
+
+        return lastError == null || errorHandling == SQLScriptErrorHandling.IGNORE;
+    }
+
+    /**
+     * @return execution error or null
+     */
+    @Nullable
+    private Throwable executeQuery(
+        @NotNull DBCSession session,
+        @NotNull SQLQuery sqlQuery,
+        @NotNull DBCStatistics statistics,
+        @Nullable DBDDataReceiver receiver
+    ) {
+        try {
             statistics.setQueryText(sqlQuery.getText());
 
             DBExecUtils.tryExecuteRecover(session, session.getDataSource(), param -> {
                 try {
                     long execStartTime = System.currentTimeMillis();
-                    executeStatement(session, sqlQuery, execStartTime);
+                    executeStatement(session, sqlQuery, execStartTime, statistics, receiver);
                 } catch (Throwable e) {
                     throw new InvocationTargetException(e);
                 }
             });
+            return null;
         } catch (Throwable ex) {
             if (!(ex instanceof DBException)) {
                 log.error("Unexpected error while processing SQL", ex);
             }
-            lastError = ex;
-        } finally {
-            scriptContext.clearStatementContext();
+            return ex;
         }
-
-        return lastError == null || errorHandling == SQLScriptErrorHandling.IGNORE;
     }
 
-    private void executeStatement(@NotNull DBCSession session, SQLQuery sqlQuery, long startTime) throws DBCException {
+    private void executeStatement(
+        @NotNull DBCSession session,
+        SQLQuery sqlQuery,
+        long startTime,
+        @NotNull DBCStatistics statistics,
+        @Nullable DBDDataReceiver receiver
+    ) throws DBCException {
         SQLQueryDataContainer dataContainer = new SQLQueryDataContainer(() -> executionContext, sqlQuery, scriptContext, log);
         DBCExecutionSource source = new AbstractExecutionSource(dataContainer, session.getExecutionContext(), this, sqlQuery);
         final DBCStatement statement = DBUtils.makeStatement(
@@ -240,8 +449,13 @@ public class SQLScriptProcessor {
                         if (resultSet == null) {
                             // Kind of bug in the driver. It says it has resultset but returns null
                             break;
+                        } else if (receiver == dataReceiver && parallelism > 1) {
+                            // Script receiver is shared by parallel queries
+                            synchronized (receiver) {
+                                hasResultSet = fetchQueryData(session, resultSet, receiver, statistics);
+                            }
                         } else {
-                            hasResultSet = fetchQueryData(session, resultSet, dataReceiver);
+                            hasResultSet = fetchQueryData(session, resultSet, receiver, statistics);
                         }
                     }
                 }
@@ -301,12 +515,18 @@ public class SQLScriptProcessor {
                 (statistics.getRowsFetched() >= 0 ? ", fetched " + statistics.getRowsFetched() + " row(s)" : "") +
                 (statistics.getRowsUpdated() >= 0 ? ", updated " + statistics.getRowsUpdated() + " row(s)" : ""));
 
-            totalStatistics.accumulate(statistics);
+            synchronized (totalStatistics) {
+                totalStatistics.accumulate(statistics);
+            }
         }
     }
 
-    private boolean fetchQueryData(DBCSession session, DBCResultSet resultSet, DBDDataReceiver dataReceiver)
-        throws DBCException {
+    private boolean fetchQueryData(
+        DBCSession session,
+        DBCResultSet resultSet,
+        DBDDataReceiver dataReceiver,
+        @NotNull DBCStatistics statistics
+    ) throws DBCException {
         if (dataReceiver == null) {
             // No data pump - skip fetching stage
             return false;
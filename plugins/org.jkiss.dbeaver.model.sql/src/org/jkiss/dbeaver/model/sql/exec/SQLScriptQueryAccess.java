@@ -0,0 +1,87 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.exec;
+
+import org.jkiss.code.NotNull;
+
+import java.util.Set;
+
+/**
+ * Objects read and written by a script query.
+ * Used to find queries which may be executed in parallel.
+ */
+final class SQLScriptQueryAccess {
+
+    enum Kind {
+        // Query works with known objects only and may be executed in parallel with other queries
+        INDEPENDENT,
+        // Query changes session state and must be executed in each connection
+        SESSION,
+        // Query must be executed after all previous queries and before all next queries
+        BARRIER
+    }
+
+    // Barrier which may change any object, including the session state
+    static final SQLScriptQueryAccess BARRIER = new SQLScriptQueryAccess(Kind.BARRIER, Set.of(), Set.of());
+    static final SQLScriptQueryAccess SESSION = new SQLScriptQueryAccess(Kind.SESSION, Set.of(), Set.of());
+
+    @NotNull
+    private final Kind kind;
+    @NotNull
+    private final Set<String> reads;
+    @NotNull
+    private final Set<String> writes;
+
+    private SQLScriptQueryAccess(@NotNull Kind kind, @NotNull Set<String> reads, @NotNull Set<String> writes) {
+        this.kind = kind;
+        this.reads = reads;
+        this.writes = writes;
+    }
+
+    @NotNull
+    static SQLScriptQueryAccess of(@NotNull Set<String> reads, @NotNull Set<String> writes) {
+        return new SQLScriptQueryAccess(Kind.INDEPENDENT, Set.copyOf(reads), Set.copyOf(writes));
+    }
+
+    /**
+     * Barrier which changes the specified objects only
+     */
+    @NotNull
+    static SQLScriptQueryAccess barrier(@NotNull Set<String> writes) {
+        return new SQLScriptQueryAccess(Kind.BARRIER, Set.of(), Set.copyOf(writes));
+    }
+
+    @NotNull
+    Kind getKind() {
+        return kind;
+    }
+
+    @NotNull
+    Set<String> getReads() {
+        return reads;
+    }
+
+    @NotNull
+    Set<String> getWrites() {
+        return writes;
+    }
+
+    @Override
+    public String toString() {
+        return kind == Kind.INDEPENDENT ? "reads " + reads + ", writes " + writes : kind.name() + (writes.isEmpty() ? "" : " " + writes);
+    }
+}
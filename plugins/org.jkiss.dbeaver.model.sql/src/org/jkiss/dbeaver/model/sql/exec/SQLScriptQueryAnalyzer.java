@@ -0,0 +1,240 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.exec;
+
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.SetStatement;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.UseStatement;
+import net.sf.jsqlparser.statement.alter.Alter;
+import net.sf.jsqlparser.statement.alter.AlterSession;
+import net.sf.jsqlparser.statement.create.index.CreateIndex;
+import net.sf.jsqlparser.statement.create.table.CreateTable;
+import net.sf.jsqlparser.statement.create.view.CreateView;
+import net.sf.jsqlparser.statement.delete.Delete;
+import net.sf.jsqlparser.statement.drop.Drop;
+import net.sf.jsqlparser.statement.insert.Insert;
+import net.sf.jsqlparser.statement.merge.Merge;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SelectBody;
+import net.sf.jsqlparser.statement.select.SetOperationList;
+import net.sf.jsqlparser.statement.truncate.Truncate;
+import net.sf.jsqlparser.statement.update.Update;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.sql.SQLQuery;
+import org.jkiss.dbeaver.model.sql.SQLQueryType;
+import org.jkiss.utils.CommonUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Finds objects read and written by script queries.
+ *
+ * Only queries which are known to be independent are executed in parallel: plain SELECTs and CREATE INDEX.
+ * All other statements are barriers. DML may change other tables with triggers and cascade foreign keys,
+ * DDL and procedure calls may change anything, so they are executed after all previous queries.
+ * Names are compared case-insensitively, without quotes and without schema,
+ * so same-named tables of different schemas are considered as the same object.
+ * <p>
+ * Parallel queries are executed in isolated contexts which don't see the session state of the main context.
+ * So queries of temporary tables, of session variables and of objects created or changed earlier in the script
+ * are barriers too. After a statement which may change anything (procedure call, unknown statement)
+ * all next queries are barriers. The analyzer keeps this state, so one instance is used per script.
+ */
+final class SQLScriptQueryAnalyzer {
+
+    private static final String INDEX_PREFIX = "index ";
+
+    // Objects created or changed by barriers in the main context
+    private final Set<String> mainContextObjects = new HashSet<>();
+    private boolean mainContextOnly;
+
+    @NotNull
+    SQLScriptQueryAccess analyzeQuery(@NotNull SQLQuery query) {
+        SQLScriptQueryAccess access = getQueryAccess(query);
+        switch (access.getKind()) {
+            case INDEPENDENT:
+                if (mainContextOnly || isMainContextQuery(access)) {
+                    return SQLScriptQueryAccess.barrier(access.getWrites());
+                }
+                break;
+            case BARRIER:
+                if (access == SQLScriptQueryAccess.BARRIER) {
+                    // Changed objects are unknown, e.g. a procedure may create temporary tables
+                    mainContextOnly = true;
+                } else {
+                    mainContextObjects.addAll(access.getWrites());
+                }
+                break;
+            default:
+                break;
+        }
+        return access;
+    }
+
+    private boolean isMainContextQuery(@NotNull SQLScriptQueryAccess access) {
+        for (Set<String> names : List.of(access.getReads(), access.getWrites())) {
+            for (String name : names) {
+                if (isTemporaryName(name) || mainContextObjects.contains(name)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @NotNull
+    private static SQLScriptQueryAccess getQueryAccess(@NotNull SQLQuery query) {
+        if (!CommonUtils.isEmpty(query.getParameters())) {
+            return SQLScriptQueryAccess.BARRIER;
+        }
+        Statement statement = query.getStatement();
+        if (statement instanceof SetStatement || statement instanceof UseStatement || statement instanceof AlterSession) {
+            return SQLScriptQueryAccess.SESSION;
+        }
+        if (statement instanceof CreateIndex createIndex) {
+            return analyzeCreateIndex(createIndex);
+        }
+        if (statement instanceof Select select && query.getType() == SQLQueryType.SELECT) {
+            if (query.getText().indexOf('@') >= 0) {
+                // Session variables may be assigned in the main context only
+                return SQLScriptQueryAccess.barrier(Set.of());
+            }
+            return analyzeSelect(select);
+        }
+        if (query.getType() == SQLQueryType.COMMIT || query.getType() == SQLQueryType.ROLLBACK) {
+            return SQLScriptQueryAccess.barrier(Set.of());
+        }
+        Table changedTable = getChangedTable(statement);
+        if (changedTable != null) {
+            return SQLScriptQueryAccess.barrier(Set.of(normalizeName(changedTable.getName())));
+        }
+        return SQLScriptQueryAccess.BARRIER;
+    }
+
+    @NotNull
+    private static SQLScriptQueryAccess analyzeCreateIndex(@NotNull CreateIndex createIndex) {
+        Table table = createIndex.getTable();
+        if (table == null || createIndex.getIndex() == null || CommonUtils.isEmpty(createIndex.getIndex().getName())) {
+            return SQLScriptQueryAccess.BARRIER;
+        }
+        // Table is locked by the index creation, so other queries of this table wait for it
+        return SQLScriptQueryAccess.of(
+            Set.of(),
+            Set.of(normalizeName(table.getName()), INDEX_PREFIX + normalizeName(createIndex.getIndex().getName()))
+        );
+    }
+
+    @NotNull
+    private static SQLScriptQueryAccess analyzeSelect(@NotNull Select select) {
+        SelectBody selectBody = select.getSelectBody();
+        if (selectBody instanceof PlainSelect plainSelect && plainSelect.getIntoTables() != null &&
+            plainSelect.getIntoTables().size() == 1) {
+            // SELECT INTO creates a table
+            return SQLScriptQueryAccess.barrier(Set.of(normalizeName(plainSelect.getIntoTables().get(0).getName())));
+        }
+        if (!isPlainQuery(selectBody)) {
+            return SQLScriptQueryAccess.BARRIER;
+        }
+        List<String> tables;
+        try {
+            tables = new TablesNamesFinder() {
+                @Override
+                protected String extractTableName(Table table) {
+                    return normalizeName(table.getName());
+                }
+            }.getTableList(select);
+        } catch (RuntimeException e) {
+            // Some constructions are not supported by the finder
+            return SQLScriptQueryAccess.BARRIER;
+        }
+        if (tables.isEmpty()) {
+            // Function calls, may have side effects
+            return SQLScriptQueryAccess.barrier(Set.of());
+        }
+        return SQLScriptQueryAccess.of(Set.copyOf(tables), Set.of());
+    }
+
+    /**
+     * Checks that select doesn't create tables (SELECT INTO) and doesn't lock rows (FOR UPDATE)
+     */
+    private static boolean isPlainQuery(@NotNull SelectBody selectBody) {
+        if (selectBody instanceof PlainSelect plainSelect) {
+            return CommonUtils.isEmpty(plainSelect.getIntoTables()) && !plainSelect.isForUpdate();
+        }
+        if (selectBody instanceof SetOperationList setOperations) {
+            for (SelectBody body : setOperations.getSelects()) {
+                if (!isPlainQuery(body)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the table created or changed by DML or DDL statement
+     */
+    @Nullable
+    private static Table getChangedTable(@Nullable Statement statement) {
+        if (statement instanceof Insert insert) {
+            return insert.getTable();
+        } else if (statement instanceof Update update) {
+            return update.getTable();
+        } else if (statement instanceof Delete delete) {
+            return delete.getTable();
+        } else if (statement instanceof Merge merge) {
+            return merge.getTable();
+        } else if (statement instanceof Truncate truncate) {
+            return truncate.getTable();
+        } else if (statement instanceof CreateTable createTable) {
+            return createTable.getTable();
+        } else if (statement instanceof CreateView createView) {
+            return createView.getView();
+        } else if (statement instanceof Alter alter) {
+            return alter.getTable();
+        } else if (statement instanceof Drop drop) {
+            return drop.getName();
+        }
+        return null;
+    }
+
+    /**
+     * SQL Server local and global temporary tables
+     */
+    private static boolean isTemporaryName(@NotNull String name) {
+        return name.startsWith("#");
+    }
+
+    @NotNull
+    static String normalizeName(@NotNull String name) {
+        if (name.length() > 1) {
+            char first = name.charAt(0), last = name.charAt(name.length() - 1);
+            if ((first == '"' || first == '`') && last == first || first == '[' && last == ']') {
+                name = name.substring(1, name.length() - 1);
+            }
+        }
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -41,6 +41,7 @@ public class SQLModelPreferencesInitializer extends AbstractPreferenceInitialize
         //SQL Editor
         PrefUtils.setDefaultPreferenceValue(store, SQLModelPreferences.SQL_EDITOR_PROPOSAL_SHORT_NAME, false);
         PrefUtils.setDefaultPreferenceValue(store, SQLModelPreferences.SQL_EDITOR_PROPOSAL_ALWAYS_FQ, false);
+        PrefUtils.setDefaultPreferenceValue(store, SQLModelPreferences.SQL_EDITOR_PROPOSAL_LOCAL_INDEX, false);
 
     }
 
@@ -42,6 +42,8 @@ public class SQLParserContext {
     @NotNull
     private final IDocument document;
     private TPRuleBasedScanner scanner;
+    @Nullable
+    private SQLTokenCache tokenCache;
 
     @Nullable
     private DBPPreferenceStore preferenceStore;
@@ -79,7 +81,7 @@ public class SQLParserContext {
 
     public TPRuleBasedScanner getScanner() {
         if (scanner == null) {
-            scanner = new TPRuleBasedScanner();
+            scanner = tokenCache != null ? tokenCache.createScanner() : new TPRuleBasedScanner();
             scanner.setRules(ruleManager.getAllRules());
         }
         return scanner;
@@ -99,6 +101,30 @@ public class SQLParserContext {
         this.preferenceStore = preferenceStore;
     }
 
+    /**
+     * Enables caching of the document tokens between the parser calls.
+     * The cache listens for the document changes, so the context must be disposed when it is not needed anymore.
+     */
+    public void enableTokenCache() {
+        if (tokenCache == null) {
+            tokenCache = new SQLTokenCache(document);
+            scanner = null;
+        }
+    }
+
+    @Nullable
+    public SQLTokenCache getTokenCache() {
+        return tokenCache;
+    }
+
+    public void dispose() {
+        if (tokenCache != null) {
+            tokenCache.dispose();
+            tokenCache = null;
+            scanner = null;
+        }
+    }
+
     void startScriptEvaluation() {
         getScanner().startEval();
     }
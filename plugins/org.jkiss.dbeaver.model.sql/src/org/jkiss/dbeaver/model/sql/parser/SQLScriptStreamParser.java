@@ -0,0 +1,142 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.parser;
+
+import org.eclipse.jface.text.Document;
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.sql.SQLQuery;
+import org.jkiss.dbeaver.model.sql.SQLScriptElement;
+import org.jkiss.dbeaver.model.sql.SQLSyntaxManager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Script parser which reads script text incrementally.
+ *
+ * Text is read into a window which is parsed by {@link SQLScriptParser}. All elements of the window except
+ * the last one are complete. The last element is parsed again together with the next portion of text.
+ * So only the window is kept in memory, no matter how big the script is. The window grows if
+ * a single element doesn't fit into it.
+ */
+public class SQLScriptStreamParser implements Iterator<SQLScriptElement>, AutoCloseable {
+
+    public static final int DEFAULT_WINDOW_SIZE = 1024 * 1024;
+
+    private final DBPDataSource dataSource;
+    private final SQLSyntaxManager syntaxManager;
+    private final SQLRuleManager ruleManager;
+    private final Reader reader;
+    private final char[] readBuffer = new char[0x10000];
+    private final StringBuilder window = new StringBuilder();
+    private final Deque<SQLScriptElement> elements = new ArrayDeque<>();
+    private int windowSize;
+    private boolean endOfScript;
+    private long scriptOffset;
+
+    public SQLScriptStreamParser(@NotNull DBPDataSource dataSource, @NotNull Reader reader) {
+        this(dataSource, reader, DEFAULT_WINDOW_SIZE);
+    }
+
+    public SQLScriptStreamParser(@NotNull DBPDataSource dataSource, @NotNull Reader reader, int windowSize) {
+        this.dataSource = dataSource;
+        this.reader = reader;
+        this.windowSize = windowSize;
+        this.syntaxManager = new SQLSyntaxManager();
+        this.syntaxManager.init(dataSource.getSQLDialect(), dataSource.getContainer().getPreferenceStore());
+        this.ruleManager = new SQLRuleManager(syntaxManager);
+        this.ruleManager.loadRules(dataSource, false);
+    }
+
+    /**
+     * Offset of the current window in the script. Offsets of parsed elements are relative to their window.
+     */
+    public long getScriptOffset() {
+        return scriptOffset;
+    }
+
+    /**
+     * @throws UncheckedIOException on script read error
+     */
+    @Override
+    public boolean hasNext() {
+        while (elements.isEmpty() && !(endOfScript && window.isEmpty())) {
+            parseNextWindow();
+        }
+        return !elements.isEmpty();
+    }
+
+    @Override
+    public SQLScriptElement next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return elements.poll();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void parseNextWindow() {
+        try {
+            while (!endOfScript && window.length() < windowSize) {
+                int count = reader.read(readBuffer, 0, Math.min(readBuffer.length, windowSize - window.length()));
+                if (count < 0) {
+                    endOfScript = true;
+                } else {
+                    window.append(readBuffer, 0, count);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        SQLParserContext parserContext = new SQLParserContext(dataSource, syntaxManager, ruleManager, new Document(window.toString()));
+        List<SQLScriptElement> windowElements = new ArrayList<>(
+            SQLScriptParser.extractScriptQueries(parserContext, 0, window.length(), true, false, true));
+        if (endOfScript) {
+            elements.addAll(windowElements);
+            scriptOffset += window.length();
+            window.setLength(0);
+            return;
+        }
+        // The last element may be truncated by the window end. In the smart delimiter mode previous elements
+        // without delimiters may be continued by the next text too.
+        int firstIncomplete = windowElements.size() - 1;
+        if (syntaxManager.getStatementDelimiterMode().useSmart) {
+            while (firstIncomplete > 0 &&
+                windowElements.get(firstIncomplete - 1) instanceof SQLQuery query && !query.isEndsWithDelimiter()) {
+                firstIncomplete--;
+            }
+        }
+        if (firstIncomplete <= 0) {
+            // Element is bigger than the window
+            windowSize *= 2;
+            return;
+        }
+        elements.addAll(windowElements.subList(0, firstIncomplete));
+        SQLScriptElement lastComplete = windowElements.get(firstIncomplete - 1);
+        int consumed = lastComplete.getOffset() + lastComplete.getLength();
+        window.delete(0, consumed);
+        scriptOffset += consumed;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.parser;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.sql.semantics.OffsetKeyedTreeMap;
+import org.jkiss.dbeaver.model.text.parser.TPRuleBasedScanner;
+import org.jkiss.dbeaver.model.text.parser.TPToken;
+import org.jkiss.dbeaver.utils.ListNode;
+
+/**
+ * Cache of tokens read from the document by the parser scanner.
+ *
+ * Tokens are kept by their start offset together with the number of characters examined by the rules.
+ * A token stays valid until the text it depends on is changed, so subsequent parser calls
+ * evaluate rules only around the modified regions of the document.
+ */
+public class SQLTokenCache implements IDocumentListener {
+
+    private static final int MAX_CACHED_TOKENS = 500_000;
+
+    private static class CachedToken {
+        @NotNull
+        final TPToken token;
+        final int length;
+        // Number of characters examined by the rules, including the lookahead
+        final int readLength;
+
+        CachedToken(@NotNull TPToken token, int length, int readLength) {
+            this.token = token;
+            this.length = length;
+            this.readLength = readLength;
+        }
+    }
+
+    @NotNull
+    private final IDocument document;
+    @NotNull
+    private final OffsetKeyedTreeMap<CachedToken> tokens = new OffsetKeyedTreeMap<>();
+    private int maxReadLength;
+    private int modificationCount;
+
+    public SQLTokenCache(@NotNull IDocument document) {
+        this.document = document;
+        this.document.addDocumentListener(this);
+    }
+
+    @NotNull
+    public IDocument getDocument() {
+        return document;
+    }
+
+    public synchronized int getTokenCount() {
+        return tokens.size();
+    }
+
+    public void dispose() {
+        document.removeDocumentListener(this);
+        clear();
+    }
+
+    public synchronized void clear() {
+        tokens.clear();
+        maxReadLength = 0;
+        modificationCount++;
+    }
+
+    /**
+     * Creates scanner which reuses tokens of this cache while scanning its document
+     */
+    @NotNull
+    public TPRuleBasedScanner createScanner() {
+        return new CachingScanner();
+    }
+
+    private synchronized void putToken(int stamp, int offset, @NotNull CachedToken token) {
+        if (stamp != modificationCount) {
+            // Document was changed while the token was read
+            return;
+        }
+        if (tokens.size() >= MAX_CACHED_TOKENS) {
+            clear();
+            return;
+        }
+        tokens.put(offset, token);
+        maxReadLength = Math.max(maxReadLength, token.readLength);
+    }
+
+    @Override
+    public synchronized void documentAboutToBeChanged(DocumentEvent event) {
+        modificationCount++;
+        if (tokens.size() == 0) {
+            return;
+        }
+        int offset = event.getOffset();
+        int oldLength = event.getLength();
+        int newLength = event.getText() == null ? 0 : event.getText().length();
+        int delta = newLength - oldLength;
+
+        // Rules may check the token column, so tokens after the changed text up to the end of its line are invalidated too
+        int invalidateTo;
+        try {
+            int line = document.getLineOfOffset(offset + oldLength);
+            invalidateTo = document.getLineOffset(line) + document.getLineLength(line);
+        } catch (BadLocationException e) {
+            invalidateTo = Integer.MAX_VALUE;
+        }
+
+        ListNode<Integer> keyOffsetsToRemove = null;
+        OffsetKeyedTreeMap.NodesIterator<CachedToken> it = tokens.nodesIteratorAt(Math.max(0, offset - maxReadLength));
+        for (boolean exists = it.getCurrValue() != null || it.next(); exists; exists = it.next()) {
+            int tokenOffset = it.getCurrOffset();
+            if (tokenOffset >= invalidateTo) {
+                break;
+            }
+            if (tokenOffset >= offset || tokenOffset + it.getCurrValue().readLength > offset) {
+                keyOffsetsToRemove = ListNode.push(keyOffsetsToRemove, tokenOffset);
+            }
+        }
+        for (ListNode<Integer> kn = keyOffsetsToRemove; kn != null; kn = kn.next) {
+            tokens.removeAt(kn.data);
+        }
+        // No tokens are left inside the replaced text, so the tail can be moved back over it on deletion
+        tokens.applyOffset(offset + oldLength, delta);
+    }
+
+    @Override
+    public void documentChanged(DocumentEvent event) {
+        // Tokens are invalidated before the modification, while the old text is still available
+    }
+
+    /**
+     * Scanner which takes the token at the current offset from the cache when it can't be affected by the scan range.
+     * Rules are evaluated in the script evaluation mode, since they may change the delimiter there.
+     */
+    private class CachingScanner extends TPRuleBasedScanner {
+
+        @Nullable
+        private IDocument scanDocument;
+        private int readStart;
+        private int readEnd;
+
+        @Override
+        public void setRange(IDocument document, int offset, int length) {
+            super.setRange(document, offset, length);
+            this.scanDocument = document;
+        }
+
+        @Override
+        public TPToken nextToken() {
+            if (scanDocument != document || isEvalMode()) {
+                return super.nextToken();
+            }
+            int tokenOffset = getOffset();
+            int rangeEnd = getRangeEnd();
+            boolean atDocumentEnd = rangeEnd >= document.getLength();
+            int stamp;
+            synchronized (SQLTokenCache.this) {
+                CachedToken cached = tokens.find(tokenOffset);
+                if (cached != null && (atDocumentEnd || tokenOffset + cached.readLength <= rangeEnd)) {
+                    skipToken(cached.length);
+                    return cached.token;
+                }
+                stamp = modificationCount;
+            }
+
+            readStart = tokenOffset;
+            readEnd = tokenOffset;
+            TPToken token = super.nextToken();
+            int tokenLength = getTokenLength();
+            if (token != null && !token.isEOF() && tokenLength > 0 && readStart >= tokenOffset && (atDocumentEnd || readEnd <= rangeEnd)) {
+                // Tokens which depend on the range end or on the text before the token are not cached
+                putToken(stamp, tokenOffset, new CachedToken(token, tokenLength, readEnd - tokenOffset));
+            }
+            return token;
+        }
+
+        @Override
+        public int read() {
+            int c = super.read();
+            readEnd = Math.max(readEnd, getOffset());
+            return c;
+        }
+
+        @Override
+        public void unread() {
+            super.unread();
+            readStart = Math.min(readStart, getOffset());
+        }
+    }
+
+}
@@ -18,6 +18,8 @@ package org.jkiss.dbeaver.model.sql.semantics;
 
 import org.jkiss.code.Nullable;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.function.BiConsumer;
@@ -522,7 +524,9 @@ public class OffsetKeyedTreeMap<T> {
                 public boolean next() {
                     if (this.initial && initialLocation.node.isSentinel()) {
                         // the exact initial position not found, so proceed with its parent
-                        NodeAndOffset<T> parentLocation = new NodeAndOffset<>(initialLocation.parent, position - initialLocation.offset);
+                        NodeAndOffset<T> parentLocation = new NodeAndOffset<>(
+                            initialLocation.parent, position - initialLocation.offset - (initialLocation.isLeft ? 0 : initialLocation.parent.offset)
+                        );
                         this.currentLocation = initialLocation.isLeft ? parentLocation : findNext(parentLocation);
                     } else if (this.afterLast) {
                         return false;
@@ -940,12 +944,17 @@ public class OffsetKeyedTreeMap<T> {
     
     */
 
+    /**
+     * Shifts keys of all the entries located at or after the position by the delta.
+     * Negative delta requires the range [position + delta, position) to have no entries,
+     * so the order of the keys is preserved.
+     */
     public void applyOffset(int position, int delta) {
         if (delta == 0) {
             return;
         }
-        if (delta < 0) {
-            throw new UnsupportedOperationException("Negative delta not supported at the moment");
+        if (delta < 0 && this.hasTombstonesInRange(position + delta, position)) {
+            this.compact();
         }
         if (this.size == 0) {
             return;
@@ -977,6 +986,51 @@ public class OffsetKeyedTreeMap<T> {
         }
     }
 
+    /**
+     * Checks nodes with keys in the range [from, to)
+     *
+     * @return true if there are tombstones in the range
+     * @throws IllegalArgumentException if there are entries in the range
+     */
+    private boolean hasTombstonesInRange(int from, int to) {
+        boolean hasTombstones = false;
+        Deque<NodeAndOffset<T>> stack = new ArrayDeque<>();
+        if (this.root.isNotSentinel()) {
+            stack.push(new NodeAndOffset<>(this.root, 0));
+        }
+        while (!stack.isEmpty()) {
+            NodeAndOffset<T> location = stack.pop();
+            int key = location.offset + location.node.offset;
+            if (key >= from && key < to) {
+                if (location.node.content != null) {
+                    throw new IllegalArgumentException("Negative offset would move entries over the entry at " + key);
+                }
+                hasTombstones = true;
+            }
+            if (key > from && location.node.left.isNotSentinel()) {
+                stack.push(new NodeAndOffset<>(location.node.left, location.offset));
+            }
+            if (key < to - 1 && location.node.right.isNotSentinel()) {
+                stack.push(new NodeAndOffset<>(location.node.right, key));
+            }
+        }
+        return hasTombstones;
+    }
+
+    /**
+     * Rebuilds the tree without tombstones
+     */
+    private void compact() {
+        var t = new OffsetKeyedTreeMap<T>();
+        NodesIterator<T> it = this.nodesIteratorAt(Integer.MAX_VALUE);
+        while (it.prev()) {
+            t.put(it.getCurrOffset(), it.getCurrValue());
+        }
+        this.root = t.root;
+        this.size = t.size;
+        this.tombstonesCount = 0;
+    }
+
     public void forEach(BiConsumer<Integer, T> action) {
         if (root.isNotSentinel()) {
             Node<T> node = root;
@@ -1078,14 +1132,7 @@ public class OffsetKeyedTreeMap<T> {
                 z.content = null;
                 this.tombstonesCount++;
                 if (this.tombstonesCount > this.size / 2) {
-                    var t = new OffsetKeyedTreeMap<T>();
-                    NodesIterator<T> it = this.nodesIteratorAt(Integer.MAX_VALUE);
-                    while (it.prev()) {
-                        t.put(it.getCurrOffset(), it.getCurrValue());
-                    }
-                    this.root = t.root;
-                    this.size = t.size;
-                    this.tombstonesCount = 0;
+                    this.compact();
                 }
                 return;
             }
@@ -38,6 +38,7 @@ import org.jkiss.dbeaver.model.sql.semantics.context.SQLQueryDataContext;
 import org.jkiss.dbeaver.model.sql.semantics.context.SQLQueryDataSourceContext;
 import org.jkiss.dbeaver.model.sql.semantics.context.SQLQueryDummyDataSourceContext;
 import org.jkiss.dbeaver.model.sql.semantics.context.SQLQueryExprType;
+import org.jkiss.dbeaver.model.sql.semantics.context.SQLQueryTableLookupCache;
 import org.jkiss.dbeaver.model.sql.semantics.model.SQLQueryModel;
 import org.jkiss.dbeaver.model.sql.semantics.model.SQLQueryModelContent;
 import org.jkiss.dbeaver.model.sql.semantics.model.ddl.SQLQueryObjectDropModel;
@@ -77,10 +78,26 @@ public class SQLQueryModelContext {
 
     private SQLQueryDataContext queryDataContext;
 
+    @Nullable
+    private final SQLQueryTableLookupCache tableLookupCache;
+
     public SQLQueryModelContext(@Nullable DBCExecutionContext executionContext, boolean isReadMetadataForSemanticAnalysis, @NotNull SQLSyntaxManager syntaxManager) {
+        this(executionContext, isReadMetadataForSemanticAnalysis, syntaxManager, null);
+    }
+
+    /**
+     * Creates model context which shares the table lookup results with other contexts using the same cache
+     */
+    public SQLQueryModelContext(
+        @Nullable DBCExecutionContext executionContext,
+        boolean isReadMetadataForSemanticAnalysis,
+        @NotNull SQLSyntaxManager syntaxManager,
+        @Nullable SQLQueryTableLookupCache tableLookupCache
+    ) {
         this.isReadMetadataForSemanticAnalysis = isReadMetadataForSemanticAnalysis;
         this.executionContext = executionContext;
         this.syntaxManager = syntaxManager;
+        this.tableLookupCache = tableLookupCache;
 
         if (executionContext != null && executionContext.getDataSource() != null) {
             this.dialect = this.executionContext.getDataSource().getSQLDialect();
@@ -106,6 +123,11 @@ public class SQLQueryModelContext {
         return queryDataContext;
     }
 
+    @Nullable
+    public SQLQueryTableLookupCache getTableLookupCache() {
+        return tableLookupCache;
+    }
+
     /**
      * Provides the semantic model for the provided text
      */
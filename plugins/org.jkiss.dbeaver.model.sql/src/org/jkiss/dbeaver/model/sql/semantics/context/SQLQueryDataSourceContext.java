@@ -60,16 +60,10 @@ public class SQLQueryDataSourceContext extends SQLQueryDataContext {
     @Override
     public DBSEntity findRealTable(@NotNull DBRProgressMonitor monitor, @NotNull List<String> tableName) {
         if (this.context.getExecutionContext().getDataSource() instanceof DBSObjectContainer container) {
-            List<String> tableName2 = new ArrayList<>(tableName);
-            DBSObject obj = SQLSearchUtils.findObjectByFQN(
-                monitor,
-                container,
-                this.context.getExecutionContext(),
-                tableName2,
-                false,
-                identifierDetector
-            );
-            return obj instanceof DBSTable table ? table : (obj instanceof DBSView view ? view : null);
+            SQLQueryTableLookupCache tableLookupCache = this.context.getTableLookupCache();
+            return tableLookupCache == null
+                ? this.findRealTableImpl(monitor, container, tableName)
+                : tableLookupCache.findTable(tableName, () -> this.findRealTableImpl(monitor, container, tableName));
         } else {
             // Semantic analyser should never be used for databases, which doesn't support table lookup
             // It's managed by LSMDialectRegistry (see org.jkiss.dbeaver.lsm.dialectSyntax extension point)
@@ -78,6 +72,24 @@ public class SQLQueryDataSourceContext extends SQLQueryDataContext {
         }
     }
 
+    @Nullable
+    private DBSEntity findRealTableImpl(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBSObjectContainer container,
+        @NotNull List<String> tableName
+    ) {
+        List<String> tableName2 = new ArrayList<>(tableName);
+        DBSObject obj = SQLSearchUtils.findObjectByFQN(
+            monitor,
+            container,
+            this.context.getExecutionContext(),
+            tableName2,
+            false,
+            identifierDetector
+        );
+        return obj instanceof DBSTable table ? table : (obj instanceof DBSView view ? view : null);
+    }
+
     @Nullable
     @Override
     public SQLQueryRowsSourceModel findRealSource(@NotNull DBSEntity table) {
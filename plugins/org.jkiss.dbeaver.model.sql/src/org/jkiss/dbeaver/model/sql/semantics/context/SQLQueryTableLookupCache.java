@@ -0,0 +1,63 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.semantics.context;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe cache of real tables found by their names.
+ * Shared by the query models of the script items analyzed together, so each table name is looked up in the metadata once.
+ */
+public class SQLQueryTableLookupCache {
+
+    @NotNull
+    private final Map<List<String>, Optional<DBSEntity>> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cached table or performs the lookup and caches its result, including the missing table.
+     * Lookup is not performed under lock, so concurrent lookups of the same name may happen, but the first result wins.
+     */
+    @Nullable
+    public DBSEntity findTable(@NotNull List<String> tableName, @NotNull Supplier<DBSEntity> lookup) {
+        Optional<DBSEntity> table = tables.get(tableName);
+        if (table == null) {
+            table = Optional.ofNullable(lookup.get());
+            Optional<DBSEntity> prevTable = tables.putIfAbsent(new ArrayList<>(tableName), table);
+            if (prevTable != null) {
+                table = prevTable;
+            }
+        }
+        return table.orElse(null);
+    }
+
+    public int size() {
+        return tables.size();
+    }
+
+    public void clear() {
+        tables.clear();
+    }
+}
@@ -179,6 +179,23 @@ public class TPRuleBasedScanner implements TPCharacterScanner, TPTokenScanner, T
         return fOffset;
     }
 
+    /**
+     * Returns the end offset of the range to be scanned
+     */
+    protected int getRangeEnd() {
+        return fRangeEnd;
+    }
+
+    /**
+     * Reads the token of the given length at the current offset without rules evaluation.
+     * Used by scanners which already know the token located at the current offset.
+     */
+    protected void skipToken(int length) {
+        fTokenOffset = fOffset;
+        fOffset += length;
+        fColumn = UNDEFINED;
+    }
+
     @Override
     public char[][] getLegalLineDelimiters() {
         return fDelimiters;
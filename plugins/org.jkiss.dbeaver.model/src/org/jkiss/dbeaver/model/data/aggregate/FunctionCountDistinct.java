@@ -20,18 +20,30 @@ import java.util.HashSet;
 import java.util.Set;
 
 /**
- * FunctionCountDistinct
+ * FunctionCountDistinct.
+ * Counts exactly while the number of distinct values is small, then switches to HyperLogLog estimate.
  */
 public class FunctionCountDistinct implements IAggregateFunction {
 
-    private int count = 0;
+    static final int EXACT_VALUES_LIMIT = 100_000;
+
     private Set<Object> cache = new HashSet<>();
+    private HyperLogLog estimator;
 
     @Override
     public boolean accumulate(Object value, boolean aggregateAsStrings) {
-        if (!cache.contains(value)) {
-            count++;
-            cache.add(value);
+        if (estimator != null) {
+            estimator.add(value);
+            return true;
+        }
+        if (cache.add(value)) {
+            if (cache.size() > EXACT_VALUES_LIMIT) {
+                estimator = new HyperLogLog();
+                for (Object cachedValue : cache) {
+                    estimator.add(cachedValue);
+                }
+                cache = null;
+            }
             return true;
         }
         return false;
@@ -39,6 +51,14 @@ public class FunctionCountDistinct implements IAggregateFunction {
 
     @Override
     public Object getResult(int valueCount) {
-        return count;
+        if (estimator != null) {
+            return (int) Math.min(Integer.MAX_VALUE, estimator.estimate());
+        }
+        return cache.size();
+    }
+
+    @Override
+    public boolean isApproximateResult() {
+        return estimator != null;
     }
 }
@@ -16,15 +16,16 @@
  */
 package org.jkiss.dbeaver.model.data.aggregate;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Mode
  */
 public class FunctionMode implements IAggregateFunction {
 
-    private final List<Object> cache = new ArrayList<>();
+    // Counters of distinct values in order of their first appearance
+    private final Map<Object, int[]> counters = new LinkedHashMap<>();
 
     @Override
     public boolean accumulate(Object value, boolean aggregateAsStrings) {
@@ -33,7 +34,7 @@ public class FunctionMode implements IAggregateFunction {
             value = num;
         }
         if (value != null) {
-            cache.add(value);
+            counters.computeIfAbsent(value, k -> new int[1])[0]++;
             return true;
         }
         return false;
@@ -44,16 +45,11 @@ public class FunctionMode implements IAggregateFunction {
         Object maxValue = null;
         int maxCount = 0;
 
-        for (int i = 0; i < cache.size(); ++i) {
-            int count = 0;
-            for (int j = 0; j < cache.size(); ++j) {
-                if (cache.get(j).equals(cache.get(i))) {
-                    count++;
-                }
-            }
+        for (Map.Entry<Object, int[]> entry : counters.entrySet()) {
+            int count = entry.getValue()[0];
             if (count > maxCount) {
                 maxCount = count;
-                maxValue = cache.get(i);
+                maxValue = entry.getKey();
             }
         }
 //        if (maxCount <= 1) {
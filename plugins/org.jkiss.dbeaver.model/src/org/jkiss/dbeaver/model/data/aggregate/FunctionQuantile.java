@@ -0,0 +1,93 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.jkiss.dbeaver.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Quantile of comparable values.
+ * Values are kept and sorted while their number is small. Bigger sets are summarized with a quantiles sketch,
+ * so the result is approximate but memory consumption doesn't depend on the number of values.
+ */
+public abstract class FunctionQuantile implements IAggregateFunction {
+
+    private static final Log log = Log.getLog(FunctionQuantile.class);
+
+    static final int EXACT_VALUES_LIMIT = 100_000;
+
+    private final double quantile;
+    private List<Comparable<?>> cache = new ArrayList<>();
+    private QuantileSketch<Comparable<?>> sketch;
+
+    protected FunctionQuantile(double quantile) {
+        this.quantile = quantile;
+    }
+
+    @Override
+    public boolean accumulate(Object value, boolean aggregateAsStrings) {
+        value = FunctionNumeric.getComparable(value, aggregateAsStrings);
+        if (value == null) {
+            return false;
+        }
+        if (sketch != null) {
+            sketch.add((Comparable<?>) value);
+        } else {
+            cache.add((Comparable<?>) value);
+            if (cache.size() > EXACT_VALUES_LIMIT) {
+                sketch = new QuantileSketch<>(AggregateUtils::compareValues);
+                for (Comparable<?> cachedValue : cache) {
+                    sketch.add(cachedValue);
+                }
+                cache = null;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Object getResult(int valueCount) {
+        try {
+            if (sketch != null) {
+                return sketch.getQuantile(quantile);
+            }
+            cache.sort(AggregateUtils::compareValues);
+        } catch (Exception e) {
+            log.debug("Can't sort value collection: " + e.getMessage());
+            return null;
+        }
+        return getExactResult(cache);
+    }
+
+    @Override
+    public boolean isApproximateResult() {
+        return sketch != null;
+    }
+
+    /**
+     * Nearest rank quantile of sorted values
+     */
+    protected Object getExactResult(List<Comparable<?>> sortedValues) {
+        if (sortedValues.isEmpty()) {
+            return null;
+        }
+        int index = (int) Math.ceil(quantile * sortedValues.size()) - 1;
+        return sortedValues.get(Math.max(0, Math.min(index, sortedValues.size() - 1)));
+    }
+}
@@ -25,4 +25,11 @@ public interface IAggregateFunction {
 
     Object getResult(int valueCount);
 
+    /**
+     * Returns true if the result was estimated (e.g. with a sketch) and may differ from the exact value
+     */
+    default boolean isApproximateResult() {
+        return false;
+    }
+
 }
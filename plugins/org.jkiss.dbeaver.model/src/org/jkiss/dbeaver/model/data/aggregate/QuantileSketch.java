@@ -0,0 +1,163 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * KLL quantiles sketch.
+ *
+ * Keeps a bounded number of samples organized in levels. Items of level N represent 2^N original values.
+ * When a level overflows it is sorted and every other item is promoted to the next level.
+ * Rank error is about 1.5% for the default K, memory doesn't depend on the number of values.
+ */
+class QuantileSketch<T> {
+
+    static final int DEFAULT_K = 200;
+
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_LEVEL_CAPACITY = 8;
+
+    private final int k;
+    private final Comparator<? super T> comparator;
+    private final List<Object[]> levels = new ArrayList<>();
+    private int[] levelSizes = new int[0];
+    // Fixed seed makes results reproducible for the same input
+    private final Random random = new Random(0);
+    private long count;
+
+    QuantileSketch(Comparator<? super T> comparator) {
+        this(DEFAULT_K, comparator);
+    }
+
+    QuantileSketch(int k, Comparator<? super T> comparator) {
+        this.k = k;
+        this.comparator = comparator;
+        addLevel();
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    void add(T value) {
+        count++;
+        append(0, value);
+        if (levelSizes[0] >= levelCapacity(0)) {
+            compress();
+        }
+    }
+
+    /**
+     * Returns the retained item which rank is closest to the specified quantile (0..1)
+     */
+    @SuppressWarnings("unchecked")
+    T getQuantile(double quantile) {
+        if (count == 0) {
+            return null;
+        }
+        int total = 0;
+        for (int size : levelSizes) {
+            total += size;
+        }
+        Object[] items = new Object[total];
+        long[] weights = new long[total];
+        int pos = 0;
+        for (int level = 0; level < levels.size(); level++) {
+            Object[] levelItems = levels.get(level);
+            for (int i = 0; i < levelSizes[level]; i++) {
+                items[pos] = levelItems[i];
+                weights[pos] = 1L << level;
+                pos++;
+            }
+        }
+        Integer[] order = new Integer[total];
+        for (int i = 0; i < total; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (i1, i2) -> comparator.compare((T) items[i1], (T) items[i2]));
+
+        long totalWeight = 0;
+        for (long weight : weights) {
+            totalWeight += weight;
+        }
+        double targetRank = quantile * totalWeight;
+        long rank = 0;
+        for (Integer index : order) {
+            rank += weights[index];
+            if (rank > targetRank) {
+                return (T) items[index];
+            }
+        }
+        return (T) items[order[total - 1]];
+    }
+
+    private void compress() {
+        for (int level = 0; level < levels.size(); level++) {
+            if (levelSizes[level] < levelCapacity(level)) {
+                continue;
+            }
+            if (level + 1 >= levels.size()) {
+                addLevel();
+            }
+            compact(level);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void compact(int level) {
+        Object[] items = levels.get(level);
+        int size = levelSizes[level];
+        // Odd item stays on its level
+        int compactSize = size & ~1;
+        Arrays.sort(items, 0, size, (o1, o2) -> comparator.compare((T) o1, (T) o2));
+        int offset = random.nextBoolean() ? 1 : 0;
+        for (int i = offset; i < compactSize; i += 2) {
+            append(level + 1, (T) items[i]);
+        }
+        if (compactSize < size) {
+            items[0] = items[size - 1];
+        }
+        Arrays.fill(items, size - compactSize, size, null);
+        levelSizes[level] = size - compactSize;
+    }
+
+    private void append(int level, T value) {
+        Object[] items = levels.get(level);
+        int size = levelSizes[level];
+        if (size >= items.length) {
+            items = Arrays.copyOf(items, items.length * 2);
+            levels.set(level, items);
+        }
+        items[size] = value;
+        levelSizes[level] = size + 1;
+    }
+
+    private void addLevel() {
+        levels.add(new Object[MIN_LEVEL_CAPACITY]);
+        levelSizes = Arrays.copyOf(levelSizes, levelSizes.length + 1);
+    }
+
+    private int levelCapacity(int level) {
+        int depth = levels.size() - level - 1;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+}
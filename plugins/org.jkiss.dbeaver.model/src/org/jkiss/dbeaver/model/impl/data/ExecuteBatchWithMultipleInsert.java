@@ -96,10 +96,9 @@ public class ExecuteBatchWithMultipleInsert extends ExecuteInsertBatchImpl {
         DBCStatement batchStatement = null;
 
         try {
-            int multiRowInsertBatchSize = CommonUtils.toInt(options.get(DBSDataManipulator.OPTION_MULTI_INSERT_BATCH_SIZE), 100);
+            int multiRowInsertBatchSize = getMultiRowInsertBatchSize(session, options);
             boolean skipBindValues = CommonUtils.toBoolean(options.get(DBSDataManipulator.OPTION_SKIP_BIND_VALUES));
 
-
             int rowsCount = values.size();
             List<Object> multiRowInsertBatchValuesList = new ArrayList<>();
             for (int i = 0; i < rowsCount; i++) {
@@ -120,6 +119,9 @@ public class ExecuteBatchWithMultipleInsert extends ExecuteInsertBatchImpl {
                         }
                     }
                     Object[] allMultiInsertValuesBatch = multiRowInsertBatchValuesList.toArray(new Object[0]);
+                    if (batchStatement != null) {
+                        batchStatement.close();
+                    }
                     batchStatement = prepareStatement(session, handlers, allMultiInsertValuesBatch, options);
                     bindAndFlushStatement(handlers, statistics, batchStatement, allMultiInsertValuesBatch, skipBindValues);
                     multiRowInsertBatchValuesList.clear();
@@ -136,6 +138,27 @@ public class ExecuteBatchWithMultipleInsert extends ExecuteInsertBatchImpl {
         return statistics;
     }
 
+    /**
+     * Rows count in a single INSERT statement. Limited by the max bind parameters count of the dialect.
+     */
+    private int getMultiRowInsertBatchSize(@NotNull DBCSession session, Map<String, Object> options) {
+        int batchSize = Math.max(1, CommonUtils.toInt(options.get(DBSDataManipulator.OPTION_MULTI_INSERT_BATCH_SIZE), 100));
+        if (CommonUtils.toBoolean(options.get(DBSDataManipulator.OPTION_SKIP_BIND_VALUES))) {
+            return batchSize;
+        }
+        int maxBindParameters = session.getDataSource().getSQLDialect().getMaxBindParameters();
+        int paramsPerRow = 0;
+        for (DBSAttributeBase attribute : attributes) {
+            if (!DBUtils.isPseudoAttribute(attribute)) {
+                paramsPerRow++;
+            }
+        }
+        if (maxBindParameters > 0 && paramsPerRow > 0) {
+            batchSize = Math.max(1, Math.min(batchSize, maxBindParameters / paramsPerRow));
+        }
+        return batchSize;
+    }
+
     private void bindAndFlushStatement(DBDValueHandler[] handlers, DBCStatistics statistics, DBCStatement batchStatement, Object[] allMultiInsertValues, boolean skipBindValues) throws DBCException {
         statistics.setQueryText(batchStatement.getQueryString());
         statistics.addStatementsCount();
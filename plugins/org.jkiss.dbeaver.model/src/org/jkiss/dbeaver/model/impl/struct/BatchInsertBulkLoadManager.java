@@ -0,0 +1,103 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.struct;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCTransactionManager;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bulk load manager which inserts rows with batched INSERT statements.
+ * Used by bulk loaders when the driver doesn't provide its native bulk load API.
+ */
+public class BatchInsertBulkLoadManager implements DBSDataBulkLoader.BulkLoadManager {
+
+    private final DBSDataManipulator.ExecuteBatch batch;
+    private final Map<String, Object> options;
+    private final int batchSize;
+    private int bufferedRows;
+
+    private BatchInsertBulkLoadManager(@NotNull DBSDataManipulator.ExecuteBatch batch, @NotNull Map<String, Object> options, int batchSize) {
+        this.batch = batch;
+        this.options = options;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @NotNull
+    public static BatchInsertBulkLoadManager create(
+        @NotNull DBCSession session,
+        @NotNull DBSDataContainer dataContainer,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource source,
+        int batchSize,
+        Map<String, Object> options) throws DBCException
+    {
+        if (!(dataContainer instanceof DBSDataManipulator manipulator)) {
+            throw new DBCException("Insert is not supported for " + DBUtils.getObjectFullName(dataContainer, DBPEvaluationContext.UI));
+        }
+        Map<String, Object> batchOptions = options == null ? new HashMap<>() : new HashMap<>(options);
+        return new BatchInsertBulkLoadManager(
+            manipulator.insertData(session, attributes, null, source, batchOptions),
+            batchOptions,
+            batchSize);
+    }
+
+    @Override
+    public void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException {
+        batch.add(attributeValues);
+        bufferedRows++;
+        if (bufferedRows >= batchSize) {
+            flushRows(session);
+        }
+    }
+
+    @Override
+    public void flushRows(@NotNull DBCSession session) throws DBCException {
+        if (bufferedRows == 0) {
+            return;
+        }
+        bufferedRows = 0;
+        batch.execute(session, options);
+    }
+
+    @Override
+    public void finishBulkLoad(@NotNull DBCSession session) throws DBCException {
+        flushRows(session);
+
+        DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
+        if (txnManager != null && !txnManager.isAutoCommit()) {
+            session.getProgressMonitor().subTask("Commit inserted rows");
+            txnManager.commit(session);
+        }
+    }
+
+    @Override
+    public void close() {
+        batch.close();
+    }
+}
@@ -30,6 +30,8 @@ import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.utils.CommonUtils;
 import org.jkiss.utils.IOUtils;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -122,6 +124,43 @@ public class RMUtils {
         return project;
     }
 
+    /**
+     * Opens script reader. Unlike {@link #readScriptContents} it doesn't load the whole script into memory
+     * (except scripts stored in the resource manager, which returns contents as a byte array).
+     */
+    @NotNull
+    public static Reader openScriptReader(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBPProject project,
+        @NotNull String filePath
+    ) throws DBException, IOException {
+        Path nioPath = DBFUtils.resolvePathFromString(monitor, project, filePath);
+        if (!IOUtils.isLocalPath(nioPath)) {
+            // Remote file
+            return Files.newBufferedReader(nioPath, StandardCharsets.UTF_8);
+        }
+
+        RMControllerProvider rmControllerProvider = DBUtils.getAdapter(RMControllerProvider.class, project);
+        if (rmControllerProvider != null) {
+            var rmController = rmControllerProvider.getResourceController();
+            return new InputStreamReader(
+                new ByteArrayInputStream(rmController.getResourceContents(project.getId(), filePath)), StandardCharsets.UTF_8);
+        }
+        var projectRootResource = project.getRootResource();
+        if (projectRootResource == null) {
+            throw new DBException("Root resource is not found in project " + project.getId());
+        }
+        var sqlFile = findEclipseProjectFile(project, filePath);
+        if (sqlFile == null) {
+            throw new DBException("File " + filePath + " is not found in project " + project.getId());
+        }
+        try {
+            return new BufferedReader(new InputStreamReader(sqlFile.getContents(true), sqlFile.getCharset()));
+        } catch (CoreException e) {
+            throw new IOException(e);
+        }
+    }
+
     public static String readScriptContents(
         @NotNull DBRProgressMonitor monitor,
         @NotNull DBPProject project,
@@ -530,4 +530,13 @@ public interface SQLDialect {
         return false;
     }
 
+    /**
+     * Maximum number of bind parameters in a single statement (limited by database protocol or driver).
+     * Used to limit multi-row insert size.
+     * @return max parameters count or 0 if there is no known limit
+     */
+    default int getMaxBindParameters() {
+        return 0;
+    }
+
 }
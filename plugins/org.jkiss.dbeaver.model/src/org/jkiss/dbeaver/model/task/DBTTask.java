@@ -75,4 +75,19 @@ public interface DBTTask extends DBPNamedObject, DBPObjectWithDescription {
     void cleanRunStatistics();
 
     void refreshRunStatistics();
+
+    /**
+     * Returns state saved by the previous unfinished run (e.g. checkpoints of an interrupted data transfer).
+     */
+    @Nullable
+    default Map<String, Object> loadRunState() {
+        return null;
+    }
+
+    /**
+     * Saves state which is needed to resume the task. Null state removes the saved one.
+     */
+    default void saveRunState(@Nullable Map<String, Object> state) {
+        // Not supported
+    }
 }
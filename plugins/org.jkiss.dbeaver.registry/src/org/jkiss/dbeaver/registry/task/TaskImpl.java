@@ -24,11 +24,13 @@ import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBPNamedObject2;
 import org.jkiss.dbeaver.model.app.DBPProject;
+import org.jkiss.dbeaver.model.data.json.JSONUtils;
 import org.jkiss.dbeaver.model.task.*;
 import org.jkiss.dbeaver.utils.GeneralUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -40,6 +42,7 @@ import java.util.stream.Collectors;
  */
 public class TaskImpl implements DBTTask, DBPNamedObject2 {
     public static String META_FILE_NAME = "meta.json";
+    public static String RUN_STATE_FILE_NAME = "runstate.json";
 
     private static final Log log = Log.getLog(TaskImpl.class);
     private static final int MAX_RUNS_IN_STATS = 100;
@@ -235,6 +238,37 @@ public class TaskImpl implements DBTTask, DBPNamedObject2 {
         runs = new ArrayList<>(loadRunStatistics());
     }
 
+    @Nullable
+    @Override
+    public Map<String, Object> loadRunState() {
+        Path stateFile = getTaskStatsFolder(false).resolve(RUN_STATE_FILE_NAME);
+        if (!Files.exists(stateFile)) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(stateFile)) {
+            return JSONUtils.parseMap(gson, reader);
+        } catch (Exception e) {
+            log.error("Error reading task run state", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void saveRunState(@Nullable Map<String, Object> state) {
+        Path stateFile = getTaskStatsFolder(state != null).resolve(RUN_STATE_FILE_NAME);
+        try {
+            if (state == null) {
+                Files.deleteIfExists(stateFile);
+            } else {
+                try (Writer writer = Files.newBufferedWriter(stateFile)) {
+                    writer.write(gson.toJson(state));
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error writing task run state", e);
+        }
+    }
+
     @Override
     public void setProperties(@NotNull Map<String, Object> properties) {
         this.properties = new LinkedHashMap<>(properties);
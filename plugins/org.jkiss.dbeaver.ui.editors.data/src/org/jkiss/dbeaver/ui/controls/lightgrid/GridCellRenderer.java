@@ -27,6 +27,9 @@ import org.jkiss.dbeaver.ui.UITextUtils;
 import org.jkiss.dbeaver.ui.UIUtils;
 import org.jkiss.utils.CommonUtils;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Grid cell renderer
  */
@@ -87,14 +90,45 @@ class GridCellRenderer extends AbstractRenderer {
         {"\u007F", "DEL"}
     };
 
+    // Maximum number of cached text extents. Enough for all visible cells of a wide result set.
+    private static final int TEXT_EXTENT_CACHE_SIZE = 20000;
+
+    private record TextExtentKey(Font font, String text) {
+    }
+
     protected Color colorLineFocused;
 
+    // Text measuring is expensive, and the same texts are measured on each repaint (e.g. on scroll)
+    private final Map<TextExtentKey, Point> textExtentCache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TextExtentKey, Point> eldest) {
+            return size() > TEXT_EXTENT_CACHE_SIZE;
+        }
+    };
+
     public GridCellRenderer(LightGrid grid)
     {
         super(grid);
         colorLineFocused = grid.getDisplay().getSystemColor(SWT.COLOR_LIST_FOREGROUND);
     }
 
+    /**
+     * Returns text extent in the current GC font. Returned point must not be modified.
+     */
+    Point getTextExtent(GC gc, String text) {
+        TextExtentKey key = new TextExtentKey(gc.getFont(), text);
+        Point extent = textExtentCache.get(key);
+        if (extent == null) {
+            extent = gc.textExtent(text);
+            textExtentCache.put(key, extent);
+        }
+        return extent;
+    }
+
+    void clearTextExtentCache() {
+        textExtentCache.clear();
+    }
+
     public void paint(GC gc, Rectangle bounds, boolean selected, boolean focus, IGridColumn col, IGridRow row)
     {
         boolean drawBackground = true;
@@ -170,7 +204,7 @@ class GridCellRenderer extends AbstractRenderer {
             switch (columnAlign) {
                 // Center
                 case IGridContentProvider.ALIGN_CENTER: {
-                    Point textSize = gc.textExtent(text);
+                    Point textSize = getTextExtent(gc, text);
                     gc.drawString(
                         text,
                         bounds.x + (bounds.width - textSize.x) / 2,
@@ -181,7 +215,7 @@ class GridCellRenderer extends AbstractRenderer {
                 }
                 case IGridContentProvider.ALIGN_RIGHT: {
                     // Right (numbers, datetimes)
-                    Point textSize = gc.textExtent(text);
+                    Point textSize = getTextExtent(gc, text);
                     int valueWidth = textSize.x + INSIDE_MARGIN;
                     if (imageBounds != null) {
                         valueWidth += imageBounds.width + INSIDE_MARGIN;
@@ -311,7 +311,7 @@ public class GridColumn implements IGridColumn {
             x += imageBounds.width + insideMargin;
         }
 
-        x += gc.textExtent(cellText).x + rightMargin;
+        x += grid.getCellRenderer().getTextExtent(gc, cellText).x + rightMargin;
         return x;
     }
 
@@ -0,0 +1,459 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.lightgrid;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Set of grid cells kept as disjoint rectangular ranges.
+ *
+ * Union, difference and size operations are proportional to the number of ranges, not to the number of cells.
+ * Cells are iterated lazily in {@link GridPos.PosComparator} order (first by rows then by columns).
+ */
+public class GridRangeSet implements Iterable<GridPos> {
+
+    private final List<GridRange> ranges = new ArrayList<>();
+
+    /**
+     * Rectangular range of cells. Bounds are inclusive.
+     */
+    public record GridRange(int firstCol, int lastCol, int firstRow, int lastRow) {
+
+        public long getCellCount() {
+            return (long) (lastCol - firstCol + 1) * (lastRow - firstRow + 1);
+        }
+
+        public boolean contains(int col, int row) {
+            return col >= firstCol && col <= lastCol && row >= firstRow && row <= lastRow;
+        }
+
+        boolean intersects(@NotNull GridRange range) {
+            return range.firstCol <= lastCol && range.lastCol >= firstCol && range.firstRow <= lastRow && range.lastRow >= firstRow;
+        }
+    }
+
+    public GridRangeSet() {
+    }
+
+    public GridRangeSet(@NotNull GridRangeSet source) {
+        ranges.addAll(source.ranges);
+    }
+
+    @NotNull
+    public List<GridRange> getRanges() {
+        return Collections.unmodifiableList(ranges);
+    }
+
+    public boolean isEmpty() {
+        return ranges.isEmpty();
+    }
+
+    public void clear() {
+        ranges.clear();
+    }
+
+    /**
+     * Replaces all ranges with ranges of the source set
+     */
+    public void set(@NotNull GridRangeSet source) {
+        if (source != this) {
+            ranges.clear();
+            ranges.addAll(source.ranges);
+        }
+    }
+
+    public long getCellCount() {
+        long count = 0;
+        for (GridRange range : ranges) {
+            count += range.getCellCount();
+        }
+        return count;
+    }
+
+    public boolean contains(int col, int row) {
+        for (GridRange range : ranges) {
+            if (range.contains(col, row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean contains(@NotNull GridPos pos) {
+        return contains(pos.col, pos.row);
+    }
+
+    public boolean containsAll(@NotNull GridRangeSet cells) {
+        for (GridRange range : cells.ranges) {
+            GridRangeSet rest = new GridRangeSet();
+            rest.ranges.add(range);
+            rest.removeAll(this);
+            if (!rest.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if both sets contain the same cells (ranges may differ)
+     */
+    public boolean isSameCells(@NotNull GridRangeSet cells) {
+        return getCellCount() == cells.getCellCount() && containsAll(cells);
+    }
+
+    public void add(int col, int row) {
+        add(col, col, row, row);
+    }
+
+    public void add(int firstCol, int lastCol, int firstRow, int lastRow) {
+        if (firstCol > lastCol || firstRow > lastRow) {
+            return;
+        }
+        remove(firstCol, lastCol, firstRow, lastRow);
+        GridRange newRange = new GridRange(firstCol, lastCol, firstRow, lastRow);
+        // Merge with adjacent ranges. It keeps ranges count small when cells are added one by one.
+        for (boolean merged = true; merged; ) {
+            merged = false;
+            for (Iterator<GridRange> iter = ranges.iterator(); iter.hasNext(); ) {
+                GridRange union = merge(newRange, iter.next());
+                if (union != null) {
+                    iter.remove();
+                    newRange = union;
+                    merged = true;
+                    break;
+                }
+            }
+        }
+        ranges.add(newRange);
+    }
+
+    public void addAll(@NotNull GridRangeSet cells) {
+        for (GridRange range : new ArrayList<>(cells.ranges)) {
+            add(range.firstCol, range.lastCol, range.firstRow, range.lastRow);
+        }
+    }
+
+    public void remove(int firstCol, int lastCol, int firstRow, int lastRow) {
+        if (firstCol > lastCol || firstRow > lastRow) {
+            return;
+        }
+        GridRange removed = new GridRange(firstCol, lastCol, firstRow, lastRow);
+        List<GridRange> pieces = null;
+        for (Iterator<GridRange> iter = ranges.iterator(); iter.hasNext(); ) {
+            GridRange range = iter.next();
+            if (!range.intersects(removed)) {
+                continue;
+            }
+            iter.remove();
+            if (pieces == null) {
+                pieces = new ArrayList<>();
+            }
+            if (range.firstRow < firstRow) {
+                pieces.add(new GridRange(range.firstCol, range.lastCol, range.firstRow, firstRow - 1));
+            }
+            if (range.lastRow > lastRow) {
+                pieces.add(new GridRange(range.firstCol, range.lastCol, lastRow + 1, range.lastRow));
+            }
+            int midFirstRow = Math.max(range.firstRow, firstRow);
+            int midLastRow = Math.min(range.lastRow, lastRow);
+            if (range.firstCol < firstCol) {
+                pieces.add(new GridRange(range.firstCol, firstCol - 1, midFirstRow, midLastRow));
+            }
+            if (range.lastCol > lastCol) {
+                pieces.add(new GridRange(lastCol + 1, range.lastCol, midFirstRow, midLastRow));
+            }
+        }
+        if (pieces != null) {
+            ranges.addAll(pieces);
+        }
+    }
+
+    public void removeAll(@NotNull GridRangeSet cells) {
+        for (GridRange range : new ArrayList<>(cells.ranges)) {
+            remove(range.firstCol, range.lastCol, range.firstRow, range.lastRow);
+        }
+    }
+
+    /**
+     * Returns the first cell in rows/columns order
+     */
+    @Nullable
+    public GridPos getFirstCell() {
+        GridRange first = null;
+        for (GridRange range : ranges) {
+            if (first == null || range.firstRow < first.firstRow || (range.firstRow == first.firstRow && range.firstCol < first.firstCol)) {
+                first = range;
+            }
+        }
+        return first == null ? null : new GridPos(first.firstCol, first.firstRow);
+    }
+
+    public boolean containsRow(int row) {
+        for (GridRange range : ranges) {
+            if (row >= range.firstRow && row <= range.lastRow) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns number of rows which contain selected cells
+     */
+    public int getRowCount() {
+        return getIntervalsLength(mergeIntervals(true));
+    }
+
+    /**
+     * Returns lazy ordered collection of rows which contain selected cells
+     */
+    @NotNull
+    public Collection<Integer> getRows() {
+        int[] intervals = mergeIntervals(true);
+        int count = getIntervalsLength(intervals);
+        return new AbstractCollection<>() {
+            @NotNull
+            @Override
+            public Iterator<Integer> iterator() {
+                return new Iterator<>() {
+                    private int interval;
+                    private int row = intervals.length > 0 ? intervals[0] : 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return interval < intervals.length;
+                    }
+
+                    @Override
+                    public Integer next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        int result = row;
+                        if (row < intervals[interval + 1]) {
+                            row++;
+                        } else {
+                            interval += 2;
+                            if (interval < intervals.length) {
+                                row = intervals[interval];
+                            }
+                        }
+                        return result;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Integer row && containsRow(row);
+            }
+        };
+    }
+
+    /**
+     * Returns ordered indexes of columns which contain selected cells
+     */
+    @NotNull
+    public int[] getColumns() {
+        int[] intervals = mergeIntervals(false);
+        int[] columns = new int[getIntervalsLength(intervals)];
+        int pos = 0;
+        for (int i = 0; i < intervals.length; i += 2) {
+            for (int col = intervals[i]; col <= intervals[i + 1]; col++) {
+                columns[pos++] = col;
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Lazy collection view of the set. Cells are created during iteration.
+     */
+    @NotNull
+    public Collection<GridPos> asCollection() {
+        return new AbstractCollection<>() {
+            @NotNull
+            @Override
+            public Iterator<GridPos> iterator() {
+                return GridRangeSet.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return (int) Math.min(Integer.MAX_VALUE, getCellCount());
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return GridRangeSet.this.isEmpty();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof GridPos pos && GridRangeSet.this.contains(pos);
+            }
+        };
+    }
+
+    /**
+     * Iterates over cells of ranges snapshot. Changes of the set do not affect running iterators.
+     */
+    @NotNull
+    @Override
+    public Iterator<GridPos> iterator() {
+        return new CellIterator(new ArrayList<>(ranges));
+    }
+
+    @Override
+    public String toString() {
+        return ranges.toString();
+    }
+
+    /**
+     * Returns sorted pairs of first/last indexes of merged row (or column) intervals
+     */
+    @NotNull
+    private int[] mergeIntervals(boolean rows) {
+        int[][] intervals = new int[ranges.size()][];
+        for (int i = 0; i < intervals.length; i++) {
+            GridRange range = ranges.get(i);
+            intervals[i] = rows ? new int[]{range.firstRow, range.lastRow} : new int[]{range.firstCol, range.lastCol};
+        }
+        Arrays.sort(intervals, Comparator.comparingInt(interval -> interval[0]));
+        int[] result = new int[intervals.length * 2];
+        int count = 0;
+        for (int[] interval : intervals) {
+            if (count > 0 && interval[0] <= result[count - 1] + 1) {
+                result[count - 1] = Math.max(result[count - 1], interval[1]);
+            } else {
+                result[count++] = interval[0];
+                result[count++] = interval[1];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int getIntervalsLength(@NotNull int[] intervals) {
+        int length = 0;
+        for (int i = 0; i < intervals.length; i += 2) {
+            length += intervals[i + 1] - intervals[i] + 1;
+        }
+        return length;
+    }
+
+    @Nullable
+    private static GridRange merge(@NotNull GridRange range1, @NotNull GridRange range2) {
+        if (range1.firstCol == range2.firstCol && range1.lastCol == range2.lastCol &&
+            (range1.lastRow + 1 == range2.firstRow || range2.lastRow + 1 == range1.firstRow))
+        {
+            return new GridRange(range1.firstCol, range1.lastCol, Math.min(range1.firstRow, range2.firstRow), Math.max(range1.lastRow, range2.lastRow));
+        }
+        if (range1.firstRow == range2.firstRow && range1.lastRow == range2.lastRow &&
+            (range1.lastCol + 1 == range2.firstCol || range2.lastCol + 1 == range1.firstCol))
+        {
+            return new GridRange(Math.min(range1.firstCol, range2.firstCol), Math.max(range1.lastCol, range2.lastCol), range1.firstRow, range1.lastRow);
+        }
+        return null;
+    }
+
+    /**
+     * Iterates rows bands. Each band is a sequence of rows covered by the same set of ranges.
+     */
+    private static class CellIterator implements Iterator<GridPos> {
+        private final List<GridRange> ranges;
+        private final int[] bounds;
+        private int band = -1;
+        private int bandLastRow;
+        // Pairs of first/last columns of the current band
+        private int[] columns;
+        private int interval;
+        private int row;
+        private int col;
+        private boolean hasNext;
+
+        CellIterator(@NotNull List<GridRange> ranges) {
+            this.ranges = ranges;
+            this.bounds = ranges.stream()
+                .flatMapToInt(range -> IntStream.of(range.firstRow, range.lastRow + 1))
+                .sorted()
+                .distinct()
+                .toArray();
+            this.hasNext = nextBand();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public GridPos next() {
+            if (!hasNext) {
+                throw new NoSuchElementException();
+            }
+            GridPos pos = new GridPos(col, row);
+            if (col < columns[interval + 1]) {
+                col++;
+            } else if (interval + 2 < columns.length) {
+                interval += 2;
+                col = columns[interval];
+            } else if (row < bandLastRow) {
+                row++;
+                interval = 0;
+                col = columns[0];
+            } else {
+                hasNext = nextBand();
+            }
+            return pos;
+        }
+
+        private boolean nextBand() {
+            while (++band < bounds.length - 1) {
+                row = bounds[band];
+                bandLastRow = bounds[band + 1] - 1;
+                List<GridRange> bandRanges = new ArrayList<>();
+                for (GridRange range : ranges) {
+                    if (row >= range.firstRow && row <= range.lastRow) {
+                        bandRanges.add(range);
+                    }
+                }
+                if (!bandRanges.isEmpty()) {
+                    bandRanges.sort(Comparator.comparingInt(GridRange::firstCol));
+                    columns = new int[bandRanges.size() * 2];
+                    for (int i = 0; i < bandRanges.size(); i++) {
+                        columns[i * 2] = bandRanges.get(i).firstCol;
+                        columns[i * 2 + 1] = bandRanges.get(i).lastCol;
+                    }
+                    interval = 0;
+                    col = columns[0];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -35,7 +35,6 @@ import org.jkiss.dbeaver.ui.editors.data.internal.DataEditorsMessages;
 import org.jkiss.dbeaver.utils.RuntimeUtils;
 import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
-import org.jkiss.utils.IntKeyMap;
 
 import java.util.List;
 import java.util.*;
@@ -190,10 +189,9 @@ public abstract class LightGrid extends Canvas {
      */
     private int focusItem = -1;
 
-    private final Set<GridPos> selectedCells = new TreeSet<>(new GridPos.PosComparator());
-    private final List<GridPos> selectedCellsBeforeRangeSelect = new ArrayList<>();
+    private final GridRangeSet selectedCells = new GridRangeSet();
+    private final GridRangeSet selectedCellsBeforeRangeSelect = new GridRangeSet();
     private final List<GridColumn> selectedColumns = new ArrayList<>();
-    private final IntKeyMap<Boolean> selectedRows = new IntKeyMap<>();
 
     private boolean cellDragSelectionOccurring = false;
     private boolean cellRowDragSelectionOccurring = false;
@@ -351,6 +349,13 @@ public abstract class LightGrid extends Canvas {
      * @see #topIndex
      */
     private int bottomIndex = -1;
+    /**
+     * Scroll position of the content currently shown on the screen (including pending damage).
+     * Used to move the already painted area on scroll instead of repainting all visible cells.
+     * A value of -1 means that the position is unknown and the whole area must be repainted.
+     */
+    private int paintedTopIndex = -1;
+    private int paintedHScrollInPixels;
 
     /**
      * True if the last visible item is completely visible.  The value must never be read directly.  It is cached and
@@ -807,6 +812,15 @@ public abstract class LightGrid extends Canvas {
         return gridRows[row];
     }
 
+    /**
+     * Returns all grid rows. The array is replaced on changes and never modified,
+     * so it may be read outside the UI thread.
+     */
+    @NotNull
+    public IGridRow[] getGridRows() {
+        return gridRows;
+    }
+
     @Nullable
     public Object getRowElement(int row) {
         final IGridRow object = getRow(row);
@@ -1231,7 +1245,7 @@ public abstract class LightGrid extends Canvas {
      */
     private int getCellSelectionCount()
     {
-        return selectedCells.size();
+        return (int) Math.min(Integer.MAX_VALUE, selectedCells.getCellCount());
     }
 
     /**
@@ -1243,10 +1257,8 @@ public abstract class LightGrid extends Canvas {
      */
     public int getSelectionIndex()
     {
-        if (selectedCells.isEmpty())
-            return -1;
-
-        return selectedCells.iterator().next().row;
+        GridPos firstCell = selectedCells.getFirstCell();
+        return firstCell == null ? -1 : firstCell.row;
     }
 
     /**
@@ -1585,16 +1597,9 @@ public abstract class LightGrid extends Canvas {
 
         if (selectionType == SWT.SINGLE && start != end) return;
 
-        for (int i = start; i <= end; i++) {
-            if (i < 0) {
-                continue;
-            }
-            if (i > getItemCount() - 1) {
-                break;
-            }
-
-            selectCells(getCells(i));
-        }
+        GridRangeSet cells = new GridRangeSet();
+        getCells(Math.max(start, 0), Math.min(end, getItemCount() - 1), cells);
+        selectCells(cells);
 
         redraw();
     }
@@ -1734,16 +1739,9 @@ public abstract class LightGrid extends Canvas {
 
         selectedCells.clear();
 
-        for (int i = start; i <= end; i++) {
-            if (i < 0) {
-                continue;
-            }
-            if (i > getItemCount() - 1) {
-                break;
-            }
-
-            selectCells(getCells(i));
-        }
+        GridRangeSet cells = new GridRangeSet();
+        getCells(Math.max(start, 0), Math.min(end, getItemCount() - 1), cells);
+        selectCells(cells);
         redraw();
     }
 
@@ -1976,9 +1974,9 @@ public abstract class LightGrid extends Canvas {
         if (scrollValuesObsolete)
             updateScrollbars();
 
-        if (selectedCells.isEmpty()) return;
+        GridPos cell = selectedCells.getFirstCell();
+        if (cell == null) return;
 
-        GridPos cell = selectedCells.iterator().next();
         showItem(cell.row);
         showColumn(cell.col);
     }
@@ -2318,6 +2316,11 @@ public abstract class LightGrid extends Canvas {
         return availableHeight / itemHeight + 1;
     }
 
+    @NotNull
+    GridCellRenderer getCellRenderer() {
+        return cellRenderer;
+    }
+
     private int getPinnedColumnsWidth() {
         int x = 0;
         for (int k = 0; k < columns.size(); k++) {
@@ -2347,10 +2350,19 @@ public abstract class LightGrid extends Canvas {
             scrollValuesObsolete = false;
         }
 
+        paintedTopIndex = getTopIndex();
+        paintedHScrollInPixels = getHScrollSelectionInPixels();
+
+        // Damaged area. After scroll it contains only newly exposed rows or columns.
+        final int damageTop = e.y;
+        final int damageBottom = e.y + e.height;
+
         int y = 0;
 
         if (columnHeadersVisible) {
-            paintHeader(gc);
+            if (damageTop < headerHeight) {
+                paintHeader(gc);
+            }
             y += headerHeight;
         }
 
@@ -2373,9 +2385,18 @@ public abstract class LightGrid extends Canvas {
         final GridPos testPos = new GridPos(-1, -1);
         final Rectangle cellBounds = new Rectangle(0, 0, 0, 0);
         int pinnedColumnsWidth = getPinnedColumnsWidth();
+        final int damageLeft = Math.max(0, e.x);
+        final int damageRight = Math.min(clientArea.width, e.x + e.width);
 
         for (int i = 0; i < visibleRows; i++) {
 
+            if (y + itemHeight < damageTop || y > damageBottom) {
+                // Row is outside of the damaged area. Skip it to avoid cell text formatting.
+                y += itemHeight + 1;
+                row++;
+                continue;
+            }
+
             int x = 0;
 
             x -= hScrollSelectionInPixels;
@@ -2383,7 +2404,7 @@ public abstract class LightGrid extends Canvas {
             // get the item to draw
             if (row >= 0 && row < getItemCount()) {
 
-                boolean cellInRowSelected = selectedRows.containsKey(row);
+                boolean cellInRowSelected = selectedCells.containsRow(row);
 
                 if (rowHeaderVisible) {
                     // row header is actually painted later
@@ -2400,7 +2421,7 @@ public abstract class LightGrid extends Canvas {
 
                     int width = column.getWidth();
 
-                    if (x + width >= 0 && x < clientArea.width) {
+                    if (x + width >= damageLeft && x < damageRight) {
 
                         cellBounds.x = x;
                         cellBounds.y = y;
@@ -2803,7 +2824,9 @@ public abstract class LightGrid extends Canvas {
             boolean reverseDuplicateSelections,
             EventSource eventSource)
     {
-        return updateCellSelection(Collections.singletonList(newCell), stateMask, dragging, reverseDuplicateSelections, eventSource);
+        GridRangeSet newCells = new GridRangeSet();
+        newCells.add(newCell.col, newCell.row);
+        return updateCellSelection(newCells, stateMask, dragging, reverseDuplicateSelections, eventSource);
     }
 
     /**
@@ -2817,7 +2840,7 @@ public abstract class LightGrid extends Canvas {
      */
     @Nullable
     private Event updateCellSelection(
-        @NotNull List<GridPos> newCells,
+        @NotNull GridRangeSet newCells,
         int stateMask,
         boolean dragging,
         boolean reverseDuplicateSelections,
@@ -2846,24 +2869,22 @@ public abstract class LightGrid extends Canvas {
             shiftSelectionAnchorItem = -1;
         }
 
-        List<GridPos> oldSelection = null;
+        GridRangeSet oldSelection = null;
         if (!shift && !ctrl) {
-            if (newCells.size() == 1 &&
-                newCells.size() == selectedCells.size() &&
-                newCells.get(0).equals(selectedCells.iterator().next()))
-            {
+            if (newCells.getCellCount() == 1 && selectedCells.isSameCells(newCells)) {
                 return null;
             }
 
             selectedCells.clear();
-            for (GridPos newCell : newCells) {
-                addToCellSelection(newCell);
-            }
+            addToCellSelection(newCells);
 
         } else if (shift) {
 
-            GridPos newCell = newCells.get(0); //shift selection should only occur with one cell, ignoring others
-            oldSelection = new ArrayList<>(selectedCells);
+            GridPos newCell = newCells.getFirstCell(); //shift selection should only occur with one cell, ignoring others
+            if (newCell == null) {
+                return null;
+            }
+            oldSelection = new GridRangeSet(selectedCells);
 
             if ((focusColumn == null) || (focusItem < 0)) {
                 return null;
@@ -2873,71 +2894,17 @@ public abstract class LightGrid extends Canvas {
             shiftSelectionAnchorItem = newCell.row;
 
             if (ctrl) {
-                selectedCells.clear();
-                selectedCells.addAll(selectedCellsBeforeRangeSelect);
+                selectedCells.set(selectedCellsBeforeRangeSelect);
             } else {
                 selectedCells.clear();
             }
 
-
-            GridColumn currentColumn = focusColumn;
-            int currentItem = focusItem;
-
-            GridColumn endColumn = getColumn(newCell.col);
-            int endItem = newCell.row;
-
-            Point newRange = getSelectionRange(currentItem, currentColumn, endItem, endColumn);
-
-            currentColumn = getColumn(newRange.x);
-            endColumn = getColumn(newRange.y);
-
-            GridColumn startCol = currentColumn;
-
-            if (currentItem > endItem) {
-                int temp = currentItem;
-                currentItem = endItem;
-                endItem = temp;
-            }
-
-            boolean firstLoop = true;
-            do {
-                if (!firstLoop) {
-                    currentItem++;
-                }
-
-                firstLoop = false;
-
-                boolean firstLoop2 = true;
-
-                currentColumn = startCol;
-
-                do {
-                    if (!firstLoop2) {
-                        int index = indexOf(currentColumn) + 1;
-
-                        if (index < columns.size()) {
-                            currentColumn = columns.get(index);
-                        } else {
-                            currentColumn = null;
-                        }
-
-                        if (currentColumn != null)
-                            if (indexOf(currentColumn) > indexOf(endColumn))
-                                currentColumn = null;
-                    }
-
-                    firstLoop2 = false;
-
-                    if (currentColumn != null) {
-                        GridPos cell = new GridPos(indexOf(currentColumn), currentItem);
-                        addToCellSelection(cell);
-                    }
-                } while (currentColumn != endColumn && currentColumn != null);
-            } while (currentItem != endItem);
-
-            if (selectedCells.equals(newCells)) {
-                return null;
-            }
+            Point newRange = getSelectionRange(focusItem, focusColumn, newCell.row, getColumn(newCell.col));
+            addToCellSelection(
+                newRange.x,
+                newRange.y,
+                Math.min(focusItem, newCell.row),
+                Math.max(focusItem, newCell.row));
 
         } else /*if (eventSource == EventSource.MOUSE)*/ {
             // Ctrl selection works only for mouse events
@@ -2947,35 +2914,24 @@ public abstract class LightGrid extends Canvas {
                 reverse = false;
 
             if (dragging) {
-                selectedCells.clear();
-                selectedCells.addAll(selectedCellsBeforeRangeSelect);
+                selectedCells.set(selectedCellsBeforeRangeSelect);
             }
 
-            if (reverse) {
-                if (alt && newCells.size() == 1) {
-                    // Alt pressed - deselect all cells selected in other rows (#6613)
-                    int row = newCells.get(0).row;
-                    newCells = new ArrayList<>();
-                    for (GridColumn col : selectedColumns) {
-                        newCells.add(new GridPos(col.getIndex(), row));
-                    }
+            if (alt && newCells.getCellCount() == 1) {
+                // Alt pressed - select (or deselect) all cells selected in other rows (#5988, #6613)
+                int row = newCells.getFirstCell().row;
+                newCells = new GridRangeSet();
+                for (GridColumn col : selectedColumns) {
+                    newCells.add(col.getIndex(), row);
                 }
+            }
+            if (reverse) {
                 selectedCells.removeAll(newCells);
             } else {
-                if (alt && newCells.size() == 1) {
-                    // Alt pressed - select all cells selected in other rows (#5988)
-                    int row = newCells.get(0).row;
-                    newCells = new ArrayList<>();
-                    for (GridColumn col : selectedColumns) {
-                        newCells.add(new GridPos(col.getIndex(), row));
-                    }
-                }
-                for (GridPos newCell : newCells) {
-                    addToCellSelection(newCell);
-                }
+                addToCellSelection(newCells);
             }
         }
-        if (oldSelection != null && oldSelection.size() == selectedCells.size() && selectedCells.containsAll(oldSelection)) {
+        if (oldSelection != null && oldSelection.isSameCells(selectedCells)) {
             return null;
         }
 
@@ -2993,34 +2949,30 @@ public abstract class LightGrid extends Canvas {
         return e;
     }
 
-    private boolean addToCellSelection(GridPos newCell)
+    private void addToCellSelection(GridPos newCell)
     {
-        if (newCell.col < 0 || newCell.col >= columns.size())
-            return false;
+        addToCellSelection(newCell.col, newCell.col, newCell.row, newCell.row);
+    }
 
-//        if (newCell.row < 0 || newCell.row >= getItemCount()) {
-//            return false;
-//        }
+    private void addToCellSelection(GridRangeSet cells)
+    {
+        for (GridRangeSet.GridRange range : cells.getRanges()) {
+            addToCellSelection(range.firstCol(), range.lastCol(), range.firstRow(), range.lastRow());
+        }
+    }
 
-        return selectedCells.add(newCell);
+    private void addToCellSelection(int firstCol, int lastCol, int firstRow, int lastRow)
+    {
+        // Ignore cells out of columns range
+        selectedCells.add(Math.max(firstCol, 0), Math.min(lastCol, columns.size() - 1), firstRow, lastRow);
     }
 
     private void updateSelectionCache()
     {
         //Update the list of which columns have all their cells selected
         selectedColumns.clear();
-        selectedRows.clear();
 
-        IntKeyMap<Boolean> columnIndices = new IntKeyMap<>();
-        for (GridPos cell : selectedCells) {
-            if (cell.col >= 0) {
-                columnIndices.put(cell.col, Boolean.TRUE);
-            }
-            if (cell.row >= 0) {
-                selectedRows.put(cell.row, Boolean.TRUE);
-            }
-        }
-        for (Integer columnIndex : columnIndices.keySet()) {
+        for (int columnIndex : selectedCells.getColumns()) {
             selectedColumns.add(columns.get(columnIndex));
         }
         selectedColumns.sort(Comparator.comparingInt(GridColumn::getIndex));
@@ -3229,7 +3181,7 @@ public abstract class LightGrid extends Canvas {
                     }
                 }
             } else if (hoveringOnRowHeader && hoveringRow != null) {
-                if (e.button == 1 && selectedRows.containsKey(hoveringRow) && dragDetect(e)) {
+                if (e.button == 1 && selectedCells.containsRow(hoveringRow) && dragDetect(e)) {
                     rowHeaderDragStarted = true;
                     return;
                 }
@@ -3243,7 +3195,7 @@ public abstract class LightGrid extends Canvas {
             col = getColumn(point);
             boolean isSelectedCell = false;
             if (col != null && !getContentProvider().isVoidCell(col, gridRows[row])) {
-                isSelectedCell = selectedCells.contains(new GridPos(col.getIndex(), row));
+                isSelectedCell = selectedCells.contains(col.getIndex(), row);
             }
 
             if (col == null && rowHeaderVisible && e.x <= rowHeaderWidth) {
@@ -3264,7 +3216,7 @@ public abstract class LightGrid extends Canvas {
                         }
                     }
                 }
-                List<GridPos> cells = new ArrayList<>();
+                GridRangeSet cells = new GridRangeSet();
 
                 if (e.button == 1) {
                     if (shift) {
@@ -3334,7 +3286,7 @@ public abstract class LightGrid extends Canvas {
             }
 
             if (e.button == 1) {
-                List<GridPos> cells = new ArrayList<>();
+                GridRangeSet cells = new GridRangeSet();
                 getCells(col, cells);
                 selectionEvent = updateCellSelection(cells, e.stateMask, false, true, EventSource.MOUSE);
             }
@@ -3466,7 +3418,7 @@ public abstract class LightGrid extends Canvas {
         if (focusItem > row) {
             focusItem = row;
         }
-        selectedCells.removeIf(pos -> pos.row > row);
+        selectedCells.remove(0, columns.size() - 1, row + 1, getItemCount() - 1);
         updateSelectionCache();
         computeHeaderSizes();
         this.scrollValuesObsolete = true;
@@ -3632,8 +3584,7 @@ public abstract class LightGrid extends Canvas {
                     setCursor(getDisplay().getSystemCursor(SWT.CURSOR_CROSS));
                     cellDragCTRL = ((e.stateMask & SWT.MOD1) != 0);
                     if (cellDragCTRL) {
-                        selectedCellsBeforeRangeSelect.clear();
-                        selectedCellsBeforeRangeSelect.addAll(selectedCells);
+                        selectedCellsBeforeRangeSelect.set(selectedCells);
                     }
                 }
                 if (!cellRowDragSelectionOccurring && cellRowSelectedOnLastMouseDown) {
@@ -3641,8 +3592,7 @@ public abstract class LightGrid extends Canvas {
                     setCursor(getDisplay().getSystemCursor(SWT.CURSOR_CROSS));
                     cellDragCTRL = ((e.stateMask & SWT.MOD1) != 0);
                     if (cellDragCTRL) {
-                        selectedCellsBeforeRangeSelect.clear();
-                        selectedCellsBeforeRangeSelect.addAll(selectedCells);
+                        selectedCellsBeforeRangeSelect.set(selectedCells);
                     }
                 }
 
@@ -3651,8 +3601,7 @@ public abstract class LightGrid extends Canvas {
                     setCursor(getDisplay().getSystemCursor(SWT.CURSOR_CROSS));
                     cellDragCTRL = ((e.stateMask & SWT.MOD1) != 0);
                     if (cellDragCTRL) {
-                        selectedCellsBeforeRangeSelect.clear();
-                        selectedCellsBeforeRangeSelect.addAll(selectedCells);
+                        selectedCellsBeforeRangeSelect.set(selectedCells);
                     }
                 }
 
@@ -3702,7 +3651,7 @@ public abstract class LightGrid extends Canvas {
                         }
                     }
 
-                    List<GridPos> cells = new ArrayList<>();
+                    GridRangeSet cells = new GridRangeSet();
 
                     getCells(intentItem, focusItem, cells);
 
@@ -3712,7 +3661,7 @@ public abstract class LightGrid extends Canvas {
                 final GridColumn prevHoveringColumn = hoveringColumn;
                 if (cellColumnDragSelectionOccurring && handleCellHover(e.x, e.y)) {
                     boolean dragging;
-                    List<GridPos> newSelected = new ArrayList<>();
+                    GridRangeSet newSelected = new GridRangeSet();
 
                     GridColumn iterCol = hoveringColumn;
                     if (iterCol != null) {
@@ -4096,7 +4045,60 @@ public abstract class LightGrid extends Canvas {
         bottomIndex = -1;
         refreshHoverState();
         final Rectangle clientArea = getClientArea();
-        redraw(clientArea.x, clientArea.y, clientArea.width, clientArea.height, false);
+        if (!scrollPaintedArea(clientArea)) {
+            redraw(clientArea.x, clientArea.y, clientArea.width, clientArea.height, false);
+        }
+    }
+
+    /**
+     * Moves the already painted area by the scroll offset. Only newly exposed rows (or columns) are repainted then.
+     * Diagonal scroll and scroll by more than a page are not handled.
+     *
+     * @return false if the whole client area must be repainted
+     */
+    private boolean scrollPaintedArea(@NotNull Rectangle clientArea)
+    {
+        final int oldTopIndex = paintedTopIndex;
+        final int oldHScroll = paintedHScrollInPixels;
+        paintedTopIndex = getTopIndex();
+        paintedHScrollInPixels = getHScrollSelectionInPixels();
+        if (oldTopIndex < 0 || clientArea.isEmpty()) {
+            return false;
+        }
+        final int deltaY = (oldTopIndex - paintedTopIndex) * (getItemHeight() + 1);
+        final int deltaX = oldHScroll - paintedHScrollInPixels;
+        if ((deltaX == 0) == (deltaY == 0)) {
+            // Nothing has changed or both directions were scrolled
+            return false;
+        }
+        if (deltaY != 0) {
+            final int top = clientArea.y + (columnHeadersVisible ? headerHeight : 0);
+            final int height = clientArea.y + clientArea.height - top;
+            final int shift = Math.abs(deltaY);
+            if (shift >= height) {
+                return false;
+            }
+            if (deltaY > 0) {
+                scroll(clientArea.x, top + shift, clientArea.x, top, clientArea.width, height - shift, false);
+            } else {
+                scroll(clientArea.x, top, clientArea.x, top + shift, clientArea.width, height - shift, false);
+            }
+        } else {
+            final int left = clientArea.x + (rowHeaderVisible ? rowHeaderWidth : 0) + getPinnedColumnsWidth();
+            final int width = clientArea.x + clientArea.width - left;
+            final int shift = Math.abs(deltaX);
+            if (shift >= width) {
+                return false;
+            }
+            if (deltaX > 0) {
+                scroll(left + shift, clientArea.y, left, clientArea.y, width - shift, clientArea.height, false);
+            } else {
+                scroll(left, clientArea.y, left + shift, clientArea.y, width - shift, clientArea.height, false);
+            }
+            // Column separator line at the left edge belongs to the fixed area
+            redraw(left - 1, clientArea.y, 2, clientArea.height, false);
+        }
+        return true;
     }
 
     /**
@@ -4429,6 +4431,19 @@ public abstract class LightGrid extends Canvas {
         redraw();
     }
 
+    /**
+     * Selects the given cell ranges. Cells out of columns range are ignored.
+     */
+    public void selectCells(@NotNull GridRangeSet cells)
+    {
+        checkWidget();
+
+        addToCellSelection(cells);
+
+        updateSelectionCache();
+        redraw();
+    }
+
     /**
      * Selects all cells in the receiver.
      */
@@ -4458,7 +4473,7 @@ public abstract class LightGrid extends Canvas {
         focusColumn = columns.get(0);
         focusItem = 0;
 
-        List<GridPos> cells = getAllCells();
+        GridRangeSet cells = getAllCells();
         Event selectionEvent = updateCellSelection(cells, stateMask, false, true, EventSource.KEYBOARD);
 
         focusColumn = oldFocusColumn;
@@ -4507,25 +4522,72 @@ public abstract class LightGrid extends Canvas {
         if (isDisposed()) {
             return Collections.emptyList();
         }
-        return Collections.unmodifiableCollection(selectedCells);
+        return selectedCells.asCollection();
     }
 
-    public List<GridCell> getCellSelection()
+    /**
+     * Returns selected cell ranges. Doesn't materialize cells, so it is cheap even for huge selections.
+     */
+    @NotNull
+    public GridRangeSet getSelectionRanges()
+    {
+        return isDisposed() ? new GridRangeSet() : new GridRangeSet(selectedCells);
+    }
+
+    /**
+     * Returns selected cells. Cells are created lazily during iteration.
+     */
+    @NotNull
+    public Collection<GridCell> getCellSelection()
     {
         if (isDisposed() || selectedCells.isEmpty()) {
             return Collections.emptyList();
         }
-        List<GridCell> cells = new ArrayList<>(selectedCells.size());
-        for (GridPos pos : selectedCells) {
-        	GridCell cell = posToCell(pos);
-        	if (cell != null)
-        		cells.add(cell);
-        }
-        return cells;
+        Collection<GridPos> positions = selectedCells.asCollection();
+        return new AbstractCollection<>() {
+            @NotNull
+            @Override
+            public Iterator<GridCell> iterator() {
+                Iterator<GridPos> posIterator = positions.iterator();
+                return new Iterator<>() {
+                    private GridCell nextCell = findNext();
+
+                    private GridCell findNext() {
+                        while (posIterator.hasNext()) {
+                            GridCell cell = posToCell(posIterator.next());
+                            if (cell != null) {
+                                return cell;
+                            }
+                        }
+                        return null;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return nextCell != null;
+                    }
+
+                    @Override
+                    public GridCell next() {
+                        if (nextCell == null) {
+                            throw new NoSuchElementException();
+                        }
+                        GridCell cell = nextCell;
+                        nextCell = findNext();
+                        return cell;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return positions.size();
+            }
+        };
     }
 
     public int getCellSelectionSize() {
-        return selectedCells.size();
+        return getCellSelectionCount();
     }
 
     @NotNull
@@ -4545,88 +4607,61 @@ public abstract class LightGrid extends Canvas {
     }
 
     public boolean isRowSelected(int row) {
-        return selectedRows.containsKey(row);
+        return selectedCells.containsRow(row);
     }
 
     /**
      * Returns selected rows indexes
-     * @return indexes of selected rows
+     * @return indexes of selected rows (in ascending order)
      */
     public Collection<Integer> getRowSelection()
     {
-        return Collections.unmodifiableCollection(selectedRows.keySet());
+        return selectedCells.getRows();
     }
 
     public int getRowSelectionSize() {
-        return selectedRows.size();
+        return selectedCells.getRowCount();
     }
 
-    private void getCells(GridColumn col, List<GridPos> cells)
+    private void getCells(GridColumn col, GridRangeSet cells)
     {
+        int lastRow = getItemCount() - 1;
         if (col.getChildren() != null) {
             // Get cells for all leafs
             for (int i = 0; i < columns.size(); i++) {
                 if (columns.get(i).isParent(col)) {
-                    for (int k = 0; k < getItemCount(); k++) {
-                        cells.add(new GridPos(i, k));
-                    }
+                    cells.add(i, i, 0, lastRow);
                 }
             }
         } else {
             int colIndex = col.getIndex();
-
-            for (int i = 0; i < getItemCount(); i++) {
-                cells.add(new GridPos(colIndex, i));
-            }
+            cells.add(colIndex, colIndex, 0, lastRow);
         }
     }
 
-    private void getCells(int row, List<GridPos> cells)
+    private void getCells(int row, GridRangeSet cells)
     {
-        for (int i = 0; i < columns.size(); i++) {
-            cells.add(new GridPos(i, row));
-        }
+        cells.add(0, columns.size() - 1, row, row);
     }
 
-    private List<GridPos> getAllCells()
+    private GridRangeSet getAllCells()
     {
-        int itemCount = getItemCount();
-        int columnCount = columns.size();
-        List<GridPos> cells = new ArrayList<>(itemCount * columnCount);
-
-        for (int i = 0; i < itemCount; i++) {
-            for (int k = 0; k < columnCount; k++) {
-                cells.add(new GridPos(k, i));
-            }
-        }
+        GridRangeSet cells = new GridRangeSet();
+        cells.add(0, columns.size() - 1, 0, getItemCount() - 1);
         return cells;
     }
 
-    private List<GridPos> getCells(int row)
+    private GridRangeSet getCells(int row)
     {
-        List<GridPos> cells = new ArrayList<>();
+        GridRangeSet cells = new GridRangeSet();
         getCells(row, cells);
         return cells;
     }
 
 
-    private void getCells(int startRow, int endRow, List<GridPos> cells)
+    private void getCells(int startRow, int endRow, GridRangeSet cells)
     {
-        boolean descending = (startRow < endRow);
-
-        int iterItem = endRow;
-
-        do {
-            getCells(iterItem, cells);
-
-            if (iterItem == startRow) break;
-
-            if (descending) {
-                iterItem--;
-            } else {
-                iterItem++;
-            }
-        } while (true);
+        cells.add(0, columns.size() - 1, Math.min(startRow, endRow), Math.max(startRow, endRow));
     }
 
     /**
@@ -4641,36 +4676,13 @@ public abstract class LightGrid extends Canvas {
             toColumn = temp;
         }
 
-        if (fromItem > toItem) {
-            int temp = fromItem;
-            fromItem = toItem;
-            toItem = temp;
-        }
+        // Column spanning doesn't depend on rows, so there is no need to check each row in range
+        Point cols = getRowSelectionRange(fromColumn, toColumn);
 
-        boolean firstTime = true;
-        int iterItem = fromItem;
-
-        int fromIndex = fromColumn.getIndex();
-        int toIndex = toColumn.getIndex();
-
-        do {
-            if (!firstTime) {
-                iterItem++;
-            } else {
-                firstTime = false;
-            }
-
-            Point cols = getRowSelectionRange(fromColumn, toColumn);
-
-            //check and see if column spanning means that the range increased
-            if (cols.x != fromIndex || cols.y != toIndex) {
-                GridColumn newFrom = getColumn(cols.x);
-                GridColumn newTo = getColumn(cols.y);
-
-                //Unfortunately we have to start all over again from the top with the new range
-                return getSelectionRange(fromItem, newFrom, toItem, newTo);
-            }
-        } while (iterItem != toItem);
+        //check and see if column spanning means that the range increased
+        if (cols.x != fromColumn.getIndex() || cols.y != toColumn.getIndex()) {
+            return getSelectionRange(fromItem, getColumn(cols.x), toItem, getColumn(cols.y));
+        }
 
         return new Point(fromColumn.getIndex(), toColumn.getIndex());
     }
@@ -4717,6 +4729,7 @@ public abstract class LightGrid extends Canvas {
         sizingGC.dispose();
 
         normalFont = font;
+        cellRenderer.clearTextExtentCache();
         UIUtils.dispose(boldFont);
         UIUtils.dispose(italicFont);
         boldFont = UIUtils.makeBoldFont(normalFont);
@@ -4988,7 +5001,7 @@ public abstract class LightGrid extends Canvas {
                         if (isDragSingleRow()) {
                             elements.add(getRowElement(draggingRow));
                         } else {
-                            for (Integer row : selectedRows.keySet()) {
+                            for (Integer row : selectedCells.getRows()) {
                                 elements.add(getRowElement(row));
                             }
                         }
@@ -4998,7 +5011,7 @@ public abstract class LightGrid extends Canvas {
                         if (columns.isEmpty()) {
                             columns = LightGrid.this.columns;
                         }
-                        Set<Integer> rows = selectedRows.keySet();
+                        Collection<Integer> rows = selectedCells.getRows();
                         if (rows.isEmpty()) {
                             rows = Collections.singleton(draggingRow);
                         }
@@ -5129,7 +5142,7 @@ public abstract class LightGrid extends Canvas {
     }
 
     private boolean isDragSingleRow() {
-        return draggingRow != null && !selectedRows.containsKey(draggingRow);
+        return draggingRow != null && !selectedCells.containsRow(draggingRow);
     }
 
     public final static class GridColumnTransfer extends LocalObjectTransfer<List<Object>> {
@@ -138,6 +138,14 @@ public interface IResultSetController extends IDataController, DBPContextProvide
      */
     void readNextSegment();
 
+    /**
+     * Reads next segment of data in advance, before the user scrolls to the last row.
+     * Progress is not shown over the data.
+     */
+    default void readNextSegmentAhead() {
+        readNextSegment();
+    }
+
     /**
      * Reads all rows from data container.
      * Note: in case of huge resultset this function may eventually throw {@link java.lang.OutOfMemoryError}
@@ -0,0 +1,43 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+/**
+ * Storage of fetched row values which are not kept in rows themselves
+ */
+interface IResultSetRowStore {
+
+    int getColumnCount();
+
+    @Nullable
+    Object getValue(int row, int column);
+
+    /**
+     * Returns new array with values of the row
+     */
+    @NotNull
+    Object[] getRowValues(int row);
+
+    /**
+     * Returns true if column values are plain (numbers, strings, etc.) and do not need to be released
+     */
+    boolean isCompactColumn(int column);
+
+}
@@ -0,0 +1,401 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.util.*;
+
+/**
+ * Column-oriented storage of fetched rows.
+ *
+ * Integer and floating point columns are kept in primitive arrays (with a bit set of nulls),
+ * strings are dictionary-encoded. A column falls back to a plain object array if its values have different types
+ * or if most of its strings are unique. Boxed values are created on demand, the store itself keeps no per-row objects.
+ * Store is append-only, rows which are changed copy their values (see {@link ResultSetRow}).
+ */
+public class ResultSetColumnStore implements IResultSetRowStore {
+
+    private static final int INITIAL_CAPACITY = 256;
+    // Dictionary is dropped when there are more unique strings than this and more than a half of values are unique
+    private static final int MAX_DICTIONARY_SIZE = 1000;
+
+    private final Column[] columns;
+    private int rowCount;
+    private int capacity;
+
+    public ResultSetColumnStore(int columnCount) {
+        this.columns = new Column[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columns[i] = new NullColumn();
+        }
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public void addRow(@NotNull Object[] values) {
+        if (rowCount == capacity) {
+            capacity = capacity == 0 ? INITIAL_CAPACITY : capacity + (capacity >> 1);
+            for (Column column : columns) {
+                column.ensureCapacity(capacity);
+            }
+        }
+        for (int i = 0; i < columns.length; i++) {
+            Object value = i < values.length ? values[i] : null;
+            if (!columns[i].set(rowCount, value)) {
+                columns[i] = columns[i] instanceof NullColumn ?
+                    createColumn(value, capacity) :
+                    new ObjectColumn(columns[i], rowCount, capacity);
+                columns[i].set(rowCount, value);
+            }
+        }
+        rowCount++;
+    }
+
+    /**
+     * Removes all rows
+     */
+    public void clear() {
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new NullColumn();
+        }
+        rowCount = 0;
+        capacity = 0;
+    }
+
+    @Nullable
+    @Override
+    public Object getValue(int row, int column) {
+        if (column < 0 || column >= columns.length) {
+            return null;
+        }
+        return columns[column].get(row);
+    }
+
+    /**
+     * Returns new array with boxed values of the row
+     */
+    @NotNull
+    @Override
+    public Object[] getRowValues(int row) {
+        Object[] values = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = columns[i].get(row);
+        }
+        return values;
+    }
+
+    /**
+     * Returns true if the column values are kept in primitive arrays or in a dictionary
+     */
+    @Override
+    public boolean isCompactColumn(int column) {
+        return !(columns[column] instanceof ObjectColumn);
+    }
+
+    /**
+     * Returns list view of the store. Added rows are copied into the store, list elements are boxed on each read.
+     */
+    @NotNull
+    public List<Object[]> asRowList() {
+        return new RowList(this);
+    }
+
+    @NotNull
+    private static Column createColumn(@NotNull Object value, int capacity) {
+        Column column;
+        if (value instanceof Long) {
+            column = new LongColumn();
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            column = new IntColumn(value.getClass());
+        } else if (value instanceof Double || value instanceof Float) {
+            column = new DoubleColumn(value instanceof Float);
+        } else if (value instanceof String) {
+            column = new StringColumn();
+        } else {
+            column = new ObjectColumn();
+        }
+        column.ensureCapacity(capacity);
+        return column;
+    }
+
+    /**
+     * Rows list backed by the store
+     */
+    static class RowList extends AbstractList<Object[]> implements RandomAccess {
+        private final ResultSetColumnStore store;
+
+        RowList(@NotNull ResultSetColumnStore store) {
+            this.store = store;
+        }
+
+        @NotNull
+        ResultSetColumnStore getStore() {
+            return store;
+        }
+
+        @Override
+        public Object[] get(int index) {
+            if (index < 0 || index >= store.rowCount) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return store.getRowValues(index);
+        }
+
+        @Override
+        public int size() {
+            return store.rowCount;
+        }
+
+        @Override
+        public boolean add(Object[] values) {
+            store.addRow(values);
+            modCount++;
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            store.clear();
+            modCount++;
+        }
+    }
+
+    private abstract static class Column {
+        /**
+         * Sets value of the new row. Returns false if value can't be stored in this column.
+         */
+        abstract boolean set(int row, @Nullable Object value);
+
+        @Nullable
+        abstract Object get(int row);
+
+        abstract void ensureCapacity(int capacity);
+    }
+
+    /**
+     * Column which contains only nulls (so far)
+     */
+    private static class NullColumn extends Column {
+        @Override
+        boolean set(int row, @Nullable Object value) {
+            return value == null;
+        }
+
+        @Override
+        Object get(int row) {
+            return null;
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+        }
+    }
+
+    private abstract static class NullableColumn extends Column {
+        // Rows added before the column type was determined are nulls too
+        final BitSet nonNulls = new BitSet();
+
+        @Override
+        final boolean set(int row, @Nullable Object value) {
+            if (value == null) {
+                return true;
+            }
+            if (!setValue(row, value)) {
+                return false;
+            }
+            nonNulls.set(row);
+            return true;
+        }
+
+        @Override
+        final Object get(int row) {
+            return nonNulls.get(row) ? getValue(row) : null;
+        }
+
+        abstract boolean setValue(int row, @NotNull Object value);
+
+        @NotNull
+        abstract Object getValue(int row);
+    }
+
+    private static class LongColumn extends NullableColumn {
+        private long[] data = new long[0];
+
+        @Override
+        boolean setValue(int row, @NotNull Object value) {
+            if (!(value instanceof Long)) {
+                return false;
+            }
+            data[row] = (Long) value;
+            return true;
+        }
+
+        @NotNull
+        @Override
+        Object getValue(int row) {
+            return data[row];
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            data = Arrays.copyOf(data, capacity);
+        }
+    }
+
+    private static class IntColumn extends NullableColumn {
+        private final Class<?> valueClass;
+        private int[] data = new int[0];
+
+        IntColumn(@NotNull Class<?> valueClass) {
+            this.valueClass = valueClass;
+        }
+
+        @Override
+        boolean setValue(int row, @NotNull Object value) {
+            if (value.getClass() != valueClass) {
+                return false;
+            }
+            data[row] = ((Number) value).intValue();
+            return true;
+        }
+
+        @NotNull
+        @Override
+        Object getValue(int row) {
+            if (valueClass == Short.class) {
+                return (short) data[row];
+            } else if (valueClass == Byte.class) {
+                return (byte) data[row];
+            }
+            return data[row];
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            data = Arrays.copyOf(data, capacity);
+        }
+    }
+
+    private static class DoubleColumn extends NullableColumn {
+        private final boolean isFloat;
+        private double[] data = new double[0];
+
+        DoubleColumn(boolean isFloat) {
+            this.isFloat = isFloat;
+        }
+
+        @Override
+        boolean setValue(int row, @NotNull Object value) {
+            if (isFloat ? !(value instanceof Float) : !(value instanceof Double)) {
+                return false;
+            }
+            data[row] = ((Number) value).doubleValue();
+            return true;
+        }
+
+        @NotNull
+        @Override
+        Object getValue(int row) {
+            return isFloat ? (Object) (float) data[row] : (Object) data[row];
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            data = Arrays.copyOf(data, capacity);
+        }
+    }
+
+    private static class StringColumn extends Column {
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> dictionaryIndex = new HashMap<>();
+        // Dictionary index plus one. Zero means null.
+        private int[] codes = new int[0];
+
+        @Override
+        boolean set(int row, @Nullable Object value) {
+            if (value == null) {
+                return true;
+            }
+            if (!(value instanceof String)) {
+                return false;
+            }
+            Integer code = dictionaryIndex.get(value);
+            if (code == null) {
+                if (dictionary.size() >= MAX_DICTIONARY_SIZE && dictionary.size() * 2 > row) {
+                    // Mostly unique values
+                    return false;
+                }
+                code = dictionary.size() + 1;
+                dictionary.add((String) value);
+                dictionaryIndex.put((String) value, code);
+            }
+            codes[row] = code;
+            return true;
+        }
+
+        @Override
+        Object get(int row) {
+            int code = codes[row];
+            return code == 0 ? null : dictionary.get(code - 1);
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            codes = Arrays.copyOf(codes, capacity);
+        }
+    }
+
+    private static class ObjectColumn extends Column {
+        private Object[] data;
+
+        ObjectColumn() {
+            data = new Object[0];
+        }
+
+        ObjectColumn(@NotNull Column source, int rowCount, int capacity) {
+            data = new Object[capacity];
+            for (int i = 0; i < rowCount; i++) {
+                data[i] = source.get(i);
+            }
+        }
+
+        @Override
+        boolean set(int row, @Nullable Object value) {
+            data[row] = value;
+            return true;
+        }
+
+        @Override
+        Object get(int row) {
+            return data[row];
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            data = Arrays.copyOf(data, capacity);
+        }
+    }
+}
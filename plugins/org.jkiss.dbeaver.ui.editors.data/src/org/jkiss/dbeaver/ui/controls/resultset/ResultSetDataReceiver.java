@@ -29,8 +29,12 @@ import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
 import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.ui.UIUtils;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -43,6 +47,8 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
 
     private static final Log log = Log.getLog(ResultSetDataReceiver.class);
 
+    private static final String SPILL_FOLDER = "resultset-spill";
+
     private ResultSetViewer resultSetViewer;
     private int columnsCount;
     private DBDAttributeBinding[] metaColumns;
@@ -51,6 +57,20 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
     private boolean nextSegmentRead;
     private long offset;
     private long maxRows;
+    // Keep values in column store
+    private boolean columnarStorage;
+    // Memory budget of fetched rows. Rows beyond the budget are written in the spill file.
+    private long spillMemoryLimit;
+    private long fetchedRowsSize;
+    private ResultSetSpillFile spillFile;
+    // Spill file was passed to the model which will close it
+    private boolean spillFileShared;
+    // Segment read statistics for adaptive segment size
+    private boolean adaptiveSegmentSize;
+    private long readStartTime;
+    private int fetchedRowCount;
+    private long sampledRowsSize;
+    private int sampledRowCount;
 
     private boolean paused;
 
@@ -85,6 +105,10 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
         this.targetDataContainer = targetDataContainer;
     }
 
+    void setReadStartTime(long readStartTime) {
+        this.readStartTime = readStartTime;
+    }
+
     List<Throwable> getErrorList() {
         return errorList;
     }
@@ -93,9 +117,32 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
     public void fetchStart(@NotNull DBCSession session, @NotNull final DBCResultSet resultSet, long offset, long maxRows)
         throws DBCException {
         this.errorList.clear();
-        this.rows.clear();
         this.offset = offset;
         this.maxRows = maxRows;
+        this.columnarStorage = resultSetViewer.getPreferenceStore().getBoolean(ResultSetPreferences.RESULT_SET_COLUMNAR_STORAGE);
+        this.spillMemoryLimit = resultSetViewer.getPreferenceStore().getInt(ResultSetPreferences.RESULT_SET_SPILL_MEMORY_LIMIT) * 1024L * 1024L;
+        this.adaptiveSegmentSize = resultSetViewer.getPreferenceStore().getBoolean(ResultSetPreferences.RESULT_SET_ADAPTIVE_SEGMENT_SIZE);
+        this.fetchedRowCount = 0;
+        this.sampledRowsSize = 0;
+        this.sampledRowCount = 0;
+        if (!nextSegmentRead) {
+            // Statistics of the previous query doesn't make sense for the new one
+            resultSetViewer.getSegmentSizer().reset();
+            // Previous spill file (if any) belongs to the previous result set
+            this.fetchedRowsSize = 0;
+            this.spillFile = null;
+            this.spillFileShared = false;
+        }
+        if (columnarStorage && nextSegmentRead) {
+            // Pack rows right on fetch. Values of the first segment may be changed by attributes binding, they are packed at the end.
+            this.rows = new ResultSetColumnStore(columnsCount).asRowList();
+        } else {
+            this.rows = new ArrayList<>();
+        }
+        if (spillMemoryLimit > 0 && nextSegmentRead) {
+            // Rows of the first segment are always kept in memory
+            this.rows = new ResultSetSpillFile.RowList(rows);
+        }
 
         if (!nextSegmentRead) {
             // Get columns metadata
@@ -149,9 +196,37 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
                 }
             }
         }
+        if (adaptiveSegmentSize && (fetchedRowCount++ & 0xF) == 0) {
+            // Estimate size of every 16th row
+            sampledRowsSize += ResultSetSpillFile.estimateRowSize(row);
+            sampledRowCount++;
+        }
+        if (spillMemoryLimit > 0) {
+            if (fetchedRowsSize >= spillMemoryLimit && rows instanceof ResultSetSpillFile.RowList spillRows && ResultSetSpillFile.isSpillable(row)) {
+                try {
+                    spillRows.addSpilled(getSpillFile(session.getProgressMonitor()), row);
+                    return;
+                } catch (Exception e) {
+                    log.warn("Can't write rows to disk. All rows will be kept in memory.", e);
+                    spillMemoryLimit = 0;
+                }
+            } else {
+                fetchedRowsSize += ResultSetSpillFile.estimateRowSize(row);
+            }
+        }
         rows.add(row);
     }
 
+    @NotNull
+    private ResultSetSpillFile getSpillFile(@NotNull DBRProgressMonitor monitor) throws IOException {
+        if (spillFile == null) {
+            Path spillFolder = DBWorkbench.getPlatform().getTempFolder(monitor, SPILL_FOLDER);
+            spillFile = new ResultSetSpillFile(Files.createTempFile(spillFolder, "rows", ".dat"), columnsCount);
+            spillFileShared = false;
+        }
+        return spillFile;
+    }
+
     @Override
     public void fetchEnd(@NotNull DBCSession session, @NotNull final DBCResultSet resultSet) {
         if (!nextSegmentRead) {
@@ -171,6 +246,18 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
                 // fetchStart was failed
             }
         }
+        if (columnarStorage && !nextSegmentRead) {
+            rows = packRows(rows);
+        }
+        if (spillFile != null) {
+            spillFileShared = true;
+        }
+        if (adaptiveSegmentSize && readStartTime > 0) {
+            resultSetViewer.getSegmentSizer().addSegmentStatistics(
+                fetchedRowCount,
+                System.currentTimeMillis() - readStartTime,
+                sampledRowCount == 0 ? 0 : sampledRowsSize / sampledRowCount);
+        }
 
         final List<Object[]> tmpRows = rows;
 
@@ -204,6 +291,17 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
         });
     }
 
+    @NotNull
+    private List<Object[]> packRows(@NotNull List<Object[]> rows) {
+        ResultSetColumnStore store = new ResultSetColumnStore(columnsCount);
+        for (int i = 0; i < rows.size(); i++) {
+            store.addRow(rows.get(i));
+            // Release boxed values as soon as possible
+            rows.set(i, null);
+        }
+        return store.asRowList();
+    }
+
     private DBSDataContainer getDataContainer() {
         return targetDataContainer != null ? targetDataContainer : resultSetViewer.getDataContainer();
     }
@@ -214,6 +312,11 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
 
         attrErrors.clear();
         rows = new ArrayList<>();
+        if (spillFile != null && !spillFileShared) {
+            // Fetch failed before the rows were passed to the model
+            spillFile.close();
+            spillFile = null;
+        }
     }
 
     @Override
@@ -45,6 +45,7 @@ abstract class ResultSetJobDataRead extends ResultSetJobAbstract implements ILoa
     private Throwable error;
     private DBCStatistics statistics;
     private boolean refresh;
+    private boolean showProgress = true;
 
     ResultSetJobDataRead(
         @NotNull DBSDataContainer dataContainer,
@@ -70,6 +71,10 @@ abstract class ResultSetJobDataRead extends ResultSetJobAbstract implements ILoa
         this.refresh = refresh;
     }
 
+    public void setShowProgress(boolean showProgress) {
+        this.showProgress = showProgress;
+    }
+
     public Throwable getError() {
         return error;
     }
@@ -89,7 +94,9 @@ abstract class ResultSetJobDataRead extends ResultSetJobAbstract implements ILoa
         final ProgressLoaderVisualizer<Object> visualizer = new ProgressLoaderVisualizer<>(this, progressControl);
         DBRProgressMonitor progressMonitor = visualizer.overwriteMonitor(monitor);
 
-        new PumpVisualizer(visualizer).schedule(PROGRESS_VISUALIZE_PERIOD * 2);
+        if (showProgress) {
+            new PumpVisualizer(visualizer).schedule(PROGRESS_VISUALIZE_PERIOD * 2);
+        }
 
         long fetchFlags = DBSDataContainer.FLAG_READ_PSEUDO;
         if (offset > 0) {
@@ -0,0 +1,302 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCLogicalOperator;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Local rows filter.
+ *
+ * Filter conditions are compiled into predicates once: LIKE masks become patterns, IN lists become hash sets,
+ * integer arguments are compared without conversions. Then predicates are evaluated over all rows,
+ * big row lists are processed in parallel. NULL values never match comparisons (as in SQL).
+ * Conditions which can't be evaluated on the client side are rejected, so the filter must be applied by the server.
+ */
+class ResultSetLocalFilter<T> {
+
+    static final int PARALLEL_FILTER_THRESHOLD = 50_000;
+    private static final int CHUNK_SIZE = 0x2000;
+
+    private final List<T> rows;
+    private final boolean anyCondition;
+    private final List<Condition<T>> conditions = new ArrayList<>();
+
+    private record Condition<T>(@NotNull Function<T, Object> valueReader, @NotNull Predicate<Object> predicate) {
+    }
+
+    /**
+     * @param anyCondition rows matching any condition pass the filter (otherwise all conditions must match)
+     */
+    ResultSetLocalFilter(@NotNull List<T> rows, boolean anyCondition) {
+        this.rows = rows;
+        this.anyCondition = anyCondition;
+    }
+
+    int getRowCount() {
+        return rows.size();
+    }
+
+    /**
+     * Adds condition
+     *
+     * @return false if condition can't be evaluated locally
+     */
+    boolean addCondition(
+        @NotNull Function<T, Object> valueReader,
+        @NotNull DBCLogicalOperator operator,
+        boolean reverse,
+        @Nullable Object value
+    ) {
+        Predicate<Object> predicate = compileCondition(operator, reverse, value);
+        if (predicate == null) {
+            return false;
+        }
+        conditions.add(new Condition<>(valueReader, predicate));
+        return true;
+    }
+
+    /**
+     * Returns new list of matching rows (in the original order) or null if filtering was canceled
+     */
+    @Nullable
+    List<T> filter(@NotNull DBRProgressMonitor monitor) {
+        int rowCount = rows.size();
+        if (conditions.isEmpty()) {
+            return new ArrayList<>(rows);
+        }
+        monitor.beginTask("Filter " + rowCount + " rows", 1);
+        try {
+            boolean[] matches = new boolean[rowCount];
+            IntStream chunks = IntStream.range(0, (rowCount + CHUNK_SIZE - 1) / CHUNK_SIZE);
+            if (rowCount >= PARALLEL_FILTER_THRESHOLD) {
+                chunks = chunks.parallel();
+            }
+            chunks.forEach(chunk -> {
+                if (monitor.isCanceled()) {
+                    return;
+                }
+                for (int i = chunk * CHUNK_SIZE, last = Math.min(rowCount, i + CHUNK_SIZE); i < last; i++) {
+                    matches[i] = matches(rows.get(i));
+                }
+            });
+            if (monitor.isCanceled()) {
+                return null;
+            }
+            monitor.worked(1);
+
+            List<T> result = new ArrayList<>();
+            for (int i = 0; i < rowCount; i++) {
+                if (matches[i]) {
+                    result.add(rows.get(i));
+                }
+            }
+            return result;
+        } finally {
+            monitor.done();
+        }
+    }
+
+    private boolean matches(@NotNull T row) {
+        for (Condition<T> condition : conditions) {
+            boolean result = condition.predicate.test(condition.valueReader.apply(row));
+            if (result == anyCondition) {
+                return result;
+            }
+        }
+        return !anyCondition;
+    }
+
+    /**
+     * Compiles condition in the same way as it is translated into SQL by the query generator.
+     *
+     * @return predicate or null if this operator is not supported on the client side
+     */
+    @Nullable
+    static Predicate<Object> compileCondition(@NotNull DBCLogicalOperator operator, boolean reverse, @Nullable Object value) {
+        if (operator.getArgumentCount() == 0) {
+            return switch (operator) {
+                case IS_NULL -> isNullPredicate(!DBUtils.isNullValue(value) && reverse);
+                case IS_NOT_NULL -> isNullPredicate(DBUtils.isNullValue(value) || !reverse);
+                default -> null;
+            };
+        }
+        if (DBUtils.isNullValue(value)) {
+            return isNullPredicate(reverse);
+        }
+        final Predicate<Object> predicate;
+        if (operator.getArgumentCount() < 0 || (operator == DBCLogicalOperator.EQUALS && value instanceof Object[])) {
+            if (operator != DBCLogicalOperator.IN && operator != DBCLogicalOperator.EQUALS) {
+                return null;
+            }
+            List<Object> arguments = new ArrayList<>();
+            boolean hasNull = false;
+            if (value.getClass().isArray()) {
+                for (int i = 0, length = Array.getLength(value); i < length; i++) {
+                    Object argument = Array.get(value, i);
+                    if (DBUtils.isNullValue(argument)) {
+                        hasNull = true;
+                    } else {
+                        arguments.add(argument);
+                    }
+                }
+            } else {
+                arguments.add(value);
+            }
+            if (arguments.isEmpty()) {
+                return isNullPredicate(false);
+            }
+            Predicate<Object> in = compileIn(arguments);
+            boolean matchNull = hasNull && !reverse;
+            return v -> DBUtils.isNullValue(v) ? matchNull : in.test(v) != reverse;
+        } else if (value.getClass().isArray()) {
+            return null;
+        }
+        switch (operator) {
+            case EQUALS, NOT_EQUALS, GREATER, GREATER_EQUALS, LESS, LESS_EQUALS -> predicate = compileComparison(operator, value);
+            case LIKE -> predicate = compileLike(value.toString(), false);
+            case NOT_LIKE -> predicate = compileLike(value.toString(), false).negate();
+            case ILIKE -> predicate = compileLike(value.toString(), true);
+            default -> {
+                return null;
+            }
+        }
+        // NULL value doesn't match any comparison, even reversed one
+        return v -> !DBUtils.isNullValue(v) && predicate.test(v) != reverse;
+    }
+
+    @NotNull
+    private static Predicate<Object> isNullPredicate(boolean reverse) {
+        return v -> DBUtils.isNullValue(v) != reverse;
+    }
+
+    @NotNull
+    private static Predicate<Object> compileComparison(@NotNull DBCLogicalOperator operator, @NotNull Object argument) {
+        IntPredicate result = switch (operator) {
+            case EQUALS -> cmp -> cmp == 0;
+            case NOT_EQUALS -> cmp -> cmp != 0;
+            case GREATER -> cmp -> cmp > 0;
+            case GREATER_EQUALS -> cmp -> cmp >= 0;
+            case LESS -> cmp -> cmp < 0;
+            default -> cmp -> cmp <= 0;
+        };
+        if (isIntegerValue(argument)) {
+            long longArgument = ((Number) argument).longValue();
+            return v -> result.test(isIntegerValue(v) ?
+                Long.compare(((Number) v).longValue(), longArgument) :
+                DBUtils.compareDataValues(v, argument));
+        }
+        return v -> result.test(DBUtils.compareDataValues(v, argument));
+    }
+
+    @NotNull
+    private static Predicate<Object> compileIn(@NotNull List<Object> arguments) {
+        boolean allNumbers = true, allStrings = true;
+        for (Object argument : arguments) {
+            allNumbers &= argument instanceof Number;
+            allStrings &= argument instanceof String;
+        }
+        Predicate<Object> linearSearch = v -> {
+            for (Object argument : arguments) {
+                if (DBUtils.compareDataValues(v, argument) == 0) {
+                    return true;
+                }
+            }
+            return false;
+        };
+        if (!allNumbers && !allStrings) {
+            return linearSearch;
+        }
+        Set<Object> keys = new HashSet<>();
+        for (Object argument : arguments) {
+            keys.add(normalizeKey(argument));
+        }
+        Class<?> keyType = allNumbers ? Number.class : String.class;
+        // Values of other types are compared with conversions
+        return v -> keyType.isInstance(v) ? keys.contains(normalizeKey(v)) : linearSearch.test(v);
+    }
+
+    @NotNull
+    private static Predicate<Object> compileLike(@NotNull String mask, boolean ignoreCase) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < mask.length(); i++) {
+            char c = mask.charAt(i);
+            if (c == '%' || c == '_') {
+                if (!literal.isEmpty()) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '%' ? ".*" : ".");
+            } else if (c == '\\' && i < mask.length() - 1) {
+                literal.append(mask.charAt(++i));
+            } else {
+                literal.append(c);
+            }
+        }
+        if (!literal.isEmpty()) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        // LIKE is case-sensitive, as in the SQL standard. Only ILIKE ignores case.
+        Pattern pattern = Pattern.compile(
+            regex.toString(),
+            ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL : Pattern.DOTALL);
+        return v -> pattern.matcher(v.toString()).matches();
+    }
+
+    private static boolean isIntegerValue(@Nullable Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    /**
+     * Numbers of different types with the same value have the same key
+     */
+    @NotNull
+    static Object normalizeKey(@NotNull Object value) {
+        if (isIntegerValue(value)) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Number) {
+            BigDecimal decimal;
+            try {
+                decimal = new BigDecimal(value.toString()).stripTrailingZeros();
+            } catch (NumberFormatException e) {
+                // NaN, Infinity or some custom number
+                return value;
+            }
+            try {
+                return decimal.longValueExact();
+            } catch (ArithmeticException e) {
+                return decimal;
+            }
+        }
+        return value;
+    }
+
+}
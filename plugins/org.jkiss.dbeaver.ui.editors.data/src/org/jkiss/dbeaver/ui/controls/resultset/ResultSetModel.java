@@ -29,6 +29,8 @@ import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.data.*;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.exec.trace.DBCTrace;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.model.struct.*;
 import org.jkiss.dbeaver.model.virtual.DBVColorOverride;
 import org.jkiss.dbeaver.model.virtual.DBVEntity;
@@ -58,6 +60,12 @@ public class ResultSetModel {
 
     // Data
     private List<ResultSetRow> curRows = new ArrayList<>();
+    // Fetched rows hidden by the client-side filter
+    private List<ResultSetRow> filteredOutRows = new ArrayList<>();
+    // Data filter was applied to the fetched rows, so the executed query doesn't contain it
+    private boolean clientSideFiltered;
+    // Files with rows which didn't fit in memory
+    private final List<ResultSetSpillFile> spillFiles = new ArrayList<>();
     private Long totalRowCount = null;
     private int changesCount = 0;
     private volatile boolean hasData = false;
@@ -362,7 +370,7 @@ public class ResultSetModel {
 
     @NotNull
     public Object[] getRowData(int index) {
-        return curRows.get(index).values;
+        return curRows.get(index).getValues();
     }
 
     @NotNull
@@ -380,28 +388,27 @@ public class ResultSetModel {
 
     @Nullable
     public Object getCellValue(@NotNull ResultSetCellLocation cellLocation) {
-        return DBUtils.getAttributeValue(
+        return getCellValue(
             cellLocation.getAttribute(),
-            attributes,
-            cellLocation.getRow().values,
+            cellLocation.getRow(),
             cellLocation.getRowIndexes());
     }
 
     @Nullable
     public Object getCellValue(@NotNull DBDAttributeBinding attribute, @NotNull ResultSetRow row) {
-        return DBUtils.getAttributeValue(
-            attribute,
-            attributes,
-            row.values,
-            null);
+        return getCellValue(attribute, row, null);
     }
 
     @Nullable
     public Object getCellValue(@NotNull DBDAttributeBinding attribute, @NotNull ResultSetRow row, @Nullable int[] rowIndexes) {
+        if (row.isStored() && attribute.getLevel() == 0 && !attribute.isCustom()) {
+            // Read single value from the row store
+            return row.getValue(attribute.getOrdinalPosition());
+        }
         return DBUtils.getAttributeValue(
             attribute,
             attributes,
-            row.values,
+            row.readValues(),
             rowIndexes);
     }
 
@@ -446,7 +453,7 @@ public class ResultSetModel {
             rootIndex = attr.getTopParent().getOrdinalPosition();
         }
         int rowIndex = 0;
-        Object rootValue = row.values[rootIndex];
+        Object rootValue = row.getValue(rootIndex);
         Object ownerValue = depth > 0 ? rootValue : null;
         {
             // Obtain owner value and create all intermediate values
@@ -555,7 +562,7 @@ public class ResultSetModel {
                     log.debug("Error setting attribute value", e);
                 }
             } else {
-                row.values[rootIndex] = value;
+                row.setValue(rootIndex, value);
             }
             return true;
         }
@@ -864,22 +871,50 @@ public class ResultSetModel {
     void appendData(@NotNull List<Object[]> rows, boolean resetOldRows) {
         if (resetOldRows) {
             curRows.clear();
+            filteredOutRows.clear();
+            clientSideFiltered = false;
         }
         int rowCount = rows.size();
-        int firstRowNum = curRows.size();
+        int firstRowNum = curRows.size() + filteredOutRows.size();
         List<ResultSetRow> newRows = new ArrayList<>(rowCount);
+        if (rows instanceof ResultSetSpillFile.RowList spillRows) {
+            ResultSetSpillFile spillFile = spillRows.getSpillFile();
+            if (spillFile != null && !spillFiles.contains(spillFile)) {
+                // Spill file is shared by all segments of the result set
+                spillFiles.add(spillFile);
+            }
+        }
         for (int i = 0; i < rowCount; i++) {
             newRows.add(
-                new ResultSetRow(firstRowNum + i, rows.get(i)));
+                createRow(firstRowNum + i, rows, i));
         }
         curRows.addAll(newRows);
 
         updateRowColors(resetOldRows, newRows);
     }
 
+    @NotNull
+    private static ResultSetRow createRow(int rowNumber, @NotNull List<Object[]> rows, int index) {
+        if (rows instanceof ResultSetSpillFile.RowList spillRows) {
+            int spillIndex = spillRows.getSpillIndex(index);
+            if (spillIndex >= 0) {
+                // Row reads values from the disk
+                return new ResultSetRow(rowNumber, spillRows.getSpillFile(), spillIndex);
+            }
+            return createRow(rowNumber, spillRows.getMemoryRows(), spillRows.getMemoryIndex(index));
+        }
+        if (rows instanceof ResultSetColumnStore.RowList rowList) {
+            // Row reads values from the column store
+            return new ResultSetRow(rowNumber, rowList.getStore(), index);
+        }
+        return new ResultSetRow(rowNumber, rows.get(index));
+    }
+
     void clearData() {
         // Refresh all rows
         this.curRows = new ArrayList<>();
+        this.filteredOutRows = new ArrayList<>();
+        this.clientSideFiltered = false;
         this.totalRowCount = null;
         this.singleSourceEntity = null;
 
@@ -908,7 +943,7 @@ public class ResultSetModel {
 
     @NotNull
     ResultSetRow addNewRow(int rowNum, @NotNull Object[] data) {
-        ResultSetRow newRow = new ResultSetRow(curRows.size(), data);
+        ResultSetRow newRow = new ResultSetRow(curRows.size() + filteredOutRows.size(), data);
         newRow.setVisualNumber(rowNum);
         newRow.setState(ResultSetRow.STATE_ADDED);
         shiftRows(newRow, 1);
@@ -970,10 +1005,18 @@ public class ResultSetModel {
                 row.setRowNumber(row.getRowNumber() + delta);
             }
         }
+        for (ResultSetRow row : filteredOutRows) {
+            if (row.getRowNumber() >= relative.getRowNumber()) {
+                row.setRowNumber(row.getRowNumber() + delta);
+            }
+        }
     }
 
     void releaseAllData() {
-        final List<ResultSetRow> oldRows = curRows;
+        final List<ResultSetRow> oldRows = new ArrayList<>(curRows);
+        oldRows.addAll(filteredOutRows);
+        final List<ResultSetSpillFile> oldSpillFiles = new ArrayList<>(spillFiles);
+        spillFiles.clear();
         // Cleanup in separate job.
         // Sometimes model cleanup takes much time (e.g. freeing LOB values)
         // So let's do it in separate job to avoid UI locking
@@ -981,6 +1024,9 @@ public class ResultSetModel {
             for (ResultSetRow row : oldRows) {
                 row.release();
             }
+            for (ResultSetSpillFile spillFile : oldSpillFiles) {
+                spillFile.close();
+            }
         }, "Release values", 5000);
     }
 
@@ -1105,44 +1151,151 @@ public class ResultSetModel {
     }
 
     public void resetOrdering() {
-        final boolean hasOrdering = dataFilter.hasOrdering();
-
-        // First sort in original order to reset multi-column orderings
-        curRows.sort(Comparator.comparingInt(ResultSetRow::getRowNumber));
-
-        if (hasOrdering) {
-            // Sort locally
-            final List<DBDAttributeConstraint> orderConstraints = dataFilter.getOrderConstraints();
-            curRows.sort((row1, row2) -> {
-                int result = 0;
-                for (DBDAttributeConstraint co : orderConstraints) {
-                    final DBDAttributeBinding binding = getAttributeBinding(co.getAttribute());
-                    if (binding == null) {
-                        continue;
-                    }
-                    Object cell1 = getCellValue(new ResultSetCellLocation(binding, row1));
-                    Object cell2 = getCellValue(new ResultSetCellLocation(binding, row2));
-                    if (cell1 instanceof String && cell2 instanceof String) {
-                    	result = (cell1.toString()).compareToIgnoreCase(cell2.toString());
-                    } else {
-                    	result = DBUtils.compareDataValues(cell1, cell2);
-                    }
-                          
-                    if (co.isOrderDescending()) {
-                        result = -result;
-                    }
-                    if (result != 0) {
-                        break;
-                    }
-                }
-                return result;
-            });
+        List<ResultSetRow> sortedRows = sortRows(new VoidProgressMonitor());
+        if (sortedRows != null) {
+            setOrderedRows(sortedRows);
+        }
+    }
+
+    /**
+     * Sorts rows according to the data filter ordering.
+     * Doesn't modify the model, so it may be called outside of UI thread.
+     *
+     * @return new list of rows or null if sort was canceled
+     */
+    @Nullable
+    List<ResultSetRow> sortRows(@NotNull DBRProgressMonitor monitor) {
+        return sortRows(monitor, new ArrayList<>(curRows), dataFilter);
+    }
+
+    @Nullable
+    private List<ResultSetRow> sortRows(@NotNull DBRProgressMonitor monitor, @NotNull List<ResultSetRow> rows, @NotNull DBDDataFilter filter) {
+        // Original order resets multi-column orderings
+        if (!isSortedByRowNumber(rows)) {
+            rows.sort(Comparator.comparingInt(ResultSetRow::getRowNumber));
+        }
+        if (!filter.hasOrdering()) {
+            return rows;
+        }
+
+        // Sort locally
+        ResultSetRowSorter<ResultSetRow> sorter = new ResultSetRowSorter<>(rows);
+        for (DBDAttributeConstraint co : filter.getOrderConstraints()) {
+            final DBDAttributeBinding binding = getAttributeBinding(co.getAttribute());
+            if (binding != null) {
+                sorter.addKey(row -> getCellValue(binding, row), co.isOrderDescending());
+            }
+        }
+        return sorter.sort(monitor);
+    }
+
+    /**
+     * Sets rows order returned by {@link #sortRows(DBRProgressMonitor)}
+     */
+    void setOrderedRows(@NotNull List<ResultSetRow> rows) {
+        if (rows.size() != curRows.size()) {
+            // Rows were changed during sort
+            log.debug("Rows were changed during sort. Ordering is ignored.");
+            return;
         }
+        curRows = rows;
         for (int i = 0; i < curRows.size(); i++) {
             curRows.get(i).setVisualNumber(i);
         }
     }
 
+    /**
+     * Returns true if the current data filter was applied to the fetched rows instead of the executed query
+     */
+    public boolean isClientSideFiltered() {
+        return clientSideFiltered;
+    }
+
+    /**
+     * Creates client-side filter of all fetched rows (including rows hidden by the previous client-side filter).
+     *
+     * @return filter or null if some filter conditions must be evaluated by the server
+     */
+    @Nullable
+    ResultSetLocalFilter<ResultSetRow> createLocalFilter(@NotNull DBDDataFilter filter) {
+        if (!CommonUtils.isEmpty(filter.getWhere()) || !CommonUtils.isEmpty(filter.getOrder())) {
+            // Custom SQL
+            return null;
+        }
+        List<ResultSetRow> rows = new ArrayList<>(curRows.size() + filteredOutRows.size());
+        rows.addAll(curRows);
+        rows.addAll(filteredOutRows);
+        ResultSetLocalFilter<ResultSetRow> localFilter = new ResultSetLocalFilter<>(rows, filter.isAnyConstraint());
+        for (DBDAttributeConstraint constraint : filter.getConstraints()) {
+            if (!constraint.hasCondition()) {
+                continue;
+            }
+            final DBDAttributeBinding binding = getAttributeBinding(constraint.getAttribute());
+            if (binding == null || constraint.getOperator() == null ||
+                !localFilter.addCondition(row -> getCellValue(binding, row), constraint.getOperator(), constraint.isReverseOperator(), constraint.getValue()))
+            {
+                return null;
+            }
+        }
+        return localFilter;
+    }
+
+    /**
+     * Filters and sorts fetched rows. Doesn't modify the model, so it may be called outside of UI thread.
+     *
+     * @return visible rows or null if filter was canceled
+     */
+    @Nullable
+    List<ResultSetRow> filterRows(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull ResultSetLocalFilter<ResultSetRow> localFilter,
+        @NotNull DBDDataFilter filter
+    ) {
+        List<ResultSetRow> rows = localFilter.filter(monitor);
+        return rows == null ? null : sortRows(monitor, rows, filter);
+    }
+
+    /**
+     * Sets rows returned by {@link #filterRows}. Other fetched rows are hidden.
+     *
+     * @return false if rows were changed during filtering
+     */
+    boolean setFilteredRows(@NotNull List<ResultSetRow> rows, @NotNull ResultSetLocalFilter<ResultSetRow> localFilter) {
+        if (localFilter.getRowCount() != curRows.size() + filteredOutRows.size()) {
+            log.debug("Rows were changed during filtering. Filter is ignored.");
+            return false;
+        }
+        Set<ResultSetRow> visibleRows = Collections.newSetFromMap(new IdentityHashMap<>());
+        visibleRows.addAll(rows);
+        List<ResultSetRow> hiddenRows = new ArrayList<>();
+        for (ResultSetRow row : curRows) {
+            if (!visibleRows.contains(row)) {
+                hiddenRows.add(row);
+            }
+        }
+        for (ResultSetRow row : filteredOutRows) {
+            if (!visibleRows.contains(row)) {
+                hiddenRows.add(row);
+            }
+        }
+        filteredOutRows = hiddenRows;
+        curRows = rows;
+        clientSideFiltered = true;
+        for (int i = 0; i < curRows.size(); i++) {
+            curRows.get(i).setVisualNumber(i);
+        }
+        return true;
+    }
+
+    private static boolean isSortedByRowNumber(@NotNull List<ResultSetRow> rows) {
+        for (int i = 1; i < rows.size(); i++) {
+            if (rows.get(i - 1).getRowNumber() > rows.get(i).getRowNumber()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void fillVisibleAttributes() {
         this.visibleAttributes.clear();
 
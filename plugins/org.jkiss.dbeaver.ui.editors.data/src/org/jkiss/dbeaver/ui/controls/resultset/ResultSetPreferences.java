@@ -37,12 +37,21 @@ public final class ResultSetPreferences {
     public static final String RS_EDIT_REFRESH_AFTER_UPDATE = "resultset.edit.refreshAfterUpdate"; //$NON-NLS-1$
     public static final String RS_GROUPING_DEFAULT_SORTING = "resultset.grouping.defaultSorting"; //$NON-NLS-1$
     public static final String RS_GROUPING_SHOW_DUPLICATES_ONLY = "resultset.grouping.showDuplicatesOnly"; //$NON-NLS-1$
+    public static final String RS_GROUPING_LOCAL = "resultset.grouping.local"; //$NON-NLS-1$
 
     public static final String RESULT_SET_AUTO_FETCH_NEXT_SEGMENT = "resultset.autofetch.next.segment"; //$NON-NLS-1$
+    // Percent of loaded rows after which the next segment is read in advance. Zero disables read-ahead.
+    public static final String RESULT_SET_READ_AHEAD_THRESHOLD = "resultset.autofetch.readAhead.threshold"; //$NON-NLS-1$
+    public static final String RESULT_SET_ADAPTIVE_SEGMENT_SIZE = "resultset.autofetch.adaptive.segment"; //$NON-NLS-1$
     public static final String RESULT_SET_AUTOMATIC_ROW_COUNT = "resultset.automatic.row.count"; //$NON-NLS-1$
+    public static final String RESULT_SET_COLUMNAR_STORAGE = "resultset.storage.columnar"; //$NON-NLS-1$
+    // Memory budget (MB) of fetched rows. Zero disables spilling rows on disk.
+    public static final String RESULT_SET_SPILL_MEMORY_LIMIT = "resultset.storage.spill.memoryLimit"; //$NON-NLS-1$
     public static final String RESULT_SET_CANCEL_TIMEOUT = "resultset.cancel.timeout"; //$NON-NLS-1$
     public static final String RESULT_SET_BINARY_EDITOR_TYPE = "resultset.binary.editor"; //$NON-NLS-1$
     public static final String RESULT_SET_ORDERING_MODE = "resultset.order.mode"; //$NON-NLS-1$
+    // Evaluate filter conditions on the client side when all rows are fetched
+    public static final String RESULT_SET_FILTER_ON_CLIENT = "resultset.filter.client"; //$NON-NLS-1$
     public static final String RESULT_SET_SHOW_ODD_ROWS = "resultset.show.oddRows"; //$NON-NLS-1$
     public static final String RESULT_SET_HIGHLIGHT_SELECTED_ROWS = "resultset.highlight.selectedRows"; //$NON-NLS-1$
     public static final String RESULT_SET_SHOW_CELL_ICONS = "resultset.show.cellIcons"; //$NON-NLS-1$
@@ -49,9 +49,14 @@ public class ResultSetRow {
     private int rowNumber;
     // Row number in grid
     private int visualNumber;
-    // Column values
-    @NotNull
-    public Object[] values;
+    // Column values. Null if values are kept in the row store.
+    // Rows may be read by background jobs, so unpacked values are published only when fully filled
+    @Nullable
+    private volatile Object[] values;
+    // Row store is never reset, readers which didn't see unpacked values read it
+    @Nullable
+    private final IResultSetRowStore store;
+    private final int storeIndex;
     @Nullable
     public Map<DBDAttributeBinding, Object> changes;
     // Row state
@@ -63,12 +68,69 @@ public class ResultSetRow {
         this.rowNumber = rowNumber;
         this.visualNumber = rowNumber;
         this.values = values;
+        this.store = null;
+        this.storeIndex = -1;
         this.state = STATE_NORMAL;
     }
 
+    ResultSetRow(int rowNumber, @NotNull IResultSetRowStore store, int storeIndex) {
+        this.rowNumber = rowNumber;
+        this.visualNumber = rowNumber;
+        this.store = store;
+        this.storeIndex = storeIndex;
+        this.state = STATE_NORMAL;
+    }
+
+    /**
+     * Returns row values. Values kept in the row store are copied into the row first,
+     * so the returned array may be modified.
+     */
     @NotNull
     public Object[] getValues() {
-        return values;
+        Object[] result = values;
+        if (result == null) {
+            synchronized (this) {
+                result = values;
+                if (result == null) {
+                    result = store.getRowValues(storeIndex);
+                    values = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    void setValues(@NotNull Object[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Returns row values without copying them into the row
+     */
+    @NotNull
+    Object[] readValues() {
+        Object[] result = values;
+        return result != null ? result : store.getRowValues(storeIndex);
+    }
+
+    /**
+     * Returns true if row values are read from the row store (column store or spill file)
+     */
+    public boolean isStored() {
+        return values == null;
+    }
+
+    @Nullable
+    public Object getValue(int index) {
+        Object[] result = values;
+        if (result != null) {
+            return index < result.length ? result[index] : null;
+        }
+        return store.getValue(storeIndex, index);
+    }
+
+    public void setValue(int index, @Nullable Object value) {
+        getValues()[index] = value;
     }
 
     public boolean isChanged() {
@@ -127,8 +189,18 @@ public class ResultSetRow {
     }
 
     void release() {
-        for (Object value : values) {
-            DBUtils.releaseValue(value);
+        Object[] result = values;
+        if (result != null) {
+            for (Object value : result) {
+                DBUtils.releaseValue(value);
+            }
+        } else {
+            // Only values of generic columns may need release
+            for (int i = 0; i < store.getColumnCount(); i++) {
+                if (!store.isCompactColumn(i)) {
+                    DBUtils.releaseValue(store.getValue(storeIndex, i));
+                }
+            }
         }
         if (changes != null) {
             for (Object oldValue : changes.values()) {
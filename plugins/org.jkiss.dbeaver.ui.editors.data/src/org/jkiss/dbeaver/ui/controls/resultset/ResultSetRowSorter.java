@@ -0,0 +1,366 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Local rows sorter.
+ *
+ * Sort keys are read once per row before sorting. Integer and floating point keys are kept in primitive arrays,
+ * strings are case-folded in advance. Then primitive array of row indexes is merge sorted, big arrays are sorted in parallel.
+ * Order is the same as order of {@link DBUtils#compareDataValues} (strings are compared ignoring case),
+ * sort is stable.
+ */
+class ResultSetRowSorter<T> {
+
+    static final int PARALLEL_SORT_THRESHOLD = 50_000;
+    private static final int PARALLEL_SORT_GRAIN = 8192;
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+    private static final int CANCEL_CHECK_INTERVAL = 0xFFFF;
+
+    private final List<T> rows;
+    private final List<KeyReader<T>> keyReaders = new ArrayList<>();
+
+    private record KeyReader<T>(@NotNull Function<T, Object> reader, boolean descending) {
+    }
+
+    ResultSetRowSorter(@NotNull List<T> rows) {
+        this.rows = rows;
+    }
+
+    void addKey(@NotNull Function<T, Object> keyReader, boolean descending) {
+        keyReaders.add(new KeyReader<>(keyReader, descending));
+    }
+
+    /**
+     * Returns new list of sorted rows or null if sort was canceled
+     */
+    @Nullable
+    List<T> sort(@NotNull DBRProgressMonitor monitor) {
+        int rowCount = rows.size();
+        monitor.beginTask("Sort rows", keyReaders.size() + 1);
+        try {
+            SortKey[] keys = new SortKey[keyReaders.size()];
+            for (int i = 0; i < keys.length; i++) {
+                monitor.subTask("Read sort keys");
+                keys[i] = readKeys(monitor, keyReaders.get(i));
+                if (keys[i] == null) {
+                    return null;
+                }
+                monitor.worked(1);
+            }
+
+            monitor.subTask("Sort " + rowCount + " rows");
+            int[] order = new int[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                order[i] = i;
+            }
+            if (keys.length > 0) {
+                RowComparator comparator = new RowComparator(monitor, keys);
+                int[] buffer = new int[rowCount];
+                if (rowCount >= PARALLEL_SORT_THRESHOLD) {
+                    ForkJoinPool.commonPool().invoke(new MergeSortTask(comparator, order, buffer, 0, rowCount));
+                } else {
+                    mergeSort(comparator, order, buffer, 0, rowCount);
+                }
+                if (comparator.canceled) {
+                    return null;
+                }
+            }
+            monitor.worked(1);
+
+            List<T> result = new ArrayList<>(rowCount);
+            for (int index : order) {
+                result.add(rows.get(index));
+            }
+            return result;
+        } finally {
+            monitor.done();
+        }
+    }
+
+    @Nullable
+    private SortKey readKeys(@NotNull DBRProgressMonitor monitor, @NotNull KeyReader<T> keyReader) {
+        int rowCount = rows.size();
+        Object[] values = new Object[rowCount];
+        boolean allIntegers = true, allNumbers = true, allStrings = true;
+        for (int i = 0; i < rowCount; i++) {
+            if ((i & CANCEL_CHECK_INTERVAL) == 0 && monitor.isCanceled()) {
+                return null;
+            }
+            Object value = keyReader.reader.apply(rows.get(i));
+            if (DBUtils.isNullValue(value)) {
+                value = null;
+            } else {
+                boolean isInteger = value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+                allIntegers &= isInteger;
+                allNumbers &= isInteger || value instanceof Double || value instanceof Float;
+                allStrings &= value instanceof String;
+            }
+            values[i] = value;
+        }
+        int direction = keyReader.descending ? -1 : 1;
+        if (allIntegers) {
+            return new LongKey(values, direction);
+        } else if (allNumbers) {
+            return new DoubleKey(values, direction);
+        } else if (allStrings) {
+            return new StringKey(values, direction);
+        } else {
+            return new ObjectKey(values, direction);
+        }
+    }
+
+    /**
+     * Folds case the same way as {@link String#compareToIgnoreCase(String)} does
+     */
+    @NotNull
+    static String foldCase(@NotNull String str) {
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (Character.toLowerCase(Character.toUpperCase(c)) != c || Character.isSurrogate(c)) {
+                StringBuilder folded = new StringBuilder(str.length());
+                folded.append(str, 0, i);
+                str.substring(i).codePoints().forEach(cp -> folded.appendCodePoint(Character.toLowerCase(Character.toUpperCase(cp))));
+                return folded.toString();
+            }
+        }
+        return str;
+    }
+
+    /**
+     * Stable merge sort of the index range [from, to). Buffer must have the same size as the index array.
+     */
+    private static void mergeSort(@NotNull RowComparator comparator, @NotNull int[] order, @NotNull int[] buffer, int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(comparator, order, from, to);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(comparator, order, buffer, from, mid);
+        mergeSort(comparator, order, buffer, mid, to);
+        merge(comparator, order, buffer, from, mid, to);
+    }
+
+    private static void insertionSort(@NotNull RowComparator comparator, @NotNull int[] order, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int row = order[i];
+            int k = i - 1;
+            while (k >= from && comparator.compare(order[k], row) > 0) {
+                order[k + 1] = order[k];
+                k--;
+            }
+            order[k + 1] = row;
+        }
+    }
+
+    /**
+     * Merges sorted ranges [from, mid) and [mid, to). Rows of the first range go first if keys are equal.
+     */
+    private static void merge(@NotNull RowComparator comparator, @NotNull int[] order, @NotNull int[] buffer, int from, int mid, int to) {
+        if (comparator.compare(order[mid - 1], order[mid]) <= 0) {
+            // Already ordered
+            return;
+        }
+        System.arraycopy(order, from, buffer, from, mid - from);
+        int left = from, right = mid, pos = from;
+        while (left < mid && right < to) {
+            if (comparator.compare(order[right], buffer[left]) < 0) {
+                order[pos++] = order[right++];
+            } else {
+                order[pos++] = buffer[left++];
+            }
+        }
+        while (left < mid) {
+            order[pos++] = buffer[left++];
+        }
+    }
+
+    private static class MergeSortTask extends RecursiveAction {
+        private final RowComparator comparator;
+        private final int[] order;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+
+        MergeSortTask(@NotNull RowComparator comparator, @NotNull int[] order, @NotNull int[] buffer, int from, int to) {
+            this.comparator = comparator;
+            this.order = order;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_SORT_GRAIN) {
+                mergeSort(comparator, order, buffer, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(
+                new MergeSortTask(comparator, order, buffer, from, mid),
+                new MergeSortTask(comparator, order, buffer, mid, to));
+            merge(comparator, order, buffer, from, mid, to);
+        }
+    }
+
+    private static class RowComparator {
+        private final DBRProgressMonitor monitor;
+        private final SortKey[] keys;
+        // Not synchronized: it is only used to check cancellation from time to time
+        private int compareCount;
+        // Once canceled all rows are equal, so the sort finishes quickly
+        private volatile boolean canceled;
+
+        RowComparator(@NotNull DBRProgressMonitor monitor, @NotNull SortKey[] keys) {
+            this.monitor = monitor;
+            this.keys = keys;
+        }
+
+        int compare(int row1, int row2) {
+            if ((++compareCount & CANCEL_CHECK_INTERVAL) == 0 && monitor.isCanceled()) {
+                canceled = true;
+            }
+            if (canceled) {
+                return 0;
+            }
+            for (SortKey key : keys) {
+                int result = key.compare(row1, row2);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        }
+    }
+
+    private abstract static class SortKey {
+        // Nulls are greater than any value
+        final BitSet nulls = new BitSet();
+        final int direction;
+
+        SortKey(@NotNull Object[] values, int direction) {
+            this.direction = direction;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    nulls.set(i);
+                }
+            }
+        }
+
+        int compare(int row1, int row2) {
+            boolean null1 = nulls.get(row1), null2 = nulls.get(row2);
+            int result;
+            if (null1 || null2) {
+                result = null1 == null2 ? 0 : (null1 ? 1 : -1);
+            } else {
+                result = compareValues(row1, row2);
+            }
+            return direction * result;
+        }
+
+        abstract int compareValues(int row1, int row2);
+    }
+
+    private static class LongKey extends SortKey {
+        private final long[] keys;
+
+        LongKey(@NotNull Object[] values, int direction) {
+            super(values, direction);
+            keys = new long[values.length];
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    keys[i] = ((Number) values[i]).longValue();
+                }
+            }
+        }
+
+        @Override
+        int compareValues(int row1, int row2) {
+            return Long.compare(keys[row1], keys[row2]);
+        }
+    }
+
+    private static class DoubleKey extends SortKey {
+        private final double[] keys;
+
+        DoubleKey(@NotNull Object[] values, int direction) {
+            super(values, direction);
+            keys = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    keys[i] = ((Number) values[i]).doubleValue();
+                }
+            }
+        }
+
+        @Override
+        int compareValues(int row1, int row2) {
+            return Double.compare(keys[row1], keys[row2]);
+        }
+    }
+
+    private static class StringKey extends SortKey {
+        private final String[] keys;
+
+        StringKey(@NotNull Object[] values, int direction) {
+            super(values, direction);
+            keys = new String[values.length];
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    keys[i] = foldCase((String) values[i]);
+                }
+            }
+        }
+
+        @Override
+        int compareValues(int row1, int row2) {
+            return keys[row1].compareTo(keys[row2]);
+        }
+    }
+
+    /**
+     * Values of different or complex types
+     */
+    private static class ObjectKey extends SortKey {
+        private final Object[] keys;
+
+        ObjectKey(@NotNull Object[] values, int direction) {
+            super(values, direction);
+            keys = values;
+        }
+
+        @Override
+        int compareValues(int row1, int row2) {
+            Object value1 = keys[row1], value2 = keys[row2];
+            if (value1 instanceof String str1 && value2 instanceof String str2) {
+                return str1.compareToIgnoreCase(str2);
+            }
+            return DBUtils.compareDataValues(value1, value2);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+/**
+ * Calculates size of the next result set segment from the observed fetch speed and row size.
+ *
+ * Segment should be read in about {@link #TARGET_READ_TIME} and should not take more
+ * than {@link #TARGET_SEGMENT_BYTES} in memory. Configured segment size is used as a minimum.
+ */
+class ResultSetSegmentSizer {
+
+    static final long TARGET_READ_TIME = 1000;
+    static final long TARGET_SEGMENT_BYTES = 32 * 1024 * 1024;
+    static final int MAX_SIZE_FACTOR = 20;
+
+    private int segmentSize;
+
+    synchronized void reset() {
+        segmentSize = 0;
+    }
+
+    /**
+     * Adds statistics of the read segment.
+     *
+     * @param rowCount    number of read rows
+     * @param readTime    time (ms) between the read start and the last fetched row (includes query execution)
+     * @param avgRowBytes estimated average row size
+     */
+    synchronized void addSegmentStatistics(int rowCount, long readTime, long avgRowBytes) {
+        if (rowCount <= 0) {
+            return;
+        }
+        long bySpeed = rowCount * TARGET_READ_TIME / Math.max(readTime, 1);
+        long byMemory = avgRowBytes > 0 ? TARGET_SEGMENT_BYTES / avgRowBytes : Integer.MAX_VALUE;
+        int newSize = (int) Math.max(1, Math.min(Math.min(bySpeed, byMemory), Integer.MAX_VALUE));
+        // Smooth latency spikes
+        segmentSize = segmentSize <= 0 ? newSize : (int) (((long) segmentSize + newSize) / 2);
+    }
+
+    /**
+     * Returns size of the next segment. Returns the configured size if there are no statistics yet.
+     */
+    synchronized int getSegmentSize(int configuredSize) {
+        if (configuredSize <= 0 || segmentSize <= 0) {
+            return configuredSize;
+        }
+        return (int) Math.max(configuredSize, Math.min(segmentSize, (long) configuredSize * MAX_SIZE_FACTOR));
+    }
+}
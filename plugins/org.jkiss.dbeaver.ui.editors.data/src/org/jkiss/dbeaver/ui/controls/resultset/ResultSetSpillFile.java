@@ -0,0 +1,652 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.impl.data.DBDValueError;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * Local file with fetched rows which do not fit into the memory budget.
+ *
+ * Rows are serialized into a memory-mapped file, the file is mapped by fixed-size windows.
+ * Each row starts with its length and the table of column offsets (relative to the row data start),
+ * so a single value can be read without decoding of preceding columns.
+ * Rows never cross window boundaries (except rows bigger than a window, which are read directly from the channel).
+ * Only offsets of each {@link #OFFSET_BLOCK_SIZE}-th row are kept in memory, other rows are found by their lengths.
+ * Only rows with plain values (numbers, strings, dates, binaries) can be spilled, rows with
+ * LOBs, documents, collections, etc. must be kept in memory.
+ * Rows are read on demand when the grid accesses them. File is unmapped and deleted on close.
+ */
+public class ResultSetSpillFile implements IResultSetRowStore, AutoCloseable {
+
+    private static final Log log = Log.getLog(ResultSetSpillFile.class);
+
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    static final int OFFSET_BLOCK_SIZE = 64;
+    private static final int OFFSET_BLOCK_SHIFT = 6;
+
+    // Row header which means that the rest of the window is unused
+    private static final int HEADER_WINDOW_END = -1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_FALSE = 1;
+    private static final byte TYPE_TRUE = 2;
+    private static final byte TYPE_BYTE = 3;
+    private static final byte TYPE_SHORT = 4;
+    private static final byte TYPE_INT = 5;
+    private static final byte TYPE_LONG = 6;
+    private static final byte TYPE_FLOAT = 7;
+    private static final byte TYPE_DOUBLE = 8;
+    private static final byte TYPE_STRING = 9;
+    private static final byte TYPE_BYTES = 10;
+    private static final byte TYPE_DECIMAL = 11;
+    private static final byte TYPE_BIG_INTEGER = 12;
+    private static final byte TYPE_TIMESTAMP = 13;
+    private static final byte TYPE_SQL_DATE = 14;
+    private static final byte TYPE_SQL_TIME = 15;
+    private static final byte TYPE_DATE = 16;
+
+    private static final Set<Class<?>> SPILLABLE_TYPES = Set.of(
+        Boolean.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+        String.class, byte[].class, BigDecimal.class, BigInteger.class,
+        Timestamp.class, java.sql.Date.class, java.sql.Time.class, java.util.Date.class);
+
+    private final Path path;
+    private final int columnCount;
+    private final int windowSize;
+    private FileChannel channel;
+    private final List<MappedByteBuffer> windows = new ArrayList<>();
+    // Offsets of the first row of each block
+    private long[] blockOffsets = new long[64];
+    private int rowCount;
+    private long writePosition;
+    private final RowWriter writer = new RowWriter();
+
+    public ResultSetSpillFile(@NotNull Path path, int columnCount) throws IOException {
+        this(path, columnCount, DEFAULT_WINDOW_SIZE);
+    }
+
+    ResultSetSpillFile(@NotNull Path path, int columnCount, int windowSize) throws IOException {
+        this.path = path;
+        this.columnCount = columnCount;
+        this.windowSize = windowSize;
+        this.channel = FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        path.toFile().deleteOnExit();
+    }
+
+    /**
+     * Checks that all row values can be written in the spill file
+     */
+    public static boolean isSpillable(@NotNull Object[] values) {
+        for (Object value : values) {
+            if (value != null && !SPILLABLE_TYPES.contains(value.getClass())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rough estimation of the row size in heap
+     */
+    public static long estimateRowSize(@NotNull Object[] values) {
+        long size = 16 + values.length * 4L;
+        for (Object value : values) {
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof String str) {
+                size += 40 + str.length();
+            } else if (value instanceof byte[] bytes) {
+                size += 16 + bytes.length;
+            } else if (value instanceof Number || value instanceof Boolean) {
+                size += 16;
+            } else {
+                size += 32;
+            }
+        }
+        return size;
+    }
+
+    @NotNull
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public synchronized int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Current size of the file data
+     */
+    public synchronized long getDataSize() {
+        return writePosition;
+    }
+
+    /**
+     * Writes row into the file.
+     *
+     * @return row index in the file
+     */
+    public synchronized int addRow(@NotNull Object[] values) throws IOException {
+        if (channel == null) {
+            throw new IOException("Spill file is closed");
+        }
+        writer.reset(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            writer.writeValue(i, i < values.length ? values[i] : null);
+        }
+        int length = writer.size;
+        if (writePosition % windowSize != 0 && writePosition % windowSize + 4 + length > windowSize) {
+            // Row doesn't fit in the current window
+            if (windowSize - writePosition % windowSize >= 4) {
+                getWindow(writePosition).putInt((int) (writePosition % windowSize), HEADER_WINDOW_END);
+            }
+            writePosition = alignToWindow(writePosition);
+        }
+        long offset = writePosition;
+        if (4 + length > windowSize) {
+            // Huge row. Write it with its negative length at the window start, it is read from the channel.
+            ByteBuffer buffer = ByteBuffer.allocate(4 + length).putInt(-length - 2).put(writer.data, 0, length).flip();
+            long position = offset;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            writePosition = alignToWindow(position);
+        } else {
+            MappedByteBuffer window = getWindow(offset);
+            int windowOffset = (int) (offset % windowSize);
+            window.putInt(windowOffset, length);
+            window.put(windowOffset + 4, writer.data, 0, length);
+            writePosition += 4 + length;
+        }
+        if ((rowCount & (OFFSET_BLOCK_SIZE - 1)) == 0) {
+            int block = rowCount >> OFFSET_BLOCK_SHIFT;
+            if (block == blockOffsets.length) {
+                blockOffsets = Arrays.copyOf(blockOffsets, block * 2);
+            }
+            blockOffsets[block] = offset;
+        }
+        return rowCount++;
+    }
+
+    @Nullable
+    @Override
+    public synchronized Object getValue(int row, int column) {
+        if (column < 0 || column >= columnCount) {
+            return null;
+        }
+        try {
+            RowReader reader = openRow(row);
+            if (reader == null) {
+                return null;
+            }
+            reader.seekColumn(column);
+            return reader.readValue();
+        } catch (Exception e) {
+            log.debug("Error reading spilled row " + row, e);
+            return new DBDValueError(e);
+        }
+    }
+
+    @NotNull
+    @Override
+    public synchronized Object[] getRowValues(int row) {
+        Object[] values = new Object[columnCount];
+        try {
+            RowReader reader = openRow(row);
+            if (reader != null) {
+                reader.seekColumn(0);
+                for (int i = 0; i < columnCount; i++) {
+                    values[i] = reader.readValue();
+                }
+            }
+        } catch (Exception e) {
+            log.debug("Error reading spilled row " + row, e);
+            Arrays.fill(values, new DBDValueError(e));
+        }
+        return values;
+    }
+
+    @Override
+    public boolean isCompactColumn(int column) {
+        return true;
+    }
+
+    /**
+     * Unmaps and deletes the file. Rows can't be read after close.
+     */
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        for (MappedByteBuffer window : windows) {
+            unmap(window);
+        }
+        windows.clear();
+        blockOffsets = new long[0];
+        rowCount = 0;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Error closing spill file", e);
+        }
+        channel = null;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Mapped file can't be deleted on some platforms if buffers weren't unmapped. It will be deleted on exit.
+            log.debug("Can't delete spill file '" + path + "': " + e.getMessage());
+        }
+    }
+
+    @Nullable
+    private RowReader openRow(int row) throws IOException {
+        if (channel == null) {
+            return null;
+        }
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException(row);
+        }
+        // Skip preceding rows of the block
+        long offset = blockOffsets[row >> OFFSET_BLOCK_SHIFT];
+        for (int i = row & (OFFSET_BLOCK_SIZE - 1); i > 0; i--) {
+            offset = getNextRowOffset(offset);
+        }
+        int header = readHeader(offset);
+        if (header < 0) {
+            // Read the whole row from the channel
+            ByteBuffer buffer = ByteBuffer.allocate(-header - 2);
+            readFully(buffer, offset + 4);
+            return new RowReader(buffer, 0);
+        }
+        return new RowReader(getWindow(offset), (int) (offset % windowSize) + 4);
+    }
+
+    private long getNextRowOffset(long offset) throws IOException {
+        int header = readHeader(offset);
+        if (header < 0) {
+            offset = alignToWindow(offset + 4 - header - 2);
+        } else {
+            offset += 4 + header;
+        }
+        // Skip the unused end of the window
+        if (windowSize - offset % windowSize < 4 || readHeader(offset) == HEADER_WINDOW_END) {
+            offset = alignToWindow(offset);
+        }
+        return offset;
+    }
+
+    private int readHeader(long offset) throws IOException {
+        return getWindow(offset).getInt((int) (offset % windowSize));
+    }
+
+    private void readFully(@NotNull ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of spill file");
+            }
+        }
+    }
+
+    @NotNull
+    private MappedByteBuffer getWindow(long offset) throws IOException {
+        int index = (int) (offset / windowSize);
+        while (windows.size() <= index) {
+            windows.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) windows.size() * windowSize, windowSize));
+        }
+        return windows.get(index);
+    }
+
+    /**
+     * Releases mapped memory right away, otherwise it is kept until the buffer is garbage collected.
+     */
+    private static void unmap(@NotNull MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe"); //$NON-NLS-1$
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe"); //$NON-NLS-1$
+            theUnsafe.setAccessible(true);
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class); //$NON-NLS-1$
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (Throwable e) {
+            log.debug("Can't unmap spill file buffer: " + e.getMessage());
+        }
+    }
+
+    private long alignToWindow(long position) {
+        long rem = position % windowSize;
+        return rem == 0 ? position : position + windowSize - rem;
+    }
+
+    /**
+     * Fetched rows list which puts rows in the spill file on demand.
+     * Rows kept in memory are added in the wrapped list.
+     * Row positions are kept as runs of consecutive memory or spill file rows, not per row.
+     */
+    static class RowList extends AbstractList<Object[]> implements RandomAccess {
+        private final List<Object[]> memoryRows;
+        @Nullable
+        private ResultSetSpillFile spillFile;
+        // First list index of each run
+        private int[] runStarts = new int[16];
+        // Position of the first run row: index in memory rows or (-index - 1) in the spill file
+        private int[] runPositions = new int[16];
+        private int runCount;
+        private int size;
+
+        RowList(@NotNull List<Object[]> memoryRows) {
+            this.memoryRows = memoryRows;
+        }
+
+        @NotNull
+        List<Object[]> getMemoryRows() {
+            return memoryRows;
+        }
+
+        @Nullable
+        ResultSetSpillFile getSpillFile() {
+            return spillFile;
+        }
+
+        /**
+         * Returns row index in the memory rows list or -1 if row is in the spill file
+         */
+        int getMemoryIndex(int index) {
+            int position = getPosition(index);
+            return position >= 0 ? position : -1;
+        }
+
+        /**
+         * Returns row index in the spill file or -1 if row is kept in memory
+         */
+        int getSpillIndex(int index) {
+            int position = getPosition(index);
+            return position < 0 ? -position - 1 : -1;
+        }
+
+        /**
+         * Writes row in the spill file
+         */
+        void addSpilled(@NotNull ResultSetSpillFile file, @NotNull Object[] values) throws IOException {
+            if (spillFile != null && spillFile != file) {
+                throw new IOException("Rows list can't be spilled in different files");
+            }
+            int fileIndex = file.addRow(values);
+            spillFile = file;
+            addPosition(-fileIndex - 1);
+        }
+
+        @Override
+        public Object[] get(int index) {
+            int position = getPosition(index);
+            return position >= 0 ? memoryRows.get(position) : spillFile.getRowValues(-position - 1);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean add(Object[] values) {
+            addPosition(memoryRows.size());
+            memoryRows.add(values);
+            return true;
+        }
+
+        /**
+         * Removes all rows. Spill file is closed and deleted as well,
+         * so the list must not be cleared once its rows were passed to the model.
+         */
+        @Override
+        public void clear() {
+            memoryRows.clear();
+            if (spillFile != null) {
+                spillFile.close();
+                spillFile = null;
+            }
+            runStarts = new int[16];
+            runPositions = new int[16];
+            runCount = 0;
+            size = 0;
+            modCount++;
+        }
+
+        private int getPosition(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            int run = Arrays.binarySearch(runStarts, 0, runCount, index);
+            if (run < 0) {
+                run = -run - 2;
+            }
+            int runPosition = runPositions[run];
+            int shift = index - runStarts[run];
+            return runPosition >= 0 ? runPosition + shift : runPosition - shift;
+        }
+
+        private void addPosition(int position) {
+            if (runCount > 0) {
+                // Continue the last run if the row follows its last row
+                int runPosition = runPositions[runCount - 1];
+                int shift = size - runStarts[runCount - 1];
+                if (runPosition >= 0 ? position == runPosition + shift : position == runPosition - shift) {
+                    size++;
+                    modCount++;
+                    return;
+                }
+            }
+            if (runCount == runStarts.length) {
+                runStarts = Arrays.copyOf(runStarts, runCount * 2);
+                runPositions = Arrays.copyOf(runPositions, runCount * 2);
+            }
+            runStarts[runCount] = size;
+            runPositions[runCount] = position;
+            runCount++;
+            size++;
+            modCount++;
+        }
+    }
+
+    private static class RowWriter {
+        private byte[] data = new byte[256];
+        private int size;
+
+        void reset(int columnCount) {
+            // Reserve the column offsets table
+            size = 0;
+            ensureCapacity(columnCount * 4);
+            size = columnCount * 4;
+        }
+
+        void writeValue(int column, @Nullable Object value) {
+            int start = size;
+            size = column * 4;
+            writeLong(start, 4);
+            size = start;
+            if (value == null) {
+                writeByte(TYPE_NULL);
+            } else if (value instanceof Boolean bool) {
+                writeByte(bool ? TYPE_TRUE : TYPE_FALSE);
+            } else if (value instanceof Byte num) {
+                writeByte(TYPE_BYTE);
+                writeByte(num);
+            } else if (value instanceof Short num) {
+                writeByte(TYPE_SHORT);
+                writeLong(num, 2);
+            } else if (value instanceof Integer num) {
+                writeByte(TYPE_INT);
+                writeLong(num, 4);
+            } else if (value instanceof Long num) {
+                writeByte(TYPE_LONG);
+                writeLong(num, 8);
+            } else if (value instanceof Float num) {
+                writeByte(TYPE_FLOAT);
+                writeLong(Float.floatToRawIntBits(num), 4);
+            } else if (value instanceof Double num) {
+                writeByte(TYPE_DOUBLE);
+                writeLong(Double.doubleToRawLongBits(num), 8);
+            } else if (value instanceof String str) {
+                writeByte(TYPE_STRING);
+                writeBytes(str.getBytes(StandardCharsets.UTF_8));
+            } else if (value instanceof byte[] bytes) {
+                writeByte(TYPE_BYTES);
+                writeBytes(bytes);
+            } else if (value instanceof BigDecimal decimal) {
+                writeByte(TYPE_DECIMAL);
+                writeLong(decimal.scale(), 4);
+                writeBytes(decimal.unscaledValue().toByteArray());
+            } else if (value instanceof BigInteger integer) {
+                writeByte(TYPE_BIG_INTEGER);
+                writeBytes(integer.toByteArray());
+            } else if (value instanceof Timestamp timestamp) {
+                writeByte(TYPE_TIMESTAMP);
+                writeLong(timestamp.getTime(), 8);
+                writeLong(timestamp.getNanos(), 4);
+            } else if (value instanceof java.sql.Date date) {
+                writeByte(TYPE_SQL_DATE);
+                writeLong(date.getTime(), 8);
+            } else if (value instanceof java.sql.Time time) {
+                writeByte(TYPE_SQL_TIME);
+                writeLong(time.getTime(), 8);
+            } else if (value instanceof java.util.Date date) {
+                writeByte(TYPE_DATE);
+                writeLong(date.getTime(), 8);
+            } else {
+                throw new IllegalArgumentException("Value of type " + value.getClass().getName() + " can't be spilled");
+            }
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            data[size++] = (byte) value;
+        }
+
+        private void writeLong(long value, int length) {
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                data[size++] = (byte) (value >>> (i * 8));
+            }
+        }
+
+        private void writeBytes(@NotNull byte[] bytes) {
+            writeLong(bytes.length, 4);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static class RowReader {
+        private final ByteBuffer buffer;
+        private final int rowStart;
+        private int position;
+
+        RowReader(@NotNull ByteBuffer buffer, int rowStart) {
+            this.buffer = buffer;
+            this.rowStart = rowStart;
+            this.position = rowStart;
+        }
+
+        void seekColumn(int column) {
+            position = rowStart + column * 4;
+            position = rowStart + (int) readLong(4);
+        }
+
+        @Nullable
+        Object readValue() {
+            byte type = buffer.get(position++);
+            return switch (type) {
+                case TYPE_NULL -> null;
+                case TYPE_FALSE -> Boolean.FALSE;
+                case TYPE_TRUE -> Boolean.TRUE;
+                case TYPE_BYTE -> buffer.get(position++);
+                case TYPE_SHORT -> (short) readLong(2);
+                case TYPE_INT -> (int) readLong(4);
+                case TYPE_LONG -> readLong(8);
+                case TYPE_FLOAT -> Float.intBitsToFloat((int) readLong(4));
+                case TYPE_DOUBLE -> Double.longBitsToDouble(readLong(8));
+                case TYPE_STRING -> new String(readBytes(), StandardCharsets.UTF_8);
+                case TYPE_BYTES -> readBytes();
+                case TYPE_DECIMAL -> {
+                    int scale = (int) readLong(4);
+                    yield new BigDecimal(new BigInteger(readBytes()), scale);
+                }
+                case TYPE_BIG_INTEGER -> new BigInteger(readBytes());
+                case TYPE_TIMESTAMP -> {
+                    Timestamp timestamp = new Timestamp(readLong(8));
+                    timestamp.setNanos((int) readLong(4));
+                    yield timestamp;
+                }
+                case TYPE_SQL_DATE -> new java.sql.Date(readLong(8));
+                case TYPE_SQL_TIME -> new java.sql.Time(readLong(8));
+                case TYPE_DATE -> new java.util.Date(readLong(8));
+                default -> throw new IllegalStateException("Bad spilled value type: " + type);
+            };
+        }
+
+        private long readLong(int length) {
+            long value = 0;
+            for (int i = 0; i < length; i++) {
+                value |= (buffer.get(position++) & 0xFFL) << (i * 8);
+            }
+            // Sign extension for short and int values
+            int shift = 64 - length * 8;
+            return shift == 0 ? value : (value << shift) >> shift;
+        }
+
+        @NotNull
+        private byte[] readBytes() {
+            int length = (int) readLong(4);
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            position += length;
+            return bytes;
+        }
+    }
+}
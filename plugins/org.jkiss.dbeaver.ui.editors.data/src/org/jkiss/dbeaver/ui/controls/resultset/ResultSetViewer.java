@@ -115,6 +115,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 /**
  * ResultSetViewer
@@ -146,6 +147,8 @@ public class ResultSetViewer extends Viewer
     private static final String CONFIRM_SERVER_SIDE_ORDERING_UNAVAILABLE = "org.jkiss.dbeaver.sql.resultset.serverSideOrderingUnavailable";
 
     private static final int THEME_UPDATE_DELAY_MS = 250;
+    // Local sort and filter of bigger result sets are performed in background
+    private static final int LOCAL_PROCESSING_IN_BACKGROUND_THRESHOLD = 10_000;
 
     public static final String EMPTY_TRANSFORMER_NAME = "Default";
     public static final String CONTROL_ID = ResultSetViewer.class.getSimpleName();
@@ -218,6 +221,9 @@ public class ResultSetViewer extends Viewer
     private final AtomicBoolean dataPumpRunning = new AtomicBoolean();
 
     private final ResultSetModel model = new ResultSetModel();
+    private final ResultSetSegmentSizer segmentSizer = new ResultSetSegmentSizer();
+    // Fetched rows were filtered by the server. They can't be filtered by other conditions on the client side.
+    private boolean serverSideFiltered;
     private HistoryStateItem curState = null;
     private final List<HistoryStateItem> stateHistory = new ArrayList<>();
     private int historyPosition = -1;
@@ -2365,7 +2371,25 @@ public class ResultSetViewer extends Viewer
     private void reorderLocally()
     {
         this.rejectChanges();
-        this.getModel().resetOrdering();
+        if (model.getRowCount() < LOCAL_PROCESSING_IN_BACKGROUND_THRESHOLD) {
+            this.getModel().resetOrdering();
+        } else {
+            // Sort big result sets in background. Sort may be canceled.
+            List<ResultSetRow> sortedRows = null;
+            try {
+                AtomicReference<List<ResultSetRow>> result = new AtomicReference<>();
+                UIUtils.runInProgressService(monitor -> result.set(model.sortRows(monitor)));
+                sortedRows = result.get();
+            } catch (InvocationTargetException e) {
+                log.error("Error sorting rows", e.getTargetException());
+            } catch (InterruptedException e) {
+                // Canceled
+            }
+            if (sortedRows == null) {
+                return;
+            }
+            model.setOrderedRows(sortedRows);
+        }
         this.getActivePresentation().refreshData(false, false, true);
         this.updateFiltersText();
     }
@@ -3916,6 +3940,9 @@ public class ResultSetViewer extends Viewer
         if (!checkForChanges()) {
             return;
         }
+        if (filterLocally(filter)) {
+            return;
+        }
 
         DBSDataContainer dataContainer = getDataContainer();
         if (dataContainer != null) {
@@ -3933,6 +3960,54 @@ public class ResultSetViewer extends Viewer
         }
     }
 
+    /**
+     * Applies filter to the fetched rows if all rows are fetched and filter conditions can be evaluated on the client side.
+     *
+     * @return false if data must be filtered by the server
+     */
+    private boolean filterLocally(@NotNull DBDDataFilter filter) {
+        if (!getPreferenceStore().getBoolean(ResultSetPreferences.RESULT_SET_FILTER_ON_CLIENT) ||
+            !model.hasData() || isHasMoreData() || serverSideFiltered || model.isDirty() ||
+            (filter.hasOrdering() && ResultSetUtils.getOrderingMode(this) == ResultSetUtils.OrderingMode.SERVER_SIDE))
+        {
+            return false;
+        }
+        final ResultSetLocalFilter<ResultSetRow> localFilter = model.createLocalFilter(filter);
+        if (localFilter == null) {
+            return false;
+        }
+        List<ResultSetRow> filteredRows = null;
+        if (localFilter.getRowCount() < LOCAL_PROCESSING_IN_BACKGROUND_THRESHOLD) {
+            filteredRows = model.filterRows(new VoidProgressMonitor(), localFilter, filter);
+        } else {
+            try {
+                AtomicReference<List<ResultSetRow>> result = new AtomicReference<>();
+                UIUtils.runInProgressService(monitor -> result.set(model.filterRows(monitor, localFilter, filter)));
+                filteredRows = result.get();
+            } catch (InvocationTargetException e) {
+                log.error("Error filtering rows", e.getTargetException());
+                return false;
+            } catch (InterruptedException e) {
+                // Canceled
+            }
+        }
+        if (filteredRows == null) {
+            // Canceled. Keep current rows and filter.
+            return true;
+        }
+        if (!model.setFilteredRows(filteredRows, localFilter)) {
+            return false;
+        }
+        model.setDataFilter(filter);
+        curRow = model.getRowCount() > 0 ? model.getRow(0) : null;
+        selectedRecords = curRow == null ? new int[0] : new int[]{curRow.getVisualNumber()};
+        activePresentation.refreshData(true, false, false);
+        updateFiltersText();
+        updateStatusMessage();
+        updatePanelsContent(true);
+        return true;
+    }
+
     @Override
     public boolean refreshData(@Nullable Runnable onSuccess) {
         if (!verifyQuerySafety() || !checkForChanges()) {
@@ -3996,6 +4071,15 @@ public class ResultSetViewer extends Viewer
 
 
     public void readNextSegment() {
+        readNextSegment(false);
+    }
+
+    @Override
+    public void readNextSegmentAhead() {
+        readNextSegment(true);
+    }
+
+    private void readNextSegment(boolean readAhead) {
         if (!verifyQuerySafety()) {
             return;
         }
@@ -4023,11 +4107,12 @@ public class ResultSetViewer extends Viewer
                     dataContainer,
                     model.getDataFilter(),
                     model.getRowCount(),
-                    getSegmentMaxRows(),
+                    getNextSegmentMaxRows(),
                     -1,//curRow == null ? -1 : curRow.getRowNumber(), // Do not reposition cursor after next segment read!
                     false,
                     true,
                     true,
+                    !readAhead,
                     () -> nextSegmentReadingBlocked = false);
             }
         });
@@ -4130,6 +4215,22 @@ public class ResultSetViewer extends Viewer
         return size;
     }
 
+    /**
+     * Returns size of the next segment. It may be bigger than the configured size if adaptive segment size is enabled.
+     */
+    int getNextSegmentMaxRows() {
+        int size = getSegmentMaxRows();
+        if (getPreferenceStore().getBoolean(ResultSetPreferences.RESULT_SET_ADAPTIVE_SEGMENT_SIZE)) {
+            size = segmentSizer.getSegmentSize(size);
+        }
+        return size;
+    }
+
+    @NotNull
+    ResultSetSegmentSizer getSegmentSizer() {
+        return segmentSizer;
+    }
+
     @NotNull
     public String getActiveQueryText() {
         DBCStatistics statistics = getModel().getStatistics();
@@ -4161,6 +4262,21 @@ public class ResultSetViewer extends Viewer
         final boolean scroll, // Scroll operation
         final boolean refresh, // Refresh. Nothing was changed but refresh from server or scroll happened
         @Nullable final Runnable finalizer)
+    {
+        return runDataPump(dataContainer, dataFilter, offset, maxRows, focusRow, saveHistory, scroll, refresh, true, finalizer);
+    }
+
+    private boolean runDataPump(
+        @NotNull final DBSDataContainer dataContainer,
+        @Nullable final DBDDataFilter dataFilter,
+        final int offset,
+        final int maxRows,
+        final int focusRow,
+        final boolean saveHistory, // Save history state (sometimes we don'ty need it)
+        final boolean scroll, // Scroll operation
+        final boolean refresh, // Refresh. Nothing was changed but refresh from server or scroll happened
+        final boolean showProgress, // Show progress over the data (disabled for read-ahead)
+        @Nullable final Runnable finalizer)
     {
         DBCExecutionContext executionContext = getExecutionContext();
         if (executionContext == null || dataContainer.getDataSource() != executionContext.getDataSource()) {
@@ -4194,6 +4310,7 @@ public class ResultSetViewer extends Viewer
         dataPumpJob.setOffset(offset);
         dataPumpJob.setMaxRows(maxRows);
         dataPumpJob.setRefresh(refresh);
+        dataPumpJob.setShowProgress(showProgress);
 
         queueDataPump(dataPumpJob);
 
@@ -5177,6 +5294,7 @@ public class ResultSetViewer extends Viewer
 
         private void beforeDataRead() {
             dataReceiver.setFocusRow(focusRow);
+            dataReceiver.setReadStartTime(System.currentTimeMillis());
             // Set explicit target container
             dataReceiver.setTargetDataContainer(executionSource.getDataContainer());
 
@@ -5276,6 +5394,7 @@ public class ResultSetViewer extends Viewer
 
                 if (!scroll) {
                     final DBDDataFilter dataFilter = executionSource.getDataFilter();
+                    serverSideFiltered = dataFilter != null && dataFilter.hasConditions();
                     if (dataFilter != null) {
                         boolean visibilityChanged = !model.getDataFilter().equalVisibility(dataFilter);
                         model.updateDataFilter(dataFilter, true);
@@ -336,6 +336,14 @@ public class ResultSetMessages extends NLS {
     public static String pref_page_database_resultsets_label_automatic_row_count_tip;
     public static String pref_page_database_resultsets_label_reread_on_scrolling;
     public static String pref_page_database_resultsets_label_reread_on_scrolling_tip;
+    public static String pref_page_database_resultsets_label_columnar_storage;
+    public static String pref_page_database_resultsets_label_columnar_storage_tip;
+    public static String pref_page_database_resultsets_label_spill_memory_limit;
+    public static String pref_page_database_resultsets_label_spill_memory_limit_tip;
+    public static String pref_page_database_resultsets_label_read_ahead_threshold;
+    public static String pref_page_database_resultsets_label_read_ahead_threshold_tip;
+    public static String pref_page_database_resultsets_label_adaptive_segment_size;
+    public static String pref_page_database_resultsets_label_adaptive_segment_size_tip;
     public static String pref_page_database_resultsets_label_use_sql;
     public static String pref_page_database_resultsets_label_use_sql_tip;
     public static String pref_page_database_resultsets_label_order_mode;
@@ -343,6 +351,10 @@ public class ResultSetMessages extends NLS {
     public static String pref_page_database_resultsets_label_order_mode_smart;
     public static String pref_page_database_resultsets_label_order_mode_always_client;
     public static String pref_page_database_resultsets_label_order_mode_always_server;
+    public static String pref_page_database_resultsets_label_filter_on_client;
+    public static String pref_page_database_resultsets_label_filter_on_client_tip;
+    public static String pref_page_database_resultsets_label_group_on_client;
+    public static String pref_page_database_resultsets_label_group_on_client_tip;
     public static String pref_page_database_resultsets_label_fetch_size;
     public static String pref_page_database_resultsets_label_read_metadata;
     public static String pref_page_database_resultsets_label_read_references;
@@ -16,6 +16,8 @@
  */
 package org.jkiss.dbeaver.ui.controls.resultset.panel.aggregate;
 
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.action.*;
 import org.eclipse.jface.dialogs.IDialogSettings;
 import org.eclipse.jface.viewers.ISelection;
@@ -27,6 +29,7 @@ import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.widgets.*;
 import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBIcon;
@@ -34,19 +37,27 @@ import org.jkiss.dbeaver.model.DBPImage;
 import org.jkiss.dbeaver.model.DBValueFormatting;
 import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
 import org.jkiss.dbeaver.model.data.aggregate.IAggregateFunction;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.registry.functions.AggregateFunctionDescriptor;
 import org.jkiss.dbeaver.registry.functions.FunctionsRegistry;
 import org.jkiss.dbeaver.ui.DBeaverIcons;
 import org.jkiss.dbeaver.ui.DataEditorFeatures;
 import org.jkiss.dbeaver.ui.UIIcon;
 import org.jkiss.dbeaver.ui.UIUtils;
+import org.jkiss.dbeaver.ui.controls.lightgrid.GridRangeSet;
+import org.jkiss.dbeaver.ui.controls.lightgrid.IGridRow;
 import org.jkiss.dbeaver.ui.controls.resultset.*;
 import org.jkiss.dbeaver.ui.controls.resultset.internal.ResultSetMessages;
+import org.jkiss.dbeaver.ui.controls.resultset.spreadsheet.Spreadsheet;
+import org.jkiss.dbeaver.ui.controls.resultset.spreadsheet.SpreadsheetPresentation;
 
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.util.List;
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -65,6 +76,10 @@ public class AggregateColumnsPanel implements IResultSetPanel {
     private static final DecimalFormat DOUBLE_FORMAT = new DecimalFormat("###,###,###,###,###,##0.###");
     private static final DecimalFormat INTEGER_FORMAT = new DecimalFormat("###,###,###,###,###,##0");
 
+    // Bigger selections are aggregated in background
+    private static final int BACKGROUND_AGGREGATION_THRESHOLD = 10_000;
+    private static final String APPROXIMATE_VALUE_PREFIX = "~ ";
+
     private IResultSetPresentation presentation;
     private Tree aggregateTable;
 
@@ -76,6 +91,7 @@ public class AggregateColumnsPanel implements IResultSetPanel {
 
     private final List<AggregateFunctionDescriptor> enabledFunctions = new ArrayList<>();
     private boolean featureTracked;
+    private AggregateJob aggregateJob;
 
     public AggregateColumnsPanel() {
     }
@@ -199,6 +215,10 @@ public class AggregateColumnsPanel implements IResultSetPanel {
 
     @Override
     public void refresh(boolean force) {
+        if (aggregateJob != null) {
+            aggregateJob.cancel();
+            aggregateJob = null;
+        }
         aggregateTable.setRedraw(false);
         try {
             aggregateTable.removeAll();
@@ -229,44 +249,123 @@ public class AggregateColumnsPanel implements IResultSetPanel {
             ));
             featureTracked = true;
         }
+        List<AggregateFunctionDescriptor> functions = new ArrayList<>(enabledFunctions);
+        // Selection is not thread-safe, so its ranges are captured here and values are read during aggregation
+        SelectedCells cells = captureSelectedCells(selection);
+        if (cells.getCellCount() < BACKGROUND_AGGREGATION_THRESHOLD) {
+            List<AggregateGroup> groups = aggregateValues(
+                new VoidProgressMonitor(), cells, functions, groupByColumns, aggregateAsStrings);
+            if (groups != null) {
+                showResults(groups, functions);
+            }
+        } else {
+            aggregateJob = new AggregateJob(cells, functions);
+            aggregateJob.schedule();
+        }
+    }
+
+    /**
+     * Captures selected cells. Must be called in the UI thread.
+     * Grid selection is captured as cell ranges with the grid rows and columns, it doesn't depend on the selection size.
+     * Selection of other presentations is read cell by cell.
+     */
+    @NotNull
+    private SelectedCells captureSelectedCells(@NotNull IResultSetSelection selection) {
+        IResultSetController controller = presentation.getController();
+        if (presentation instanceof SpreadsheetPresentation spreadsheetPresentation) {
+            Spreadsheet spreadsheet = spreadsheetPresentation.getSpreadsheet();
+            Object[] columnElements = new Object[spreadsheet.getColumnCount()];
+            for (int i = 0; i < columnElements.length; i++) {
+                columnElements[i] = spreadsheet.getColumnElement(i);
+            }
+            return new GridSelectedCells(
+                controller.getModel(),
+                spreadsheet.getSelectionRanges().getRanges(),
+                spreadsheet.getGridRows(),
+                columnElements,
+                controller.isRecordMode() ? controller.getCurrentRow() : null);
+        }
+        return readSelectedValues(selection);
+    }
+
+    /**
+     * Reads selected cells. Must be called in the UI thread.
+     * Value objects are not copied, only references to them.
+     */
+    @NotNull
+    private SelectedValues readSelectedValues(@NotNull IResultSetSelection selection) {
         ResultSetModel model = presentation.getController().getModel();
-        if (groupByColumns) {
-            Map<DBDAttributeBinding, List<Object>> attrValues = new LinkedHashMap<>();
-            for (Object element : selection.toList()) {
-                DBDAttributeBinding attr = selection.getElementAttribute(element);
-                ResultSetRow row = selection.getElementRow(element);
-                if (row != null) {
-                    Object cellValue = model.getCellValue(attr, row);
-                    List<Object> values = attrValues.computeIfAbsent(attr, k -> new ArrayList<>());
-                    values.add(cellValue);
+        SelectedValues values = new SelectedValues(selection.size());
+        for (Iterator<?> iter = selection.iterator(); iter.hasNext(); ) {
+            Object element = iter.next();
+            DBDAttributeBinding attr = selection.getElementAttribute(element);
+            ResultSetRow row = selection.getElementRow(element);
+            if (row == null) {
+                continue;
+            }
+            values.add(attr, model.getCellValue(attr, row));
+        }
+        return values;
+    }
+
+    /**
+     * Accumulates all selected values in a single pass.
+     * Returns null if aggregation was canceled.
+     */
+    @Nullable
+    private static List<AggregateGroup> aggregateValues(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull SelectedCells cells,
+        @NotNull List<AggregateFunctionDescriptor> functions,
+        boolean groupByColumns,
+        boolean aggregateAsStrings
+    ) {
+        Map<DBDAttributeBinding, AggregateGroup> groups = new LinkedHashMap<>();
+        AggregateGroup allValues = groupByColumns ? null : new AggregateGroup(null, functions);
+        AggregateGroup[] lastGroup = new AggregateGroup[1];
+
+        monitor.beginTask("Calculate aggregates", (int) Math.min(Integer.MAX_VALUE, cells.getCellCount()));
+        boolean completed = cells.readValues(monitor, (attr, value) -> {
+            AggregateGroup group = allValues;
+            if (group == null) {
+                group = lastGroup[0];
+                if (group == null || group.attribute != attr) {
+                    group = groups.computeIfAbsent(attr, k -> new AggregateGroup(k, functions));
+                    lastGroup[0] = group;
                 }
             }
+            group.accumulate(value, aggregateAsStrings);
+        });
+        monitor.done();
+        if (!completed) {
+            return null;
+        }
 
-            for (Map.Entry<DBDAttributeBinding, List<Object>> entry : attrValues.entrySet()) {
-                TreeItem attrItem = new TreeItem(aggregateTable, SWT.NONE);
-                attrItem.setText(entry.getKey().getName());
-                attrItem.setImage(DBeaverIcons.getImage(DBValueFormatting.getObjectImage(entry.getKey())));
-                aggregateValues(attrItem, entry.getValue());
-                attrItem.setExpanded(true);
+        return allValues != null ? List.of(allValues) : new ArrayList<>(groups.values());
+    }
+
+    private void showResults(@NotNull List<AggregateGroup> groups, @NotNull List<AggregateFunctionDescriptor> functions) {
+        for (AggregateGroup group : groups) {
+            TreeItem attrItem = null;
+            if (group.attribute != null) {
+                attrItem = new TreeItem(aggregateTable, SWT.NONE);
+                attrItem.setText(group.attribute.getName());
+                attrItem.setImage(DBeaverIcons.getImage(DBValueFormatting.getObjectImage(group.attribute)));
             }
-        } else {
-            List<Object> allValues = new ArrayList<>(selection.size());
-            for (Object element : selection.toList()) {
-                DBDAttributeBinding attr = selection.getElementAttribute(element);
-                ResultSetRow row = selection.getElementRow(element);
-                if (row != null) {
-                    Object cellValue = model.getCellValue(attr, row);
-                    allValues.add(cellValue);
-                }
+            showGroupResults(attrItem, group, functions);
+            if (attrItem != null) {
+                attrItem.setExpanded(true);
             }
-            aggregateValues(null, allValues);
         }
     }
 
-    private void aggregateValues(TreeItem parentItem, Collection<Object> values) {
-        List<AggregateFunctionDescriptor> functions = enabledFunctions;
-        Map<IAggregateFunction, TreeItem> funcMap = new IdentityHashMap<>();
-        for (AggregateFunctionDescriptor funcDesc : functions) {
+    private void showGroupResults(
+        @Nullable TreeItem parentItem,
+        @NotNull AggregateGroup group,
+        @NotNull List<AggregateFunctionDescriptor> functions
+    ) {
+        for (int i = 0; i < functions.size(); i++) {
+            AggregateFunctionDescriptor funcDesc = functions.get(i);
             TreeItem funcItem = (parentItem == null) ?
                 new TreeItem(aggregateTable, SWT.NONE) :
                 new TreeItem(parentItem, SWT.NONE);
@@ -276,31 +375,13 @@ public class AggregateColumnsPanel implements IResultSetPanel {
             if (icon != null) {
                 funcItem.setImage(0, DBeaverIcons.getImage(icon));
             }
-            try {
-                IAggregateFunction func = funcDesc.createFunction();
-                funcMap.put(func, funcItem);
-            } catch (DBException e) {
-                log.error(e);
-            }
-        }
 
-        IAggregateFunction[] funcs = funcMap.keySet().toArray(new IAggregateFunction[funcMap.size()]);
-        int[] funcCount = new int[funcs.length];
-        for (Object element : values) {
-            for (int i = 0; i < funcs.length; i++) {
-                if (funcs[i].accumulate(element, aggregateAsStrings)) {
-                    funcCount[i]++;
-                }
-            }
-        }
-        for (int i = 0; i < funcs.length; i++) {
-            if (funcCount[i] <= 0) {
+            IAggregateFunction func = group.functions[i];
+            if (func == null || group.counts[i] <= 0) {
                 continue;
             }
-            IAggregateFunction func = funcs[i];
-            Object result = func.getResult(funcCount[i]);
+            Object result = func.getResult(group.counts[i]);
             if (result != null) {
-                TreeItem treeItem = funcMap.get(func);
                 String strValue;
                 if (result instanceof Double || result instanceof Float || result instanceof BigDecimal) {
                     strValue = DOUBLE_FORMAT.format(result);
@@ -310,7 +391,10 @@ public class AggregateColumnsPanel implements IResultSetPanel {
                     strValue = result.toString();
                 }
                 if (strValue != null) {
-                    treeItem.setText(1, strValue);
+                    if (func.isApproximateResult()) {
+                        strValue = APPROXIMATE_VALUE_PREFIX + strValue;
+                    }
+                    funcItem.setText(1, strValue);
                 }
             }
         }
@@ -331,6 +415,196 @@ public class AggregateColumnsPanel implements IResultSetPanel {
         contributionManager.add(new ValueTypeToggleAction());
     }
 
+    /**
+     * Selected cells captured in the UI thread
+     */
+    private interface SelectedCells {
+
+        long getCellCount();
+
+        /**
+         * Passes attributes and values of all cells to the consumer. May be called outside the UI thread.
+         *
+         * @return false if reading was canceled
+         */
+        boolean readValues(@NotNull DBRProgressMonitor monitor, @NotNull BiConsumer<DBDAttributeBinding, Object> consumer);
+    }
+
+    /**
+     * Grid cell ranges. Values are read from the model by the aggregation.
+     */
+    private static class GridSelectedCells implements SelectedCells {
+        private final ResultSetModel model;
+        private final List<GridRangeSet.GridRange> ranges;
+        private final IGridRow[] rows;
+        private final Object[] columns;
+        // Row of the record mode, rows of the grid are attributes in this mode
+        @Nullable
+        private final ResultSetRow recordModeRow;
+
+        GridSelectedCells(
+            @NotNull ResultSetModel model,
+            @NotNull List<GridRangeSet.GridRange> ranges,
+            @NotNull IGridRow[] rows,
+            @NotNull Object[] columns,
+            @Nullable ResultSetRow recordModeRow
+        ) {
+            this.model = model;
+            this.ranges = ranges;
+            this.rows = rows;
+            this.columns = columns;
+            this.recordModeRow = recordModeRow;
+        }
+
+        @Override
+        public long getCellCount() {
+            long count = 0;
+            for (GridRangeSet.GridRange range : ranges) {
+                count += range.getCellCount();
+            }
+            return count;
+        }
+
+        @Override
+        public boolean readValues(@NotNull DBRProgressMonitor monitor, @NotNull BiConsumer<DBDAttributeBinding, Object> consumer) {
+            int cellCount = 0;
+            for (GridRangeSet.GridRange range : ranges) {
+                for (int row = range.firstRow(); row <= range.lastRow() && row < rows.length; row++) {
+                    Object rowElement = rows[row].getElement();
+                    for (int col = range.firstCol(); col <= range.lastCol() && col < columns.length; col++) {
+                        if ((++cellCount & 0x3FFF) == 0) {
+                            if (monitor.isCanceled()) {
+                                return false;
+                            }
+                            monitor.worked(0x4000);
+                        }
+                        Object attrElement = recordModeRow != null ? rowElement : columns[col];
+                        Object rowData = recordModeRow != null ? recordModeRow : rowElement;
+                        if (attrElement instanceof DBDAttributeBinding attr && rowData instanceof ResultSetRow resultSetRow) {
+                            consumer.accept(attr, model.getCellValue(attr, resultSetRow));
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Selected cells values with their attributes
+     */
+    private static class SelectedValues implements SelectedCells {
+        private DBDAttributeBinding[] attributes;
+        private Object[] values;
+        private int size;
+
+        SelectedValues(int capacity) {
+            this.attributes = new DBDAttributeBinding[Math.max(capacity, 16)];
+            this.values = new Object[attributes.length];
+        }
+
+        void add(DBDAttributeBinding attribute, Object value) {
+            if (size == attributes.length) {
+                attributes = Arrays.copyOf(attributes, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            attributes[size] = attribute;
+            values[size] = value;
+            size++;
+        }
+
+        @Override
+        public long getCellCount() {
+            return size;
+        }
+
+        @Override
+        public boolean readValues(@NotNull DBRProgressMonitor monitor, @NotNull BiConsumer<DBDAttributeBinding, Object> consumer) {
+            for (int i = 0; i < size; i++) {
+                if (((i + 1) & 0x3FFF) == 0) {
+                    if (monitor.isCanceled()) {
+                        return false;
+                    }
+                    monitor.worked(0x4000);
+                }
+                consumer.accept(attributes[i], values[i]);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Aggregate functions state of all values or of a single attribute values
+     */
+    private static class AggregateGroup {
+        @Nullable
+        private final DBDAttributeBinding attribute;
+        private final IAggregateFunction[] functions;
+        private final int[] counts;
+
+        AggregateGroup(@Nullable DBDAttributeBinding attribute, @NotNull List<AggregateFunctionDescriptor> descriptors) {
+            this.attribute = attribute;
+            this.functions = new IAggregateFunction[descriptors.size()];
+            this.counts = new int[descriptors.size()];
+            for (int i = 0; i < descriptors.size(); i++) {
+                try {
+                    functions[i] = descriptors.get(i).createFunction();
+                } catch (DBException e) {
+                    log.error(e);
+                }
+            }
+        }
+
+        void accumulate(Object value, boolean aggregateAsStrings) {
+            for (int i = 0; i < functions.length; i++) {
+                if (functions[i] != null && functions[i].accumulate(value, aggregateAsStrings)) {
+                    counts[i]++;
+                }
+            }
+        }
+    }
+
+    private class AggregateJob extends AbstractJob {
+        private final SelectedCells cells;
+        private final List<AggregateFunctionDescriptor> functions;
+        private final boolean groupByColumns;
+        private final boolean aggregateAsStrings;
+
+        AggregateJob(@NotNull SelectedCells cells, @NotNull List<AggregateFunctionDescriptor> functions) {
+            super("Calculate aggregates");
+            this.cells = cells;
+            this.functions = functions;
+            this.groupByColumns = AggregateColumnsPanel.this.groupByColumns;
+            this.aggregateAsStrings = AggregateColumnsPanel.this.aggregateAsStrings;
+            setUser(false);
+            setSystem(true);
+            setSkipErrorOnCanceling(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            List<AggregateGroup> groups = aggregateValues(monitor, cells, functions, groupByColumns, aggregateAsStrings);
+            if (groups == null || monitor.isCanceled()) {
+                return Status.CANCEL_STATUS;
+            }
+            UIUtils.asyncExec(() -> {
+                if (aggregateJob != this || aggregateTable.isDisposed()) {
+                    return;
+                }
+                aggregateJob = null;
+                aggregateTable.setRedraw(false);
+                try {
+                    aggregateTable.removeAll();
+                    showResults(groups, functions);
+                    UIUtils.packColumns(aggregateTable, false, null);
+                } finally {
+                    aggregateTable.setRedraw(true);
+                }
+            });
+            return Status.OK_STATUS;
+        }
+    }
+
     private class GroupByColumnsAction extends Action {
         public GroupByColumnsAction() {
             super(ResultSetMessages.aggreagate_columns_group_by_column_text, IAction.AS_CHECK_BOX);
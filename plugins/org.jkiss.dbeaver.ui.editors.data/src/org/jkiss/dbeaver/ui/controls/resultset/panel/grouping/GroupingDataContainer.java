@@ -19,18 +19,29 @@ package org.jkiss.dbeaver.ui.controls.resultset.panel.grouping;
 import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataKind;
 import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeConstraint;
 import org.jkiss.dbeaver.model.data.DBDDataFilter;
 import org.jkiss.dbeaver.model.data.DBDDataReceiver;
 import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.impl.local.LocalResultSet;
+import org.jkiss.dbeaver.model.impl.local.LocalStatement;
 import org.jkiss.dbeaver.model.messages.ModelMessages;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.sql.SQLUtils;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
 import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.dbeaver.model.struct.DBSTypedObject;
 import org.jkiss.dbeaver.ui.controls.resultset.IResultSetController;
 import org.jkiss.utils.ArrayUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
 
 public class GroupingDataContainer implements DBSDataContainer {
 
@@ -39,6 +50,96 @@ public class GroupingDataContainer implements DBSDataContainer {
     private IResultSetController parentController;
     private String query;
     private String[] attributes;
+    @Nullable
+    private volatile LocalGrouping localGrouping;
+
+    /**
+     * Grouping of rows fetched by the parent viewer.
+     * Rows are a copy of the parent rows values, so they can be aggregated outside of the UI thread.
+     * Groups are calculated once and then all segments are read from them.
+     */
+    static final class LocalGrouping {
+        private final GroupingLocalAggregator<Object[]> aggregator;
+        private final int rowCount;
+        private final String[] columnLabels;
+        private final DBSTypedObject[] columnTypes;
+        @Nullable
+        private List<Object[]> rows;
+        // Groups in order of their first appearance
+        @Nullable
+        private List<Object[]> groups;
+        @Nullable
+        private List<Object[]> sortedGroups;
+        @Nullable
+        private String sortedGroupsOrder;
+        private boolean unsupported;
+
+        /**
+         * @param columnLabels labels of group attributes and functions (the same as in the grouping query)
+         * @param columnTypes  types of result columns, null for numeric function results
+         */
+        LocalGrouping(
+            @NotNull GroupingLocalAggregator<Object[]> aggregator,
+            @NotNull List<Object[]> rows,
+            @NotNull String[] columnLabels,
+            @NotNull DBSTypedObject[] columnTypes
+        ) {
+            this.aggregator = aggregator;
+            this.rows = rows;
+            this.rowCount = rows.size();
+            this.columnLabels = columnLabels;
+            this.columnTypes = columnTypes;
+        }
+
+        int findColumn(@Nullable String label) {
+            for (int i = 0; i < columnLabels.length; i++) {
+                if (columnLabels[i].equalsIgnoreCase(label)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns groups sorted in the specified order. Sorted list is cached until the order changes.
+         *
+         * @param orderKey identifies the order, so the same order doesn't sort groups again
+         * @return groups or null if aggregation was canceled
+         * @throws IllegalArgumentException if rows can't be grouped locally
+         */
+        @Nullable
+        synchronized List<Object[]> getGroups(
+            @NotNull DBRProgressMonitor monitor,
+            @NotNull String orderKey,
+            @NotNull Comparator<Object[]> order
+        ) {
+            if (unsupported) {
+                throw new IllegalArgumentException("Rows can't be grouped locally");
+            }
+            if (groups == null) {
+                try {
+                    groups = aggregator.aggregate(monitor, rows);
+                } catch (IllegalArgumentException e) {
+                    unsupported = true;
+                    rows = null;
+                    throw e;
+                }
+                if (groups == null) {
+                    // Canceled
+                    return null;
+                }
+                // Values copy is not needed anymore
+                rows = null;
+            }
+            if (!orderKey.equals(sortedGroupsOrder)) {
+                List<Object[]> sorted = new ArrayList<>(groups);
+                sorted.sort(order);
+                sortedGroups = sorted;
+                sortedGroupsOrder = orderKey;
+            }
+            return sortedGroups;
+        }
+    }
 
     public GroupingDataContainer(IResultSetController parentController) {
         this.parentController = parentController;
@@ -91,6 +192,11 @@ public class GroupingDataContainer implements DBSDataContainer {
             statistics.addMessage("Empty query");
             return statistics;
         }
+        if (localGrouping != null && !dataFilter.hasConditions() &&
+            readLocalData(localGrouping, session, dataReceiver, dataFilter, firstRow, maxRows, statistics))
+        {
+            return statistics;
+        }
         boolean hasLimits = firstRow >= 0 && maxRows > 0;
 
         DBRProgressMonitor monitor = session.getProgressMonitor();
@@ -161,6 +267,138 @@ public class GroupingDataContainer implements DBSDataContainer {
         }
     }
 
+    /**
+     * Groups rows of the parent viewer without a query.
+     *
+     * @return false if grouping must be performed by the server (e.g. custom ordering or non-numeric sums)
+     */
+    private boolean readLocalData(
+        @NotNull LocalGrouping grouping,
+        @NotNull DBCSession session,
+        @NotNull DBDDataReceiver dataReceiver,
+        @NotNull DBDDataFilter dataFilter,
+        long firstRow,
+        long maxRows,
+        @NotNull DBCStatistics statistics
+    ) throws DBCException {
+        StringBuilder orderKey = new StringBuilder();
+        Comparator<Object[]> order = makeLocalOrder(grouping, dataFilter, orderKey);
+        if (order == null) {
+            return false;
+        }
+        DBRProgressMonitor monitor = session.getProgressMonitor();
+        monitor.subTask("Group " + grouping.rowCount + " rows");
+        long startTime = System.currentTimeMillis();
+        List<Object[]> groups;
+        try {
+            groups = grouping.getGroups(monitor, orderKey.toString(), order);
+        } catch (IllegalArgumentException e) {
+            log.debug("Rows can't be grouped locally: " + e.getMessage());
+            return false;
+        }
+        statistics.setQueryText(query);
+        statistics.addStatementsCount();
+        statistics.setExecuteTime(System.currentTimeMillis() - startTime);
+
+        try {
+            if (groups == null) {
+                // Canceled
+                return true;
+            }
+            LocalResultSet<LocalStatement> dbResult = new LocalResultSet<>(session, new LocalStatement(session, query));
+            for (int i = 0; i < grouping.columnLabels.length; i++) {
+                DBSTypedObject type = grouping.columnTypes[i];
+                if (type == null) {
+                    dbResult.addColumn(grouping.columnLabels[i], DBPDataKind.NUMERIC);
+                } else {
+                    dbResult.addColumn(grouping.columnLabels[i], type);
+                }
+            }
+            int fromRow = (int) Math.min(Math.max(firstRow, 0), groups.size());
+            int toRow = maxRows > 0 ? (int) Math.min(groups.size(), fromRow + maxRows) : groups.size();
+            for (Object[] group : groups.subList(fromRow, toRow)) {
+                dbResult.addRow(group);
+            }
+
+            startTime = System.currentTimeMillis();
+            dataReceiver.fetchStart(session, dbResult, firstRow, maxRows);
+            try {
+                long rowCount = 0;
+                while (dbResult.nextRow() && !monitor.isCanceled()) {
+                    dataReceiver.fetchRow(session, dbResult);
+                    rowCount++;
+                }
+                statistics.setFetchTime(System.currentTimeMillis() - startTime);
+                statistics.setRowsFetched(rowCount);
+            } finally {
+                try {
+                    dataReceiver.fetchEnd(session, dbResult);
+                } catch (Throwable e) {
+                    log.error("Error while finishing result set fetch", e); //$NON-NLS-1$
+                }
+            }
+            return true;
+        } finally {
+            dataReceiver.close();
+        }
+    }
+
+    /**
+     * Translates viewer ordering into a comparator of grouped rows.
+     * Returns null if ordering refers to something besides result columns.
+     *
+     * @param orderKey receives string identifying the resulting order
+     */
+    @Nullable
+    private Comparator<Object[]> makeLocalOrder(
+        @NotNull LocalGrouping grouping,
+        @NotNull DBDDataFilter dataFilter,
+        @NotNull StringBuilder orderKey
+    ) {
+        List<Comparator<Object[]>> orders = new ArrayList<>();
+        for (DBDAttributeConstraint constraint : dataFilter.getOrderConstraints()) {
+            int index = grouping.findColumn(constraint.getAttributeLabel());
+            if (index < 0) {
+                index = grouping.findColumn(constraint.getAttributeName());
+            }
+            if (index < 0) {
+                return null;
+            }
+            orders.add(makeColumnOrder(index, constraint.isOrderDescending()));
+            orderKey.append(index).append(constraint.isOrderDescending() ? " DESC," : " ASC,");
+        }
+        if (!CommonUtils.isEmptyTrimmed(dataFilter.getOrder())) {
+            for (String item : dataFilter.getOrder().split(",")) {
+                String[] parts = item.trim().split("\\s+");
+                if (parts.length > 2) {
+                    return null;
+                }
+                boolean descending = false;
+                if (parts.length == 2) {
+                    String direction = parts[1].toUpperCase(Locale.ENGLISH);
+                    if (direction.equals("DESC")) {
+                        descending = true;
+                    } else if (!direction.equals("ASC")) {
+                        return null;
+                    }
+                }
+                int index = grouping.findColumn(DBUtils.getUnQuotedIdentifier(getDataSource(), parts[0]));
+                if (index < 0) {
+                    return null;
+                }
+                orders.add(makeColumnOrder(index, descending));
+                orderKey.append(index).append(descending ? " DESC," : " ASC,");
+            }
+        }
+        return orders.stream().reduce(Comparator::thenComparing).orElse((o1, o2) -> 0);
+    }
+
+    @NotNull
+    private static Comparator<Object[]> makeColumnOrder(int index, boolean descending) {
+        Comparator<Object[]> order = (o1, o2) -> DBUtils.compareDataValues(o1[index], o2[index]);
+        return descending ? order.reversed() : order;
+    }
+
     @Override
     public long countData(@NotNull DBCExecutionSource source, @NotNull DBCSession session, @Nullable DBDDataFilter dataFilter, long flags) throws DBCException {
         return 0;
@@ -179,6 +417,10 @@ public class GroupingDataContainer implements DBSDataContainer {
         this.attributes = attributes;
     }
 
+    void setLocalGrouping(@Nullable LocalGrouping localGrouping) {
+        this.localGrouping = localGrouping;
+    }
+
     @Override
     public String toString() {
         return getName();
@@ -0,0 +1,450 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.panel.grouping;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Local grouping of fetched rows.
+ *
+ * Rows are aggregated in a hash table keyed by group values. Big row lists are split in chunks which are
+ * aggregated in parallel, then partial results are merged. Groups are returned in order of their first appearance.
+ * Only simple functions are supported: COUNT, COUNT(DISTINCT), SUM, AVG, MIN and MAX over a single column.
+ * Other expressions must be evaluated by the server.
+ */
+class GroupingLocalAggregator<T> {
+
+    static final int PARALLEL_GROUPING_THRESHOLD = 50_000;
+    private static final int MONITOR_CHECK_ROWS = 0x1000;
+
+    private static final Pattern FUNCTION_PATTERN = Pattern.compile(
+        "\\s*([A-Za-z]+)\\s*\\(\\s*(DISTINCT\\s+)?(.+?)\\s*\\)\\s*", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ROW_COUNT_ARGUMENT = Pattern.compile("\\*|\\d+");
+
+    private enum FunctionType {
+        COUNT,
+        SUM,
+        AVG,
+        MIN,
+        MAX
+    }
+
+    private record AggregateFunction<T>(
+        @NotNull FunctionType type,
+        @Nullable Function<T, Object> valueReader,
+        boolean distinct
+    ) {
+        @NotNull
+        Accumulator createAccumulator() {
+            return switch (type) {
+                case COUNT -> distinct ? new CountDistinctAccumulator() : new CountAccumulator();
+                case SUM -> new SumAccumulator(false);
+                case AVG -> new SumAccumulator(true);
+                case MIN -> new MinMaxAccumulator(false);
+                case MAX -> new MinMaxAccumulator(true);
+            };
+        }
+    }
+
+    private final List<Function<T, Object>> groupReaders = new ArrayList<>();
+    private final List<AggregateFunction<T>> functions = new ArrayList<>();
+    private boolean duplicatesOnly;
+
+    void addGroupAttribute(@NotNull Function<T, Object> valueReader) {
+        groupReaders.add(valueReader);
+    }
+
+    /**
+     * Adds aggregate function.
+     *
+     * @param argumentResolver returns value reader of the function argument or null if argument is unknown
+     * @return false if function can't be evaluated locally
+     */
+    boolean addFunction(@NotNull String function, @NotNull Function<String, Function<T, Object>> argumentResolver) {
+        Matcher matcher = FUNCTION_PATTERN.matcher(function);
+        if (!matcher.matches()) {
+            return false;
+        }
+        FunctionType type;
+        try {
+            type = FunctionType.valueOf(matcher.group(1).toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        boolean distinct = matcher.group(2) != null;
+        String argument = matcher.group(3);
+        if (distinct && type != FunctionType.COUNT) {
+            // Distinct sums and averages are rare, leave them to the server
+            return false;
+        }
+        Function<T, Object> valueReader;
+        if (type == FunctionType.COUNT && !distinct && ROW_COUNT_ARGUMENT.matcher(argument).matches()) {
+            valueReader = null;
+        } else {
+            valueReader = argumentResolver.apply(argument);
+            if (valueReader == null) {
+                return false;
+            }
+        }
+        functions.add(new AggregateFunction<>(type, valueReader, distinct));
+        return true;
+    }
+
+    /**
+     * Skips groups which consist of a single row (HAVING COUNT(*) > 1)
+     */
+    void setDuplicatesOnly(boolean duplicatesOnly) {
+        this.duplicatesOnly = duplicatesOnly;
+    }
+
+    int getFunctionCount() {
+        return functions.size();
+    }
+
+    /**
+     * Result of MIN and MAX has the same type as the function argument. Other functions return numbers.
+     */
+    boolean keepsArgumentType(int functionIndex) {
+        FunctionType type = functions.get(functionIndex).type;
+        return type == FunctionType.MIN || type == FunctionType.MAX;
+    }
+
+    /**
+     * Aggregates rows. Each result row contains group values followed by function values.
+     *
+     * @return result rows or null if aggregation was canceled
+     * @throws IllegalArgumentException if some value can't be aggregated (e.g. SUM of strings)
+     */
+    @Nullable
+    List<Object[]> aggregate(@NotNull DBRProgressMonitor monitor, @NotNull List<T> rows) {
+        int rowCount = rows.size();
+        int chunkCount = 1;
+        if (rowCount >= PARALLEL_GROUPING_THRESHOLD) {
+            // Few chunks per worker, so merge of partial results doesn't take longer than aggregation itself
+            chunkCount = Math.max(1, ForkJoinPool.getCommonPoolParallelism()) * 2;
+        }
+        int chunkSize = (rowCount + chunkCount - 1) / chunkCount;
+        IntStream chunks = IntStream.range(0, chunkCount);
+        if (chunkCount > 1) {
+            chunks = chunks.parallel();
+        }
+        Map<GroupKey, Group> groups = chunks
+            .mapToObj(chunk -> aggregateChunk(monitor, rows, chunk * chunkSize, Math.min(rowCount, (chunk + 1) * chunkSize)))
+            .reduce(GroupingLocalAggregator::mergeGroups)
+            .orElseGet(LinkedHashMap::new);
+        if (monitor.isCanceled()) {
+            return null;
+        }
+
+        List<Object[]> result = new ArrayList<>(groups.size());
+        int groupSize = groupReaders.size();
+        for (Group group : groups.values()) {
+            if (duplicatesOnly && group.rowCount <= 1) {
+                continue;
+            }
+            Object[] resultRow = Arrays.copyOf(group.values, groupSize + functions.size());
+            for (int i = 0; i < functions.size(); i++) {
+                resultRow[groupSize + i] = group.accumulators[i].getResult();
+            }
+            result.add(resultRow);
+        }
+        return result;
+    }
+
+    @NotNull
+    private Map<GroupKey, Group> aggregateChunk(@NotNull DBRProgressMonitor monitor, @NotNull List<T> rows, int first, int last) {
+        Map<GroupKey, Group> groups = new LinkedHashMap<>();
+        int groupSize = groupReaders.size();
+        for (int i = first; i < last; i++) {
+            if ((i - first) % MONITOR_CHECK_ROWS == 0 && monitor.isCanceled()) {
+                break;
+            }
+            T row = rows.get(i);
+            Object[] values = new Object[groupSize];
+            Object[] keyValues = new Object[groupSize];
+            for (int k = 0; k < groupSize; k++) {
+                values[k] = groupReaders.get(k).apply(row);
+                keyValues[k] = normalizeKey(values[k]);
+            }
+            Group group = groups.computeIfAbsent(new GroupKey(keyValues), key -> createGroup(values));
+            group.rowCount++;
+            for (int f = 0; f < functions.size(); f++) {
+                AggregateFunction<T> function = functions.get(f);
+                group.accumulators[f].add(function.valueReader == null ? Boolean.TRUE : function.valueReader.apply(row));
+            }
+        }
+        return groups;
+    }
+
+    @NotNull
+    private Group createGroup(@NotNull Object[] values) {
+        Accumulator[] accumulators = new Accumulator[functions.size()];
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i] = functions.get(i).createAccumulator();
+        }
+        return new Group(values, accumulators);
+    }
+
+    @NotNull
+    private static Map<GroupKey, Group> mergeGroups(@NotNull Map<GroupKey, Group> target, @NotNull Map<GroupKey, Group> source) {
+        for (Map.Entry<GroupKey, Group> entry : source.entrySet()) {
+            Group group = target.get(entry.getKey());
+            if (group == null) {
+                target.put(entry.getKey(), entry.getValue());
+            } else {
+                group.merge(entry.getValue());
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Makes value suitable for hash keys: nulls are unified, binary values are compared by content
+     */
+    @Nullable
+    private static Object normalizeKey(@Nullable Object value) {
+        if (DBUtils.isNullValue(value)) {
+            return null;
+        }
+        if (value instanceof byte[] bytes) {
+            return ByteBuffer.wrap(bytes);
+        }
+        return value;
+    }
+
+    private static final class GroupKey {
+        private final Object[] values;
+        private final int hashCode;
+
+        GroupKey(@NotNull Object[] values) {
+            this.values = values;
+            this.hashCode = Arrays.hashCode(values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof GroupKey key && hashCode == key.hashCode && Arrays.equals(values, key.values);
+        }
+    }
+
+    private static final class Group {
+        private final Object[] values;
+        private final Accumulator[] accumulators;
+        private long rowCount;
+
+        Group(@NotNull Object[] values, @NotNull Accumulator[] accumulators) {
+            this.values = values;
+            this.accumulators = accumulators;
+        }
+
+        void merge(@NotNull Group group) {
+            rowCount += group.rowCount;
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i].merge(group.accumulators[i]);
+            }
+        }
+    }
+
+    private abstract static class Accumulator {
+        abstract void add(@Nullable Object value);
+
+        abstract void merge(@NotNull Accumulator accumulator);
+
+        @Nullable
+        abstract Object getResult();
+    }
+
+    private static class CountAccumulator extends Accumulator {
+        private long count;
+
+        @Override
+        void add(@Nullable Object value) {
+            if (!DBUtils.isNullValue(value)) {
+                count++;
+            }
+        }
+
+        @Override
+        void merge(@NotNull Accumulator accumulator) {
+            count += ((CountAccumulator) accumulator).count;
+        }
+
+        @Override
+        Object getResult() {
+            return count;
+        }
+    }
+
+    private static class CountDistinctAccumulator extends Accumulator {
+        private final Set<Object> values = new HashSet<>();
+
+        @Override
+        void add(@Nullable Object value) {
+            if (!DBUtils.isNullValue(value)) {
+                values.add(normalizeKey(value));
+            }
+        }
+
+        @Override
+        void merge(@NotNull Accumulator accumulator) {
+            values.addAll(((CountDistinctAccumulator) accumulator).values);
+        }
+
+        @Override
+        Object getResult() {
+            return (long) values.size();
+        }
+    }
+
+    /**
+     * Sums integers exactly (switches to decimals on overflow), sums floating point values as doubles.
+     */
+    private static class SumAccumulator extends Accumulator {
+        private final boolean average;
+        private long count;
+        private long longSum;
+        private double doubleSum;
+        private boolean hasDouble;
+        @Nullable
+        private BigDecimal decimalSum;
+
+        SumAccumulator(boolean average) {
+            this.average = average;
+        }
+
+        @Override
+        void add(@Nullable Object value) {
+            if (DBUtils.isNullValue(value)) {
+                return;
+            }
+            if (!(value instanceof Number number)) {
+                throw new IllegalArgumentException("Non-numeric value can't be aggregated: " + value);
+            }
+            count++;
+            if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+                addLong(number.longValue());
+            } else if (number instanceof Double || number instanceof Float) {
+                doubleSum += number.doubleValue();
+                hasDouble = true;
+            } else if (number instanceof BigDecimal decimal) {
+                addDecimal(decimal);
+            } else if (number instanceof BigInteger integer) {
+                addDecimal(new BigDecimal(integer));
+            } else {
+                addDecimal(new BigDecimal(number.toString()));
+            }
+        }
+
+        private void addLong(long value) {
+            try {
+                longSum = Math.addExact(longSum, value);
+            } catch (ArithmeticException e) {
+                addDecimal(BigDecimal.valueOf(longSum));
+                longSum = value;
+            }
+        }
+
+        private void addDecimal(@NotNull BigDecimal value) {
+            decimalSum = decimalSum == null ? value : decimalSum.add(value);
+        }
+
+        @Override
+        void merge(@NotNull Accumulator accumulator) {
+            SumAccumulator sum = (SumAccumulator) accumulator;
+            count += sum.count;
+            addLong(sum.longSum);
+            doubleSum += sum.doubleSum;
+            hasDouble |= sum.hasDouble;
+            if (sum.decimalSum != null) {
+                addDecimal(sum.decimalSum);
+            }
+        }
+
+        @Override
+        Object getResult() {
+            if (count == 0) {
+                return null;
+            }
+            if (hasDouble) {
+                double total = doubleSum + longSum + (decimalSum == null ? 0 : decimalSum.doubleValue());
+                return average ? total / count : total;
+            }
+            if (decimalSum == null && !average) {
+                return longSum;
+            }
+            BigDecimal total = BigDecimal.valueOf(longSum);
+            if (decimalSum != null) {
+                total = total.add(decimalSum);
+            }
+            return average ? total.divide(BigDecimal.valueOf(count), MathContext.DECIMAL64) : total;
+        }
+    }
+
+    private static class MinMaxAccumulator extends Accumulator {
+        private final boolean max;
+        @Nullable
+        private Object value;
+
+        MinMaxAccumulator(boolean max) {
+            this.max = max;
+        }
+
+        @Override
+        void add(@Nullable Object value) {
+            if (DBUtils.isNullValue(value)) {
+                return;
+            }
+            if (this.value == null) {
+                this.value = value;
+            } else {
+                int result = DBUtils.compareDataValues(value, this.value);
+                if (max ? result > 0 : result < 0) {
+                    this.value = value;
+                }
+            }
+        }
+
+        @Override
+        void merge(@NotNull Accumulator accumulator) {
+            add(((MinMaxAccumulator) accumulator).value);
+        }
+
+        @Override
+        Object getResult() {
+            return value;
+        }
+    }
+}
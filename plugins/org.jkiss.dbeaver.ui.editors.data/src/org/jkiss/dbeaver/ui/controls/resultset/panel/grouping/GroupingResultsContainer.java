@@ -24,6 +24,7 @@ import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.app.DBPProject;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
 import org.jkiss.dbeaver.model.data.DBDDataFilter;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
 import org.jkiss.dbeaver.model.exec.DBCStatistics;
@@ -32,15 +33,14 @@ import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.sql.*;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
 import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSTypedObject;
 import org.jkiss.dbeaver.ui.DataEditorFeatures;
 import org.jkiss.dbeaver.ui.controls.resultset.*;
 import org.jkiss.dbeaver.ui.controls.resultset.view.EmptyPresentation;
 import org.jkiss.utils.CommonUtils;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.function.Function;
 
 public class GroupingResultsContainer implements IResultSetContainer {
 
@@ -192,6 +192,7 @@ public class GroupingResultsContainer implements IResultSetContainer {
         groupingViewer.resetHistory();
         dataContainer.setGroupingQuery(null);
         dataContainer.setGroupingAttributes(null);
+        dataContainer.setLocalGrouping(null);
         if (!(groupingViewer.getActivePresentation() instanceof EmptyPresentation)) {
             groupingViewer.showEmptyPresentation();
         }
@@ -216,11 +217,22 @@ public class GroupingResultsContainer implements IResultSetContainer {
         SQLSyntaxManager syntaxManager = new SQLSyntaxManager();
         syntaxManager.init(dialect, presentation.getController().getPreferenceStore());
         String queryText = statistics.getQueryText();
+        ResultSetModel parentModel = presentation.getController().getModel();
+        if (parentModel.isClientSideFiltered() && parentModel.getDataFilter().hasConditions()) {
+            // Executed query doesn't contain the filter of the parent rows.
+            // Add it, so the grouping query aggregates the same rows as the local grouping.
+            DBDDataFilter parentFilter = new DBDDataFilter(parentModel.getDataFilter());
+            parentFilter.resetOrderBy();
+            queryText = dialect.getQueryGenerator().getQueryWithAppliedFilters(null, dataSource, queryText, parentFilter);
+        }
         boolean isShowDuplicatesOnly = dataSource.getContainer().getPreferenceStore().getBoolean(ResultSetPreferences.RS_GROUPING_SHOW_DUPLICATES_ONLY);
 
         var groupingQueryGenerator = new SQLGroupingQueryGenerator(dataSource, dbsDataContainer, dialect, syntaxManager, groupAttributes, groupFunctions, isShowDuplicatesOnly);
         dataContainer.setGroupingQuery(groupingQueryGenerator.generateGroupingQuery(queryText));
         dataContainer.setGroupingAttributes(groupAttributes.toArray(String[]::new));
+        dataContainer.setLocalGrouping(
+            dataSource.getContainer().getPreferenceStore().getBoolean(ResultSetPreferences.RS_GROUPING_LOCAL) ?
+                createLocalGrouping(groupingQueryGenerator.getFuncAliases(), isShowDuplicatesOnly) : null);
         DBDDataFilter dataFilter;
         if (presentation.getController().getModel().isMetadataChanged()) {
             dataFilter = new DBDDataFilter();
@@ -253,6 +265,92 @@ public class GroupingResultsContainer implements IResultSetContainer {
         //groupingViewer.refresh();
     }
 
+    /**
+     * All rows of the parent viewer are fetched, so they can be grouped on the client side without a query.
+     * Values of the grouped attributes are copied here (in the UI thread), the parent model is not accessed later.
+     * Returns null if some attribute or function can't be evaluated locally.
+     */
+    @Nullable
+    private GroupingDataContainer.LocalGrouping createLocalGrouping(@NotNull String[] funcAliases, boolean showDuplicatesOnly) {
+        if (!(presentation.getController() instanceof ResultSetViewer parentViewer) || parentViewer.isHasMoreData()) {
+            return null;
+        }
+        ResultSetModel model = parentViewer.getModel();
+        if (model.isDirty() || !model.hasData() || funcAliases.length != groupFunctions.size()) {
+            return null;
+        }
+        Map<String, DBDAttributeBinding> bindings = new LinkedHashMap<>();
+        for (DBDAttributeBinding binding : model.getAttributes()) {
+            bindings.putIfAbsent(cleanupObjectName(GroupingResultsDecorator.getAttributeBindingName(binding)), binding);
+        }
+        Function<String, DBDAttributeBinding> bindingResolver = name -> {
+            String attrName = cleanupObjectName(name);
+            DBDAttributeBinding binding = bindings.get(attrName);
+            if (binding == null) {
+                for (Map.Entry<String, DBDAttributeBinding> entry : bindings.entrySet()) {
+                    if (entry.getKey().equalsIgnoreCase(attrName)) {
+                        return entry.getValue();
+                    }
+                }
+            }
+            return binding;
+        };
+
+        // Aggregator reads values of these bindings from the rows copy
+        List<DBDAttributeBinding> valueBindings = new ArrayList<>();
+        Function<DBDAttributeBinding, Function<Object[], Object>> valueReader = binding -> {
+            int index = valueBindings.indexOf(binding);
+            if (index < 0) {
+                index = valueBindings.size();
+                valueBindings.add(binding);
+            }
+            int valueIndex = index;
+            return values -> values[valueIndex];
+        };
+
+        GroupingLocalAggregator<Object[]> aggregator = new GroupingLocalAggregator<>();
+        List<String> columnLabels = new ArrayList<>();
+        List<DBSTypedObject> columnTypes = new ArrayList<>();
+        for (String groupAttribute : groupAttributes) {
+            DBDAttributeBinding binding = bindingResolver.apply(groupAttribute);
+            if (binding == null) {
+                return null;
+            }
+            aggregator.addGroupAttribute(valueReader.apply(binding));
+            columnLabels.add(groupAttribute);
+            columnTypes.add(binding);
+        }
+        for (int i = 0; i < groupFunctions.size(); i++) {
+            DBDAttributeBinding[] argument = new DBDAttributeBinding[1];
+            boolean added = aggregator.addFunction(groupFunctions.get(i), name -> {
+                argument[0] = bindingResolver.apply(name);
+                return argument[0] == null ? null : valueReader.apply(argument[0]);
+            });
+            if (!added) {
+                return null;
+            }
+            columnLabels.add(funcAliases[i]);
+            columnTypes.add(aggregator.keepsArgumentType(i) ? argument[0] : null);
+        }
+        aggregator.setDuplicatesOnly(showDuplicatesOnly && groupFunctions.size() == 1 &&
+            groupFunctions.get(0).equalsIgnoreCase(SQLGroupingQueryGenerator.DEFAULT_FUNCTION));
+
+        List<ResultSetRow> parentRows = model.getAllRows();
+        List<Object[]> rows = new ArrayList<>(parentRows.size());
+        for (ResultSetRow row : parentRows) {
+            Object[] values = new Object[valueBindings.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = model.getCellValue(valueBindings.get(i), row);
+            }
+            rows.add(values);
+        }
+        return new GroupingDataContainer.LocalGrouping(
+            aggregator,
+            rows,
+            columnLabels.toArray(new String[0]),
+            columnTypes.toArray(new DBSTypedObject[0]));
+    }
+
     void setGrouping(List<String> attributes, List<String> functions) {
         groupAttributes.clear();
         addGroupingAttributes(attributes);
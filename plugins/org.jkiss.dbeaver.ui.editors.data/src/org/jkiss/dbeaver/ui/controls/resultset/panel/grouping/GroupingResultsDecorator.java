@@ -237,7 +237,7 @@ public class GroupingResultsDecorator extends ResultSetDecoratorBase {
         });
     }
 
-    private static String getAttributeBindingName(DBDAttributeBinding binding) {
+    static String getAttributeBindingName(DBDAttributeBinding binding) {
         if (binding instanceof DBDAttributeBindingMeta && binding.getMetaAttribute() != null) {
             return DBUtils.getQuotedIdentifier(binding.getDataSource(), binding.getMetaAttribute().getLabel());
         } else {
@@ -0,0 +1,119 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.spreadsheet;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
+
+import java.time.temporal.Temporal;
+import java.util.*;
+
+/**
+ * Bounded LRU cache of formatted cell texts.
+ *
+ * Cells are identified by row and attribute instances and display format.
+ * Each entry keeps the value it was formatted from, so it becomes invalid as soon as the cell value changes (e.g. on edit).
+ * Only immutable values are cached. Formatter profile changes must clear the cache.
+ */
+class SpreadsheetCellTextCache {
+
+    static final int DEFAULT_MAX_SIZE = 50000;
+
+    private final int maxSize;
+    private final Map<CellKey, CellText> cache;
+
+    private static final class CellKey {
+        private final Object row;
+        private final Object attribute;
+        private final DBDDisplayFormat format;
+
+        CellKey(Object row, Object attribute, DBDDisplayFormat format) {
+            this.row = row;
+            this.attribute = attribute;
+            this.format = format;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CellKey key && key.row == row && key.attribute == attribute && key.format == format;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(row) * 31 + System.identityHashCode(attribute)) * 31 + format.ordinal();
+        }
+    }
+
+    private record CellText(Object value, String text) {
+    }
+
+    SpreadsheetCellTextCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.cache = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CellKey, CellText> eldest) {
+                return size() > SpreadsheetCellTextCache.this.maxSize;
+            }
+        };
+    }
+
+    static boolean isCacheableValue(@Nullable Object value) {
+        return value == null ||
+            value instanceof String ||
+            value instanceof Number ||
+            value instanceof Boolean ||
+            value instanceof Date ||
+            value instanceof Temporal ||
+            value instanceof UUID;
+    }
+
+    /**
+     * Returns cached text or null if cell wasn't formatted yet or its value has changed
+     */
+    @Nullable
+    String getText(@NotNull Object row, @NotNull Object attribute, @NotNull DBDDisplayFormat format, @Nullable Object value) {
+        CellText cellText = cache.get(new CellKey(row, attribute, format));
+        if (cellText == null || !Objects.equals(cellText.value, value)) {
+            return null;
+        }
+        return cellText.text;
+    }
+
+    void putText(
+        @NotNull Object row,
+        @NotNull Object attribute,
+        @NotNull DBDDisplayFormat format,
+        @Nullable Object value,
+        @NotNull String text
+    ) {
+        if (value instanceof Date date) {
+            // Dates are mutable. Keep a copy to detect in-place modifications.
+            value = date.clone();
+        }
+        cache.put(new CellKey(row, attribute, format), new CellText(value, text));
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    void clear() {
+        cache.clear();
+    }
+
+}
@@ -0,0 +1,283 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.spreadsheet;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.utils.CommonUtils;
+import org.jkiss.utils.xml.XMLUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Formats copied cells.
+ *
+ * Cell values are collected on the UI thread, then rows are formatted in chunks. Chunks are formatted in parallel
+ * (a window of chunks at once) and appended to the result in the original order, so memory used by partial results
+ * is limited by the window size. Huge texts may be written into a file instead of the clipboard.
+ */
+class SpreadsheetCopyFormatter<A> {
+
+    static final int PARALLEL_COPY_THRESHOLD = 20_000;
+    /**
+     * Texts longer than this are copied as a file
+     */
+    static final long MAX_CLIPBOARD_TEXT_LENGTH = 50_000_000;
+    private static final int CHUNK_ROWS = 2000;
+    private static final int ESTIMATED_CELL_LENGTH = 16;
+
+    /**
+     * Copied row.
+     *
+     * @param rowNumber  row number text or null if row numbers are not copied
+     * @param columns    indexes of copied columns (ascending)
+     * @param attributes cell attributes
+     * @param values     cell values
+     */
+    record CopyRow<A>(@Nullable String rowNumber, @NotNull int[] columns, @NotNull A[] attributes, @NotNull Object[] values) {
+    }
+
+    record CopyText(@NotNull String text, @Nullable String html) {
+    }
+
+    private final int columnCount;
+    private final String columnDelimiter;
+    private final String rowDelimiter;
+    private final String quoteString;
+    private final boolean quoteCells;
+    private final boolean forceQuotes;
+    private final boolean copyHTML;
+    private final BiFunction<A, Object, String> cellFormatter;
+    @Nullable
+    private String[] headers;
+    private boolean copyRowNumbers;
+
+    SpreadsheetCopyFormatter(
+        int columnCount,
+        @NotNull String columnDelimiter,
+        @NotNull String rowDelimiter,
+        @NotNull String quoteString,
+        boolean quoteCells,
+        boolean forceQuotes,
+        boolean copyHTML,
+        @NotNull BiFunction<A, Object, String> cellFormatter
+    ) {
+        this.columnCount = columnCount;
+        this.columnDelimiter = columnDelimiter;
+        this.rowDelimiter = rowDelimiter;
+        this.quoteString = quoteString;
+        this.quoteCells = quoteCells;
+        this.forceQuotes = forceQuotes;
+        this.copyHTML = copyHTML;
+        this.cellFormatter = cellFormatter;
+    }
+
+    void setHeader(@NotNull String[] headers, boolean copyRowNumbers) {
+        this.headers = headers;
+        this.copyRowNumbers = copyRowNumbers;
+    }
+
+    /**
+     * Estimates length of the copied text by the first rows
+     */
+    long estimateTextLength(@NotNull List<CopyRow<A>> rows) {
+        int sampleRows = Math.min(rows.size(), CHUNK_ROWS);
+        if (sampleRows == 0) {
+            return 0;
+        }
+        StringBuilder sample = new StringBuilder();
+        formatRows(rows, 0, sampleRows, sample, null);
+        return (long) ((double) sample.length() / sampleRows * rows.size());
+    }
+
+    /**
+     * Formats text (and HTML if enabled).
+     *
+     * @return copied text or null if copy was canceled
+     */
+    @Nullable
+    CopyText formatText(@NotNull DBRProgressMonitor monitor, @NotNull List<CopyRow<A>> rows) {
+        StringBuilder text = new StringBuilder();
+        StringBuilder html = copyHTML ? new StringBuilder() : null;
+        appendHeader(text, html);
+        boolean completed = formatChunks(monitor, rows, copyHTML, (chunkText, chunkHtml) -> {
+            text.ensureCapacity(text.length() + chunkText.length());
+            text.append(chunkText);
+            if (html != null) {
+                html.ensureCapacity(html.length() + chunkHtml.length());
+                html.append(chunkHtml);
+            }
+        });
+        if (!completed) {
+            return null;
+        }
+        if (html != null) {
+            html.append("</tbody>").append(rowDelimiter);
+            html.append("</table>").append(rowDelimiter);
+        }
+        return new CopyText(text.toString(), html == null ? null : html.toString());
+    }
+
+    /**
+     * Writes text (without HTML) into the writer.
+     *
+     * @return false if copy was canceled
+     */
+    boolean writeText(@NotNull DBRProgressMonitor monitor, @NotNull List<CopyRow<A>> rows, @NotNull Writer writer) throws IOException {
+        StringBuilder header = new StringBuilder();
+        appendHeader(header, null);
+        writer.write(header.toString());
+        IOException[] error = new IOException[1];
+        boolean completed = formatChunks(monitor, rows, false, (chunkText, chunkHtml) -> {
+            if (error[0] == null) {
+                try {
+                    writer.append(chunkText);
+                } catch (IOException e) {
+                    error[0] = e;
+                }
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+        return completed;
+    }
+
+    private interface ChunkConsumer {
+        void consume(@NotNull StringBuilder text, @Nullable StringBuilder html);
+    }
+
+    private boolean formatChunks(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull List<CopyRow<A>> rows,
+        boolean formatHtml,
+        @NotNull ChunkConsumer consumer
+    ) {
+        int chunkCount = (rows.size() + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        int windowSize = rows.size() >= PARALLEL_COPY_THRESHOLD / Math.max(1, columnCount) ?
+            Math.max(1, ForkJoinPool.getCommonPoolParallelism()) * 2 : 1;
+        monitor.beginTask("Copy " + rows.size() + " rows", chunkCount);
+        try {
+            for (int firstChunk = 0; firstChunk < chunkCount; firstChunk += windowSize) {
+                if (monitor.isCanceled()) {
+                    return false;
+                }
+                int lastChunk = Math.min(chunkCount, firstChunk + windowSize);
+                StringBuilder[][] chunks = new StringBuilder[lastChunk - firstChunk][];
+                IntStream window = IntStream.range(firstChunk, lastChunk);
+                if (windowSize > 1) {
+                    window = window.parallel();
+                }
+                int windowStart = firstChunk;
+                window.forEach(chunk -> {
+                    if (monitor.isCanceled()) {
+                        return;
+                    }
+                    int fromRow = chunk * CHUNK_ROWS;
+                    int toRow = Math.min(rows.size(), fromRow + CHUNK_ROWS);
+                    int capacity = (toRow - fromRow) * (columnCount + 1) * ESTIMATED_CELL_LENGTH;
+                    StringBuilder chunkText = new StringBuilder(capacity);
+                    StringBuilder chunkHtml = formatHtml ? new StringBuilder(capacity * 2) : null;
+                    formatRows(rows, fromRow, toRow, chunkText, chunkHtml);
+                    chunks[chunk - windowStart] = new StringBuilder[] { chunkText, chunkHtml };
+                });
+                if (monitor.isCanceled()) {
+                    return false;
+                }
+                for (StringBuilder[] chunk : chunks) {
+                    consumer.consume(chunk[0], chunk[1]);
+                }
+                monitor.worked(lastChunk - firstChunk);
+            }
+            return true;
+        } finally {
+            monitor.done();
+        }
+    }
+
+    private void appendHeader(@NotNull StringBuilder text, @Nullable StringBuilder html) {
+        if (html != null) html.append("<table border=\"1\">");
+        if (headers != null) {
+            if (html != null) html.append("<thead>");
+            if (copyRowNumbers) {
+                text.append("#");
+                if (html != null) html.append("<th>#</th>");
+            }
+            for (int i = 0; i < headers.length; i++) {
+                if (i > 0 || copyRowNumbers) {
+                    text.append(columnDelimiter);
+                }
+                text.append(headers[i]);
+                if (html != null) html.append("<th>").append(XMLUtils.escapeXml(headers[i])).append("</th>");
+            }
+            text.append(rowDelimiter);
+            if (html != null) html.append("</thead>").append(rowDelimiter);
+        }
+        if (html != null) html.append("<tbody>");
+    }
+
+    private void formatRows(@NotNull List<CopyRow<A>> rows, int fromRow, int toRow, @NotNull StringBuilder text, @Nullable StringBuilder html) {
+        for (int r = fromRow; r < toRow; r++) {
+            CopyRow<A> row = rows.get(r);
+            if (r > 0) {
+                text.append(rowDelimiter);
+            }
+            if (html != null) html.append("<tr>");
+            if (row.rowNumber() != null) {
+                text.append(row.rowNumber()).append(columnDelimiter);
+                if (html != null) html.append("<td>").append(row.rowNumber()).append("</td>");
+            }
+            int cellIndex = 0;
+            int[] columns = row.columns();
+            for (int column = 0; column < columnCount; column++) {
+                if (column > 0) {
+                    text.append(columnDelimiter);
+                }
+                if (cellIndex >= columns.length || columns[cellIndex] != column) {
+                    // Not selected cell
+                    if (html != null) html.append("<td></td>");
+                    continue;
+                }
+                String cellText = formatCell(row.attributes()[cellIndex], row.values()[cellIndex]);
+                cellIndex++;
+                text.append(cellText);
+                if (html != null) html.append("<td>").append(XMLUtils.escapeXml(cellText)).append("</td> ");
+            }
+            if (html != null) html.append("</tr>").append(rowDelimiter);
+        }
+    }
+
+    @NotNull
+    private String formatCell(@NotNull A attribute, @Nullable Object value) {
+        String cellText = cellFormatter.apply(attribute, value);
+        if (cellText == null) {
+            cellText = "";
+        }
+        if (forceQuotes || (quoteCells && !CommonUtils.isEmpty(cellText))) {
+            if (forceQuotes || cellText.contains(columnDelimiter) || cellText.contains(rowDelimiter)) {
+                cellText = quoteString + cellText + quoteString;
+            }
+        }
+        return cellText;
+    }
+}
@@ -31,6 +31,7 @@ import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.dnd.Clipboard;
+import org.eclipse.swt.dnd.FileTransfer;
 import org.eclipse.swt.dnd.HTMLTransfer;
 import org.eclipse.swt.dnd.TextTransfer;
 import org.eclipse.swt.dnd.Transfer;
@@ -93,10 +94,15 @@ import org.jkiss.dbeaver.utils.RuntimeUtils;
 import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
 import org.jkiss.utils.Pair;
-import org.jkiss.utils.xml.XMLUtils;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.MessageFormat;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -144,6 +150,7 @@ public class SpreadsheetPresentation extends AbstractPresentation
     private boolean showAttrOrdering;
     private boolean supportsAttributeFilter;
     private boolean autoFetchSegments;
+    private int readAheadThreshold;
     private boolean showAttributeIcons;
     private boolean showAttributeDescription;
     private boolean calcColumnWidthByValue;
@@ -164,6 +171,7 @@ public class SpreadsheetPresentation extends AbstractPresentation
     private boolean colorizeDataTypes = true;
     private final Map<DBPDataKind, Color> dataTypesForegrounds = new IdentityHashMap<>();
     private DBDDisplayFormat gridValueFormat;
+    private final SpreadsheetCellTextCache cellTextCache = new SpreadsheetCellTextCache(SpreadsheetCellTextCache.DEFAULT_MAX_SIZE);
 
     public Spreadsheet getSpreadsheet() {
         return spreadsheet;
@@ -477,14 +485,6 @@ public class SpreadsheetPresentation extends AbstractPresentation
     @NotNull
     @Override
     public Map<Transfer, Object> copySelection(ResultSetCopySettings settings) {
-        boolean copyHTML = settings.isCopyHTML();
-
-        StringBuilder tdt = new StringBuilder();
-        StringBuilder html = new StringBuilder();
-        byte[] binaryData = null;
-
-        Map<Transfer, Object> formats = new LinkedHashMap<>();
-
         String columnDelimiter = settings.getColumnDelimiter();
         if (columnDelimiter == null) {
             columnDelimiter = "\t";
@@ -500,93 +500,79 @@ public class SpreadsheetPresentation extends AbstractPresentation
         }
         List<IGridColumn> selectedColumns = spreadsheet.getColumnSelection();
         IGridLabelProvider labelProvider = spreadsheet.getLabelProvider();
-        if (copyHTML) html.append("<table border=\"1\">");
+        Collection<GridCell> selectedCells = spreadsheet.getCellSelection();
+
+        SpreadsheetCopyFormatter<DBDAttributeBinding> formatter = new SpreadsheetCopyFormatter<>(
+            selectedColumns.size(),
+            columnDelimiter,
+            rowDelimiter,
+            quoteString,
+            settings.isQuoteCells() && selectedCells.size() > 1,
+            settings.isForceQuotes(),
+            settings.isCopyHTML(),
+            (attribute, value) -> attribute.getValueRenderer().getValueDisplayString(attribute.getAttribute(), value, settings.getFormat()));
         if (settings.isCopyHeader()) {
-            if (copyHTML) html.append("<thead>");
-            if (settings.isCopyRowNumbers()) {
-                tdt.append("#");
-                if (copyHTML) html.append("<th>#</th>");
+            String[] headers = new String[selectedColumns.size()];
+            for (int i = 0; i < headers.length; i++) {
+                headers[i] = labelProvider.getText(selectedColumns.get(i));
             }
-            for (IGridColumn column : selectedColumns) {
-                if (!tdt.isEmpty()) {
-                    tdt.append(columnDelimiter);
-                }
-                String columnText = labelProvider.getText(column);
-                tdt.append(columnText);
-                if (copyHTML) html.append("<th>").append(XMLUtils.escapeXml(columnText)).append("</th>");
-            }
-            tdt.append(rowDelimiter);
-            if (copyHTML) html.append("</thead>").append(rowDelimiter);
+            formatter.setHeader(headers, settings.isCopyRowNumbers());
         }
 
-        if (copyHTML) html.append("<tbody>");
-
-        List<GridCell> selectedCells = spreadsheet.getCellSelection();
-        boolean quoteCells = settings.isQuoteCells() && selectedCells.size() > 1;
-        boolean forceQuotes = settings.isForceQuotes();
-
-        GridCell prevCell = null;
+        // Collect values on the UI thread. They are formatted later, probably in background.
+        Map<IGridColumn, Integer> selectedColumnIndexes = new HashMap<>();
+        for (int i = 0; i < selectedColumns.size(); i++) {
+            selectedColumnIndexes.putIfAbsent(selectedColumns.get(i), i);
+        }
+        List<SpreadsheetCopyFormatter.CopyRow<DBDAttributeBinding>> copyRows = new ArrayList<>();
+        List<GridCell> rowCells = new ArrayList<>();
+        byte[] binaryData = null;
         for (GridCell cell : selectedCells) {
-            if (prevCell == null || cell.row != prevCell.row) {
-                // Next row
-                if (prevCell != null && prevCell.col != cell.col) {
-                    // Fill empty row tail
-                    int prevColIndex = selectedColumns.indexOf(prevCell.col);
-                    for (int i = prevColIndex; i < selectedColumns.size() - 1; i++) {
-                        tdt.append(columnDelimiter);
-                        if (copyHTML) html.append("<td></td>");
-                    }
-                }
-                if (prevCell != null) {
-                    tdt.append(rowDelimiter);
-                    if (copyHTML) html.append("</tr>").append(rowDelimiter);
-                }
-                if (settings.isCopyRowNumbers()) {
-                    String rowNumber = labelProvider.getText(cell.row);
-                    tdt.append(rowNumber).append(columnDelimiter);
-                    if (copyHTML) html.append("<td>").append(rowNumber).append("</td>");
-                }
-                if (copyHTML) html.append("<tr>");
-            }
-            if (prevCell != null && prevCell.col != cell.col) {
-                int prevColIndex = selectedColumns.indexOf(prevCell.col);
-                int curColIndex = selectedColumns.indexOf(cell.col);
-                for (int i = prevColIndex; i < curColIndex; i++) {
-                    tdt.append(columnDelimiter);
-                    if (i != prevColIndex) {
-                        if (copyHTML) html.append("<td></td>");
+            if (!rowCells.isEmpty() && rowCells.get(0).row != cell.row) {
+                copyRows.add(makeCopyRow(rowCells, selectedColumnIndexes, settings.isCopyRowNumbers()));
+                rowCells.clear();
+            }
+            rowCells.add(cell);
+            if (binaryData == null) {
+                DBDAttributeBinding column = getAttributeFromGrid(cell.col, cell.row);
+                if (column.getDataKind() == DBPDataKind.BINARY || column.getDataKind() == DBPDataKind.CONTENT) {
+                    Object value = spreadsheet.getContentProvider().getCellValue(cell.col, cell.row, false);
+                    if (value instanceof byte[]) {
+                        binaryData = (byte[]) value;
+                    } else if (value instanceof DBDContent && !ContentUtils.isTextContent((DBDContent) value) && value instanceof DBDContentCached) {
+                        try {
+                            binaryData = ContentUtils.getContentBinaryValue(new VoidProgressMonitor(), (DBDContent) value);
+                        } catch (DBCException e) {
+                            log.debug("Error reading content binary value");
+                        }
                     }
                 }
             }
+        }
+        if (!rowCells.isEmpty()) {
+            copyRows.add(makeCopyRow(rowCells, selectedColumnIndexes, settings.isCopyRowNumbers()));
+        }
 
-            DBDAttributeBinding column = getAttributeFromGrid(cell.col, cell.row);
-            Object value = spreadsheet.getContentProvider().getCellValue(cell.col, cell.row, false);
-            //Object value = controller.getModel().getCellValue(column, row);
-            if (binaryData == null && (column.getDataKind() == DBPDataKind.BINARY || column.getDataKind() == DBPDataKind.CONTENT)) {
-                if (value instanceof byte[]) {
-                    binaryData = (byte[]) value;
-                } else if (value instanceof DBDContent && !ContentUtils.isTextContent((DBDContent) value) && value instanceof DBDContentCached) {
-                    try {
-                        binaryData = ContentUtils.getContentBinaryValue(new VoidProgressMonitor(), (DBDContent) value);
-                    } catch (DBCException e) {
-                        log.debug("Error reading content binary value");
-                    }
-                }
-            }
-            String cellText = column.getValueRenderer().getValueDisplayString(
-                column.getAttribute(),
-                value,
-                settings.getFormat());
-            if (forceQuotes || (quoteCells && !CommonUtils.isEmpty(cellText))) {
-                if (forceQuotes || cellText.contains(columnDelimiter) || cellText.contains(rowDelimiter)) {
-                    cellText = quoteString + cellText + quoteString;
+        Map<Transfer, Object> formats = new LinkedHashMap<>();
+        if (selectedCells.size() < SpreadsheetCopyFormatter.PARALLEL_COPY_THRESHOLD) {
+            SpreadsheetCopyFormatter.CopyText copyText = formatter.formatText(new VoidProgressMonitor(), copyRows);
+            if (copyText != null) {
+                formats.put(TextTransfer.getInstance(), copyText.text());
+                if (copyText.html() != null) {
+                    formats.put(HTMLTransfer.getInstance(), copyText.html());
                 }
             }
-            tdt.append(cellText);
-            if (copyHTML) html.append("<td>").append(XMLUtils.escapeXml(cellText)).append("</td> ");
+        } else if (!copyInBackground(formatter, copyRows, formats)) {
+            return formats;
+        }
+        if (binaryData != null) {
+            formats.put(SimpleByteArrayTransfer.getInstance(), binaryData);
+        }
 
-            if (settings.isCut()) {
-                ResultSetRow row = getResultRowFromGrid (cell.col, cell.row);
+        if (settings.isCut()) {
+            for (GridCell cell : selectedCells) {
+                DBDAttributeBinding column = getAttributeFromGrid(cell.col, cell.row);
+                ResultSetRow row = getResultRowFromGrid(cell.col, cell.row);
 
                 IValueController valueController = new SpreadsheetValueController(
                     controller,
@@ -597,29 +583,81 @@ public class SpreadsheetPresentation extends AbstractPresentation
                     valueController.updateValue(BaseValueManager.makeNullValue(valueController), false);
                 }
             }
-
-            prevCell = cell;
-        }
-        if (copyHTML) {
-            html.append("</tbody>").append(rowDelimiter);
-            html.append("</table>").append(rowDelimiter);
-        }
-        if (settings.isCut()) {
             controller.redrawData(false, false);
             controller.updatePanelsContent(false);
         }
 
-        formats.put(TextTransfer.getInstance(), tdt.toString());
-        if (copyHTML) {
-            formats.put(HTMLTransfer.getInstance(), html.toString());
-        }
-        if (binaryData != null) {
-            formats.put(SimpleByteArrayTransfer.getInstance(), binaryData);
-        }
-
         return formats;
     }
 
+    @NotNull
+    private SpreadsheetCopyFormatter.CopyRow<DBDAttributeBinding> makeCopyRow(
+        @NotNull List<GridCell> cells,
+        @NotNull Map<IGridColumn, Integer> selectedColumnIndexes,
+        boolean copyRowNumbers
+    ) {
+        int[] columns = new int[cells.size()];
+        DBDAttributeBinding[] attributes = new DBDAttributeBinding[cells.size()];
+        Object[] values = new Object[cells.size()];
+        for (int i = 0; i < cells.size(); i++) {
+            GridCell cell = cells.get(i);
+            columns[i] = selectedColumnIndexes.getOrDefault(cell.col, -1);
+            attributes[i] = getAttributeFromGrid(cell.col, cell.row);
+            values[i] = spreadsheet.getContentProvider().getCellValue(cell.col, cell.row, false);
+        }
+        String rowNumber = copyRowNumbers ? spreadsheet.getLabelProvider().getText(cells.get(0).row) : null;
+        return new SpreadsheetCopyFormatter.CopyRow<>(rowNumber, columns, attributes, values);
+    }
+
+    /**
+     * Formats big selections in background. Copy may be canceled.
+     * Huge texts are written into a temporary file which is copied instead of the text.
+     *
+     * @return false if copy was canceled or failed
+     */
+    private boolean copyInBackground(
+        @NotNull SpreadsheetCopyFormatter<DBDAttributeBinding> formatter,
+        @NotNull List<SpreadsheetCopyFormatter.CopyRow<DBDAttributeBinding>> copyRows,
+        @NotNull Map<Transfer, Object> formats
+    ) {
+        try {
+            UIUtils.runInProgressService(monitor -> {
+                try {
+                    if (formatter.estimateTextLength(copyRows) > SpreadsheetCopyFormatter.MAX_CLIPBOARD_TEXT_LENGTH) {
+                        Path copyFile = Files.createTempFile(
+                            DBWorkbench.getPlatform().getTempFolder(monitor, "copy-files"), "copy", ".txt");
+                        boolean completed;
+                        try (Writer writer = Files.newBufferedWriter(copyFile, StandardCharsets.UTF_8)) {
+                            completed = formatter.writeText(monitor, copyRows, writer);
+                        }
+                        if (completed) {
+                            formats.put(FileTransfer.getInstance(), new String[]{copyFile.toAbsolutePath().toString()});
+                        } else {
+                            Files.deleteIfExists(copyFile);
+                        }
+                    } else {
+                        SpreadsheetCopyFormatter.CopyText copyText = formatter.formatText(monitor, copyRows);
+                        if (copyText != null) {
+                            formats.put(TextTransfer.getInstance(), copyText.text());
+                            if (copyText.html() != null) {
+                                formats.put(HTMLTransfer.getInstance(), copyText.html());
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new InvocationTargetException(e);
+                }
+            });
+        } catch (InvocationTargetException e) {
+            log.error("Error copying selection", e.getTargetException());
+            return false;
+        } catch (InterruptedException e) {
+            // Canceled
+            return false;
+        }
+        return !formats.isEmpty();
+    }
+
     @Override
     public void pasteFromClipboard(@Nullable ResultSetPasteSettings settings) {
         try {
@@ -914,6 +952,7 @@ public class SpreadsheetPresentation extends AbstractPresentation
                 controller.getDataContainer().isFeatureSupported(DBSDataContainer.FEATURE_DATA_FILTER) &&
                 controller.getPreferenceStore().getBoolean(ResultSetPreferences.RESULT_SET_SHOW_ATTR_FILTERS);
         autoFetchSegments = controller.getPreferenceStore().getBoolean(ResultSetPreferences.RESULT_SET_AUTO_FETCH_NEXT_SEGMENT);
+        readAheadThreshold = controller.getPreferenceStore().getInt(ResultSetPreferences.RESULT_SET_READ_AHEAD_THRESHOLD);
         calcColumnWidthByValue = getPreferenceStore().getBoolean(ResultSetPreferences.RESULT_SET_CALC_COLUMN_WIDTH_BY_VALUES);
         showBooleanAsCheckbox = preferenceStore.getBoolean(ResultSetPreferences.RESULT_SET_SHOW_BOOLEAN_AS_CHECKBOX);
         showWhitespaceCharacters = preferenceStore.getBoolean(ResultSetPreferences.RESULT_SET_SHOW_WHITESPACE_CHARACTERS);
@@ -923,6 +962,8 @@ public class SpreadsheetPresentation extends AbstractPresentation
         spreadsheet.setColumnScrolling(!getPreferenceStore().getBoolean(ResultSetPreferences.RESULT_SET_USE_SMOOTH_SCROLLING));
         gridValueFormat = CommonUtils.valueOf(DBDDisplayFormat.class, getPreferenceStore().getString(ResultSetPreferences.RESULT_GRID_VALUE_FORMAT), DBDDisplayFormat.UI);
 
+        cellTextCache.clear();
+
         spreadsheet.setRedraw(false);
         try {
             spreadsheet.refreshData(refreshMetadata, keepState, false);
@@ -933,12 +974,14 @@ public class SpreadsheetPresentation extends AbstractPresentation
 
     @Override
     public void formatData(boolean refreshData) {
+        cellTextCache.clear();
         spreadsheet.refreshData(false, true, false);
     }
 
     @Override
     public void clearMetaData() {
         this.curAttribute = null;
+        this.cellTextCache.clear();
         if (this.columnOrder != SWT.NONE) {
             this.columnOrder = SWT.DEFAULT;
         }
@@ -1886,10 +1929,11 @@ public class SpreadsheetPresentation extends AbstractPresentation
                         }
                     }
                 } else {
+                    Set<ResultSetRow> addedRows = Collections.newSetFromMap(new IdentityHashMap<>());
                     for (Integer row : spreadsheet.getRowSelection()) {
                         IGridRow gridRow = spreadsheet.getRow(row);
                         ResultSetRow rsr = (ResultSetRow) gridRow.getElement();
-                        if (!rows.contains(rsr)) {
+                        if (addedRows.add(rsr)) {
                             rows.add(rsr);
                         }
                     }
@@ -2227,14 +2271,34 @@ public class SpreadsheetPresentation extends AbstractPresentation
             ResultSetRow row = getResultRowFromGrid(gridColumn, gridRow);
             int rowNum = row.getVisualNumber();
             if (rowNum > 0 &&
-                rowNum == controller.getModel().getRowCount() - 1 &&
+                isNextSegmentRow(rowNum) &&
                 autoFetchSegments &&
                 !controller.isRefreshInProgress() &&
                 !(controller.getContainer().getDataContainer() != null && controller.getContainer().getDataContainer().isFeatureSupported(DBSDataContainer.FEATURE_DATA_MODIFIED_ON_REFRESH)) &&
                 !(getPreferenceStore().getInt(ModelPreferences.RESULT_SET_MAX_ROWS) < getSpreadsheet().getMaxVisibleRows()) &&
                 (controller.isRecordMode() || spreadsheet.isRowVisible(rowNum))) {
-                controller.readNextSegment();
+                if (rowNum == controller.getModel().getRowCount() - 1) {
+                    controller.readNextSegment();
+                } else {
+                    controller.readNextSegmentAhead();
+                }
+            }
+        }
+
+        /**
+         * Checks that the row is the last one or (if read-ahead is enabled) passed the read-ahead threshold.
+         * Read-ahead doesn't start if there are unsaved changes because we don't want to prompt the user in the middle of scroll.
+         */
+        private boolean isNextSegmentRow(int rowNum) {
+            ResultSetModel model = controller.getModel();
+            int rowCount = model.getRowCount();
+            if (rowNum == rowCount - 1) {
+                return true;
             }
+            return readAheadThreshold > 0 &&
+                controller.isHasMoreData() &&
+                rowNum >= (long) rowCount * readAheadThreshold / 100 &&
+                !model.isDirty();
         }
 
         @NotNull
@@ -2413,10 +2477,16 @@ public class SpreadsheetPresentation extends AbstractPresentation
                 return "[" + ((DBDComposite) value).getDataType().getName() + "]";
             }
             try {
-                return attr.getValueRenderer().getValueDisplayString(
-                    attr.getAttribute(),
-                    value,
-                    getValueRenderFormat(attr, value));
+                final DBDDisplayFormat format = getValueRenderFormat(attr, value);
+                final boolean cacheable = SpreadsheetCellTextCache.isCacheableValue(value);
+                String text = cacheable ? cellTextCache.getText(row, attr, format, value) : null;
+                if (text == null) {
+                    text = attr.getValueRenderer().getValueDisplayString(attr.getAttribute(), value, format);
+                    if (cacheable) {
+                        cellTextCache.putText(row, attr, format, value, text);
+                    }
+                }
+                return text;
             } catch (Exception e) {
                 return new DBDValueError(e);
             }
@@ -55,11 +55,17 @@ public class PrefPageResultSetMain extends TargetPrefPage
     public static final String PAGE_ID = "org.jkiss.dbeaver.preferences.main.resultset"; //$NON-NLS-1$
 
     private Button autoFetchNextSegmentCheck;
+    private Text readAheadThresholdText;
+    private Button adaptiveSegmentSizeCheck;
     private Button automaticRowCountCheck;
     private Button rereadOnScrollingCheck;
+    private Button columnarStorageCheck;
+    private Text spillMemoryLimitText;
     private Text resultSetSize;
     private Button resultSetUseSQLCheck;
     private Combo orderingModeCombo;
+    private Button filterOnClientCheck;
+    private Button groupOnClientCheck;
     private Text queryCancelTimeout;
     private Button filterForceSubselect;
 
@@ -91,7 +97,11 @@ public class PrefPageResultSetMain extends TargetPrefPage
         DBPPreferenceStore store = dataSourceDescriptor.getPreferenceStore();
         return
             store.contains(ResultSetPreferences.RESULT_SET_AUTO_FETCH_NEXT_SEGMENT) ||
+            store.contains(ResultSetPreferences.RESULT_SET_READ_AHEAD_THRESHOLD) ||
+            store.contains(ResultSetPreferences.RESULT_SET_ADAPTIVE_SEGMENT_SIZE) ||
             store.contains(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING) ||
+            store.contains(ResultSetPreferences.RESULT_SET_COLUMNAR_STORAGE) ||
+            store.contains(ResultSetPreferences.RESULT_SET_SPILL_MEMORY_LIMIT) ||
             store.contains(ModelPreferences.RESULT_SET_MAX_ROWS) ||
             store.contains(ModelPreferences.RESULT_SET_MAX_ROWS_USE_SQL) ||
             store.contains(ResultSetPreferences.RESULT_SET_AUTOMATIC_ROW_COUNT) ||
@@ -103,6 +113,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
             store.contains(ResultSetPreferences.RS_EDIT_REFRESH_AFTER_UPDATE) ||
             store.contains(ResultSetPreferences.KEEP_STATEMENT_OPEN) ||
             store.contains(ResultSetPreferences.RESULT_SET_ORDERING_MODE) ||
+            store.contains(ResultSetPreferences.RESULT_SET_FILTER_ON_CLIENT) ||
+            store.contains(ResultSetPreferences.RS_GROUPING_LOCAL) ||
             store.contains(ModelPreferences.RESULT_SET_USE_FETCH_SIZE) ||
             store.contains(ResultSetPreferences.RESULT_SET_USE_NAVIGATOR_FILTERS) ||
             store.contains(ResultSetPreferences.RESULT_SET_CONFIRM_BEFORE_SAVE) ||
@@ -144,13 +156,23 @@ public class PrefPageResultSetMain extends TargetPrefPage
             });
 
             autoFetchNextSegmentCheck = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_auto_fetch_segment, ResultSetMessages.pref_page_database_resultsets_label_auto_fetch_segment_tip, true, 2);
+            readAheadThresholdText = UIUtils.createLabelText(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_read_ahead_threshold, "0", SWT.BORDER);
+            readAheadThresholdText.setToolTipText(ResultSetMessages.pref_page_database_resultsets_label_read_ahead_threshold_tip);
+            readAheadThresholdText.addVerifyListener(UIUtils.getIntegerVerifyListener(Locale.getDefault()));
+            adaptiveSegmentSizeCheck = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_adaptive_segment_size, ResultSetMessages.pref_page_database_resultsets_label_adaptive_segment_size_tip, false, 2);
             rereadOnScrollingCheck = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_reread_on_scrolling, ResultSetMessages.pref_page_database_resultsets_label_reread_on_scrolling_tip, true, 2);
+            columnarStorageCheck = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_columnar_storage, ResultSetMessages.pref_page_database_resultsets_label_columnar_storage_tip, false, 2);
+            spillMemoryLimitText = UIUtils.createLabelText(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_spill_memory_limit, "0", SWT.BORDER);
+            spillMemoryLimitText.setToolTipText(ResultSetMessages.pref_page_database_resultsets_label_spill_memory_limit_tip);
+            spillMemoryLimitText.addVerifyListener(UIUtils.getIntegerVerifyListener(Locale.getDefault()));
             resultSetUseSQLCheck = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_use_sql, ResultSetMessages.pref_page_database_resultsets_label_use_sql_tip, false, 2);
             automaticRowCountCheck = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_automatic_row_count, ResultSetMessages.pref_page_database_resultsets_label_automatic_row_count_tip, false, 2);
             orderingModeCombo = UIUtils.createLabelCombo(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_order_mode, ResultSetMessages.pref_page_database_resultsets_label_order_mode_tip, SWT.DROP_DOWN | SWT.READ_ONLY);
             for (ResultSetUtils.OrderingMode mode : ResultSetUtils.OrderingMode.values()) {
                 orderingModeCombo.add(mode.getText());
             }
+            filterOnClientCheck = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_filter_on_client, ResultSetMessages.pref_page_database_resultsets_label_filter_on_client_tip, true, 2);
+            groupOnClientCheck = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_group_on_client, ResultSetMessages.pref_page_database_resultsets_label_group_on_client_tip, false, 2);
             queryCancelTimeout = UIUtils.createLabelText(queriesGroup, ResultSetMessages.pref_page_database_general_label_result_set_cancel_timeout + UIMessages.label_ms, "0");
             queryCancelTimeout.addVerifyListener(UIUtils.getIntegerVerifyListener(Locale.getDefault()));
             queryCancelTimeout.setToolTipText(ResultSetMessages.pref_page_database_general_label_result_set_cancel_timeout_tip);
@@ -249,7 +271,11 @@ public class PrefPageResultSetMain extends TargetPrefPage
     {
         try {
             autoFetchNextSegmentCheck.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_AUTO_FETCH_NEXT_SEGMENT));
+            readAheadThresholdText.setText(String.valueOf(store.getInt(ResultSetPreferences.RESULT_SET_READ_AHEAD_THRESHOLD)));
+            adaptiveSegmentSizeCheck.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_ADAPTIVE_SEGMENT_SIZE));
             rereadOnScrollingCheck.setSelection(store.getBoolean(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING));
+            columnarStorageCheck.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_COLUMNAR_STORAGE));
+            spillMemoryLimitText.setText(String.valueOf(store.getInt(ResultSetPreferences.RESULT_SET_SPILL_MEMORY_LIMIT)));
             useDateTimeEditor.setSelection(store.getBoolean(ModelPreferences.RESULT_SET_USE_DATETIME_EDITOR));
             int rsSegmentSize = store.getInt(ModelPreferences.RESULT_SET_MAX_ROWS);
             if (rsSegmentSize > 0 && rsSegmentSize < ResultSetPreferences.MIN_SEGMENT_SIZE) {
@@ -259,6 +285,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
             resultSetUseSQLCheck.setSelection(store.getBoolean(ModelPreferences.RESULT_SET_MAX_ROWS_USE_SQL));
             automaticRowCountCheck.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_AUTOMATIC_ROW_COUNT));
             orderingModeCombo.select(CommonUtils.valueOf(ResultSetUtils.OrderingMode.class, store.getString(ResultSetPreferences.RESULT_SET_ORDERING_MODE), ResultSetUtils.OrderingMode.SMART).ordinal());
+            filterOnClientCheck.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_FILTER_ON_CLIENT));
+            groupOnClientCheck.setSelection(store.getBoolean(ResultSetPreferences.RS_GROUPING_LOCAL));
             queryCancelTimeout.setText(store.getString(ResultSetPreferences.RESULT_SET_CANCEL_TIMEOUT));
             filterForceSubselect.setSelection(store.getBoolean(ModelPreferences.SQL_FILTER_FORCE_SUBSELECT));
             useBrowserCheckbox.setSelection(store.getBoolean(ResultSetPreferences.RESULT_IMAGE_USE_BROWSER_BASED_RENDERER));
@@ -290,11 +318,17 @@ public class PrefPageResultSetMain extends TargetPrefPage
         try {
             store.setValue(ModelPreferences.RESULT_SET_USE_DATETIME_EDITOR, useDateTimeEditor.getSelection());
             store.setValue(ResultSetPreferences.RESULT_SET_AUTO_FETCH_NEXT_SEGMENT, autoFetchNextSegmentCheck.getSelection());
+            store.setValue(ResultSetPreferences.RESULT_SET_READ_AHEAD_THRESHOLD, Math.min(CommonUtils.toInt(readAheadThresholdText.getText()), 99));
+            store.setValue(ResultSetPreferences.RESULT_SET_ADAPTIVE_SEGMENT_SIZE, adaptiveSegmentSizeCheck.getSelection());
             store.setValue(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING, rereadOnScrollingCheck.getSelection());
+            store.setValue(ResultSetPreferences.RESULT_SET_COLUMNAR_STORAGE, columnarStorageCheck.getSelection());
+            store.setValue(ResultSetPreferences.RESULT_SET_SPILL_MEMORY_LIMIT, CommonUtils.toInt(spillMemoryLimitText.getText()));
             store.setValue(ModelPreferences.RESULT_SET_MAX_ROWS, resultSetSize.getText());
             store.setValue(ModelPreferences.RESULT_SET_MAX_ROWS_USE_SQL, resultSetUseSQLCheck.getSelection());
             store.setValue(ResultSetPreferences.RESULT_SET_AUTOMATIC_ROW_COUNT, automaticRowCountCheck.getSelection());
             store.setValue(ResultSetPreferences.RESULT_SET_ORDERING_MODE, ResultSetUtils.OrderingMode.values()[orderingModeCombo.getSelectionIndex()].toString());
+            store.setValue(ResultSetPreferences.RESULT_SET_FILTER_ON_CLIENT, filterOnClientCheck.getSelection());
+            store.setValue(ResultSetPreferences.RS_GROUPING_LOCAL, groupOnClientCheck.getSelection());
             store.setValue(ResultSetPreferences.RESULT_SET_CANCEL_TIMEOUT, queryCancelTimeout.getText());
             store.setValue(ModelPreferences.SQL_FILTER_FORCE_SUBSELECT, filterForceSubselect.getSelection());
             store.setValue(ResultSetPreferences.RESULT_IMAGE_USE_BROWSER_BASED_RENDERER, useBrowserCheckbox.getSelection());
@@ -325,11 +359,17 @@ public class PrefPageResultSetMain extends TargetPrefPage
         store.setToDefault(ResultSetPreferences.RESULT_IMAGE_USE_BROWSER_BASED_RENDERER);
         store.setToDefault(ModelPreferences.RESULT_SET_USE_DATETIME_EDITOR);
         store.setToDefault(ResultSetPreferences.RESULT_SET_AUTO_FETCH_NEXT_SEGMENT);
+        store.setToDefault(ResultSetPreferences.RESULT_SET_READ_AHEAD_THRESHOLD);
+        store.setToDefault(ResultSetPreferences.RESULT_SET_ADAPTIVE_SEGMENT_SIZE);
         store.setToDefault(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING);
+        store.setToDefault(ResultSetPreferences.RESULT_SET_COLUMNAR_STORAGE);
+        store.setToDefault(ResultSetPreferences.RESULT_SET_SPILL_MEMORY_LIMIT);
         store.setToDefault(ModelPreferences.RESULT_SET_MAX_ROWS);
         store.setToDefault(ModelPreferences.RESULT_SET_MAX_ROWS_USE_SQL);
         store.setToDefault(ResultSetPreferences.RESULT_SET_AUTOMATIC_ROW_COUNT);
         store.setToDefault(ResultSetPreferences.RESULT_SET_ORDERING_MODE);
+        store.setToDefault(ResultSetPreferences.RESULT_SET_FILTER_ON_CLIENT);
+        store.setToDefault(ResultSetPreferences.RS_GROUPING_LOCAL);
         store.setToDefault(ResultSetPreferences.RESULT_SET_CANCEL_TIMEOUT);
         store.setToDefault(ModelPreferences.SQL_FILTER_FORCE_SUBSELECT);
 
@@ -354,11 +394,17 @@ public class PrefPageResultSetMain extends TargetPrefPage
     protected void performDefaults() {
         DBPPreferenceStore store = DBWorkbench.getPlatform().getPreferenceStore();
         autoFetchNextSegmentCheck.setSelection(store.getDefaultBoolean(ResultSetPreferences.RESULT_SET_AUTO_FETCH_NEXT_SEGMENT));
+        readAheadThresholdText.setText(String.valueOf(store.getDefaultInt(ResultSetPreferences.RESULT_SET_READ_AHEAD_THRESHOLD)));
+        adaptiveSegmentSizeCheck.setSelection(store.getDefaultBoolean(ResultSetPreferences.RESULT_SET_ADAPTIVE_SEGMENT_SIZE));
         rereadOnScrollingCheck.setSelection(store.getDefaultBoolean(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING));
+        columnarStorageCheck.setSelection(store.getDefaultBoolean(ResultSetPreferences.RESULT_SET_COLUMNAR_STORAGE));
+        spillMemoryLimitText.setText(String.valueOf(store.getDefaultInt(ResultSetPreferences.RESULT_SET_SPILL_MEMORY_LIMIT)));
         resultSetSize.setText(String.valueOf(store.getDefaultInt(ModelPreferences.RESULT_SET_MAX_ROWS)));
         resultSetUseSQLCheck.setSelection(store.getDefaultBoolean(ModelPreferences.RESULT_SET_MAX_ROWS_USE_SQL));
         automaticRowCountCheck.setSelection(store.getDefaultBoolean(ResultSetPreferences.RESULT_SET_AUTOMATIC_ROW_COUNT));
         orderingModeCombo.select(ResultSetUtils.OrderingMode.SMART.ordinal());
+        filterOnClientCheck.setSelection(store.getDefaultBoolean(ResultSetPreferences.RESULT_SET_FILTER_ON_CLIENT));
+        groupOnClientCheck.setSelection(store.getDefaultBoolean(ResultSetPreferences.RS_GROUPING_LOCAL));
         queryCancelTimeout.setText(String.valueOf(store.getDefaultInt(ResultSetPreferences.RESULT_SET_CANCEL_TIMEOUT)));
         filterForceSubselect.setSelection(store.getDefaultBoolean(ModelPreferences.SQL_FILTER_FORCE_SUBSELECT));
         keepStatementOpenCheck.setSelection(store.getDefaultBoolean(ResultSetPreferences.KEEP_STATEMENT_OPEN));
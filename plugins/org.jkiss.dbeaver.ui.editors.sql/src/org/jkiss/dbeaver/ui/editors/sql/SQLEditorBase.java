@@ -671,6 +671,9 @@ public abstract class SQLEditorBase extends BaseTextEditor implements DBPContext
         if (backgroundParsingJob != null) {
             this.backgroundParsingJob.dispose();
         }
+        if (parserContext != null) {
+            parserContext.dispose();
+        }
         this.occurrencesHighlighter.dispose();
 /*
         if (this.activationListener != null) {
@@ -797,7 +800,13 @@ public abstract class SQLEditorBase extends BaseTextEditor implements DBPContext
         SQLRuleManager ruleManager = new SQLRuleManager(syntaxManager);
         ruleManager.loadRules(getDataSource(), !SQLEditorUtils.isSQLSyntaxParserApplied(getEditorInput()));
         ruleScanner.refreshRules(getDataSource(), ruleManager, this);
+        if (parserContext != null) {
+            parserContext.dispose();
+        }
         parserContext = new SQLParserContext(getDataSource(), syntaxManager, ruleManager, document != null ? document : new Document());
+        if (document != null) {
+            parserContext.enableTokenCache();
+        }
 
         if (document instanceof IDocumentExtension3) {
             IDocumentPartitioner partitioner = new FastPartitioner(
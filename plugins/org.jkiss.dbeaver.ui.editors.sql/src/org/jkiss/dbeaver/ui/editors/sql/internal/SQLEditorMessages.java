@@ -174,6 +174,8 @@ public class SQLEditorMessages extends NLS {
     public static String pref_page_sql_completion_label_use_global_search_tip;
     public static String pref_page_sql_completion_label_show_column_procedures;
     public static String pref_page_sql_completion_label_show_column_procedures_tip;
+    public static String pref_page_sql_completion_label_use_local_index;
+    public static String pref_page_sql_completion_label_use_local_index_tip;
     // SQLFormat
     public static String pref_page_sql_format_group_auto_close;
     public static String pref_page_sql_format_label_single_quotes;
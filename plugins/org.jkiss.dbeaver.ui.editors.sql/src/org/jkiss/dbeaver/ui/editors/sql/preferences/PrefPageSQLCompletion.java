@@ -61,6 +61,7 @@ public class PrefPageSQLCompletion extends TargetPrefPage
     private Combo csInsertTableAlias;
 
     private Button csMatchContains;
+    private Button csUseLocalIndex;
     private Button csUseGlobalSearch;
     private Button csShowColumnProcedures;
     private Button csHippieActivation;
@@ -94,6 +95,7 @@ public class PrefPageSQLCompletion extends TargetPrefPage
             store.contains(SQLModelPreferences.SQL_PROPOSAL_INSERT_TABLE_ALIAS) ||
 
             store.contains(SQLPreferenceConstants.PROPOSALS_MATCH_CONTAINS) ||
+            store.contains(SQLModelPreferences.SQL_EDITOR_PROPOSAL_LOCAL_INDEX) ||
             store.contains(SQLPreferenceConstants.USE_GLOBAL_ASSISTANT) ||
             store.contains(SQLPreferenceConstants.SHOW_COLUMN_PROCEDURES) ||
             store.contains(SQLPreferenceConstants.SHOW_SERVER_HELP_TOPICS) ||
@@ -203,6 +205,7 @@ public class PrefPageSQLCompletion extends TargetPrefPage
             csMatchContains = UIUtils.createCheckbox(assistGroup, SQLEditorMessages.pref_page_sql_completion_label_match_contains, SQLEditorMessages.pref_page_sql_completion_label_match_contains_tip, false, 2);
             csUseGlobalSearch = UIUtils.createCheckbox(assistGroup, SQLEditorMessages.pref_page_sql_completion_label_use_global_search, SQLEditorMessages.pref_page_sql_completion_label_use_global_search_tip, false, 2);
             csShowColumnProcedures = UIUtils.createCheckbox(assistGroup, SQLEditorMessages.pref_page_sql_completion_label_show_column_procedures, SQLEditorMessages.pref_page_sql_completion_label_show_column_procedures_tip, false, 2);
+            csUseLocalIndex = UIUtils.createCheckbox(assistGroup, SQLEditorMessages.pref_page_sql_completion_label_use_local_index, SQLEditorMessages.pref_page_sql_completion_label_use_local_index_tip, false, 2);
         }
 
         return composite;
@@ -235,6 +238,7 @@ public class PrefPageSQLCompletion extends TargetPrefPage
             csMatchContains.setSelection(store.getBoolean(SQLPreferenceConstants.PROPOSALS_MATCH_CONTAINS));
             csUseGlobalSearch.setSelection(store.getBoolean(SQLPreferenceConstants.USE_GLOBAL_ASSISTANT));
             csShowColumnProcedures.setSelection(store.getBoolean(SQLPreferenceConstants.SHOW_COLUMN_PROCEDURES));
+            csUseLocalIndex.setSelection(store.getBoolean(SQLModelPreferences.SQL_EDITOR_PROPOSAL_LOCAL_INDEX));
 
         } catch (Exception e) {
             log.warn(e);
@@ -267,6 +271,7 @@ public class PrefPageSQLCompletion extends TargetPrefPage
             store.setValue(SQLPreferenceConstants.PROPOSALS_MATCH_CONTAINS, csMatchContains.getSelection());
             store.setValue(SQLPreferenceConstants.USE_GLOBAL_ASSISTANT, csUseGlobalSearch.getSelection());
             store.setValue(SQLPreferenceConstants.SHOW_COLUMN_PROCEDURES, csShowColumnProcedures.getSelection());
+            store.setValue(SQLModelPreferences.SQL_EDITOR_PROPOSAL_LOCAL_INDEX, csUseLocalIndex.getSelection());
         } catch (Exception e) {
             log.warn(e);
         }
@@ -297,6 +302,7 @@ public class PrefPageSQLCompletion extends TargetPrefPage
         store.setToDefault(SQLPreferenceConstants.PROPOSALS_MATCH_CONTAINS);
         store.setToDefault(SQLPreferenceConstants.USE_GLOBAL_ASSISTANT);
         store.setToDefault(SQLPreferenceConstants.SHOW_COLUMN_PROCEDURES);
+        store.setToDefault(SQLModelPreferences.SQL_EDITOR_PROPOSAL_LOCAL_INDEX);
     }
 
     @Override
@@ -320,6 +326,7 @@ public class PrefPageSQLCompletion extends TargetPrefPage
         csMatchContains.setSelection(store.getDefaultBoolean(SQLPreferenceConstants.PROPOSALS_MATCH_CONTAINS));
         csUseGlobalSearch.setSelection(store.getDefaultBoolean(SQLPreferenceConstants.USE_GLOBAL_ASSISTANT));
         csShowColumnProcedures.setSelection(store.getDefaultBoolean(SQLPreferenceConstants.SHOW_COLUMN_PROCEDURES));
+        csUseLocalIndex.setSelection(store.getDefaultBoolean(SQLModelPreferences.SQL_EDITOR_PROPOSAL_LOCAL_INDEX));
         csHippieActivation.setSelection(store.getDefaultBoolean(SQLPreferenceConstants.ENABLE_HIPPIE));
         csEnableExperimentalFeatures.setSelection(store.getDefaultBoolean(SQLPreferenceConstants.ENABLE_EXPERIMENTAL_FEATURES));
         csExperimentalCompletionMode.select(SQLExperimentalAutocompletionMode.valueByName(store.getDefaultString(SQLPreferenceConstants.EXPERIMENTAL_AUTOCOMPLETION_MODE)).ordinal());
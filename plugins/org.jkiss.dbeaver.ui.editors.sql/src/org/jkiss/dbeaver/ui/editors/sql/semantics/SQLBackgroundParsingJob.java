@@ -29,6 +29,7 @@ import org.jkiss.dbeaver.model.lsm.sql.impl.syntax.SQLStandardLexer;
 import org.jkiss.dbeaver.model.lsm.sql.impl.syntax.SQLStandardParser;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.ProxyProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.RunnableWithResult;
 import org.jkiss.dbeaver.model.sql.SQLScriptElement;
 import org.jkiss.dbeaver.model.sql.SQLSyntaxManager;
@@ -38,6 +39,7 @@ import org.jkiss.dbeaver.model.sql.semantics.*;
 import org.jkiss.dbeaver.model.sql.semantics.OffsetKeyedTreeMap.NodesIterator;
 import org.jkiss.dbeaver.model.sql.semantics.completion.SQLQueryCompletionContext;
 import org.jkiss.dbeaver.model.sql.semantics.context.SQLQueryDataContext;
+import org.jkiss.dbeaver.model.sql.semantics.context.SQLQueryTableLookupCache;
 import org.jkiss.dbeaver.model.sql.semantics.model.SQLQueryModel;
 import org.jkiss.dbeaver.model.sql.semantics.model.SQLQueryNodeModel;
 import org.jkiss.dbeaver.model.stm.LSMInspections;
@@ -50,9 +52,11 @@ import org.jkiss.dbeaver.ui.editors.sql.SQLEditorUtils;
 import org.jkiss.dbeaver.utils.ListNode;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.*;
 
 public class SQLBackgroundParsingJob {
 
@@ -60,6 +64,18 @@ public class SQLBackgroundParsingJob {
     private static final boolean DEBUG = false;
 
     private static final long schedulingTimeoutMilliseconds = 500;
+    private static final long analysisPollTimeoutMilliseconds = 100;
+    private static final int analysisThreadsCount = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    /**
+     * Bounded pool shared by all editors. Script items analysis may read metadata, so the common pool is not used.
+     */
+    @NotNull
+    private static final ExecutorService analysisExecutor = Executors.newFixedThreadPool(analysisThreadsCount, runnable -> {
+        Thread thread = new Thread(runnable, "SQL semantic analysis");
+        thread.setDaemon(true);
+        return thread;
+    });
     
     private static class QueuedRegionInfo {
         public int length;
@@ -508,37 +524,22 @@ public class SQLBackgroundParsingJob {
             monitor.worked(1);
 
             SQLSyntaxManager syntaxManager = this.editor.getSyntaxManager();
-
+            SQLQueryTableLookupCache tableLookupCache = new SQLQueryTableLookupCache();
+
+            // Script items are independent, so analyze them concurrently starting from the visible ones
+            List<Future<?>> tasks = new ArrayList<>(elements.size());
+            for (SQLScriptElement element : prioritizeVisibleElements(elements, visibleFragment)) {
+                tasks.add(analysisExecutor.submit(() -> this.analyzeScriptElement(
+                    element, executionContext, useRealMetadata, syntaxManager, tableLookupCache, visibleFragment, monitor
+                )));
+            }
             int i = 1;
-            for (SQLScriptElement element : elements) {
-                if (monitor.isCanceled()) {
-                    break;
-                }
-                try {
-                    SQLQueryModelContext recognizer = new SQLQueryModelContext(executionContext, useRealMetadata, syntaxManager);
-                    SQLQueryModel queryModel = recognizer.recognizeQuery(
-                        element.getOriginalText(),
-                        monitor
-                    );
-                
-                    if (queryModel != null) {
-                        if (DEBUG) {
-                            log.debug("registering script item @" + element.getOffset() + "+" + element.getLength());
-                        }
-                        SQLDocumentScriptItemSyntaxContext itemContext = this.context.registerScriptItemContext(
-                            element.getOriginalText(), 
-                            queryModel,
-                            element.getOffset(),
-                            element.getLength()
-                        );
-                        itemContext.clear();
-                        for (SQLQuerySymbolEntry entry : queryModel.getAllSymbols()) {
-                            itemContext.registerToken(entry.getInterval().a, entry);
-                        }
-                        itemContext.refreshCompleted();
+            for (Future<?> task : tasks) {
+                if (!this.waitForAnalysis(task, monitor)) {
+                    for (Future<?> t : tasks) {
+                        t.cancel(false);
                     }
-                } catch (Throwable ex) {
-                    log.debug("Error while analyzing query text: " + element.getOriginalText(), ex);
+                    break;
                 }
                 monitor.worked(1);
                 monitor.subTask("Background query analysis: subtask #" + (i++));
@@ -567,6 +568,136 @@ public class SQLBackgroundParsingJob {
         });
     }
 
+    /**
+     * Builds the query model of the script element and publishes it to the document context.
+     * Called concurrently for the different elements.
+     */
+    private void analyzeScriptElement(
+        @NotNull SQLScriptElement element,
+        @Nullable DBCExecutionContext executionContext,
+        boolean useRealMetadata,
+        @NotNull SQLSyntaxManager syntaxManager,
+        @NotNull SQLQueryTableLookupCache tableLookupCache,
+        @NotNull Interval visibleFragment,
+        @NotNull DBRProgressMonitor monitor
+    ) {
+        if (monitor.isCanceled()) {
+            return;
+        }
+        try {
+            SQLQueryModelContext recognizer = new SQLQueryModelContext(executionContext, useRealMetadata, syntaxManager, tableLookupCache);
+            SQLQueryModel queryModel = recognizer.recognizeQuery(
+                element.getOriginalText(),
+                new AnalysisProgressMonitor(monitor)
+            );
+            if (queryModel == null) {
+                return;
+            }
+            synchronized (this.syncRoot) {
+                // Document modification cancels the job before the context update, so offsets are still actual here
+                if (monitor.isCanceled()) {
+                    return;
+                }
+                if (DEBUG) {
+                    log.debug("registering script item @" + element.getOffset() + "+" + element.getLength());
+                }
+                SQLDocumentScriptItemSyntaxContext itemContext = this.context.registerScriptItemContext(
+                    element.getOriginalText(),
+                    queryModel,
+                    element.getOffset(),
+                    element.getLength()
+                );
+                itemContext.clear();
+                for (SQLQuerySymbolEntry entry : queryModel.getAllSymbols()) {
+                    itemContext.registerToken(entry.getInterval().a, entry);
+                }
+                itemContext.refreshCompleted();
+                this.context.resetLastAccessCache();
+            }
+            if (getDistanceToFragment(element, visibleFragment) == 0) {
+                TextViewer viewer = this.editor.getTextViewer();
+                if (viewer != null) {
+                    UIUtils.asyncExec(() -> viewer.invalidateTextPresentation(element.getOffset(), element.getLength()));
+                }
+            }
+        } catch (Throwable ex) {
+            log.debug("Error while analyzing query text: " + element.getOriginalText(), ex);
+        }
+    }
+
+    /**
+     * Waits for the script element analysis. Returns false if the job was canceled.
+     */
+    private boolean waitForAnalysis(@NotNull Future<?> task, @NotNull DBRProgressMonitor monitor) {
+        while (!monitor.isCanceled()) {
+            try {
+                task.get(analysisPollTimeoutMilliseconds, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (TimeoutException e) {
+                // check cancellation and wait again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException | CancellationException e) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Orders elements by the distance to the visible fragment, so the visible ones are analyzed first
+     */
+    @NotNull
+    private static List<SQLScriptElement> prioritizeVisibleElements(@NotNull List<SQLScriptElement> elements, @NotNull Interval visibleFragment) {
+        List<SQLScriptElement> orderedElements = new ArrayList<>(elements);
+        orderedElements.sort(Comparator.comparingInt(e -> getDistanceToFragment(e, visibleFragment)));
+        return orderedElements;
+    }
+
+    private static int getDistanceToFragment(@NotNull SQLScriptElement element, @NotNull Interval fragment) {
+        int start = element.getOffset();
+        int end = start + element.getLength();
+        if (end < fragment.a) {
+            return fragment.a - end;
+        } else if (start > fragment.b) {
+            return start - fragment.b;
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Monitor of the single element analysis. Reports cancellation of the job, but not the progress,
+     * since the elements are analyzed concurrently.
+     */
+    private static class AnalysisProgressMonitor extends ProxyProgressMonitor {
+
+        AnalysisProgressMonitor(@NotNull DBRProgressMonitor original) {
+            super(original);
+        }
+
+        @Override
+        public void beginTask(String name, int totalWork) {
+            // ignore
+        }
+
+        @Override
+        public void done() {
+            // ignore
+        }
+
+        @Override
+        public void subTask(String name) {
+            // ignore
+        }
+
+        @Override
+        public void worked(int work) {
+            // ignore
+        }
+    }
+
     private class DocumentLifecycleListener implements IDocumentListener, ITextInputListener, IViewportListener {
 
         @Override
@@ -0,0 +1,133 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.clickhouse.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.UUID;
+
+public class ClickhouseRowBinaryEncoderTest {
+
+    @Test
+    public void integersAreLittleEndian() {
+        Assert.assertArrayEquals(bytes(0xFE, 0xFF, 0xFF, 0xFF), encode("Int32", -2));
+        Assert.assertArrayEquals(bytes(0x34, 0x12), encode("Int16", 0x1234));
+        Assert.assertArrayEquals(bytes(0xFF, 0xFF), encode("UInt16", 65535));
+        Assert.assertArrayEquals(bytes(1, 0, 0, 0, 0, 0, 0, 0), encode("UInt64", 1L));
+
+        byte[] minusOne = new byte[16];
+        Arrays.fill(minusOne, (byte) 0xFF);
+        Assert.assertArrayEquals(minusOne, encode("Int128", -1));
+    }
+
+    @Test
+    public void nullableValuesHaveNullFlag() {
+        ClickhouseRowBinaryEncoder encoder = ClickhouseRowBinaryEncoder.create("Nullable(Int8)");
+        Assert.assertNotNull(encoder);
+        ClickhouseRowBinaryEncoder.Buffer buffer = new ClickhouseRowBinaryEncoder.Buffer(16);
+        encoder.writeNull(buffer);
+        encoder.writeValue(buffer, 5);
+        Assert.assertArrayEquals(bytes(1, 0, 5), Arrays.copyOf(buffer.data(), buffer.size()));
+
+        // LowCardinality doesn't change the representation
+        Assert.assertArrayEquals(bytes(0, 1, 'x'), encode("LowCardinality(Nullable(String))", "x"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullForNotNullableColumnIsRejected() {
+        ClickhouseRowBinaryEncoder encoder = ClickhouseRowBinaryEncoder.create("Int32");
+        Assert.assertNotNull(encoder);
+        encoder.writeNull(new ClickhouseRowBinaryEncoder.Buffer(16));
+    }
+
+    @Test
+    public void stringsHaveVarIntLength() {
+        Assert.assertArrayEquals(bytes(2, 'a', 'b'), encode("String", "ab"));
+        byte[] longString = encode("String", "x".repeat(200));
+        Assert.assertEquals(202, longString.length);
+        Assert.assertEquals((byte) 0xC8, longString[0]);
+        Assert.assertEquals(1, longString[1]);
+
+        Assert.assertArrayEquals(bytes('a', 'b', 0, 0), encode("FixedString(4)", "ab"));
+    }
+
+    @Test
+    public void floatsAreIeeeLittleEndian() {
+        Assert.assertArrayEquals(bytes(0, 0, 0, 0, 0, 0, 0xF8, 0x3F), encode("Float64", 1.5));
+        Assert.assertArrayEquals(bytes(0, 0, 0xC0, 0x3F), encode("Float32", 1.5f));
+    }
+
+    @Test
+    public void temporalValuesAreEpochBased() {
+        Assert.assertArrayEquals(bytes(2, 0), encode("Date", LocalDate.of(1970, 1, 3)));
+        Assert.assertArrayEquals(bytes(0xFF, 0xFF, 0xFF, 0xFF), encode("Date32", LocalDate.of(1969, 12, 31)));
+        Assert.assertArrayEquals(bytes(1, 0, 0, 0), encode("DateTime", Instant.ofEpochSecond(1)));
+        Assert.assertArrayEquals(bytes(0xD2, 0x04, 0, 0, 0, 0, 0, 0), encode("DateTime64(3)", Instant.ofEpochMilli(1234)));
+    }
+
+    @Test
+    public void decimalsAreScaledIntegers() {
+        Assert.assertArrayEquals(bytes(0x6A, 0xFF, 0xFF, 0xFF), encode("Decimal(9, 2)", new BigDecimal("-1.5")));
+        Assert.assertArrayEquals(bytes(100, 0, 0, 0, 0, 0, 0, 0), encode("Decimal64(2)", 1));
+
+        byte[] expected = new byte[16];
+        expected[0] = 100;
+        Assert.assertArrayEquals(expected, encode("Decimal128(2)", new BigDecimal("1.00")));
+    }
+
+    @Test
+    public void uuidHalvesAreLittleEndian() {
+        UUID uuid = new UUID(0x0102030405060708L, 0x090A0B0C0D0E0F10L);
+        Assert.assertArrayEquals(
+            bytes(8, 7, 6, 5, 4, 3, 2, 1, 0x10, 0x0F, 0x0E, 0x0D, 0x0C, 0x0B, 0x0A, 9),
+            encode("UUID", uuid));
+    }
+
+    @Test
+    public void enumsAreWrittenAsNumbers() {
+        Assert.assertArrayEquals(bytes(2), encode("Enum8('a' = 1, 'b' = 2)", "b"));
+        Assert.assertArrayEquals(bytes(1, 0), encode("Enum16('a' = 1, 'b' = 2)", "a"));
+    }
+
+    @Test
+    public void unsupportedTypesHaveNoEncoder() {
+        Assert.assertNull(ClickhouseRowBinaryEncoder.create("Array(Int32)"));
+        Assert.assertNull(ClickhouseRowBinaryEncoder.create("Map(String, UInt64)"));
+        Assert.assertNull(ClickhouseRowBinaryEncoder.create("FixedString(x)"));
+    }
+
+    private static byte[] encode(String type, Object value) {
+        ClickhouseRowBinaryEncoder encoder = ClickhouseRowBinaryEncoder.create(type);
+        Assert.assertNotNull(type, encoder);
+        ClickhouseRowBinaryEncoder.Buffer buffer = new ClickhouseRowBinaryEncoder.Buffer(16);
+        encoder.writeValue(buffer, value);
+        return Arrays.copyOf(buffer.data(), buffer.size());
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.mysql.model;
+
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.struct.BatchInsertBulkLoadManager;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
+import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MySQLLoadDataLoaderTest {
+
+    @Mock
+    JDBCSession session;
+    @Mock
+    Connection connection;
+    @Mock
+    Statement statement;
+    @Mock
+    MySQLTableBase table;
+    @Mock
+    MySQLTableColumn column;
+    @Mock
+    DBCExecutionSource source;
+    @Mock
+    DBSDataManipulator.ExecuteBatch batch;
+
+    @Test
+    public void driverWithoutStreamInputUsesBatchedInserts() throws Exception {
+        // Statement mock has no setLocalInfileInputStream method
+        Mockito.when(session.getOriginal()).thenReturn(connection);
+        Mockito.when(connection.createStatement()).thenReturn(statement);
+        Mockito.doReturn(List.of(column)).when(table).getAttributes(Mockito.any());
+        Mockito.when(table.insertData(Mockito.eq(session), Mockito.any(), Mockito.isNull(), Mockito.eq(source), Mockito.anyMap()))
+            .thenReturn(batch);
+
+        DBSDataBulkLoader.BulkLoadManager manager = new MySQLLoadDataLoader(null).createBulkLoad(
+            session, table, new DBSAttributeBase[]{column}, source, 2, Map.of());
+        Assert.assertTrue(manager instanceof BatchInsertBulkLoadManager);
+        Mockito.verify(statement).close();
+
+        manager.addRow(session, new Object[]{1});
+        Mockito.verify(batch, Mockito.never()).execute(Mockito.any(), Mockito.any());
+        manager.addRow(session, new Object[]{2});
+        Mockito.verify(batch).execute(Mockito.eq(session), Mockito.anyMap());
+
+        manager.addRow(session, new Object[]{3});
+        manager.finishBulkLoad(session);
+        Mockito.verify(batch, Mockito.times(3)).add(Mockito.any());
+        Mockito.verify(batch, Mockito.times(2)).execute(Mockito.eq(session), Mockito.anyMap());
+
+        manager.close();
+        Mockito.verify(batch).close();
+    }
+}
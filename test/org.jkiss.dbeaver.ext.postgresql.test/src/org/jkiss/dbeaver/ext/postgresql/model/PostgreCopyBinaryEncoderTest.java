@@ -0,0 +1,143 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.postgresql.model;
+
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.*;
+import java.util.Arrays;
+
+public class PostgreCopyBinaryEncoderTest {
+
+    @Test
+    public void numericIsEncodedInBase10000Groups() throws Exception {
+        // 1 2345 . 6780
+        Assert.assertArrayEquals(numeric(3, 1, 0x0000, 3, 1, 2345, 6780), encode(PostgreOid.NUMERIC, new BigDecimal("12345.678")));
+        // Trailing zero groups are not written
+        Assert.assertArrayEquals(numeric(1, 1, 0x0000, 0, 2), encode(PostgreOid.NUMERIC, 20000L));
+        // Negative scale is written as integer
+        Assert.assertArrayEquals(numeric(1, 1, 0x0000, 0, 10), encode(PostgreOid.NUMERIC, new BigDecimal("1E+5")));
+    }
+
+    @Test
+    public void negativeAndFractionalNumeric() throws Exception {
+        Assert.assertArrayEquals(numeric(1, -1, 0x4000, 4, 1), encode(PostgreOid.NUMERIC, new BigDecimal("-0.0001")));
+        Assert.assertArrayEquals(numeric(2, 0, 0x4000, 5, 7, 123), encode(PostgreOid.NUMERIC, new BigDecimal("-7.01230")));
+        Assert.assertArrayEquals(numeric(1, -2, 0x0000, 8, 5), encode(PostgreOid.NUMERIC, new BigDecimal("0.00000005")));
+    }
+
+    @Test
+    public void zeroAndNaNNumeric() throws Exception {
+        Assert.assertArrayEquals(numeric(0, 0, 0x0000, 0), encode(PostgreOid.NUMERIC, BigDecimal.ZERO));
+        // Scale of zero is kept
+        Assert.assertArrayEquals(numeric(0, 0, 0x0000, 2), encode(PostgreOid.NUMERIC, new BigDecimal("0.00")));
+        Assert.assertArrayEquals(numeric(0, 0, 0xC000, 0), encode(PostgreOid.NUMERIC, Double.NaN));
+        Assert.assertArrayEquals(numeric(0, 0, 0xC000, 0), encode(PostgreOid.NUMERIC, Float.NaN));
+    }
+
+    @Test
+    public void timestampsAreShiftedToPostgresEpoch() throws Exception {
+        Assert.assertArrayEquals(int64(0), encode(PostgreOid.TIMESTAMP, LocalDateTime.of(2000, 1, 1, 0, 0)));
+        Assert.assertArrayEquals(int64(1), encode(PostgreOid.TIMESTAMP, LocalDateTime.of(2000, 1, 1, 0, 0, 0, 1000)));
+        Assert.assertArrayEquals(int64(-1_000_000L), encode(PostgreOid.TIMESTAMP, LocalDateTime.of(1999, 12, 31, 23, 59, 59)));
+        Assert.assertArrayEquals(
+            int64(-946_684_800_000_000L),
+            encode(PostgreOid.TIMESTAMP, LocalDateTime.of(1970, 1, 1, 0, 0)));
+
+        Assert.assertArrayEquals(int64(86_400_000_000L), encode(PostgreOid.TIMESTAMPTZ, Instant.parse("2000-01-02T00:00:00Z")));
+        Assert.assertArrayEquals(
+            int64(0),
+            encode(PostgreOid.TIMESTAMPTZ, OffsetDateTime.of(2000, 1, 1, 2, 0, 0, 0, ZoneOffset.ofHours(2))));
+    }
+
+    @Test
+    public void datesAreShiftedToPostgresEpoch() throws Exception {
+        Assert.assertArrayEquals(int32(0), encode(PostgreOid.DATE, LocalDate.of(2000, 1, 1)));
+        Assert.assertArrayEquals(int32(-1), encode(PostgreOid.DATE, LocalDate.of(1999, 12, 31)));
+        Assert.assertArrayEquals(int32(-10957), encode(PostgreOid.DATE, LocalDate.of(1970, 1, 1)));
+        Assert.assertArrayEquals(int32(1), encode(PostgreOid.DATE, java.sql.Date.valueOf("2000-01-02")));
+    }
+
+    @Test
+    public void nullsAreWrittenAsNegativeLength() throws Exception {
+        PostgreCopyBuffer buffer = new PostgreCopyBuffer(16);
+        PostgreCopyBinaryEncoder.writeHeader(buffer);
+        PostgreCopyBinaryEncoder.writeTupleStart(buffer, 2);
+        PostgreCopyBinaryEncoder.writeNull(buffer);
+        PostgreCopyBinaryEncoder.writeValue(buffer, PostgreOid.INT4, 7);
+        PostgreCopyBinaryEncoder.writeTrailer(buffer);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(expected);
+        out.write(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0});
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeShort(2);
+        out.writeInt(-1);
+        out.writeInt(4);
+        out.writeInt(7);
+        out.writeShort(-1);
+        Assert.assertArrayEquals(expected.toByteArray(), Arrays.copyOf(buffer.data(), buffer.size()));
+    }
+
+    @Test(expected = DBCException.class)
+    public void badNumericIsRejected() throws Exception {
+        encode(PostgreOid.NUMERIC, "not a number");
+    }
+
+    private static byte[] encode(long typeId, Object value) throws DBCException {
+        PostgreCopyBuffer buffer = new PostgreCopyBuffer(16);
+        PostgreCopyBinaryEncoder.writeValue(buffer, typeId, value);
+        return Arrays.copyOf(buffer.data(), buffer.size());
+    }
+
+    private static byte[] numeric(int digitCount, int weight, int sign, int scale, int... digits) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(8 + digits.length * 2);
+        out.writeShort(digitCount);
+        out.writeShort(weight);
+        out.writeShort(sign);
+        out.writeShort(scale);
+        for (int digit : digits) {
+            out.writeShort(digit);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] int32(int value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(4);
+        out.writeInt(value);
+        return bytes.toByteArray();
+    }
+
+    private static byte[] int64(long value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(8);
+        out.writeLong(value);
+        return bytes.toByteArray();
+    }
+}
@@ -152,6 +152,53 @@ public class OffsetKeyedTreeMapTest {
         }
     }
 
+    @Test
+    public void testNegativeOffsetAfterRemovals() {
+        Random random = new Random(12345);
+        for (int count : INTERMIXED_SERIES.toArray()) {
+            List<Integer> keys = IntStream.range(0, count).map(n -> n * 5).boxed().collect(Collectors.toList());
+            Collections.shuffle(keys, random);
+            OffsetKeyedTreeMap<Integer> map = new OffsetKeyedTreeMap<>();
+            keys.forEach(k -> map.put(k, k));
+
+            // remove [from, to) which may leave tombstones there, then move the tail back over the range
+            int from = count / 3 * 5, to = count * 2 / 3 * 5;
+            for (int k = from; k < to; k += 5) {
+                map.removeAt(k);
+            }
+            map.applyOffset(to, from - to);
+
+            List<Integer> expectedKeys = new ArrayList<>();
+            List<Integer> actualKeys = new ArrayList<>();
+            for (int n = 0; n < count; n++) {
+                int key = n * 5;
+                if (key < from) {
+                    expectedKeys.add(key);
+                } else if (key >= to) {
+                    expectedKeys.add(key - (to - from));
+                }
+            }
+            OffsetKeyedTreeMap.NodesIterator<Integer> it = map.nodesIteratorAt(0);
+            for (boolean exists = it.getCurrValue() != null || it.next(); exists; exists = it.next()) {
+                int value = it.getCurrValue();
+                actualKeys.add(it.getCurrOffset());
+                Assert.assertEquals(value < to ? value : value - (to - from), it.getCurrOffset());
+            }
+            Assert.assertEquals(expectedKeys, actualKeys);
+            Assert.assertEquals(expectedKeys.size(), map.size());
+            for (int key : expectedKeys) {
+                Assert.assertNotNull(map.find(key));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeOffsetOverEntry() {
+        OffsetKeyedTreeMap<Integer> map = new OffsetKeyedTreeMap<>();
+        IntStream.range(0, 10).forEach(n -> map.put(n * 10, n));
+        map.applyOffset(50, -15);
+    }
+
     @FunctionalInterface
     private interface ObjObjIntIntConsumer<A, B> {
         void accept(A a, B b, int n, int m);
@@ -0,0 +1,46 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FunctionCountDistinctTest {
+
+    @Test
+    public void smallSetIsCountedExactly() {
+        FunctionCountDistinct func = new FunctionCountDistinct();
+        for (int i = 0; i < 50_000; i++) {
+            func.accumulate(i % 1234, false);
+        }
+        func.accumulate(null, false);
+        Assert.assertEquals(1235, func.getResult(0));
+        Assert.assertFalse(func.isApproximateResult());
+    }
+
+    @Test
+    public void bigSetIsEstimated() {
+        FunctionCountDistinct func = new FunctionCountDistinct();
+        int distinctCount = 1_000_000;
+        for (int i = 0; i < 2_000_000; i++) {
+            func.accumulate("value" + (i % distinctCount), false);
+        }
+        Assert.assertTrue(func.isApproximateResult());
+        int result = (Integer) func.getResult(0);
+        Assert.assertEquals(distinctCount, result, distinctCount * 0.03);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class FunctionMedianTest {
+
+    @Test
+    public void smallSetMedianIsExact() {
+        FunctionMedian func = new FunctionMedian();
+        int count = 0;
+        for (Object value : new Object[]{5, "7", 1, null, 3}) {
+            if (func.accumulate(value, false)) {
+                count++;
+            }
+        }
+        Assert.assertEquals(4, count);
+        // 1, 3, 5, 7
+        Assert.assertEquals(4.0, func.getResult(count));
+        Assert.assertFalse(func.isApproximateResult());
+    }
+
+    @Test
+    public void bigSetQuantilesAreApproximated() {
+        FunctionMedian median = new FunctionMedian();
+        FunctionPercentile90 percentile = new FunctionPercentile90();
+        Random random = new Random(1);
+        int count = 1_000_000;
+        for (int i = 0; i < count; i++) {
+            // Uniform permutation-like values in [0, count)
+            Integer value = random.nextInt(count);
+            median.accumulate(value, false);
+            percentile.accumulate(value, false);
+        }
+        Assert.assertTrue(median.isApproximateResult());
+        Assert.assertEquals(count * 0.5, ((Number) median.getResult(count)).doubleValue(), count * 0.02);
+        Assert.assertEquals(count * 0.9, ((Number) percentile.getResult(count)).doubleValue(), count * 0.02);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.completion;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class SQLObjectNameIndexTest {
+
+    private static SQLObjectNameIndex createIndex() {
+        SQLObjectNameIndex index = new SQLObjectNameIndex();
+        index.setEntries(List.of(
+            new SQLObjectNameIndex.Entry("orders", List.of("db", "public"), "Table"),
+            new SQLObjectNameIndex.Entry("Order_Items", List.of("db", "public"), "Table"),
+            new SQLObjectNameIndex.Entry("orders", List.of("db", "archive"), "Table"),
+            new SQLObjectNameIndex.Entry("order_id", List.of("db", "public", "orders"), "Table column"),
+            new SQLObjectNameIndex.Entry("customers", List.of("db", "public"), "Table"),
+            new SQLObjectNameIndex.Entry("get_orders", List.of("db", "public"), "Procedure")
+        ));
+        index.setBuildTime(1000);
+        return index;
+    }
+
+    private static Set<String> names(List<SQLObjectNameIndex.Entry> entries) {
+        return entries.stream()
+            .map(entry -> String.join(".", entry.ownerPath()) + "." + entry.name())
+            .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testPrefixSearch() {
+        SQLObjectNameIndex index = createIndex();
+        Assert.assertEquals(
+            Set.of("db.public.orders", "db.public.Order_Items", "db.archive.orders", "db.public.orders.order_id"),
+            names(index.findEntries("ord%", false, null, null, 100)));
+        Assert.assertEquals(
+            Set.of("db.public.orders", "db.public.Order_Items"),
+            names(index.findEntries("ORD%", false, List.of("db", "public"), Set.of("Table"), 100)));
+        Assert.assertEquals(
+            Set.of("db.public.Order_Items"),
+            names(index.findEntries("Ord%", true, null, null, 100)));
+        Assert.assertEquals(
+            Set.of("db.public.orders", "db.archive.orders"),
+            names(index.findEntries("Orders", false, null, Set.of("Table"), 100)));
+        Assert.assertEquals(2, index.findEntries("%", false, null, Set.of("Table"), 2).size());
+    }
+
+    @Test
+    public void testPatternSearch() {
+        SQLObjectNameIndex index = createIndex();
+        Assert.assertEquals(
+            Set.of("db.public.orders", "db.archive.orders", "db.public.get_orders"),
+            names(index.findEntries("%orders%", false, null, null, 100)));
+        Assert.assertEquals(
+            Set.of("db.public.Order_Items", "db.public.orders.order_id"),
+            names(index.findEntries("order_i%", false, null, null, 100)));
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        SQLObjectNameIndex index = createIndex();
+        index.addEntry("order_log", List.of("db", "public"), "Table");
+        index.addEntry("order_log", List.of("db", "public"), "Table");
+        index.removeEntry("customers", List.of("db", "public"), "Table");
+        Assert.assertEquals(6, index.size());
+        Assert.assertEquals(Set.of("db.public.order_log"), names(index.findEntries("order_l%", false, null, null, 100)));
+        Assert.assertTrue(index.findEntries("cust%", false, null, null, 100).isEmpty());
+    }
+
+    @Test
+    public void testReplaceOwnerEntries() {
+        SQLObjectNameIndex index = createIndex();
+        // Schema was refreshed: orders was dropped and invoices was created outside
+        index.replaceEntries(
+            List.of("db", "public"),
+            Set.of("Table", "Table column"),
+            List.of(
+                new SQLObjectNameIndex.Entry("Order_Items", List.of("db", "public"), "Table"),
+                new SQLObjectNameIndex.Entry("customers", List.of("db", "public"), "Table"),
+                new SQLObjectNameIndex.Entry("invoices", List.of("db", "public"), "Table")));
+        Assert.assertEquals(
+            Set.of("db.public.Order_Items", "db.archive.orders"),
+            names(index.findEntries("ord%", false, null, null, 100)));
+        Assert.assertEquals(Set.of("db.public.invoices"), names(index.findEntries("inv%", false, null, null, 100)));
+        // Other types of the owner are kept
+        Assert.assertEquals(Set.of("db.public.get_orders"), names(index.findEntries("get%", false, null, null, 100)));
+        Assert.assertEquals(1000, index.getBuildTime());
+    }
+
+    @Test
+    public void testSaveLoad() throws Exception {
+        Path file = Files.createTempFile("object-name-index", ".idx");
+        try {
+            SQLObjectNameIndex index = createIndex();
+            index.save(file);
+            SQLObjectNameIndex loadedIndex = new SQLObjectNameIndex();
+            Assert.assertTrue(loadedIndex.load(file));
+            Assert.assertEquals(index.size(), loadedIndex.size());
+            Assert.assertEquals(1000, loadedIndex.getBuildTime());
+            Assert.assertEquals(
+                names(index.findEntries("%", false, null, null, 100)),
+                names(loadedIndex.findEntries("%", false, null, null, 100)));
+            Assert.assertEquals(
+                Set.of("db.public.orders.order_id"),
+                names(loadedIndex.findEntries("order_id", false, null, Set.of("Table column"), 100)));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.exec;
+
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class SQLScriptParallelSchedulerTest {
+
+    @Test
+    public void testDependencies() {
+        List<SQLScriptQueryAccess> accesses = List.of(
+            SQLScriptQueryAccess.of(Set.of("a"), Set.of()),        // 0: read a
+            SQLScriptQueryAccess.of(Set.of("b"), Set.of()),        // 1: read b
+            SQLScriptQueryAccess.of(Set.of("a"), Set.of("a")),     // 2: update a
+            SQLScriptQueryAccess.of(Set.of("a"), Set.of()),        // 3: read a
+            SQLScriptQueryAccess.of(Set.of("c"), Set.of("c")),     // 4: update c
+            SQLScriptQueryAccess.of(Set.of("a", "b"), Set.of("b")) // 5: insert into b select from a
+        );
+        List<Set<Integer>> dependencies = SQLScriptParallelScheduler.getDependencies(accesses);
+        Assert.assertEquals(Set.of(), dependencies.get(0));
+        Assert.assertEquals(Set.of(), dependencies.get(1));
+        Assert.assertEquals(Set.of(0), dependencies.get(2));
+        Assert.assertEquals(Set.of(2), dependencies.get(3));
+        Assert.assertEquals(Set.of(), dependencies.get(4));
+        Assert.assertEquals(Set.of(1, 2), dependencies.get(5));
+    }
+
+    @Test
+    public void testExecuteStage() {
+        List<String> sessions = List.of("s1", "s2", "s3");
+        List<Integer> queries = new ArrayList<>();
+        List<SQLScriptQueryAccess> accesses = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            queries.add(i);
+            // Each fifth query changes the table read by the next four queries
+            String table = "t" + (i / 5) % 3;
+            accesses.add(i % 5 == 0 ?
+                SQLScriptQueryAccess.of(Set.of(), Set.of(table)) :
+                SQLScriptQueryAccess.of(Set.of(table), Set.of()));
+        }
+        List<Set<Integer>> dependencies = SQLScriptParallelScheduler.getDependencies(accesses);
+        Set<Integer> finished = Collections.synchronizedSet(new HashSet<>());
+        Set<String> busySessions = Collections.synchronizedSet(new HashSet<>());
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        try (SQLScriptParallelScheduler<String, Integer> scheduler = new SQLScriptParallelScheduler<>(sessions)) {
+            boolean completed = scheduler.executeStage(new VoidProgressMonitor(), queries, accesses, (session, query) -> {
+                if (!busySessions.add(session)) {
+                    errors.add("Session " + session + " is used by two queries");
+                }
+                if (!finished.containsAll(dependencies.get(query))) {
+                    errors.add("Query " + query + " started before its dependencies");
+                }
+                finished.add(query);
+                busySessions.remove(session);
+                return true;
+            });
+            Assert.assertTrue(completed);
+        }
+        Assert.assertEquals(List.of(), errors);
+        Assert.assertEquals(queries.size(), finished.size());
+    }
+
+    @Test
+    public void testStopOnError() {
+        List<Integer> queries = List.of(0, 1, 2);
+        List<SQLScriptQueryAccess> accesses = List.of(
+            SQLScriptQueryAccess.of(Set.of(), Set.of("a")),
+            SQLScriptQueryAccess.of(Set.of("a"), Set.of()),
+            SQLScriptQueryAccess.of(Set.of("a"), Set.of())
+        );
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        try (SQLScriptParallelScheduler<String, Integer> scheduler = new SQLScriptParallelScheduler<>(List.of("s1", "s2"))) {
+            boolean completed = scheduler.executeStage(new VoidProgressMonitor(), queries, accesses, (session, query) -> {
+                executed.add(query);
+                return false;
+            });
+            Assert.assertFalse(completed);
+        }
+        Assert.assertEquals(List.of(0), executed);
+    }
+}
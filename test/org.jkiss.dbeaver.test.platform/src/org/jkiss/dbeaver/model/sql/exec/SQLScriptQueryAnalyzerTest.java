@@ -0,0 +1,123 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.exec;
+
+import org.jkiss.dbeaver.model.sql.SQLQuery;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+public class SQLScriptQueryAnalyzerTest {
+
+    private static SQLScriptQueryAccess analyze(String text) {
+        return new SQLScriptQueryAnalyzer().analyzeQuery(new SQLQuery(null, text));
+    }
+
+    @Test
+    public void testTableNames() {
+        Assert.assertEquals(Set.of("orders"), analyze("SELECT * FROM orders").getReads());
+        Assert.assertEquals(Set.of("orders"), analyze("SELECT * FROM sales.orders").getReads());
+        Assert.assertEquals(Set.of("orders"), analyze("SELECT * FROM \"sales\".\"Orders\"").getReads());
+        Assert.assertEquals(Set.of("orders"), analyze("SELECT * FROM `Orders`").getReads());
+        Assert.assertEquals(
+            Set.of("orders", "customers"),
+            analyze("SELECT * FROM sales.orders o JOIN Customers c ON c.id = o.customer_id").getReads());
+        // CTE is not a table
+        Assert.assertEquals(
+            Set.of("orders"),
+            analyze("WITH recent AS (SELECT * FROM orders) SELECT * FROM recent").getReads());
+
+        SQLScriptQueryAccess createIndex = analyze("CREATE INDEX \"Orders_IDX\" ON sales.\"Orders\" (id)");
+        Assert.assertEquals(SQLScriptQueryAccess.Kind.INDEPENDENT, createIndex.getKind());
+        Assert.assertEquals(Set.of("orders", "index orders_idx"), createIndex.getWrites());
+    }
+
+    @Test
+    public void testBarriers() {
+        for (String text : List.of(
+            "INSERT INTO orders VALUES (1)",
+            "UPDATE orders SET amount = 0",
+            "DELETE FROM sales.orders",
+            "CREATE TABLE orders_copy (id INT)",
+            "DROP TABLE orders",
+            "CREATE VIEW v AS SELECT * FROM orders",
+            "SELECT * INTO orders_copy FROM orders",
+            "SELECT * FROM orders FOR UPDATE",
+            "SELECT refresh_totals()",
+            "SELECT * FROM #orders_tmp",
+            "SELECT @total := SUM(amount) FROM orders",
+            "CALL refresh_totals()",
+            "COMMIT"
+        )) {
+            Assert.assertEquals(text, SQLScriptQueryAccess.Kind.BARRIER, analyze(text).getKind());
+        }
+        Assert.assertEquals(SQLScriptQueryAccess.Kind.SESSION, analyze("SET search_path = sales").getKind());
+        Assert.assertEquals(SQLScriptQueryAccess.Kind.SESSION, analyze("ALTER SESSION SET NLS_DATE_FORMAT = 'YYYY-MM-DD'").getKind());
+    }
+
+    @Test
+    public void testMainSessionObjects() {
+        SQLScriptQueryAnalyzer analyzer = new SQLScriptQueryAnalyzer();
+        Assert.assertEquals(
+            SQLScriptQueryAccess.Kind.BARRIER,
+            analyzer.analyzeQuery(new SQLQuery(null, "CREATE TEMPORARY TABLE orders_tmp (id INT)")).getKind());
+        Assert.assertEquals(
+            SQLScriptQueryAccess.Kind.BARRIER,
+            analyzer.analyzeQuery(new SQLQuery(null, "INSERT INTO sales.Orders VALUES (1)")).getKind());
+        // Isolated contexts don't see temporary and uncommitted objects of the main context
+        for (String text : List.of(
+            "SELECT * FROM orders_tmp",
+            "SELECT * FROM customers c JOIN \"ORDERS\" o ON o.customer_id = c.id",
+            "CREATE INDEX i1 ON orders_tmp (id)"
+        )) {
+            Assert.assertEquals(text, SQLScriptQueryAccess.Kind.BARRIER, analyzer.analyzeQuery(new SQLQuery(null, text)).getKind());
+        }
+        Assert.assertEquals(
+            SQLScriptQueryAccess.Kind.INDEPENDENT,
+            analyzer.analyzeQuery(new SQLQuery(null, "SELECT * FROM customers")).getKind());
+
+        // Procedure may create anything, so all next queries are executed in the main context
+        Assert.assertEquals(
+            SQLScriptQueryAccess.Kind.BARRIER,
+            analyzer.analyzeQuery(new SQLQuery(null, "CALL prepare_report()")).getKind());
+        Assert.assertEquals(
+            SQLScriptQueryAccess.Kind.BARRIER,
+            analyzer.analyzeQuery(new SQLQuery(null, "SELECT * FROM customers")).getKind());
+    }
+
+    @Test
+    public void testDependencies() {
+        List<SQLScriptQueryAccess> accesses = List.of(
+            analyze("SELECT * FROM sales.orders"),             // 0
+            analyze("SELECT * FROM customers"),                // 1
+            analyze("CREATE INDEX i1 ON orders (id)"),         // 2
+            analyze("CREATE INDEX i2 ON \"Customers\" (id)"),  // 3
+            analyze("CREATE INDEX i3 ON sales.ORDERS (ts)"),   // 4
+            analyze("SELECT * FROM \"Orders\"")                // 5
+        );
+        List<Set<Integer>> dependencies = SQLScriptParallelScheduler.getDependencies(accesses);
+        Assert.assertEquals(Set.of(), dependencies.get(0));
+        Assert.assertEquals(Set.of(), dependencies.get(1));
+        Assert.assertEquals(Set.of(0), dependencies.get(2));
+        Assert.assertEquals(Set.of(1), dependencies.get(3));
+        // Indexes of the same table are created one by one, indexes of different tables are independent
+        Assert.assertEquals(Set.of(2), dependencies.get(4));
+        Assert.assertEquals(Set.of(4), dependencies.get(5));
+    }
+}
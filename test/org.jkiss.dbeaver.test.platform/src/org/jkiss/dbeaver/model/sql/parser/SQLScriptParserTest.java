@@ -16,6 +16,7 @@
  */
 package org.jkiss.dbeaver.model.sql.parser;
 
+import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.Document;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.ModelPreferences.SQLScriptStatementDelimiterMode;
@@ -613,6 +614,56 @@ public class SQLScriptParserTest {
         }
     }
     
+    @Test
+    public void parseWithTokenCacheAfterDocumentChanges() throws DBException, BadLocationException {
+        SQLDialect dialect = setDialect("postgresql");
+        SQLParserContext context = createParserContext(dialect, "select 1 from dual;\nselect 'a;b' from t;\n/* c; */ select 2;");
+        context.enableTokenCache();
+        Document document = (Document) context.getDocument();
+        try {
+            Assert.assertEquals("select 'a;b' from t", SQLScriptParser.extractQueryAtPos(context, 25).getText());
+            Assert.assertTrue(context.getTokenCache().getTokenCount() > 0);
+
+            String[][] changes = {
+                {"28", "0", "x"},       // insertion inside the string literal
+                {"7", "1", "10"},       // replacement
+                {"20", "0", "\n"},      // new line before the second query
+                {"0", "7", ""},         // deletion in the first query
+                {"27", "1", ""},        // removal of the closing quote
+            };
+            for (String[] change : changes) {
+                document.replace(Integer.parseInt(change[0]), Integer.parseInt(change[1]), change[2]);
+                SQLParserContext freshContext = createParserContext(dialect, document.get());
+                for (int pos = 0; pos <= document.getLength(); pos++) {
+                    SQLScriptElement expected = SQLScriptParser.extractQueryAtPos(freshContext, pos);
+                    SQLScriptElement actual = SQLScriptParser.extractQueryAtPos(context, pos);
+                    Assert.assertEquals(expected == null ? null : expected.getText(), actual == null ? null : actual.getText());
+                }
+            }
+        } finally {
+            context.dispose();
+        }
+    }
+
+    @Test
+    public void tokenCacheKeepsTokensAfterDeletion() throws DBException, BadLocationException {
+        SQLDialect dialect = setDialect("postgresql");
+        SQLParserContext context = createParserContext(dialect, "select 1 from dual;\nselect 2 from dual;\nselect 3 from dual;");
+        context.enableTokenCache();
+        Document document = (Document) context.getDocument();
+        try {
+            Assert.assertEquals("select 3 from dual", SQLScriptParser.extractQueryAtPos(context, document.getLength() - 2).getText());
+            Assert.assertTrue(context.getTokenCache().getTokenCount() > 0);
+
+            // tokens of the following lines are shifted, not dropped
+            document.replace(0, 7, "");
+            Assert.assertTrue(context.getTokenCache().getTokenCount() > 0);
+            Assert.assertEquals("select 3 from dual", SQLScriptParser.extractQueryAtPos(context, document.getLength() - 2).getText());
+        } finally {
+            context.dispose();
+        }
+    }
+
     private void assertParse(String dialectName, String[] expected) throws DBException {
     	String source = Arrays.stream(expected).filter(e -> e != null).collect(Collectors.joining());
     	List<String> expectedParts = new ArrayList<>(expected.length);
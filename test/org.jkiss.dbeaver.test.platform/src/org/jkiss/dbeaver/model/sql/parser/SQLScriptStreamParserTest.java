@@ -0,0 +1,106 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.parser;
+
+import org.eclipse.jface.text.Document;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.connection.DBPConnectionConfiguration;
+import org.jkiss.dbeaver.model.connection.DBPDriver;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCDatabaseMetaData;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCSQLDialect;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
+import org.jkiss.dbeaver.model.sql.SQLDialect;
+import org.jkiss.dbeaver.model.sql.SQLScriptElement;
+import org.jkiss.dbeaver.model.sql.SQLSyntaxManager;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SQLScriptStreamParserTest {
+    @Mock
+    private JDBCDataSource dataSource;
+    @Mock
+    private DBPDataSourceContainer dataSourceContainer;
+    @Mock
+    private JDBCSession session;
+    @Mock
+    private JDBCDatabaseMetaData databaseMetaData;
+    @Mock
+    private DBPDriver driver;
+
+    @Before
+    public void init() throws DBException {
+        DBPConnectionConfiguration connectionConfiguration = new DBPConnectionConfiguration();
+        DBPPreferenceStore preferenceStore = DBWorkbench.getPlatform().getPreferenceStore();
+        Mockito.when(dataSource.getContainer()).thenReturn(dataSourceContainer);
+        Mockito.lenient().when(dataSourceContainer.getConnectionConfiguration()).thenReturn(connectionConfiguration);
+        Mockito.lenient().when(dataSourceContainer.getActualConnectionConfiguration()).thenReturn(connectionConfiguration);
+        Mockito.when(dataSourceContainer.getPreferenceStore()).thenReturn(preferenceStore);
+        Mockito.lenient().when(dataSourceContainer.getDriver()).thenReturn(driver);
+
+        SQLDialect dialect = DBWorkbench.getPlatform().getSQLDialectRegistry().getDialect("postgresql").createInstance();
+        ((JDBCSQLDialect) dialect).initDriverSettings(session, dataSource, databaseMetaData);
+        Mockito.when(dataSource.getSQLDialect()).thenReturn(dialect);
+    }
+
+    @Test
+    public void streamParseMatchesScriptParse() throws Exception {
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            script.append("INSERT INTO test_table VALUES (").append(i).append(", 'value; ").append(i).append("');\n");
+            if (i % 50 == 0) {
+                script.append("/* comment\n with ; delimiter */\n");
+                script.append("CREATE FUNCTION f").append(i).append("() RETURNS int AS $$\nBEGIN\n  RETURN 1;\nEND;\n$$ LANGUAGE plpgsql;\n");
+            }
+        }
+        List<String> expected = new ArrayList<>();
+        for (SQLScriptElement element : parseScript(script.toString())) {
+            expected.add(element.getText());
+        }
+
+        List<String> actual = new ArrayList<>();
+        // Small window makes statements cross window boundaries and forces window growth
+        try (SQLScriptStreamParser parser = new SQLScriptStreamParser(dataSource, new StringReader(script.toString()), 64)) {
+            while (parser.hasNext()) {
+                actual.add(parser.next().getText());
+            }
+        }
+        Assert.assertEquals(expected, actual);
+    }
+
+    private List<SQLScriptElement> parseScript(String script) {
+        SQLSyntaxManager syntaxManager = new SQLSyntaxManager();
+        syntaxManager.init(dataSource.getSQLDialect(), dataSourceContainer.getPreferenceStore());
+        SQLRuleManager ruleManager = new SQLRuleManager(syntaxManager);
+        ruleManager.loadRules(dataSource, false);
+        SQLParserContext context = new SQLParserContext(dataSource, syntaxManager, ruleManager, new Document(script));
+        return SQLScriptParser.extractScriptQueries(context, 0, script.length(), true, false, true);
+    }
+}
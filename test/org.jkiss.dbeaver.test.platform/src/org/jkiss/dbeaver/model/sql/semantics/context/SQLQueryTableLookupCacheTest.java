@@ -0,0 +1,81 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.semantics.context;
+
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SQLQueryTableLookupCacheTest {
+
+    @Test
+    public void lookupIsPerformedOncePerName() {
+        SQLQueryTableLookupCache cache = new SQLQueryTableLookupCache();
+        DBSEntity table = Mockito.mock(DBSEntity.class);
+        AtomicInteger lookups = new AtomicInteger();
+
+        Assert.assertSame(table, cache.findTable(List.of("public", "t1"), () -> {
+            lookups.incrementAndGet();
+            return table;
+        }));
+        Assert.assertSame(table, cache.findTable(new ArrayList<>(List.of("public", "t1")), () -> {
+            lookups.incrementAndGet();
+            return null;
+        }));
+        Assert.assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void missingTableIsCached() {
+        SQLQueryTableLookupCache cache = new SQLQueryTableLookupCache();
+        AtomicInteger lookups = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertNull(cache.findTable(List.of("missing"), () -> {
+                lookups.incrementAndGet();
+                return null;
+            }));
+        }
+        Assert.assertEquals(1, lookups.get());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void concurrentLookupsReturnSameTable() throws Exception {
+        SQLQueryTableLookupCache cache = new SQLQueryTableLookupCache();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<DBSEntity>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                String name = "t" + (i % 5);
+                results.add(executor.submit(() -> cache.findTable(List.of(name), () -> Mockito.mock(DBSEntity.class))));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                Assert.assertSame(results.get(i % 5).get(), results.get(i).get());
+            }
+            Assert.assertEquals(5, cache.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
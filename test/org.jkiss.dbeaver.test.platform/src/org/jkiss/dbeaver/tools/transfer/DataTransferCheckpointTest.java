@@ -0,0 +1,106 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.task.DBTTask;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Map;
+
+public class DataTransferCheckpointTest {
+
+    private static final String PIPE_KEY = "0:ORDERS";
+
+    private DBTTask task;
+    private Map<String, Object> runState;
+
+    @Before
+    public void setUp() {
+        task = Mockito.mock(DBTTask.class);
+        Mockito.doAnswer(invocation -> {
+            runState = invocation.getArgument(0);
+            return null;
+        }).when(task).saveRunState(Mockito.any());
+        Mockito.when(task.loadRunState()).thenAnswer(invocation -> runState);
+    }
+
+    @Test
+    public void interruptedPartitionedRunIsNotResumed() throws DBException {
+        // First run reads partitions, rows are committed in arbitrary order
+        DataTransferCheckpoint checkpoint = DataTransferCheckpoint.load(task);
+        Assert.assertEquals(0, checkpoint.getResumeOffset(PIPE_KEY, false, false));
+        checkpoint.startPipe(PIPE_KEY, false, 0);
+        checkpoint.setCommittedRows(PIPE_KEY, 5000);
+        // Interrupted here
+
+        DataTransferCheckpoint resumed = DataTransferCheckpoint.load(task);
+        Assert.assertEquals(5000, resumed.getCommittedRows(PIPE_KEY));
+        // Even an ordered read can't skip rows committed by partitions
+        Assert.assertThrows(DBException.class, () -> resumed.getResumeOffset(PIPE_KEY, true, false));
+        Assert.assertThrows(DBException.class, () -> resumed.getResumeOffset(PIPE_KEY, false, false));
+        // Cleared target starts over
+        Assert.assertEquals(0, resumed.getResumeOffset(PIPE_KEY, true, true));
+    }
+
+    @Test
+    public void interruptedOrderedRunIsResumed() throws DBException {
+        DataTransferCheckpoint checkpoint = DataTransferCheckpoint.load(task);
+        checkpoint.startPipe(PIPE_KEY, true, 0);
+        checkpoint.setCommittedRows(PIPE_KEY, 3000);
+
+        DataTransferCheckpoint resumed = DataTransferCheckpoint.load(task);
+        Assert.assertEquals(3000, resumed.getResumeOffset(PIPE_KEY, true, false));
+        // Ordering was removed from the task
+        Assert.assertThrows(DBException.class, () -> resumed.getResumeOffset(PIPE_KEY, false, false));
+
+        // Resumed run continues to count rows from the offset
+        resumed.startPipe(PIPE_KEY, true, 3000);
+        resumed.setCommittedRows(PIPE_KEY, 4000);
+        Assert.assertEquals(4000, DataTransferCheckpoint.load(task).getResumeOffset(PIPE_KEY, true, false));
+    }
+
+    @Test
+    public void interruptedBulkLoadIsNotResumed() throws DBException {
+        // Ordered read into a bulk loader: flushed rows are recorded, but the pipe is not resumable
+        DataTransferCheckpoint checkpoint = DataTransferCheckpoint.load(task);
+        checkpoint.startPipe(PIPE_KEY, false, 0);
+        checkpoint.setCommittedRows(PIPE_KEY, 2000);
+        // Interrupted here
+
+        DataTransferCheckpoint resumed = DataTransferCheckpoint.load(task);
+        Assert.assertEquals(2000, resumed.getCommittedRows(PIPE_KEY));
+        // Next run reads in order without bulk load, but it still can't tell which flushed rows were committed
+        Assert.assertThrows(DBException.class, () -> resumed.getResumeOffset(PIPE_KEY, true, false));
+        Assert.assertEquals(0, resumed.getResumeOffset(PIPE_KEY, true, true));
+    }
+
+    @Test
+    public void completedPipeIsNotResumed() throws DBException {
+        DataTransferCheckpoint checkpoint = DataTransferCheckpoint.load(task);
+        checkpoint.startPipe(PIPE_KEY, false, 0);
+        checkpoint.setCommittedRows(PIPE_KEY, 100);
+        checkpoint.setPipeCompleted(PIPE_KEY);
+
+        DataTransferCheckpoint resumed = DataTransferCheckpoint.load(task);
+        Assert.assertTrue(resumed.isPipeCompleted(PIPE_KEY));
+        Assert.assertEquals(0, resumed.getResumeOffset(PIPE_KEY, false, false));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DataTransferRowBufferTest {
+
+    @Test
+    public void rowsAreConsumedInOrder() throws Exception {
+        DataTransferRowBuffer buffer = new DataTransferRowBuffer(4);
+        List<Object> consumed = new ArrayList<>();
+        Thread consumer = new Thread(() -> {
+            try {
+                for (Object[] row = buffer.take(); row != null; row = buffer.take()) {
+                    consumed.add(row[0]);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(buffer.put(new Object[]{i}));
+        }
+        buffer.close();
+        consumer.join(10000);
+
+        Assert.assertEquals(1000, consumed.size());
+        for (int i = 0; i < consumed.size(); i++) {
+            Assert.assertEquals(i, consumed.get(i));
+        }
+        Assert.assertEquals(1000, buffer.getRowCount());
+        Assert.assertEquals(0, buffer.getDepth());
+        Assert.assertTrue(buffer.getMaxDepth() <= buffer.getCapacity());
+    }
+
+    @Test
+    public void closedBufferIsDrained() throws Exception {
+        DataTransferRowBuffer buffer = new DataTransferRowBuffer(2);
+        buffer.put(new Object[]{"a"});
+        buffer.put(new Object[]{"b"});
+        buffer.close();
+        Assert.assertEquals("a", buffer.take()[0]);
+        Assert.assertEquals("b", buffer.take()[0]);
+        Assert.assertNull(buffer.take());
+    }
+
+    @Test
+    public void abortReleasesBlockedProducer() throws Exception {
+        DataTransferRowBuffer buffer = new DataTransferRowBuffer(1);
+        buffer.put(new Object[]{1});
+        boolean[] result = {true};
+        Thread producer = new Thread(() -> {
+            try {
+                result[0] = buffer.put(new Object[]{2});
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        buffer.abort();
+        producer.join(10000);
+
+        Assert.assertFalse(result[0]);
+        Assert.assertTrue(buffer.isAborted());
+        Assert.assertNull(buffer.take());
+    }
+}
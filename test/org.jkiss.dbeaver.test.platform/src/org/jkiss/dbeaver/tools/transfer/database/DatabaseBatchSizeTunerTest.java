@@ -0,0 +1,75 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DatabaseBatchSizeTunerTest {
+
+    /**
+     * Simulated batch time: fixed round-trip cost plus per-row cost which grows for huge batches
+     */
+    private static long batchTime(int rows) {
+        long roundTrip = 5_000_000;
+        long perRow = 10_000 + (rows > 4000 ? (rows - 4000) * 10L : 0);
+        return roundTrip + perRow * rows;
+    }
+
+    @Test
+    public void batchSizeConvergesToBestThroughput() {
+        DatabaseBatchSizeTuner tuner = new DatabaseBatchSizeTuner(100, 10, 100000, 0, 1);
+        for (int i = 0; i < 100 && !tuner.isTuningFinished(); i++) {
+            int rows = tuner.getBatchSize();
+            tuner.recordBatch(rows, batchTime(rows));
+        }
+        Assert.assertTrue(tuner.isTuningFinished());
+        Assert.assertTrue("Batch size " + tuner.getBatchSize(), tuner.getBatchSize() >= 800 && tuner.getBatchSize() <= 6400);
+    }
+
+    @Test
+    public void sizesRespectLimits() {
+        DatabaseBatchSizeTuner tuner = new DatabaseBatchSizeTuner(5000, 50, 1000, 500, 200);
+        Assert.assertEquals(1000, tuner.getBatchSize());
+        Assert.assertEquals(200, tuner.getMultiInsertSize());
+        for (int i = 0; i < 100 && !tuner.isTuningFinished(); i++) {
+            int rows = tuner.getBatchSize();
+            // Throughput always grows with the size
+            tuner.recordBatch(rows, 1_000_000_000L - rows * 1000L - tuner.getMultiInsertSize() * 1000L);
+            Assert.assertTrue(tuner.getBatchSize() <= 1000);
+            Assert.assertTrue(tuner.getMultiInsertSize() <= 200);
+        }
+        Assert.assertTrue(tuner.isTuningFinished());
+        Assert.assertEquals(1000, tuner.getBatchSize());
+        Assert.assertEquals(200, tuner.getMultiInsertSize());
+    }
+
+    @Test
+    public void incompleteBatchesAreIgnored() {
+        DatabaseBatchSizeTuner tuner = new DatabaseBatchSizeTuner(1000, 10, 10000, 0, 1);
+        tuner.recordBatch(10, 1000);
+        Assert.assertEquals(1000, tuner.getBatchSize());
+        Assert.assertEquals(0, tuner.getMeasuredBatches());
+    }
+
+    @Test
+    public void wideRowsLimitBatchSize() {
+        DatabaseBatchSizeTuner tuner = new DatabaseBatchSizeTuner(10000, 10, 10000, 0, 1);
+        tuner.addRowSample(new Object[]{new byte[1024 * 1024]});
+        Assert.assertTrue(tuner.getBatchSize() <= 32);
+    }
+}
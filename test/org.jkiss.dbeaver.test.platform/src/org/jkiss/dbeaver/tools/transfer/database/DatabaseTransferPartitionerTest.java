@@ -0,0 +1,86 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+
+public class DatabaseTransferPartitionerTest {
+
+    @Test
+    public void integerRangeIsSplitEvenly() {
+        List<Object> bounds = DatabaseTransferPartitioner.splitRange(1, 1000, 4);
+        Assert.assertEquals(List.of(250L, 500L, 750L), bounds);
+    }
+
+    @Test
+    public void smallRangeHasNoDuplicateBounds() {
+        List<Object> bounds = DatabaseTransferPartitioner.splitRange(10L, 12L, 8);
+        Assert.assertEquals(List.of(11L), bounds);
+        Assert.assertTrue(DatabaseTransferPartitioner.splitRange(5L, 5L, 4).isEmpty());
+    }
+
+    @Test
+    public void decimalRangeIsSplit() {
+        List<Object> bounds = DatabaseTransferPartitioner.splitRange(new BigDecimal("0.5"), 1.5d, 2);
+        Assert.assertEquals(1, bounds.size());
+        Assert.assertEquals(0, new BigDecimal("1.0").compareTo((BigDecimal) bounds.get(0)));
+    }
+
+    @Test
+    public void dateRangeIsSplit() {
+        List<Object> bounds = DatabaseTransferPartitioner.splitRange(new Timestamp(0), new Timestamp(3000), 3);
+        Assert.assertEquals(List.of(new Timestamp(1000), new Timestamp(2000)), bounds);
+    }
+
+    @Test
+    public void unsupportedValues() {
+        Assert.assertNull(DatabaseTransferPartitioner.splitRange("a", "z", 4));
+    }
+
+    @Test
+    public void partitionMetadataMustMatch() {
+        List<DBSAttributeBase> first = List.of(attribute("ID", "INTEGER", DBPDataKind.NUMERIC), attribute("NAME", "VARCHAR", DBPDataKind.STRING));
+        Assert.assertNull(DatabaseTransferPartitioner.compareMetadata(
+            first,
+            List.of(attribute("ID", "INTEGER", DBPDataKind.NUMERIC), attribute("NAME", "VARCHAR", DBPDataKind.STRING))));
+        Assert.assertNotNull(DatabaseTransferPartitioner.compareMetadata(
+            first,
+            List.of(attribute("ID", "INTEGER", DBPDataKind.NUMERIC))));
+        Assert.assertNotNull(DatabaseTransferPartitioner.compareMetadata(
+            first,
+            List.of(attribute("ID", "BIGINT", DBPDataKind.NUMERIC), attribute("NAME", "VARCHAR", DBPDataKind.STRING))));
+        Assert.assertNotNull(DatabaseTransferPartitioner.compareMetadata(
+            first,
+            List.of(attribute("NAME", "VARCHAR", DBPDataKind.STRING), attribute("ID", "INTEGER", DBPDataKind.NUMERIC))));
+    }
+
+    private static DBSAttributeBase attribute(String name, String typeName, DBPDataKind dataKind) {
+        DBSAttributeBase attribute = Mockito.mock(DBSAttributeBase.class);
+        Mockito.when(attribute.getName()).thenReturn(name);
+        Mockito.when(attribute.getTypeName()).thenReturn(typeName);
+        Mockito.when(attribute.getDataKind()).thenReturn(dataKind);
+        return attribute;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.impl.data.DefaultValueHandler;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.mockito.Mockito;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CSV export throughput benchmark. Not a unit test - run it manually:
+ * DataExporterCSVBenchmark [rows] [columns]
+ *
+ * Compares plain value-by-value writing to the writer with the CSV exporter in writer (non-UTF-8) and direct (UTF-8) modes.
+ */
+public class DataExporterCSVBenchmark {
+
+    private static class NullOutputStream extends OutputStream {
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int columnCount = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+
+        DBDAttributeBinding[] columns = new DBDAttributeBinding[columnCount];
+        Object[][] rows = new Object[1000][columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            DBDAttributeBinding column = Mockito.mock(DBDAttributeBinding.class);
+            DBPDataKind dataKind = i % 4 == 3 ? DBPDataKind.STRING : DBPDataKind.NUMERIC;
+            Mockito.when(column.getDataKind()).thenReturn(dataKind);
+            Mockito.when(column.getName()).thenReturn("column" + i);
+            Mockito.when(column.getValueHandler()).thenReturn(DefaultValueHandler.INSTANCE);
+            columns[i] = column;
+            for (int r = 0; r < rows.length; r++) {
+                rows[r][i] = switch (i % 4) {
+                    case 0 -> (long) r * 1_000_003L;
+                    case 1 -> r % 17 == 0 ? null : r;
+                    case 2 -> r * 0.25;
+                    default -> r % 5 == 0 ? "value, \"quoted\" " + r : "value " + r;
+                };
+            }
+        }
+
+        for (int pass = 0; pass < 2; pass++) {
+            run("plain writer", rowCount, columns, rows, null);
+            run("exporter (ISO-8859-1)", rowCount, columns, rows, "ISO-8859-1");
+            run("exporter (UTF-8)", rowCount, columns, rows, "UTF-8");
+        }
+    }
+
+    private static void run(String name, int rowCount, DBDAttributeBinding[] columns, Object[][] rows, String encoding) throws Exception {
+        NullOutputStream stream = new NullOutputStream();
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(stream, encoding == null ? "UTF-8" : encoding), false);
+        long startTime = System.nanoTime();
+        if (encoding == null) {
+            for (int r = 0; r < rowCount; r++) {
+                Object[] row = rows[r % rows.length];
+                for (int i = 0; i < columns.length; i++) {
+                    DBDValueHandler valueHandler = columns[i].getValueHandler();
+                    writer.write(valueHandler.getValueDisplayString(columns[i], row[i], DBDDisplayFormat.NATIVE));
+                    if (i < columns.length - 1) {
+                        writer.write(',');
+                    }
+                }
+                writer.write('\n');
+            }
+        } else {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("delimiter", ",");
+            properties.put("rowDelimiter", "\\n");
+            properties.put("header", "none");
+            properties.put("quoteChar", "\"");
+
+            IStreamDataExporterSite site = Mockito.mock(IStreamDataExporterSite.class);
+            Mockito.when(site.getProperties()).thenReturn(properties);
+            Mockito.when(site.getAttributes()).thenReturn(columns);
+            Mockito.when(site.getExportFormat()).thenReturn(DBDDisplayFormat.UI);
+            Mockito.when(site.getOutputStream()).thenReturn(stream);
+            Mockito.when(site.getWriter()).thenReturn(writer);
+            Mockito.when(site.getOutputEncoding()).thenReturn(encoding);
+
+            DataExporterCSV exporter = new DataExporterCSV();
+            exporter.init(site);
+            exporter.exportHeader(null);
+            for (int r = 0; r < rowCount; r++) {
+                exporter.exportRow(null, null, rows[r % rows.length]);
+            }
+            exporter.exportFooter(null);
+        }
+        writer.flush();
+        long time = (System.nanoTime() - startTime) / 1_000_000;
+        System.out.printf("%-24s %,d rows, %,d bytes, %,d ms, %,d rows/s%n",
+            name, rowCount, stream.bytes, time, time == 0 ? 0 : rowCount * 1000L / time);
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that integers written without value handlers produce the same output as the generic path.
+ */
+public class DataExporterCSVTest {
+
+    private static final Object[][] ROWS = {
+        {0L, 0, "zero", 0L},
+        {-1L, 7, "minus, one", -1L},
+        {1234567L, null, "\"quoted\"", 1234567L},
+        {Long.MIN_VALUE, Integer.MIN_VALUE, "", Long.MAX_VALUE},
+        {Long.MAX_VALUE, (short) 42, null, (byte) -5},
+        {null, (byte) 1, "12", null},
+    };
+
+    @Test
+    public void fastPathMatchesGenericPath() throws Exception {
+        for (String encoding : new String[]{"UTF-8", "ISO-8859-1"}) {
+            for (String quoteAlways : new String[]{"disabled", "all", "strings", "all but numbers", "all but nulls"}) {
+                for (DBDDisplayFormat format : DBDDisplayFormat.values()) {
+                    checkFastPath(encoding, quoteAlways, format, false);
+                    checkFastPath(encoding, quoteAlways, format, true);
+                }
+            }
+        }
+    }
+
+    private static void checkFastPath(
+        @NotNull String encoding,
+        @NotNull String quoteAlways,
+        @NotNull DBDDisplayFormat format,
+        boolean formatNumbers
+    ) throws Exception {
+        Map<String, Object> properties = makeProperties(quoteAlways);
+        properties.put("formatNumbers", formatNumbers);
+        List<Boolean> plainColumns = new ArrayList<>();
+        byte[] fast = export(new DataExporterCSV() {
+            @Override
+            protected boolean isPlainIntegerFormat(
+                @NotNull DBDAttributeBinding column,
+                @NotNull DBDValueHandler valueHandler,
+                @NotNull DBDDisplayFormat format
+            ) {
+                boolean plain = super.isPlainIntegerFormat(column, valueHandler, format);
+                plainColumns.add(plain);
+                return plain;
+            }
+        }, properties, format, encoding);
+        byte[] generic = export(new DataExporterCSV() {
+            @Override
+            protected boolean isPlainIntegerFormat(
+                @NotNull DBDAttributeBinding column,
+                @NotNull DBDValueHandler valueHandler,
+                @NotNull DBDDisplayFormat format
+            ) {
+                return false;
+            }
+        }, properties, format, encoding);
+
+        String message = encoding + ", " + quoteAlways + ", " + format + ", formatNumbers=" + formatNumbers;
+        // Plain columns use fast path in all formats, grouped column only if numbers are exported in native format
+        boolean nativeNumbers = !formatNumbers || format == DBDDisplayFormat.NATIVE;
+        Assert.assertEquals(message, List.of(true, true, nativeNumbers), plainColumns);
+        Assert.assertEquals(message, new String(generic, encoding), new String(fast, encoding));
+        Assert.assertArrayEquals(generic, fast);
+    }
+
+    @Test
+    public void numbersAreFormattedWhenRequested() throws Exception {
+        Map<String, Object> properties = makeProperties("disabled");
+        properties.put("formatNumbers", true);
+        byte[] output = export(new DataExporterCSV(), properties, DBDDisplayFormat.UI, "UTF-8");
+        String[] lines = new String(output, "UTF-8").split("\n");
+        Assert.assertEquals("1234567,,\"\"\"quoted\"\"\",\"1,234,567\"", lines[2]);
+    }
+
+    @NotNull
+    private static Map<String, Object> makeProperties(String quoteAlways) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("delimiter", ",");
+        properties.put("rowDelimiter", "\\n");
+        properties.put("header", "none");
+        properties.put("quoteChar", "\"");
+        properties.put("quoteAlways", quoteAlways);
+        properties.put("nullString", "");
+        return properties;
+    }
+
+    @NotNull
+    private static byte[] export(
+        @NotNull DataExporterCSV exporter,
+        @NotNull Map<String, Object> properties,
+        @NotNull DBDDisplayFormat format,
+        @NotNull String encoding
+    ) throws Exception {
+        DBDAttributeBinding[] columns = {
+            makeColumn("id", DBPDataKind.NUMERIC, false),
+            makeColumn("count", DBPDataKind.NUMERIC, false),
+            makeColumn("name", DBPDataKind.STRING, false),
+            makeColumn("amount", DBPDataKind.NUMERIC, true),
+        };
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(stream, encoding), true);
+
+        IStreamDataExporterSite site = Mockito.mock(IStreamDataExporterSite.class);
+        Mockito.when(site.getProperties()).thenReturn(properties);
+        Mockito.when(site.getAttributes()).thenReturn(columns);
+        Mockito.when(site.getExportFormat()).thenReturn(format);
+        Mockito.when(site.getOutputStream()).thenReturn(stream);
+        Mockito.when(site.getWriter()).thenReturn(writer);
+        Mockito.when(site.getOutputEncoding()).thenReturn(encoding);
+
+        exporter.init(site);
+        exporter.exportHeader(null);
+        for (Object[] row : ROWS) {
+            exporter.exportRow(null, null, row);
+        }
+        exporter.exportFooter(null);
+        writer.flush();
+        return stream.toByteArray();
+    }
+
+    /**
+     * Grouped column formats numbers with grouping in all formats but native, like the default data formatter profile.
+     */
+    @NotNull
+    private static DBDAttributeBinding makeColumn(@NotNull String name, @NotNull DBPDataKind dataKind, boolean grouped) {
+        DBDValueHandler valueHandler = Mockito.mock(DBDValueHandler.class);
+        Mockito.when(valueHandler.getValueDisplayString(Mockito.any(), Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+            Object value = invocation.getArgument(1);
+            DBDDisplayFormat format = invocation.getArgument(2);
+            if (value == null) {
+                return "";
+            }
+            if (grouped && value instanceof Number && format != DBDDisplayFormat.NATIVE) {
+                return String.format("%,d", ((Number) value).longValue());
+            }
+            return value.toString();
+        });
+        DBDAttributeBinding column = Mockito.mock(DBDAttributeBinding.class);
+        Mockito.when(column.getName()).thenReturn(name);
+        Mockito.when(column.getDataKind()).thenReturn(dataKind);
+        Mockito.when(column.getValueHandler()).thenReturn(valueHandler);
+        return column;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+public class TextOutputBufferTest {
+
+    private static final String TEXT = "abc,é€😀|\uD800x\uDC00";
+
+    @Test
+    public void directEncodingMatchesStringBytes() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        TextOutputBuffer buffer = TextOutputBuffer.forStream(stream);
+        buffer.append(TEXT);
+        for (char c : TEXT.toCharArray()) {
+            buffer.append(c);
+        }
+        buffer.append(TEXT.toCharArray(), 0, TEXT.length());
+        // Surrogate pair split between flushes
+        buffer.append('\uD83D');
+        buffer.append("\uDE00");
+        // Dangling high surrogate
+        buffer.append('\uD83D');
+        buffer.flush();
+        Assert.assertArrayEquals((TEXT + TEXT + TEXT + "😀\uD83D").getBytes(StandardCharsets.UTF_8), stream.toByteArray());
+        Assert.assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void appendLong() throws IOException {
+        long[] values = {0, 7, -7, 10, 99, 100, Integer.MAX_VALUE, Integer.MIN_VALUE, 999999999999999999L,
+            1000000000000000000L, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+        StringBuilder expected = new StringBuilder();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        StringWriter writer = new StringWriter();
+        TextOutputBuffer direct = TextOutputBuffer.forStream(stream);
+        TextOutputBuffer chars = TextOutputBuffer.forWriter(writer);
+        for (long value : values) {
+            expected.append(value).append(';');
+            direct.appendLong(value);
+            direct.append(';');
+            chars.appendLong(value);
+            chars.append(';');
+        }
+        direct.flush();
+        chars.flush();
+        Assert.assertEquals(expected.toString(), stream.toString(StandardCharsets.UTF_8));
+        Assert.assertEquals(expected.toString(), writer.toString());
+    }
+}
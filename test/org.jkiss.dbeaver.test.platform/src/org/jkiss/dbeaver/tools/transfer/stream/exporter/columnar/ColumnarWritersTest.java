@@ -0,0 +1,500 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter.columnar;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+public class ColumnarWritersTest {
+
+    private static ColumnarColumn[] makeColumns(int rows) {
+        ColumnarColumn[] columns = new ColumnarColumn[]{
+            new ColumnarColumn("id", ColumnarType.INT64, 0, 0),
+            new ColumnarColumn("name", ColumnarType.STRING, 0, 0),
+            new ColumnarColumn("amount", ColumnarType.DECIMAL, 10, 2)
+        };
+        addRows(columns, 0, rows);
+        return columns;
+    }
+
+    private static void addRows(ColumnarColumn[] columns, int from, int to) {
+        for (int i = from; i < to; i++) {
+            columns[0].addValue((long) i);
+            if (i % 10 == 0) {
+                columns[1].addNull();
+            } else {
+                columns[1].addValue("name" + (i % 5));
+            }
+            columns[2].addValue(new BigDecimal(i).movePointLeft(2));
+        }
+    }
+
+    @Test
+    public void rleHybridEncoding() {
+        ColumnarBytes out = new ColumnarBytes(16);
+        int[] values = new int[10];
+        Arrays.fill(values, 1);
+        ParquetFileWriter.encodeRleHybrid(out, values, values.length, 1);
+        // RLE run: header (10 << 1), value
+        Assert.assertArrayEquals(new byte[]{20, 1}, out.toByteArray());
+
+        out.reset();
+        ParquetFileWriter.encodeRleHybrid(out, new int[]{0, 1, 0, 1, 0, 1, 0, 1}, 8, 1);
+        // Bit-packed run: header (1 group << 1 | 1), values LSB first
+        Assert.assertArrayEquals(new byte[]{3, (byte) 0xAA}, out.toByteArray());
+
+        Assert.assertEquals(1, ParquetFileWriter.getBitWidth(1));
+        Assert.assertEquals(8, ParquetFileWriter.getBitWidth(256));
+        Assert.assertEquals(9, ParquetFileWriter.getBitWidth(257));
+    }
+
+    @Test
+    public void parquetFileLayout() throws Exception {
+        ColumnarColumn[] columns = makeColumns(1000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ParquetFileWriter writer = new ParquetFileWriter(out, columns, ParquetFileWriter.Codec.UNCOMPRESSED, true, 0);
+        writer.start();
+        writer.writeRowGroup();
+        Assert.assertEquals(0, columns[0].getRowCount());
+        writer.finish();
+        Assert.assertEquals(1000, writer.getTotalRows());
+
+        byte[] data = out.toByteArray();
+        Assert.assertEquals("PAR1", new String(data, 0, 4, StandardCharsets.US_ASCII));
+        Assert.assertEquals("PAR1", new String(data, data.length - 4, 4, StandardCharsets.US_ASCII));
+        int footerLength = readIntLE(data, data.length - 8);
+        Assert.assertTrue(footerLength > 0 && footerLength < data.length - 12);
+
+        ByteArrayOutputStream plainOut = new ByteArrayOutputStream();
+        ParquetFileWriter plainWriter = new ParquetFileWriter(plainOut, makeColumns(1000), ParquetFileWriter.Codec.UNCOMPRESSED, false, 0);
+        plainWriter.start();
+        plainWriter.writeRowGroup();
+        plainWriter.finish();
+        // Dictionary encoding of repeating strings must reduce the size
+        Assert.assertTrue(data.length < plainOut.size());
+    }
+
+    @Test
+    public void arrowFileLayout() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowIpcWriter writer = new ArrowIpcWriter(out, makeColumns(100), true);
+        writer.start();
+        writer.writeBatch();
+        writer.finish();
+        Assert.assertEquals(100, writer.getTotalRows());
+
+        byte[] data = out.toByteArray();
+        Assert.assertEquals("ARROW1", new String(data, 0, 6, StandardCharsets.US_ASCII));
+        Assert.assertEquals("ARROW1", new String(data, data.length - 6, 6, StandardCharsets.US_ASCII));
+        // Schema message follows magic
+        Assert.assertEquals(-1, readIntLE(data, 8));
+        Assert.assertEquals(0, readIntLE(data, 12) % 8);
+    }
+
+    @Test
+    public void arrowStreamEndsWithEos() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowIpcWriter writer = new ArrowIpcWriter(out, makeColumns(10), false);
+        writer.start();
+        writer.writeBatch();
+        writer.finish();
+
+        byte[] data = out.toByteArray();
+        Assert.assertEquals(0, data.length % 8);
+        Assert.assertEquals(-1, readIntLE(data, 0));
+        Assert.assertEquals(-1, readIntLE(data, data.length - 8));
+        Assert.assertEquals(0, readIntLE(data, data.length - 4));
+    }
+
+    @Test
+    public void parquetFooterRoundTrip() throws Exception {
+        ColumnarColumn[] columns = makeColumns(600);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ParquetFileWriter writer = new ParquetFileWriter(out, columns, ParquetFileWriter.Codec.UNCOMPRESSED, true, 0);
+        writer.start();
+        writer.writeRowGroup();
+        addRows(columns, 600, 1000);
+        writer.writeRowGroup();
+        writer.finish();
+
+        byte[] data = out.toByteArray();
+        int footerStart = data.length - 8 - readIntLE(data, data.length - 8);
+        ThriftCompactReader footerReader = new ThriftCompactReader(data, footerStart);
+        Map<Integer, Object> fileMetaData = footerReader.readStruct();
+        Assert.assertEquals(data.length - 8, footerReader.position());
+        Assert.assertEquals(1L, fileMetaData.get(1));
+        Assert.assertEquals(1000L, fileMetaData.get(3));
+
+        // Schema: root and optional columns
+        List<Object> schema = list(fileMetaData.get(2));
+        Assert.assertEquals(4, schema.size());
+        Assert.assertEquals("schema", struct(schema.get(0)).get(4));
+        Assert.assertEquals(3L, struct(schema.get(0)).get(5));
+        Map<Integer, Object> idElement = struct(schema.get(1));
+        Assert.assertEquals("id", idElement.get(4));
+        Assert.assertEquals(2L, idElement.get(1));
+        Assert.assertEquals(1L, idElement.get(3));
+        Assert.assertNull(idElement.get(6));
+        Map<Integer, Object> nameElement = struct(schema.get(2));
+        Assert.assertEquals("name", nameElement.get(4));
+        Assert.assertEquals(6L, nameElement.get(1));
+        Assert.assertEquals(0L, nameElement.get(6));
+        Assert.assertTrue(struct(nameElement.get(10)).containsKey(1));
+        Map<Integer, Object> amountElement = struct(schema.get(3));
+        Assert.assertEquals("amount", amountElement.get(4));
+        Assert.assertEquals(2L, amountElement.get(1));
+        Assert.assertEquals(5L, amountElement.get(6));
+        Assert.assertEquals(2L, amountElement.get(7));
+        Assert.assertEquals(10L, amountElement.get(8));
+        Map<Integer, Object> decimalType = struct(struct(amountElement.get(10)).get(5));
+        Assert.assertEquals(2L, decimalType.get(1));
+        Assert.assertEquals(10L, decimalType.get(2));
+
+        // Row groups: column chunks follow each other right after the magic, the footer follows the last chunk
+        List<Object> rowGroups = list(fileMetaData.get(4));
+        Assert.assertEquals(2, rowGroups.size());
+        long[] groupRows = {600, 400};
+        long[][] nullCounts = {{0, 60, 0}, {0, 40, 0}};
+        long chunkOffset = 4;
+        for (int g = 0; g < rowGroups.size(); g++) {
+            Map<Integer, Object> rowGroup = struct(rowGroups.get(g));
+            Assert.assertEquals(groupRows[g], rowGroup.get(3));
+            Assert.assertEquals(chunkOffset, rowGroup.get(5));
+            Assert.assertEquals((long) g, rowGroup.get(7));
+            List<Object> chunks = list(rowGroup.get(1));
+            Assert.assertEquals(columns.length, chunks.size());
+            long groupSize = 0;
+            for (int c = 0; c < chunks.size(); c++) {
+                Map<Integer, Object> chunk = struct(chunks.get(c));
+                Map<Integer, Object> meta = struct(chunk.get(3));
+                Assert.assertEquals(chunkOffset, chunk.get(2));
+                Assert.assertEquals(List.of(columns[c].getName()), list(meta.get(3)));
+                Assert.assertEquals(groupRows[g], meta.get(5));
+                Assert.assertEquals(nullCounts[g][c], struct(meta.get(12)).get(3));
+
+                long dataPageOffset = (long) meta.get(9);
+                if (meta.containsKey(11)) {
+                    Assert.assertEquals(chunkOffset, meta.get(11));
+                    // PLAIN_DICTIONARY values, RLE levels
+                    Assert.assertEquals(List.of(2L, 3L), list(meta.get(2)));
+                    Map<Integer, Object> dictionaryPage = new ThriftCompactReader(data, (int) chunkOffset).readStruct();
+                    Assert.assertEquals(2L, dictionaryPage.get(1));
+                    // 5 distinct names
+                    Assert.assertEquals(5L, struct(dictionaryPage.get(7)).get(1));
+                } else {
+                    Assert.assertEquals(chunkOffset, dataPageOffset);
+                }
+                Map<Integer, Object> dataPage = new ThriftCompactReader(data, (int) dataPageOffset).readStruct();
+                Assert.assertEquals(0L, dataPage.get(1));
+                Assert.assertEquals(groupRows[g], struct(dataPage.get(5)).get(1));
+
+                chunkOffset += (long) meta.get(7);
+                groupSize += (long) meta.get(7);
+            }
+            Assert.assertEquals(groupSize, rowGroup.get(6));
+        }
+        Assert.assertEquals(footerStart, chunkOffset);
+    }
+
+    @Test
+    public void arrowMessagesRoundTrip() throws Exception {
+        ColumnarColumn[] columns = makeColumns(100);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowIpcWriter writer = new ArrowIpcWriter(out, columns, true);
+        writer.start();
+        writer.writeBatch();
+        writer.finish();
+        byte[] data = out.toByteArray();
+
+        // Schema message
+        Assert.assertEquals(-1, readIntLE(data, 8));
+        int schemaLength = readIntLE(data, 12);
+        FlatBufferTable schemaMessage = FlatBufferTable.root(data, 16);
+        Assert.assertEquals(4, schemaMessage.getShort(0));
+        Assert.assertEquals(1, schemaMessage.getByte(1));
+        Assert.assertEquals(0, schemaMessage.getLong(3));
+        checkArrowSchema(schemaMessage.getTable(2));
+
+        // Record batch message
+        int batchPos = 16 + schemaLength;
+        Assert.assertEquals(0, batchPos % 8);
+        Assert.assertEquals(-1, readIntLE(data, batchPos));
+        int batchLength = readIntLE(data, batchPos + 4);
+        FlatBufferTable batchMessage = FlatBufferTable.root(data, batchPos + 8);
+        Assert.assertEquals(3, batchMessage.getByte(1));
+        long bodyLength = batchMessage.getLong(3);
+        int bodyPos = batchPos + 8 + batchLength;
+        FlatBufferTable recordBatch = batchMessage.getTable(2);
+        Assert.assertEquals(100, recordBatch.getLong(0));
+
+        int nodes = recordBatch.getVector(1);
+        Assert.assertEquals(3, readIntLE(data, nodes));
+        long[] nullCounts = {0, 10, 0};
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(100, readLongLE(data, nodes + 4 + i * 16));
+            Assert.assertEquals(nullCounts[i], readLongLE(data, nodes + 4 + i * 16 + 8));
+        }
+
+        // Buffers: id (validity, values), name (validity, offsets, data), amount (validity, values)
+        int buffers = recordBatch.getVector(2);
+        Assert.assertEquals(7, readIntLE(data, buffers));
+        long[] lengths = {0, 800, 13, 404, 450, 0, 1600};
+        long[] offsets = new long[lengths.length];
+        long end = 0;
+        for (int i = 0; i < lengths.length; i++) {
+            offsets[i] = readLongLE(data, buffers + 4 + i * 16);
+            Assert.assertEquals(lengths[i], readLongLE(data, buffers + 4 + i * 16 + 8));
+            Assert.assertEquals(0, offsets[i] % 8);
+            Assert.assertTrue(offsets[i] >= end);
+            end = offsets[i] + lengths[i];
+        }
+        Assert.assertTrue(end <= bodyLength);
+        Assert.assertEquals(0, bodyLength % 8);
+
+        // Values
+        Assert.assertEquals(42, readLongLE(data, (int) (bodyPos + offsets[1] + 42 * 8)));
+        Assert.assertEquals(0b11111110, data[(int) (bodyPos + offsets[2])] & 0xFF);
+        int nameStart = readIntLE(data, (int) (bodyPos + offsets[3] + 4));
+        int nameEnd = readIntLE(data, (int) (bodyPos + offsets[3] + 8));
+        Assert.assertEquals("name1", new String(data, (int) (bodyPos + offsets[4] + nameStart), nameEnd - nameStart, StandardCharsets.UTF_8));
+        Assert.assertEquals(7, readLongLE(data, (int) (bodyPos + offsets[6] + 7 * 16)));
+        Assert.assertEquals(0, readLongLE(data, (int) (bodyPos + offsets[6] + 7 * 16 + 8)));
+
+        // End of stream marker and footer
+        int eosPos = (int) (bodyPos + bodyLength);
+        Assert.assertEquals(-1, readIntLE(data, eosPos));
+        Assert.assertEquals(0, readIntLE(data, eosPos + 4));
+        int footerLength = readIntLE(data, data.length - 10);
+        Assert.assertEquals(eosPos + 8, data.length - 10 - footerLength);
+        FlatBufferTable footer = FlatBufferTable.root(data, eosPos + 8);
+        checkArrowSchema(footer.getTable(1));
+        int blocks = footer.getVector(3);
+        Assert.assertEquals(1, readIntLE(data, blocks));
+        Assert.assertEquals(batchPos, readLongLE(data, blocks + 4));
+        Assert.assertEquals(batchLength + 8, readIntLE(data, blocks + 12));
+        Assert.assertEquals(bodyLength, readLongLE(data, blocks + 20));
+    }
+
+    private static void checkArrowSchema(FlatBufferTable schema) {
+        int fields = schema.getVector(1);
+        Assert.assertEquals(3, readIntLE(schema.data, fields));
+
+        FlatBufferTable id = schema.getVectorTable(1, 0);
+        Assert.assertEquals("id", id.getString(0));
+        Assert.assertTrue(id.getBool(1));
+        Assert.assertEquals(2, id.getByte(2));
+        Assert.assertEquals(64, id.getTable(3).getInt(0));
+        Assert.assertTrue(id.getTable(3).getBool(1));
+
+        FlatBufferTable name = schema.getVectorTable(1, 1);
+        Assert.assertEquals("name", name.getString(0));
+        Assert.assertEquals(5, name.getByte(2));
+
+        FlatBufferTable amount = schema.getVectorTable(1, 2);
+        Assert.assertEquals("amount", amount.getString(0));
+        Assert.assertEquals(7, amount.getByte(2));
+        FlatBufferTable decimalType = amount.getTable(3);
+        Assert.assertEquals(10, decimalType.getInt(0));
+        Assert.assertEquals(2, decimalType.getInt(1));
+        Assert.assertEquals(128, decimalType.getInt(2));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Integer, Object> struct(Object value) {
+        Assert.assertTrue(value instanceof Map);
+        return (Map<Integer, Object>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> list(Object value) {
+        Assert.assertTrue(value instanceof List);
+        return (List<Object>) value;
+    }
+
+    private static long readLongLE(byte[] data, int offset) {
+        return (readIntLE(data, offset) & 0xFFFFFFFFL) | (long) readIntLE(data, offset + 4) << 32;
+    }
+
+    private static int readIntLE(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8 | (data[offset + 2] & 0xFF) << 16 | (data[offset + 3] & 0xFF) << 24;
+    }
+
+    /**
+     * Thrift compact protocol reader. Structs are read as maps of field values by field ID,
+     * integers as longs and binaries as strings.
+     */
+    private static class ThriftCompactReader {
+        private final byte[] data;
+        private int pos;
+
+        ThriftCompactReader(byte[] data, int pos) {
+            this.data = data;
+            this.pos = pos;
+        }
+
+        int position() {
+            return pos;
+        }
+
+        Map<Integer, Object> readStruct() {
+            Map<Integer, Object> fields = new HashMap<>();
+            int lastId = 0;
+            for (;;) {
+                int header = data[pos++] & 0xFF;
+                if (header == 0) {
+                    return fields;
+                }
+                int delta = header >>> 4;
+                int id = delta == 0 ? (int) readZigZag() : lastId + delta;
+                Assert.assertFalse("Duplicate field " + id, fields.containsKey(id));
+                fields.put(id, readValue(header & 0x0F));
+                lastId = id;
+            }
+        }
+
+        private Object readValue(int type) {
+            switch (type) {
+                case 1:
+                    return true;
+                case 2:
+                    return false;
+                case 4:
+                case 5:
+                case 6:
+                    return readZigZag();
+                case 8: {
+                    int length = (int) readVarLong();
+                    String value = new String(data, pos, length, StandardCharsets.UTF_8);
+                    pos += length;
+                    return value;
+                }
+                case 9: {
+                    int header = data[pos++] & 0xFF;
+                    int size = header >>> 4;
+                    if (size == 15) {
+                        size = (int) readVarLong();
+                    }
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue(header & 0x0F));
+                    }
+                    return list;
+                }
+                case 12:
+                    return readStruct();
+                default:
+                    throw new AssertionError("Unexpected Thrift type " + type);
+            }
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = data[pos++] & 0xFF;
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+
+        private long readZigZag() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+
+    /**
+     * FlatBuffers table accessor
+     */
+    private static class FlatBufferTable {
+        private final byte[] data;
+        private final int pos;
+
+        FlatBufferTable(byte[] data, int pos) {
+            this.data = data;
+            this.pos = pos;
+        }
+
+        static FlatBufferTable root(byte[] data, int start) {
+            return new FlatBufferTable(data, start + readIntLE(data, start));
+        }
+
+        private int fieldPos(int id) {
+            int vtable = pos - readIntLE(data, pos);
+            int vtableSize = readShortLE(vtable);
+            int slot = 4 + id * 2;
+            Assert.assertTrue("Field " + id + " is missing", slot < vtableSize && readShortLE(vtable + slot) != 0);
+            return pos + readShortLE(vtable + slot);
+        }
+
+        private int readShortLE(int offset) {
+            return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8;
+        }
+
+        private int follow(int id) {
+            int fieldPos = fieldPos(id);
+            return fieldPos + readIntLE(data, fieldPos);
+        }
+
+        boolean getBool(int id) {
+            return data[fieldPos(id)] != 0;
+        }
+
+        int getByte(int id) {
+            return data[fieldPos(id)] & 0xFF;
+        }
+
+        int getShort(int id) {
+            return readShortLE(fieldPos(id));
+        }
+
+        int getInt(int id) {
+            return readIntLE(data, fieldPos(id));
+        }
+
+        long getLong(int id) {
+            return readLongLE(data, fieldPos(id));
+        }
+
+        String getString(int id) {
+            int stringPos = follow(id);
+            return new String(data, stringPos + 4, readIntLE(data, stringPos), StandardCharsets.UTF_8);
+        }
+
+        FlatBufferTable getTable(int id) {
+            return new FlatBufferTable(data, follow(id));
+        }
+
+        /**
+         * Returns position of the vector length, elements follow it
+         */
+        int getVector(int id) {
+            return follow(id);
+        }
+
+        FlatBufferTable getVectorTable(int id, int index) {
+            int slot = getVector(id) + 4 + index * 4;
+            return new FlatBufferTable(data, slot + readIntLE(data, slot));
+        }
+    }
+}
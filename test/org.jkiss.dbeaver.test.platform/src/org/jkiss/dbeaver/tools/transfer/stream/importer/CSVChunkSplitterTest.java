@@ -0,0 +1,86 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.importer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CSVChunkSplitterTest {
+
+    @Test
+    public void chunksEndAtRecordBoundaries() throws IOException {
+        List<String> records = new ArrayList<>();
+        StringBuilder content = new StringBuilder("\uFEFF");
+        for (int i = 0; i < 500; i++) {
+            String record = switch (i % 5) {
+                case 0 -> "1,\"multi\nline\r\nvalue\",x\n";
+                case 1 -> "2,\"doubled \"\"quote\"\"\nnext line\",y\r\n";
+                case 2 -> "3,\"escaped \\\" quote\n\",z\n";
+                case 3 -> "4,\"delimiter, inside\",ü€\n";
+                default -> "5,plain \\\\ value,\"\"\n";
+            };
+            records.add(record);
+            content.append(record);
+        }
+        Path file = Files.createTempFile("dbeaver-csv-chunks", ".csv");
+        try {
+            Files.writeString(file, content);
+            List<Long> recordEnds = new ArrayList<>();
+            long offset = 3;
+            for (String record : records) {
+                offset += record.getBytes(StandardCharsets.UTF_8).length;
+                recordEnds.add(offset);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                CSVChunkSplitter splitter = new CSVChunkSplitter(channel, ',', '"', '\\', 100);
+                long start = splitter.getDataStart();
+                Assert.assertEquals(3, start);
+                int chunks = 0;
+                while (start < splitter.getFileSize()) {
+                    long end = splitter.findChunkEnd(start);
+                    Assert.assertTrue("Chunk end " + end + " is not a record end", recordEnds.contains(end));
+                    Assert.assertTrue(end - start >= 100 || end == splitter.getFileSize());
+                    start = end;
+                    chunks++;
+                }
+                Assert.assertTrue(chunks > 100);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void supportedEncodings() {
+        Assert.assertTrue(CSVChunkSplitter.isSupported(StandardCharsets.UTF_8, ',', '"', '\\'));
+        Assert.assertTrue(CSVChunkSplitter.isSupported(StandardCharsets.ISO_8859_1, ';', '"', '\\'));
+        Assert.assertTrue(CSVChunkSplitter.isSupported(Charset.forName("windows-1251"), '\t', '"', '\\'));
+        Assert.assertFalse(CSVChunkSplitter.isSupported(StandardCharsets.UTF_16, ',', '"', '\\'));
+        Assert.assertFalse(CSVChunkSplitter.isSupported(Charset.forName("Shift_JIS"), ',', '"', '\\'));
+        Assert.assertFalse(CSVChunkSplitter.isSupported(StandardCharsets.UTF_8, ',', '"', '"'));
+    }
+}
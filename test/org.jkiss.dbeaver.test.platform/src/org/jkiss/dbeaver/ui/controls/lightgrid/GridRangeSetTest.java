@@ -0,0 +1,114 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.lightgrid;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class GridRangeSetTest {
+
+    @Test
+    public void randomOperationsMatchCellSet() {
+        Random random = new Random(7);
+        GridRangeSet ranges = new GridRangeSet();
+        Set<GridPos> cells = new TreeSet<>(new GridPos.PosComparator());
+        for (int i = 0; i < 500; i++) {
+            int firstCol = random.nextInt(20);
+            int lastCol = firstCol + random.nextInt(5);
+            int firstRow = random.nextInt(50);
+            int lastRow = firstRow + random.nextInt(10);
+            boolean add = random.nextInt(3) != 0;
+            if (add) {
+                ranges.add(firstCol, lastCol, firstRow, lastRow);
+            } else {
+                ranges.remove(firstCol, lastCol, firstRow, lastRow);
+            }
+            for (int col = firstCol; col <= lastCol; col++) {
+                for (int row = firstRow; row <= lastRow; row++) {
+                    if (add) {
+                        cells.add(new GridPos(col, row));
+                    } else {
+                        cells.remove(new GridPos(col, row));
+                    }
+                }
+            }
+            assertSameCells(cells, ranges);
+        }
+    }
+
+    @Test
+    public void rowsAndColumns() {
+        GridRangeSet ranges = new GridRangeSet();
+        ranges.add(2, 3, 10, 12);
+        ranges.add(5, 5, 11, 20);
+        ranges.add(0, 0, 30, 30);
+
+        Assert.assertEquals(List.of(10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 30), new ArrayList<>(ranges.getRows()));
+        Assert.assertEquals(12, ranges.getRowCount());
+        Assert.assertArrayEquals(new int[]{0, 2, 3, 5}, ranges.getColumns());
+        Assert.assertTrue(ranges.containsRow(15));
+        Assert.assertFalse(ranges.containsRow(25));
+        Assert.assertEquals(new GridPos(2, 10), ranges.getFirstCell());
+    }
+
+    @Test
+    public void containsAllAndSameCells() {
+        GridRangeSet all = new GridRangeSet();
+        all.add(0, 9, 0, 99);
+
+        GridRangeSet part = new GridRangeSet();
+        part.add(0, 4, 0, 99);
+        part.add(5, 9, 0, 49);
+        Assert.assertTrue(all.containsAll(part));
+        Assert.assertFalse(part.containsAll(all));
+        Assert.assertFalse(all.isSameCells(part));
+
+        part.add(5, 9, 50, 99);
+        Assert.assertTrue(all.isSameCells(part));
+        Assert.assertEquals(1000, part.getCellCount());
+
+        part.removeAll(all);
+        Assert.assertTrue(part.isEmpty());
+    }
+
+    @Test
+    public void singleCellsAreMerged() {
+        GridRangeSet ranges = new GridRangeSet();
+        for (int row = 0; row < 1000; row++) {
+            for (int col = 0; col < 10; col++) {
+                ranges.add(col, row);
+            }
+        }
+        Assert.assertEquals(1, ranges.getRanges().size());
+        Assert.assertEquals(10_000, ranges.getCellCount());
+    }
+
+    private static void assertSameCells(Set<GridPos> expected, GridRangeSet actual) {
+        Assert.assertEquals(expected.size(), actual.getCellCount());
+        Iterator<GridPos> expectedIter = expected.iterator();
+        for (GridPos pos : actual) {
+            Assert.assertTrue(expectedIter.hasNext());
+            Assert.assertEquals(expectedIter.next(), pos);
+        }
+        Assert.assertFalse(expectedIter.hasNext());
+        for (GridPos pos : expected) {
+            Assert.assertTrue(actual.contains(pos));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ResultSetColumnStoreTest {
+
+    @Test
+    public void valuesKeepTheirTypes() {
+        List<Object[]> source = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            source.add(new Object[]{
+                i % 7 == 0 ? null : (long) i * 1_000_000_007L,
+                i % 5 == 0 ? null : i,
+                (short) i,
+                i % 3 == 0 ? null : i * 0.5,
+                (float) i / 4,
+                i % 11 == 0 ? null : "value " + (i % 10),
+                "unique " + i,
+                i < 10 ? null : new BigDecimal(i),
+                i % 2 == 0,
+                null
+            });
+        }
+        ResultSetColumnStore store = new ResultSetColumnStore(10);
+        List<Object[]> rows = store.asRowList();
+        rows.addAll(source);
+
+        Assert.assertEquals(source.size(), rows.size());
+        for (int i = 0; i < source.size(); i++) {
+            Assert.assertArrayEquals(source.get(i), rows.get(i));
+            for (int k = 0; k < 10; k++) {
+                Object expected = source.get(i)[k];
+                Object value = store.getValue(i, k);
+                Assert.assertEquals(expected, value);
+                if (expected != null) {
+                    Assert.assertSame(expected.getClass(), value.getClass());
+                }
+            }
+        }
+        Assert.assertTrue(store.isCompactColumn(0));
+        Assert.assertTrue(store.isCompactColumn(1));
+        Assert.assertTrue(store.isCompactColumn(3));
+        Assert.assertTrue(store.isCompactColumn(5));
+        // Mostly unique strings
+        Assert.assertFalse(store.isCompactColumn(6));
+        Assert.assertFalse(store.isCompactColumn(7));
+        Assert.assertTrue(store.isCompactColumn(9));
+    }
+
+    @Test
+    public void mixedTypesFallBackToObjects() {
+        ResultSetColumnStore store = new ResultSetColumnStore(2);
+        store.addRow(new Object[]{1, "a"});
+        store.addRow(new Object[]{2L, 3});
+        store.addRow(new Object[]{null});
+        Assert.assertFalse(store.isCompactColumn(0));
+        Assert.assertFalse(store.isCompactColumn(1));
+        Assert.assertArrayEquals(new Object[]{1, "a"}, store.getRowValues(0));
+        Assert.assertArrayEquals(new Object[]{2L, 3}, store.getRowValues(1));
+        Assert.assertArrayEquals(new Object[]{null, null}, store.getRowValues(2));
+        store.clear();
+        Assert.assertEquals(0, store.getRowCount());
+        store.addRow(new Object[]{5, "b"});
+        Assert.assertTrue(store.isCompactColumn(0));
+        Assert.assertEquals(5, store.getValue(0, 0));
+    }
+
+    @Test
+    public void storedRowIsUnpackedConcurrently() throws Exception {
+        ResultSetColumnStore store = new ResultSetColumnStore(3);
+        for (int i = 0; i < 2000; i++) {
+            store.addRow(new Object[]{(long) i, "value " + i, i * 0.5});
+        }
+        int threadCount = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            for (int i = 0; i < store.getRowCount(); i++) {
+                ResultSetRow row = new ResultSetRow(i, store, i);
+                Object[] expected = store.getRowValues(i);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Object[]>> results = new ArrayList<>();
+                for (int t = 0; t < threadCount; t++) {
+                    boolean unpack = t % 2 == 0;
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        if (unpack) {
+                            return row.getValues();
+                        }
+                        // Reader which doesn't unpack must see either stored or unpacked values, never nulls
+                        for (int k = 0; k < expected.length; k++) {
+                            Assert.assertEquals(expected[k], row.getValue(k));
+                        }
+                        return row.getValues();
+                    }));
+                }
+                start.countDown();
+                Object[] values = results.get(0).get();
+                Assert.assertArrayEquals(expected, values);
+                for (Future<Object[]> result : results) {
+                    // Values are unpacked once, all threads share the same array
+                    Assert.assertSame(values, result.get());
+                }
+                Assert.assertFalse(row.isStored());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.dbeaver.model.exec.DBCLogicalOperator;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+public class ResultSetLocalFilterTest {
+
+    @Test
+    public void conditionsMatchSqlSemantics() {
+        Predicate<Object> greater = ResultSetLocalFilter.compileCondition(DBCLogicalOperator.GREATER, false, 10L);
+        Assert.assertTrue(greater.test(11));
+        Assert.assertFalse(greater.test(10L));
+        Assert.assertTrue(greater.test(new BigDecimal("10.5")));
+        Assert.assertFalse(greater.test(null));
+
+        Predicate<Object> notEquals = ResultSetLocalFilter.compileCondition(DBCLogicalOperator.EQUALS, true, "a");
+        Assert.assertTrue(notEquals.test("b"));
+        Assert.assertFalse(notEquals.test("a"));
+        Assert.assertFalse(notEquals.test(null));
+
+        Predicate<Object> isNull = ResultSetLocalFilter.compileCondition(DBCLogicalOperator.EQUALS, false, null);
+        Assert.assertTrue(isNull.test(null));
+        Assert.assertFalse(isNull.test(1));
+        Predicate<Object> isNotNull = ResultSetLocalFilter.compileCondition(DBCLogicalOperator.IS_NOT_NULL, false, null);
+        Assert.assertTrue(isNotNull.test(1));
+        Assert.assertFalse(isNotNull.test(null));
+
+        Predicate<Object> like = ResultSetLocalFilter.compileCondition(DBCLogicalOperator.LIKE, false, "a.c%\\_");
+        Assert.assertTrue(like.test("a.cxyz_"));
+        Assert.assertFalse(like.test("A.Cxyz_"));
+        Assert.assertFalse(like.test("abcxyz_"));
+        Assert.assertFalse(like.test("a.cxyzq"));
+        Predicate<Object> notLike = ResultSetLocalFilter.compileCondition(DBCLogicalOperator.NOT_LIKE, false, "a.c%\\_");
+        Assert.assertTrue(notLike.test("A.Cxyz_"));
+        Assert.assertFalse(notLike.test("a.cxyz_"));
+        Predicate<Object> ilike = ResultSetLocalFilter.compileCondition(DBCLogicalOperator.ILIKE, false, "a.c%\\_");
+        Assert.assertTrue(ilike.test("A.Cxyz_"));
+        Assert.assertFalse(ilike.test("abcxyz_"));
+
+        Predicate<Object> in = ResultSetLocalFilter.compileCondition(DBCLogicalOperator.IN, false, new Object[]{1L, new BigDecimal("2.50"), null});
+        Assert.assertTrue(in.test(1));
+        Assert.assertTrue(in.test(2.5d));
+        Assert.assertTrue(in.test(null));
+        Assert.assertFalse(in.test(3));
+        Predicate<Object> notIn = ResultSetLocalFilter.compileCondition(DBCLogicalOperator.IN, true, new Object[]{"x", "y"});
+        Assert.assertTrue(notIn.test("z"));
+        Assert.assertFalse(notIn.test("x"));
+        Assert.assertFalse(notIn.test(null));
+
+        Assert.assertNull(ResultSetLocalFilter.compileCondition(DBCLogicalOperator.SOUNDS, false, "x"));
+    }
+
+    @Test
+    public void filterKeepsRowOrder() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            rows.add(new Object[]{i, i % 7 == 0 ? null : "name" + (i % 10)});
+        }
+        ResultSetLocalFilter<Object[]> filter = new ResultSetLocalFilter<>(rows, false);
+        Assert.assertTrue(filter.addCondition(row -> row[0], DBCLogicalOperator.LESS, false, 50_000));
+        Assert.assertTrue(filter.addCondition(row -> row[1], DBCLogicalOperator.IN, false, new Object[]{"name1", "name2"}));
+        List<Object[]> result = filter.filter(new VoidProgressMonitor());
+        Assert.assertNotNull(result);
+        int prev = -1, count = 0;
+        for (Object[] row : rows) {
+            int id = (Integer) row[0];
+            if (id < 50_000 && id % 7 != 0 && (id % 10 == 1 || id % 10 == 2)) {
+                count++;
+            }
+        }
+        Assert.assertEquals(count, result.size());
+        for (Object[] row : result) {
+            Assert.assertTrue((Integer) row[0] > prev);
+            prev = (Integer) row[0];
+        }
+
+        ResultSetLocalFilter<Object[]> anyFilter = new ResultSetLocalFilter<>(rows, true);
+        anyFilter.addCondition(row -> row[0], DBCLogicalOperator.EQUALS, false, 3);
+        anyFilter.addCondition(row -> row[1], DBCLogicalOperator.IS_NULL, false, null);
+        Assert.assertEquals(100_000 / 7 + 2, anyFilter.filter(new VoidProgressMonitor()).size());
+    }
+}
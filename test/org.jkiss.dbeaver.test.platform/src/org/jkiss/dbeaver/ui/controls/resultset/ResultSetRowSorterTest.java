@@ -0,0 +1,112 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class ResultSetRowSorterTest {
+
+    private static final String[] WORDS = {"alpha", "Alpha", "BETA", "beta", "Gamma", "ÄRGER", "ärger", "zeta", "Zeta"};
+
+    @Test
+    public void orderMatchesValuesComparison() {
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            rows.add(new Object[]{
+                i,
+                random.nextInt(10) == 0 ? null : (long) random.nextInt(100),
+                random.nextInt(10) == 0 ? null : random.nextInt(50) * 0.5,
+                random.nextInt(10) == 0 ? null : WORDS[random.nextInt(WORDS.length)],
+                // Mixed types
+                random.nextBoolean() ? new BigDecimal(random.nextInt(20)) : (Object) (long) random.nextInt(20)
+            });
+        }
+        checkOrder(rows, new int[]{1, 3}, new boolean[]{false, true});
+        checkOrder(rows, new int[]{2, 4}, new boolean[]{true, false});
+        checkOrder(rows, new int[]{3, 2, 1}, new boolean[]{false, false, true});
+    }
+
+    @Test
+    public void sortCanBeCanceled() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new Object[]{i});
+        }
+        ResultSetRowSorter<Object[]> sorter = new ResultSetRowSorter<>(rows);
+        sorter.addKey(row -> row[0], true);
+        Assert.assertNull(sorter.sort(new VoidProgressMonitor() {
+            @Override
+            public boolean isCanceled() {
+                return true;
+            }
+        }));
+    }
+
+    @Test
+    public void caseIsFoldedLikeCompareToIgnoreCase() {
+        String[] strings = {"abc", "ABD", "straße", "STRASSE", "Ǆ", "ǆ", "ǅ", "İ", "ı", "i", "I", "Σ", "ς", "σ", "ß"};
+        for (String str1 : strings) {
+            for (String str2 : strings) {
+                Assert.assertEquals(str1 + " vs " + str2,
+                    Integer.signum(str1.compareToIgnoreCase(str2)),
+                    Integer.signum(ResultSetRowSorter.foldCase(str1).compareTo(ResultSetRowSorter.foldCase(str2))));
+            }
+        }
+    }
+
+    private static void checkOrder(List<Object[]> rows, int[] columns, boolean[] descending) {
+        ResultSetRowSorter<Object[]> sorter = new ResultSetRowSorter<>(rows);
+        for (int i = 0; i < columns.length; i++) {
+            int column = columns[i];
+            sorter.addKey(row -> row[column], descending[i]);
+        }
+        List<Object[]> sorted = sorter.sort(new VoidProgressMonitor());
+        Assert.assertNotNull(sorted);
+
+        List<Object[]> expected = new ArrayList<>(rows);
+        expected.sort((row1, row2) -> {
+            for (int i = 0; i < columns.length; i++) {
+                Object cell1 = row1[columns[i]];
+                Object cell2 = row2[columns[i]];
+                int result = cell1 instanceof String && cell2 instanceof String ?
+                    ((String) cell1).compareToIgnoreCase((String) cell2) :
+                    DBUtils.compareDataValues(cell1, cell2);
+                if (descending[i]) {
+                    result = -result;
+                }
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        });
+        for (int i = 0; i < expected.size(); i++) {
+            // Sort is stable, so row ids must be the same
+            Assert.assertEquals(expected.get(i)[0], sorted.get(i)[0]);
+        }
+    }
+}
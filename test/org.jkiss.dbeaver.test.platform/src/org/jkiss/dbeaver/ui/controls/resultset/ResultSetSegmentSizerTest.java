@@ -0,0 +1,55 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResultSetSegmentSizerTest {
+
+    @Test
+    public void configuredSizeIsUsedWithoutStatistics() {
+        ResultSetSegmentSizer sizer = new ResultSetSegmentSizer();
+        Assert.assertEquals(200, sizer.getSegmentSize(200));
+        Assert.assertEquals(0, sizer.getSegmentSize(0));
+    }
+
+    @Test
+    public void fastNarrowRowsIncreaseSegment() {
+        ResultSetSegmentSizer sizer = new ResultSetSegmentSizer();
+        // 200 rows in 50ms: 4000 rows fit in the target read time
+        sizer.addSegmentStatistics(200, 50, 100);
+        Assert.assertEquals(4000, sizer.getSegmentSize(200));
+        // Grows no more than MAX_SIZE_FACTOR times
+        sizer.addSegmentStatistics(200, 1, 100);
+        Assert.assertEquals(200 * ResultSetSegmentSizer.MAX_SIZE_FACTOR, sizer.getSegmentSize(200));
+        sizer.reset();
+        Assert.assertEquals(200, sizer.getSegmentSize(200));
+    }
+
+    @Test
+    public void wideOrSlowRowsKeepConfiguredSize() {
+        ResultSetSegmentSizer sizer = new ResultSetSegmentSizer();
+        // Rows are fast but huge: memory limit wins
+        sizer.addSegmentStatistics(1000, 10, ResultSetSegmentSizer.TARGET_SEGMENT_BYTES / 500);
+        Assert.assertEquals(500, sizer.getSegmentSize(200));
+        sizer.reset();
+        // Slow fetch never decreases configured size
+        sizer.addSegmentStatistics(200, 10_000, 100);
+        Assert.assertEquals(200, sizer.getSegmentSize(200));
+    }
+}
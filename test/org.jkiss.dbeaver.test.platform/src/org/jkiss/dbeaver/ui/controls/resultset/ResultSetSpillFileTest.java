@@ -0,0 +1,143 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ResultSetSpillFileTest {
+
+    @Test
+    public void spilledRowsAreReadBack() throws Exception {
+        Path path = Files.createTempFile("dbeaver-spill", ".dat");
+        // Small windows to test rows alignment and huge rows
+        try (ResultSetSpillFile file = new ResultSetSpillFile(path, 8, 4096)) {
+            List<Object[]> source = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                Timestamp timestamp = new Timestamp(1_700_000_000_000L + i);
+                timestamp.setNanos(i * 1000 + 1);
+                Object[] row = {
+                    i % 7 == 0 ? null : (long) -i * 1_000_000_007L,
+                    i,
+                    i % 2 == 0,
+                    i * -0.25,
+                    i % 100 == 0 ? "x".repeat(5000) : "value " + i + " ж",
+                    new BigDecimal(BigInteger.valueOf(-i * 31L), i % 5),
+                    timestamp,
+                    i % 3 == 0 ? new byte[]{(byte) i, 0, -1} : (short) -i
+                };
+                Assert.assertTrue(ResultSetSpillFile.isSpillable(row));
+                Assert.assertEquals(i, file.addRow(row));
+                source.add(row);
+            }
+            for (int i = source.size() - 1; i >= 0; i--) {
+                Object[] expected = source.get(i);
+                Object[] actual = file.getRowValues(i);
+                for (int k = 0; k < expected.length; k++) {
+                    if (expected[k] instanceof byte[] bytes) {
+                        Assert.assertArrayEquals(bytes, (byte[]) actual[k]);
+                        Assert.assertArrayEquals(bytes, (byte[]) file.getValue(i, k));
+                    } else {
+                        Assert.assertEquals(expected[k], actual[k]);
+                        Assert.assertEquals(expected[k], file.getValue(i, k));
+                    }
+                }
+            }
+        }
+        Assert.assertFalse(Files.exists(path));
+    }
+
+    @Test
+    public void rowsAreFoundWithinOffsetBlocks() throws Exception {
+        Path path = Files.createTempFile("dbeaver-spill", ".dat");
+        // Rows of different length leave unused window ends of any size
+        try (ResultSetSpillFile file = new ResultSetSpillFile(path, 2, 256)) {
+            List<String> source = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                String value = i % 97 == 0 ? "h".repeat(600) : "v".repeat(i % 61);
+                file.addRow(new Object[]{i, value});
+                source.add(value);
+            }
+            for (int k = 0; k < 1000; k++) {
+                int i = (k * 389) % 1000;
+                Assert.assertEquals(i, file.getValue(i, 0));
+                Assert.assertEquals(source.get(i), file.getValue(i, 1));
+            }
+        }
+    }
+
+    @Test
+    public void rowListKeepsOrder() throws Exception {
+        Path path = Files.createTempFile("dbeaver-spill", ".dat");
+        try (ResultSetSpillFile file = new ResultSetSpillFile(path, 2)) {
+            ResultSetSpillFile.RowList rows = new ResultSetSpillFile.RowList(new ArrayList<>());
+            Object complexValue = new Object();
+            for (int i = 0; i < 1000; i++) {
+                Object[] row = {i, i % 10 == 0 ? complexValue : "row " + i};
+                if (i >= 100 && ResultSetSpillFile.isSpillable(row)) {
+                    rows.addSpilled(file, row);
+                } else {
+                    rows.add(row);
+                }
+            }
+            Assert.assertEquals(1000, rows.size());
+            Assert.assertEquals(100 + 90, rows.getMemoryRows().size());
+            Assert.assertEquals(810, file.getRowCount());
+            for (int i = 0; i < 1000; i++) {
+                boolean inMemory = i < 100 || i % 10 == 0;
+                Assert.assertEquals(inMemory, rows.getSpillIndex(i) < 0);
+                Assert.assertEquals(i, rows.get(i)[0]);
+                Assert.assertEquals(i % 10 == 0 ? complexValue : "row " + i, rows.get(i)[1]);
+            }
+        }
+    }
+
+    @Test
+    public void clearedRowListDeletesSpillFile() throws Exception {
+        Path path = Files.createTempFile("dbeaver-spill", ".dat");
+        ResultSetSpillFile file = new ResultSetSpillFile(path, 3, 4096);
+        ResultSetSpillFile.RowList rows = new ResultSetSpillFile.RowList(new ArrayList<>());
+        rows.add(new Object[]{0, "memory", null});
+        for (int i = 1; i < 100; i++) {
+            rows.addSpilled(file, new Object[]{i, "row " + i, (long) i});
+        }
+        Assert.assertEquals(99L, file.getValue(98, 2));
+        Assert.assertEquals("row 50", file.getValue(49, 1));
+
+        rows.clear();
+        Assert.assertEquals(0, rows.size());
+        Assert.assertNull(rows.getSpillFile());
+        Assert.assertTrue(rows.getMemoryRows().isEmpty());
+        Assert.assertEquals(0, file.getRowCount());
+        Assert.assertFalse(Files.exists(path));
+
+        // List can be reused with a new file
+        Path newPath = Files.createTempFile("dbeaver-spill", ".dat");
+        try (ResultSetSpillFile newFile = new ResultSetSpillFile(newPath, 3, 4096)) {
+            rows.addSpilled(newFile, new Object[]{1, "new", 2L});
+            Assert.assertEquals("new", rows.get(0)[1]);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.panel.grouping;
+
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSTypedObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public class GroupingLocalAggregatorTest {
+
+    private static final Map<String, Integer> COLUMNS = Map.of("NAME", 0, "AMOUNT", 1, "PRICE", 2);
+
+    private static Function<Object[], Object> resolveColumn(String name) {
+        Integer index = COLUMNS.get(name.toUpperCase());
+        return index == null ? null : row -> row[index];
+    }
+
+    @Test
+    public void aggregateFunctions() {
+        List<Object[]> rows = List.of(
+            new Object[]{"a", 1, new BigDecimal("1.50")},
+            new Object[]{"b", 2, null},
+            new Object[]{"a", null, new BigDecimal("2.25")},
+            new Object[]{null, 4, new BigDecimal("1.00")},
+            new Object[]{"a", 3, new BigDecimal("1.50")},
+            new Object[]{null, 5, null}
+        );
+        GroupingLocalAggregator<Object[]> aggregator = new GroupingLocalAggregator<>();
+        aggregator.addGroupAttribute(row -> row[0]);
+        Assert.assertTrue(aggregator.addFunction("COUNT(*)", GroupingLocalAggregatorTest::resolveColumn));
+        Assert.assertTrue(aggregator.addFunction("count(amount)", GroupingLocalAggregatorTest::resolveColumn));
+        Assert.assertTrue(aggregator.addFunction("COUNT(DISTINCT price)", GroupingLocalAggregatorTest::resolveColumn));
+        Assert.assertTrue(aggregator.addFunction("SUM(amount)", GroupingLocalAggregatorTest::resolveColumn));
+        Assert.assertTrue(aggregator.addFunction("avg( price )", GroupingLocalAggregatorTest::resolveColumn));
+        Assert.assertTrue(aggregator.addFunction("MAX(price)", GroupingLocalAggregatorTest::resolveColumn));
+        Assert.assertFalse(aggregator.addFunction("SUM(amount * 2)", GroupingLocalAggregatorTest::resolveColumn));
+        Assert.assertFalse(aggregator.addFunction("MEDIAN(amount)", GroupingLocalAggregatorTest::resolveColumn));
+        Assert.assertFalse(aggregator.addFunction("SUM(DISTINCT amount)", GroupingLocalAggregatorTest::resolveColumn));
+        Assert.assertEquals(6, aggregator.getFunctionCount());
+        Assert.assertTrue(aggregator.keepsArgumentType(5));
+        Assert.assertFalse(aggregator.keepsArgumentType(3));
+
+        List<Object[]> result = aggregator.aggregate(new VoidProgressMonitor(), rows);
+        Assert.assertNotNull(result);
+        Assert.assertEquals(3, result.size());
+        // Groups are returned in order of appearance
+        Assert.assertArrayEquals(
+            new Object[]{"a", 3L, 2L, 2L, 4L, new BigDecimal("1.75"), new BigDecimal("2.25")}, result.get(0));
+        Assert.assertArrayEquals(
+            new Object[]{"b", 1L, 1L, 0L, 2L, null, null}, result.get(1));
+        Assert.assertArrayEquals(
+            new Object[]{null, 2L, 2L, 1L, 9L, new BigDecimal("1.00"), new BigDecimal("1.00")}, result.get(2));
+
+        aggregator.setDuplicatesOnly(true);
+        result = aggregator.aggregate(new VoidProgressMonitor(), rows);
+        Assert.assertNotNull(result);
+        Assert.assertEquals(2, result.size());
+    }
+
+    @Test
+    public void parallelAggregationMatchesSequential() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < GroupingLocalAggregator.PARALLEL_GROUPING_THRESHOLD * 3; i++) {
+            rows.add(new Object[]{"name" + (i % 101), i % 13 == 0 ? null : (long) i, i * 0.5d});
+        }
+        GroupingLocalAggregator<Object[]> aggregator = new GroupingLocalAggregator<>();
+        aggregator.addGroupAttribute(row -> row[0]);
+        Assert.assertTrue(aggregator.addFunction("COUNT(*)", GroupingLocalAggregatorTest::resolveColumn));
+        Assert.assertTrue(aggregator.addFunction("SUM(amount)", GroupingLocalAggregatorTest::resolveColumn));
+        Assert.assertTrue(aggregator.addFunction("MIN(amount)", GroupingLocalAggregatorTest::resolveColumn));
+
+        List<Object[]> result = aggregator.aggregate(new VoidProgressMonitor(), rows);
+        Assert.assertNotNull(result);
+        Assert.assertEquals(101, result.size());
+        for (int group = 0; group < result.size(); group++) {
+            Object[] resultRow = result.get(group);
+            Assert.assertEquals("name" + group, resultRow[0]);
+            long count = 0, sum = 0;
+            Long min = null;
+            for (int i = group; i < rows.size(); i += 101) {
+                count++;
+                if (i % 13 != 0) {
+                    sum += i;
+                    min = min == null ? i : Math.min(min, i);
+                }
+            }
+            Assert.assertEquals(count, resultRow[1]);
+            Assert.assertEquals(sum, resultRow[2]);
+            Assert.assertEquals(min, resultRow[3]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonNumericSumIsRejected() {
+        GroupingLocalAggregator<Object[]> aggregator = new GroupingLocalAggregator<>();
+        aggregator.addGroupAttribute(row -> row[1]);
+        Assert.assertTrue(aggregator.addFunction("SUM(name)", GroupingLocalAggregatorTest::resolveColumn));
+        aggregator.aggregate(new VoidProgressMonitor(), List.<Object[]>of(new Object[]{"a", 1, null}));
+    }
+
+    @Test
+    public void localGroupingIsCalculatedOnce() {
+        int[] readCount = new int[1];
+        GroupingLocalAggregator<Object[]> aggregator = new GroupingLocalAggregator<>();
+        aggregator.addGroupAttribute(row -> {
+            readCount[0]++;
+            return row[0];
+        });
+        Assert.assertTrue(aggregator.addFunction("COUNT(*)", GroupingLocalAggregatorTest::resolveColumn));
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rows.add(new Object[]{i % 3 == 0 ? "x" : "y"});
+        }
+        GroupingDataContainer.LocalGrouping grouping = new GroupingDataContainer.LocalGrouping(
+            aggregator, rows, new String[]{"NAME", "COUNT"}, new DBSTypedObject[2]);
+        Comparator<Object[]> byCount = Comparator.comparing(row -> (Long) row[1]);
+
+        List<Object[]> groups = grouping.getGroups(new VoidProgressMonitor(), "", (o1, o2) -> 0);
+        Assert.assertNotNull(groups);
+        Assert.assertEquals("x", groups.get(0)[0]);
+        Assert.assertSame(groups, grouping.getGroups(new VoidProgressMonitor(), "", (o1, o2) -> 0));
+        List<Object[]> sorted = grouping.getGroups(new VoidProgressMonitor(), "1 DESC,", byCount.reversed());
+        Assert.assertNotNull(sorted);
+        Assert.assertEquals("y", sorted.get(0)[0]);
+        Assert.assertEquals(66L, sorted.get(0)[1]);
+        // Original order is restored
+        Assert.assertEquals("x", grouping.getGroups(new VoidProgressMonitor(), "", (o1, o2) -> 0).get(0)[0]);
+        Assert.assertEquals(100, readCount[0]);
+    }
+}
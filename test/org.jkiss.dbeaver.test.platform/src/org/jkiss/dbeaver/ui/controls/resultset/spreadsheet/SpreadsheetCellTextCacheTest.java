@@ -0,0 +1,61 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.spreadsheet;
+
+import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+public class SpreadsheetCellTextCacheTest {
+
+    @Test
+    public void changedValueInvalidatesText() {
+        SpreadsheetCellTextCache cache = new SpreadsheetCellTextCache(100);
+        Object row = new Object();
+        Object attr = new Object();
+        cache.putText(row, attr, DBDDisplayFormat.UI, new BigDecimal("1.50"), "1.5");
+        Assert.assertEquals("1.5", cache.getText(row, attr, DBDDisplayFormat.UI, new BigDecimal("1.50")));
+        Assert.assertNull(cache.getText(row, attr, DBDDisplayFormat.UI, new BigDecimal("2")));
+        Assert.assertNull(cache.getText(row, attr, DBDDisplayFormat.NATIVE, new BigDecimal("1.50")));
+        Assert.assertNull(cache.getText(new Object(), attr, DBDDisplayFormat.UI, new BigDecimal("1.50")));
+
+        Timestamp ts = new Timestamp(1000);
+        cache.putText(row, attr, DBDDisplayFormat.UI, ts, "1970");
+        Assert.assertEquals("1970", cache.getText(row, attr, DBDDisplayFormat.UI, ts));
+        ts.setTime(2000);
+        Assert.assertNull(cache.getText(row, attr, DBDDisplayFormat.UI, ts));
+    }
+
+    @Test
+    public void leastRecentlyUsedTextIsEvicted() {
+        SpreadsheetCellTextCache cache = new SpreadsheetCellTextCache(2);
+        Object attr = new Object();
+        Object row1 = new Object(), row2 = new Object(), row3 = new Object();
+        cache.putText(row1, attr, DBDDisplayFormat.UI, 1, "1");
+        cache.putText(row2, attr, DBDDisplayFormat.UI, 2, "2");
+        Assert.assertEquals("1", cache.getText(row1, attr, DBDDisplayFormat.UI, 1));
+        cache.putText(row3, attr, DBDDisplayFormat.UI, 3, "3");
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals("1", cache.getText(row1, attr, DBDDisplayFormat.UI, 1));
+        Assert.assertNull(cache.getText(row2, attr, DBDDisplayFormat.UI, 2));
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.spreadsheet;
+
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SpreadsheetCopyFormatterTest {
+
+    private static SpreadsheetCopyFormatter<String> createFormatter(int columnCount, boolean copyHTML) {
+        return new SpreadsheetCopyFormatter<>(
+            columnCount, "\t", "\n", "\"", true, false, copyHTML,
+            (attribute, value) -> value == null ? "[NULL]" : attribute + "=" + value);
+    }
+
+    @Test
+    public void formatSparseSelection() {
+        SpreadsheetCopyFormatter<String> formatter = createFormatter(3, true);
+        formatter.setHeader(new String[]{"a", "b", "c"}, true);
+        List<SpreadsheetCopyFormatter.CopyRow<String>> rows = List.of(
+            new SpreadsheetCopyFormatter.CopyRow<>("1", new int[]{0, 2}, new String[]{"a", "c"}, new Object[]{1, "x\ty"}),
+            new SpreadsheetCopyFormatter.CopyRow<>("2", new int[]{1}, new String[]{"b"}, new Object[]{null})
+        );
+        SpreadsheetCopyFormatter.CopyText copyText = formatter.formatText(new VoidProgressMonitor(), rows);
+        Assert.assertNotNull(copyText);
+        Assert.assertEquals("#\ta\tb\tc\n1\ta=1\t\t\"c=x\ty\"\n2\t\t[NULL]\t", copyText.text());
+        Assert.assertEquals(
+            "<table border=\"1\"><thead><th>#</th><th>a</th><th>b</th><th>c</th></thead>\n<tbody>" +
+                "<tr><td>1</td><td>a=1</td> <td></td><td>\"c=x\ty\"</td> </tr>\n" +
+                "<tr><td>2</td><td></td><td>[NULL]</td> <td></td></tr>\n" +
+                "</tbody>\n</table>\n",
+            copyText.html());
+    }
+
+    @Test
+    public void parallelFormatKeepsRowOrder() throws Exception {
+        List<SpreadsheetCopyFormatter.CopyRow<String>> rows = new ArrayList<>();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < SpreadsheetCopyFormatter.PARALLEL_COPY_THRESHOLD * 2; i++) {
+            rows.add(new SpreadsheetCopyFormatter.CopyRow<>(null, new int[]{0, 1}, new String[]{"id", "name"}, new Object[]{i, "n" + i}));
+            if (i > 0) {
+                expected.append("\n");
+            }
+            expected.append("id=").append(i).append("\tname=n").append(i);
+        }
+        SpreadsheetCopyFormatter<String> formatter = createFormatter(2, false);
+        SpreadsheetCopyFormatter.CopyText copyText = formatter.formatText(new VoidProgressMonitor(), rows);
+        Assert.assertNotNull(copyText);
+        Assert.assertNull(copyText.html());
+        Assert.assertEquals(expected.toString(), copyText.text());
+
+        StringWriter writer = new StringWriter();
+        Assert.assertTrue(formatter.writeText(new VoidProgressMonitor(), rows, writer));
+        Assert.assertEquals(expected.toString(), writer.toString());
+
+        long estimated = formatter.estimateTextLength(rows);
+        Assert.assertTrue(estimated > expected.length() / 2 && estimated < expected.length() * 2L);
+    }
+}